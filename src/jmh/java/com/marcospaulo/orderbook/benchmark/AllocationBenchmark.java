@@ -0,0 +1,103 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderBookLayout;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+import com.marcospaulo.orderbook.domain.policy.AllocationPolicy;
+import com.marcospaulo.orderbook.domain.policy.RestingOrderPricingPolicy;
+import com.marcospaulo.orderbook.domain.policy.SelfTradePrevention;
+import com.marcospaulo.orderbook.domain.service.OrderMatchingEngine;
+
+/**
+ * Alocação num nível com {@code orders} ordens em repouso.
+ *
+ * {@code allocate} é só a política sobre os arrays do nível. {@code match} é
+ * um BUY de {@code orders} lotes (um por ordem, em média) contra o nível,
+ * pelo engine: cópia do nível, alocação e fills. As ordens em repouso são
+ * grandes o bastante para o nível nunca esvaziar. Em FIFO a mesma quantidade
+ * sai toda da primeira ordem, então é a referência do custo fixo do match.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AllocationBenchmark {
+
+    private static final long RESTING_QTY = 1_000_000_000_000L;
+
+    @Param({ "FIFO", "PRO_RATA", "FIFO_TOP_PRO_RATA" })
+    String policy;
+
+    @Param({ "10", "1000", "10000" })
+    int orders;
+
+    @Param({ "TICK_LADDER" })
+    OrderBookLayout layout;
+
+    private AllocationPolicy allocation;
+    private long[] visible;
+    private long[] fills;
+    private long total;
+
+    private OrderBook book;
+    private OrderMatchingEngine engine;
+    private UserId taker;
+    private Price price;
+    private long filled;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        allocation = AllocationPolicy.named(policy);
+        visible = new long[orders];
+        fills = new long[orders];
+        total = 0;
+        for (int i = 0; i < orders; i++) {
+            visible[i] = 1 + (i * 7919L) % 1000;
+            total += visible[i];
+        }
+
+        book = new OrderBook(layout);
+        engine = new OrderMatchingEngine(new RestingOrderPricingPolicy(), SelfTradePrevention.NONE, allocation);
+        UserId maker = UserId.of(UUID.randomUUID());
+        taker = UserId.of(UUID.randomUUID());
+        price = Price.ofTicks(10_000);
+        for (int i = 0; i < orders; i++) {
+            book.add(Order.create(maker, Side.SELL, price, Quantity.ofPositive(RESTING_QTY + i)));
+        }
+    }
+
+    @Benchmark
+    public long[] allocate() {
+        allocation.allocate(orders, visible, orders, total, fills);
+        return fills;
+    }
+
+    @Benchmark
+    public long match() {
+        Order incoming = Order.create(taker, Side.BUY, price, Quantity.ofPositive(orders));
+        int count = engine.match(incoming, book, (in, resting, p, qty) -> filled += qty.value());
+        return count + filled;
+    }
+}
@@ -0,0 +1,149 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.Command;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderResult;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.application.service.EngineOptions;
+import com.marcospaulo.orderbook.application.service.IngressType;
+import com.marcospaulo.orderbook.application.service.OrderBookCommandEngine;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Ponta a ponta: {@link OrderBookCommandEngine#submit} até o future completar,
+ * com 1/4/16 produtores em loop fechado.
+ *
+ * {@code noop} mede só a ingestão; {@code placeAndCancel} coloca um BUY que
+ * não cruza e o cancela, o que mantém livro e saldos estáveis.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandEngineBenchmark {
+
+    private static final Command<Integer> NOOP = ctx -> 0;
+
+    @State(Scope.Benchmark)
+    public static class EngineState {
+
+        @Param({ "BLOCKING_QUEUE", "RING_BUFFER" })
+        IngressType ingress;
+
+        @Param({ "1", "64" })
+        int batchSize;
+
+        CommandContext context;
+        InMemoryWalletRepository wallets;
+        OrderBookCommandEngine engine;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            wallets = new InMemoryWalletRepository();
+            context = new CommandContext(
+                    new InMemoryOrderBookRepository(),
+                    wallets,
+                    new InMemoryTradeRepository(),
+                    new InMemoryOrderRepository());
+            engine = new OrderBookCommandEngine(context, EngineOptions.of(1 << 16)
+                    .withIngress(ingress)
+                    .withBatchSize(batchSize));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            engine.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class UserState {
+
+        UserId userId;
+        Price price;
+        Quantity qty;
+
+        @Setup(Level.Trial)
+        public void setup(EngineState state) {
+            userId = UserId.of(UUID.randomUUID());
+            state.wallets.save(Wallet.create(userId, new BigDecimal("1000000.00"), BigDecimal.ZERO));
+            price = Price.of(new BigDecimal("10.00"));
+            qty = Quantity.ofPositive(1);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Integer noop_1(EngineState state) {
+        return state.engine.submit(NOOP).join();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer noop_4(EngineState state) {
+        return state.engine.submit(NOOP).join();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Integer noop_16(EngineState state) {
+        return state.engine.submit(NOOP).join();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object placeAndCancel_1(EngineState state, UserState user) {
+        return placeAndCancel(state, user);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object placeAndCancel_4(EngineState state, UserState user) {
+        return placeAndCancel(state, user);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Object placeAndCancel_16(EngineState state, UserState user) {
+        return placeAndCancel(state, user);
+    }
+
+    private static Object placeAndCancel(EngineState state, UserState user) {
+        PlaceOrderResult placed = state.engine
+                .submit(new PlaceOrderCommand(user.userId, Side.BUY, user.price, user.qty))
+                .join();
+        return state.engine
+                .submit(new CancelOrderCommand(user.userId, OrderId.fromString(placed.orderId())))
+                .join();
+    }
+}
@@ -0,0 +1,155 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.marcospaulo.orderbook.OrderbookApplication;
+import com.marcospaulo.orderbook.adapters.in.binary.BinaryOrderClient;
+import com.marcospaulo.orderbook.adapters.in.binary.BinaryOrderGateway;
+import com.marcospaulo.orderbook.application.command.FundWalletCommand;
+import com.marcospaulo.orderbook.application.service.InstrumentRouter;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Round-trip de colocar e cancelar uma ordem (BUY que não cruza) pelo gateway
+ * binário e pelo REST, contra a mesma aplicação Spring em processo e o mesmo
+ * engine. A diferença entre os dois é o custo de HTTP + JSON + Spring MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayLatencyBenchmark {
+
+    private static final long PRICE_TICKS = 1_000;
+
+    private ConfigurableApplicationContext app;
+    private BinaryOrderClient binary;
+    private HttpClient http;
+    private URI orders;
+    private UUID user;
+    private String placeBody;
+    private final Ack ack = new Ack();
+    private long clOrdId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        app = SpringApplication.run(OrderbookApplication.class,
+                "--server.port=0",
+                "--orderbook.gateway.port=0",
+                "--logging.level.root=WARN");
+        InstrumentRouter router = app.getBean(InstrumentRouter.class);
+        user = UUID.randomUUID();
+        router.submit(Instrument.DEFAULT.symbol(),
+                new FundWalletCommand(UserId.of(user), new BigDecimal("1000000000.00"), BigDecimal.ZERO)).join();
+
+        int gatewayPort = app.getBean(BinaryOrderGateway.class).port();
+        binary = BinaryOrderClient.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), gatewayPort));
+
+        int httpPort = ((WebServerApplicationContext) app).getWebServer().getPort();
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        orders = URI.create("http://127.0.0.1:" + httpPort + "/orders");
+        placeBody = "{\"userId\":\"" + user + "\",\"side\":\"BUY\",\"price\":10.00,\"quantity\":1}";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        binary.close();
+        app.close();
+    }
+
+    @Benchmark
+    public long binaryPlaceAndCancel() {
+        binary.sendNewOrder(++clOrdId, user, 0, Side.BUY.ordinal(), PRICE_TICKS, 1);
+        ack.await(binary);
+        binary.sendCancel(++clOrdId, user, 0, ack.orderMsb, ack.orderLsb);
+        ack.await(binary);
+        return ack.value;
+    }
+
+    @Benchmark
+    public int restPlaceAndCancel() throws IOException, InterruptedException {
+        HttpResponse<String> placed = http.send(HttpRequest.newBuilder(orders)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(placeBody))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        String orderId = field(placed.body(), "orderId");
+        HttpResponse<String> cancelled = http.send(HttpRequest.newBuilder(
+                URI.create(orders + "/" + orderId + "?userId=" + user))
+                .DELETE()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        return cancelled.statusCode();
+    }
+
+    private static String field(String json, String name) {
+        int start = json.indexOf('"', json.indexOf("\"" + name + "\"") + name.length() + 3) + 1;
+        return json.substring(start, json.indexOf('"', start));
+    }
+
+    /**
+     * Guarda a última resposta: ACK (id da ordem) ou CANCELLED.
+     */
+    private static final class Ack implements BinaryOrderClient.Listener {
+        long orderMsb;
+        long orderLsb;
+        long value;
+        boolean done;
+
+        void await(BinaryOrderClient client) {
+            done = false;
+            while (!done)
+                client.poll(this);
+        }
+
+        @Override
+        public void onAck(long clOrdId, long orderMsb, long orderLsb, int trades) {
+            this.orderMsb = orderMsb;
+            this.orderLsb = orderLsb;
+            this.value = trades;
+            done = true;
+        }
+
+        @Override
+        public void onFill(long clOrdId, long tradeMsb, long tradeLsb, long priceTicks, long quantity) {
+        }
+
+        @Override
+        public void onCancelled(long clOrdId, long orderMsb, long orderLsb, long cancelledQty) {
+            this.value = cancelledQty;
+            done = true;
+        }
+
+        @Override
+        public void onReject(long clOrdId, byte reason) {
+            throw new IllegalStateException("rejected: " + reason);
+        }
+    }
+}
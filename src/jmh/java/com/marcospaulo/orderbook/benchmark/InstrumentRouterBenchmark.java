@@ -0,0 +1,110 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.DepositCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderResult;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.application.service.EngineOptions;
+import com.marcospaulo.orderbook.application.service.InstrumentRouter;
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Escala com o número de instrumentos: 8 produtores fazendo place+cancel,
+ * distribuídos entre 1, 2, 4 ou 8 instrumentos (um writer cada). Com mais
+ * núcleos que instrumentos, o throughput agregado deve crescer quase
+ * linearmente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstrumentRouterBenchmark {
+
+    @Param({ "1", "2", "4", "8" })
+    int instruments;
+
+    InstrumentRouter router;
+    List<String> symbols;
+    final AtomicInteger nextProducer = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<Instrument> list = new ArrayList<>();
+        for (int i = 0; i < instruments; i++) {
+            list.add(new Instrument("SYM" + i, Asset.of("BASE" + i, 2), Asset.CASH));
+        }
+        router = InstrumentRouter.start(list,
+                instrument -> new CommandContext(instrument, new InMemoryOrderBookRepository(),
+                        new InMemoryWalletRepository(), new InMemoryTradeRepository(), new InMemoryOrderRepository()),
+                instrument -> EngineOptions.of(1 << 14).withBatchSize(64));
+        symbols = list.stream().map(Instrument::symbol).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        router.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+
+        String symbol;
+        UserId userId;
+        Price price;
+        Quantity qty;
+
+        @Setup(Level.Trial)
+        public void setup(InstrumentRouterBenchmark bench) {
+            symbol = bench.symbols.get(bench.nextProducer.getAndIncrement() % bench.symbols.size());
+            userId = UserId.of(UUID.randomUUID());
+            bench.router.submit(symbol, new DepositCommand(userId, Asset.CASH, new BigDecimal("1000000.00")))
+                    .join();
+            price = Price.of("10.00");
+            qty = Quantity.ofPositive(1);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object placeAndCancel(Producer p) {
+        PlaceOrderResult placed = router.submit(p.symbol, new PlaceOrderCommand(p.userId, Side.BUY, p.price, p.qty))
+                .join();
+        return router.submit(p.symbol, new CancelOrderCommand(p.userId, OrderId.fromString(placed.orderId())))
+                .join();
+    }
+}
@@ -0,0 +1,103 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderBookLayout;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+import com.marcospaulo.orderbook.domain.policy.RestingOrderPricingPolicy;
+import com.marcospaulo.orderbook.domain.service.OrderMatchingEngine;
+
+/**
+ * {@link OrderMatchingEngine#matchIncoming} (lista de trades) e
+ * {@link OrderMatchingEngine#match} (fills num sink) contra livros de
+ * profundidade variável. Cada operação é um BUY que varre {@code levelsSwept} níveis
+ * inteiros de asks, seguido da reposição desses níveis, então a profundidade
+ * fica constante entre operações.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchingBenchmark {
+
+    private static final long QTY_PER_LEVEL = 10;
+    private static final long FIRST_TICK = 10_000;
+
+    @Param({ "10", "100", "1000" })
+    int depth;
+
+    @Param({ "1", "5" })
+    int levelsSwept;
+
+    @Param({ "TREE", "TICK_LADDER" })
+    OrderBookLayout layout;
+
+    private OrderBook book;
+    private OrderMatchingEngine engine;
+    private UserId maker;
+    private UserId taker;
+    private Price[] prices;
+    private long filled;
+
+    @Setup
+    public void setup() {
+        book = new OrderBook(layout);
+        engine = new OrderMatchingEngine(new RestingOrderPricingPolicy());
+        maker = UserId.of(UUID.randomUUID());
+        taker = UserId.of(UUID.randomUUID());
+
+        prices = new Price[depth];
+        for (int i = 0; i < depth; i++) {
+            prices[i] = Price.ofTicks(FIRST_TICK + i);
+            book.add(Order.create(maker, Side.SELL, prices[i], Quantity.ofPositive(QTY_PER_LEVEL)));
+        }
+    }
+
+    @Benchmark
+    public List<Trade> matchIncoming() {
+        Order incoming = Order.create(taker, Side.BUY, prices[levelsSwept - 1],
+                Quantity.ofPositive(QTY_PER_LEVEL * levelsSwept));
+
+        List<Trade> trades = engine.matchIncoming(incoming, book);
+
+        for (int i = 0; i < levelsSwept; i++) {
+            book.add(Order.create(maker, Side.SELL, prices[i], Quantity.ofPositive(QTY_PER_LEVEL)));
+        }
+        return trades;
+    }
+
+    @Benchmark
+    public long matchWithSink() {
+        Order incoming = Order.create(taker, Side.BUY, prices[levelsSwept - 1],
+                Quantity.ofPositive(QTY_PER_LEVEL * levelsSwept));
+
+        int fills = engine.match(incoming, book, (in, resting, price, qty) -> filled += qty.value());
+
+        for (int i = 0; i < levelsSwept; i++) {
+            book.add(Order.create(maker, Side.SELL, prices[i], Quantity.ofPositive(QTY_PER_LEVEL)));
+        }
+        return fills + filled;
+    }
+}
@@ -0,0 +1,100 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderBookLayout;
+import com.marcospaulo.orderbook.domain.model.OrderBookSide;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Operações de {@link OrderBookSide} isoladas do matching. As ordens são
+ * pré-alocadas, então o que se mede é a estrutura de níveis.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBookSideBenchmark {
+
+    private static final int ORDERS_PER_LEVEL = 4;
+    private static final int EXTRA_ORDERS = 1 << 12;
+
+    @Param({ "10", "1000" })
+    int depth;
+
+    @Param({ "TREE", "TICK_LADDER" })
+    OrderBookLayout layout;
+
+    private OrderBookSide asks;
+    private Order[] extra;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        asks = new OrderBook(layout).asks();
+        UserId user = UserId.of(UUID.randomUUID());
+
+        for (int i = 0; i < depth; i++) {
+            for (int j = 0; j < ORDERS_PER_LEVEL; j++) {
+                asks.add(Order.create(user, Side.SELL, Price.ofTicks(10_000 + i), Quantity.ofPositive(1)));
+            }
+        }
+
+        // ordens fora do livro, espalhadas pelos níveis existentes
+        extra = new Order[EXTRA_ORDERS];
+        for (int i = 0; i < EXTRA_ORDERS; i++) {
+            long tick = 10_000 + (i * 7919L) % depth;
+            extra[i] = Order.create(user, Side.SELL, Price.ofTicks(tick), Quantity.ofPositive(1));
+        }
+    }
+
+    /**
+     * Tira a melhor ordem e a devolve no fim do seu nível.
+     */
+    @Benchmark
+    public Order pollBestThenAdd() {
+        Order o = asks.pollBestOrder().orElseThrow();
+        asks.add(o);
+        return o;
+    }
+
+    /**
+     * Padrão do matching com execução parcial: tira do topo e devolve à frente.
+     */
+    @Benchmark
+    public Order pollBestThenPutBack() {
+        Order o = asks.pollBestOrder().orElseThrow();
+        asks.putBackAtFront(o);
+        return o;
+    }
+
+    /**
+     * Entra num nível qualquer e é cancelada pelo id.
+     */
+    @Benchmark
+    public Order addThenCancel() {
+        Order o = extra[cursor++ & (EXTRA_ORDERS - 1)];
+        asks.add(o);
+        return asks.remove(o.id()).orElseThrow();
+    }
+}
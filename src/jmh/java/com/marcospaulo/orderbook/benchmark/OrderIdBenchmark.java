@@ -0,0 +1,167 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+import com.marcospaulo.orderbook.domain.service.SequentialIdGenerator;
+
+/**
+ * Ids de ordem com {@code orders} ordens no repositório: o esquema antigo
+ * ({@code UUID.randomUUID()} num {@code ConcurrentHashMap} com chave
+ * {@code OrderId → UUID}) contra o atual (sequência de 64 bits do writer no
+ * mapa de {@code long} do {@link InMemoryOrderRepository}).
+ *
+ * {@code newId} e {@code lookup} são o custo por ordem no caminho quente;
+ * {@code fill} insere {@code orders} ordens num repositório vazio (tempo por
+ * ordem) e imprime o heap retido por ordem: índice, chave e uma {@link Order}
+ * mínima por entrada nos dois esquemas.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class OrderIdBenchmark {
+
+    public enum Scheme {
+        UUID, SEQUENTIAL
+    }
+
+    /**
+     * O {@code OrderId} de antes: um wrapper de UUID.
+     */
+    private record UuidOrderId(UUID value) {
+    }
+
+    @Param({ "UUID", "SEQUENTIAL" })
+    Scheme scheme;
+
+    @Param({ "10000000" })
+    int orders;
+
+    private Order order;
+    private SequentialIdGenerator ids;
+    private ConcurrentHashMap<UuidOrderId, Order> uuidStore;
+    private InMemoryOrderRepository longStore;
+    private UuidOrderId[] uuidKeys;
+    private long[] longKeys;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        order = Order.create(OrderId.of(1), UserId.of(UUID.randomUUID()), Side.BUY, Price.ofTicks(1_000),
+                Quantity.ofPositive(1), Instant.EPOCH);
+        ids = new SequentialIdGenerator(0);
+        if (scheme == Scheme.UUID) {
+            uuidStore = new ConcurrentHashMap<>();
+            uuidKeys = new UuidOrderId[orders];
+            for (int i = 0; i < orders; i++) {
+                uuidKeys[i] = new UuidOrderId(UUID.randomUUID());
+                uuidStore.put(uuidKeys[i], copy(OrderId.of(i + 1)));
+            }
+        } else {
+            longStore = new InMemoryOrderRepository();
+            longKeys = new long[orders];
+            for (int i = 0; i < orders; i++) {
+                OrderId id = ids.nextOrderId();
+                longKeys[i] = id.value();
+                longStore.save(copy(id));
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object newId() {
+        return scheme == Scheme.UUID ? new UuidOrderId(UUID.randomUUID()) : ids.nextOrderId();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object lookup() {
+        int i = random.nextInt(orders);
+        if (scheme == Scheme.UUID)
+            return uuidStore.get(new UuidOrderId(uuidKeys[i].value()));
+        return longStore.findById(OrderId.of(longKeys[i])).orElse(null);
+    }
+
+    @State(Scope.Thread)
+    public static class Fill {
+        ConcurrentHashMap<UuidOrderId, Order> uuidStore;
+        InMemoryOrderRepository longStore;
+        long heapBefore;
+
+        @Setup(Level.Iteration)
+        public void setup(OrderIdBenchmark b) {
+            uuidStore = null;
+            longStore = null;
+            heapBefore = usedHeap();
+            if (b.scheme == Scheme.UUID)
+                uuidStore = new ConcurrentHashMap<>();
+            else
+                longStore = new InMemoryOrderRepository();
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown(OrderIdBenchmark b) {
+            long retained = usedHeap() - heapBefore;
+            System.out.printf("%n%s: %.1f bytes/order retained by %d ids%n", b.scheme,
+                    (double) retained / b.orders, b.orders);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    @OperationsPerInvocation(10_000_000)
+    public Object fill(Fill fill) {
+        if (scheme == Scheme.UUID) {
+            for (int i = 0; i < orders; i++)
+                fill.uuidStore.put(new UuidOrderId(UUID.randomUUID()), copy(OrderId.of(i + 1)));
+            return fill.uuidStore;
+        }
+        SequentialIdGenerator fresh = new SequentialIdGenerator(1);
+        for (int i = 0; i < orders; i++)
+            fill.longStore.save(copy(fresh.nextOrderId()));
+        return fill.longStore;
+    }
+
+    private Order copy(OrderId id) {
+        return Order.create(id, order.userId(), Side.BUY, order.price(), order.originalQty(), Instant.EPOCH);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,111 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderResult;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderBookLayout;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * {@link PlaceOrderCommand#execute} direto no contexto, sem o engine, para
+ * medir alocação por ordem com {@code -prof gc} ({@code gc.alloc.rate.norm}).
+ *
+ * Os comandos são criados no setup de cada iteração, então só o caminho de
+ * execução entra na conta. {@code restingBuy} não cruza (o livro cresce
+ * {@value #BATCH} ordens por iteração); {@code crossingPair} coloca um SELL e
+ * um BUY que o executa inteiro.
+ *
+ * Com {@code marketData}, o gravador de market data fica ligado ao livro e é
+ * drenado depois de cada comando, como o engine faz com um publisher.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = PlaceOrderBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = PlaceOrderBenchmark.BATCH)
+@Fork(1)
+public class PlaceOrderBenchmark {
+
+    static final int BATCH = 100_000;
+
+    @Param({ "TREE", "TICK_LADDER" })
+    OrderBookLayout layout;
+
+    @Param({ "false", "true" })
+    boolean marketData;
+
+    private CommandContext context;
+    private PlaceOrderCommand[] bids;
+    private PlaceOrderCommand[] sells;
+    private PlaceOrderCommand[] buys;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        InMemoryOrderBookRepository books = new InMemoryOrderBookRepository();
+        OrderBook book = new OrderBook(layout);
+        books.save(book);
+        InMemoryWalletRepository wallets = new InMemoryWalletRepository();
+        context = new CommandContext(books, wallets, new InMemoryTradeRepository(), new InMemoryOrderRepository());
+
+        UserId buyer = UserId.of(UUID.randomUUID());
+        UserId seller = UserId.of(UUID.randomUUID());
+        wallets.save(Wallet.create(buyer, new BigDecimal("1000000000.00"), BigDecimal.ZERO));
+        wallets.save(Wallet.create(seller, BigDecimal.ZERO, new BigDecimal("100000000")));
+
+        Quantity one = Quantity.ofPositive(1);
+        Price cross = Price.ofTicks(2_000);
+        bids = new PlaceOrderCommand[BATCH];
+        sells = new PlaceOrderCommand[BATCH];
+        buys = new PlaceOrderCommand[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            bids[i] = new PlaceOrderCommand(buyer, Side.BUY, Price.ofTicks(100 + i % 500), one);
+            sells[i] = new PlaceOrderCommand(seller, Side.SELL, cross, one);
+            buys[i] = new PlaceOrderCommand(buyer, Side.BUY, cross, one);
+        }
+        if (marketData)
+            context.marketData().attach(book);
+        next = 0;
+    }
+
+    @Benchmark
+    public Object restingBuy() {
+        PlaceOrderResult r = bids[next++].execute(context);
+        return marketData ? context.marketData().drain() : r;
+    }
+
+    @Benchmark
+    public Object crossingPair() {
+        sells[next].execute(context);
+        if (marketData)
+            context.marketData().drain();
+        PlaceOrderResult r = buys[next++].execute(context);
+        return marketData ? context.marketData().drain() : r;
+    }
+}
@@ -0,0 +1,134 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.adapters.out.journal.FileCommandRecorder;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.FundWalletCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.application.replay.CommandRecording;
+import com.marcospaulo.orderbook.application.replay.CommandReplay;
+import com.marcospaulo.orderbook.application.replay.RecordingClock;
+import com.marcospaulo.orderbook.application.replay.ReplayReport;
+import com.marcospaulo.orderbook.application.service.EngineOptions;
+import com.marcospaulo.orderbook.application.service.OrderBookCommandEngine;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+import com.marcospaulo.orderbook.domain.service.SequentialIdGenerator;
+
+/**
+ * Replay de uma gravação inteira, do primeiro comando ao último future.
+ *
+ * Com {@code recording} vazio, grava antes uma sessão sintética (BUY/SELL
+ * aleatórios em volta de 10.00, parte deles cruzando); com um caminho, usa a
+ * gravação da produção ({@code orderbook.recording.file}), que é o número que
+ * interessa. Cada operação é um replay completo; comandos/s = tamanho da
+ * gravação / tempo médio.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplayBenchmark {
+
+    @Param({ "" })
+    String recording;
+
+    @Param({ "200000" })
+    int syntheticCommands;
+
+    @Param({ "64" })
+    int batchSize;
+
+    private CommandRecording loaded;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Path file;
+        if (recording.isBlank()) {
+            file = Files.createTempFile("orderbook-replay", ".rec");
+            file.toFile().deleteOnExit();
+            recordSynthetic(file, syntheticCommands);
+        } else {
+            file = Path.of(recording);
+        }
+        loaded = FileCommandRecorder.read(file);
+    }
+
+    @Benchmark
+    public ReplayReport replay() {
+        CommandContext target = new CommandContext(
+                Instrument.DEFAULT,
+                new InMemoryOrderBookRepository(),
+                new InMemoryWalletRepository(),
+                new InMemoryTradeRepository(),
+                new InMemoryOrderRepository(),
+                loaded.ids(),
+                loaded.clock());
+        ReplayReport report = CommandReplay.run(loaded, target,
+                EngineOptions.of(1 << 16).withBatchSize(batchSize));
+        if (report.unusedClockReads() != 0)
+            throw new IllegalStateException("replay diverged: " + report);
+        return report;
+    }
+
+    private static void recordSynthetic(Path file, int commands) {
+        FileCommandRecorder recorder = FileCommandRecorder.create(file);
+        CommandContext live = new CommandContext(
+                Instrument.DEFAULT,
+                new InMemoryOrderBookRepository(),
+                new InMemoryWalletRepository(),
+                new InMemoryTradeRepository(),
+                new InMemoryOrderRepository(),
+                new SequentialIdGenerator(0),
+                new RecordingClock(Clock.systemUTC(), recorder));
+
+        UserId[] users = new UserId[64];
+        SplittableRandom random = new SplittableRandom(42);
+        try (var engine = new OrderBookCommandEngine(live, EngineOptions.of(1 << 16).withRecorder(recorder))) {
+            for (int i = 0; i < users.length; i++) {
+                users[i] = UserId.of(UUID.randomUUID());
+                engine.submit(new FundWalletCommand(users[i], new BigDecimal("1000000000.00"),
+                        BigDecimal.valueOf(100_000_000))).join();
+            }
+            for (int i = 0; i < commands; i++) {
+                Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+                long offset = random.nextInt(-20, 11);
+                long ticks = side == Side.BUY ? 1_000 + offset : 1_000 - offset;
+                engine.submit(new PlaceOrderCommand(users[random.nextInt(users.length)], side,
+                        Price.ofTicks(ticks), Quantity.ofPositive(1 + random.nextInt(10))));
+                if ((i & 1023) == 1023)
+                    engine.submit(c -> null).join(); // não estoura a fila do engine
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.Command;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderResult;
+import com.marcospaulo.orderbook.application.exception.BackpressureException;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.application.service.AdmissionControl;
+import com.marcospaulo.orderbook.application.service.EngineOptions;
+import com.marcospaulo.orderbook.application.service.OrderBookCommandEngine;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Carga de handlers que bloqueiam no future do engine, como um controller
+ * síncrono: uma rajada de {@code connections} requisições simultâneas, cada
+ * uma em sua thread, passando por {@link AdmissionControl}.
+ *
+ * {@code PLATFORM} é um pool fixo de 200 threads (o máximo padrão do Tomcat);
+ * {@code VIRTUAL} é uma virtual thread por requisição, como com
+ * {@code spring.threads.virtual.enabled=true}. O tempo é o da rajada inteira;
+ * {@code walletRead} é a leitura de carteira pela fila e
+ * {@code placeAndCancel} coloca um BUY que não cruza e o cancela.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RequestHandlingBenchmark {
+
+    static final int PLATFORM_THREADS = 200;
+    static final int USERS = 1_000;
+
+    public enum Threading {
+        PLATFORM, VIRTUAL
+    }
+
+    @Param({ "PLATFORM", "VIRTUAL" })
+    Threading threading;
+
+    @Param({ "1000", "10000" })
+    int connections;
+
+    private OrderBookCommandEngine engine;
+    private AdmissionControl admission;
+    private ExecutorService handlers;
+    private UserId[] users;
+    private final Price price = Price.of(new BigDecimal("10.00"));
+    private final Quantity qty = Quantity.ofPositive(1);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InMemoryWalletRepository wallets = new InMemoryWalletRepository();
+        CommandContext context = new CommandContext(new InMemoryOrderBookRepository(), wallets,
+                new InMemoryTradeRepository(), new InMemoryOrderRepository());
+        users = new UserId[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = UserId.of(UUID.randomUUID());
+            wallets.save(Wallet.create(users[i], new BigDecimal("1000000.00"), BigDecimal.ZERO));
+        }
+        engine = new OrderBookCommandEngine(context, EngineOptions.of(1 << 16).withBatchSize(64));
+        admission = new AdmissionControl(AdmissionControl.DEFAULT_MAX_IN_FLIGHT,
+                AdmissionControl.DEFAULT_MAX_IN_FLIGHT_PER_USER);
+        handlers = threading == Threading.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        handlers.shutdownNow();
+        engine.close();
+    }
+
+    @Benchmark
+    public int walletRead() throws InterruptedException {
+        return burst(user -> {
+            Command<Optional<Wallet>> read = ctx -> ctx.walletRepository().findByUserId(user);
+            admission.submit(user, () -> engine.submit(read)).join();
+        });
+    }
+
+    @Benchmark
+    public int placeAndCancel() throws InterruptedException {
+        return burst(user -> {
+            PlaceOrderResult placed = admission
+                    .submit(user, () -> engine.submit(new PlaceOrderCommand(user, Side.BUY, price, qty)))
+                    .join();
+            CancelOrderCommand cancel = new CancelOrderCommand(user, OrderId.fromString(placed.orderId()));
+            admission.submit(user, () -> engine.submit(cancel)).join();
+        });
+    }
+
+    /**
+     * Devolve quantas requisições foram recusadas pela admissão.
+     */
+    private int burst(Handler handler) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(connections);
+        AtomicInteger rejected = new AtomicInteger();
+        for (int i = 0; i < connections; i++) {
+            UserId user = users[i % USERS];
+            handlers.execute(() -> {
+                try {
+                    handler.handle(user);
+                } catch (CompletionException e) {
+                    if (!(e.getCause() instanceof BackpressureException))
+                        throw e;
+                    rejected.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return rejected.get();
+    }
+
+    @FunctionalInterface
+    interface Handler {
+        void handle(UserId user);
+    }
+}
@@ -0,0 +1,107 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderBookLayout;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Heap retido por ordem em repouso: {@code orders} ordens de compra
+ * espalhadas por {@code levels} níveis, cada uma no livro e no repositório de
+ * ordens, como o writer as deixa. Cada ordem chega com os próprios objetos de
+ * preço, quantidade e instante, como viriam de comandos distintos.
+ *
+ * {@code fill} mede o tempo por ordem e imprime os bytes por ordem.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class RestingOrderMemoryBenchmark {
+
+    @Param({ "TREE", "TICK_LADDER" })
+    OrderBookLayout layout;
+
+    @Param({ "5000000" })
+    int orders;
+
+    @Param({ "1000" })
+    int levels;
+
+    private final UserId[] users = new UserId[64];
+
+    OrderBook book;
+    InMemoryOrderRepository repository;
+    long heapBefore;
+
+    @Setup(Level.Trial)
+    public void setupUsers() {
+        for (int i = 0; i < users.length; i++)
+            users[i] = UserId.of(UUID.randomUUID());
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        book = null;
+        repository = null;
+        heapBefore = usedHeap();
+        book = new OrderBook(layout);
+        repository = new InMemoryOrderRepository(orders, 0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        long retained = usedHeap() - heapBefore;
+        System.out.printf("%n%s: %.1f bytes/resting order (%d orders, %d levels)%n", layout,
+                (double) retained / orders, orders, levels);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    @OperationsPerInvocation(5_000_000)
+    public Object fill() {
+        for (int i = 0; i < orders; i++) {
+            Order order = Order.create(OrderId.of(i + 1), users[i & (users.length - 1)], Side.BUY,
+                    Price.ofTicks(100_000 - i % levels), Quantity.ofPositive(10 + (i & 7)),
+                    Instant.ofEpochSecond(1_700_000_000L + i, i));
+            // a maioria já recebeu um fill parcial no livro
+            if ((i & 3) != 0)
+                order.fill(Quantity.ofPositive(1));
+            book.add(order);
+            repository.save(order);
+        }
+        return book;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
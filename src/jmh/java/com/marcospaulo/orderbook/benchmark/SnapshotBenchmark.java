@@ -0,0 +1,127 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.adapters.out.snapshot.FileSnapshotStore;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.application.snapshot.StateSnapshot;
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderBookLayout;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Snapshot de um estado grande (padrão: 1M ordens em repouso, 100k
+ * carteiras). {@code capture} é o que pausa o writer; {@code write} e
+ * {@code loadAndRestore} são a gravação assíncrona e o startup. O tamanho do
+ * arquivo sai no log do setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SnapshotBenchmark {
+
+    @Param({ "1000000" })
+    int orders;
+
+    @Param({ "100000" })
+    int wallets;
+
+    private CommandContext context;
+    private StateSnapshot image;
+    private Path dir;
+    private FileSnapshotStore store;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        context = new CommandContext(new InMemoryOrderBookRepository(), new InMemoryWalletRepository(),
+                new InMemoryTradeRepository(), new InMemoryOrderRepository());
+        context.orderBookRepository().save(new OrderBook(OrderBookLayout.TICK_LADDER));
+
+        UserId[] users = new UserId[wallets];
+        for (int i = 0; i < wallets; i++) {
+            users[i] = UserId.of(UUID.randomUUID());
+            context.walletRepository().save(
+                    Wallet.create(users[i], new BigDecimal("100000.00"), new BigDecimal("1000")));
+        }
+
+        // bids de 1.00 a 50.00, asks de 50.01 a 100.00: nada cruza
+        OrderBook book = context.orderBookRepository().get();
+        for (int i = 0; i < orders; i++) {
+            boolean buy = (i & 1) == 0;
+            long ticks = buy ? 100 + (i % 4900) : 5001 + (i % 5000);
+            Order o = Order.create(users[i % wallets], buy ? Side.BUY : Side.SELL, Price.ofTicks(ticks),
+                    Quantity.ofPositive(1 + i % 50));
+            context.orderRepository().save(o);
+            book.add(o);
+        }
+
+        image = StateSnapshot.capture(context, orders);
+        dir = Files.createTempDirectory("snapshot-bench");
+        store = new FileSnapshotStore(dir, 1);
+        store.save(image);
+        try (Stream<Path> files = Files.list(dir)) {
+            long bytes = files.mapToLong(p -> p.toFile().length()).sum();
+            System.out.printf("snapshot: %d orders, %d wallets, %.1f MB (%.1f bytes/order)%n",
+                    orders, wallets, bytes / 1e6, (double) bytes / orders);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public StateSnapshot capture() {
+        return StateSnapshot.capture(context, orders);
+    }
+
+    @Benchmark
+    public void write() {
+        store.save(image);
+    }
+
+    @Benchmark
+    public CommandContext loadAndRestore() {
+        CommandContext target = new CommandContext(new InMemoryOrderBookRepository(),
+                new InMemoryWalletRepository(), new InMemoryTradeRepository(), new InMemoryOrderRepository());
+        target.orderBookRepository().save(new OrderBook(OrderBookLayout.TICK_LADDER));
+        store.loadLatest().orElseThrow().restoreInto(target);
+        return target;
+    }
+}
@@ -0,0 +1,109 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderResult;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderType;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.TimeInForce;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Custo dos stops no {@link PlaceOrderCommand}.
+ *
+ * {@code crossingPair} é o mesmo par SELL/BUY do {@link PlaceOrderBenchmark}
+ * com {@code stops} ordens stop pendentes longe do preço: o disparo não deve
+ * custar nada enquanto o preço não chega nelas. {@code cascade} é um único
+ * SELL que dispara {@code stops} stops em cadeia, cada um vendendo no bid
+ * seguinte e disparando o próximo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class StopOrderBenchmark {
+
+    static final int BATCH = 100_000;
+    private static final long TOP = 1_000_000;
+
+    @Param({ "0", "10000" })
+    int stops;
+
+    private CommandContext context;
+    private PlaceOrderCommand[] sells;
+    private PlaceOrderCommand[] buys;
+    private PlaceOrderCommand trigger;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        InMemoryOrderBookRepository books = new InMemoryOrderBookRepository();
+        books.save(new OrderBook());
+        InMemoryWalletRepository wallets = new InMemoryWalletRepository();
+        context = new CommandContext(books, wallets, new InMemoryTradeRepository(), new InMemoryOrderRepository());
+
+        UserId buyer = UserId.of(UUID.randomUUID());
+        UserId seller = UserId.of(UUID.randomUUID());
+        wallets.save(Wallet.create(buyer, new BigDecimal("100000000000.00"), BigDecimal.ZERO));
+        wallets.save(Wallet.create(seller, BigDecimal.ZERO, new BigDecimal("100000000")));
+
+        Quantity one = Quantity.ofPositive(1);
+        // bids em degraus de um tick; o stop k dispara no trade k - 1 e vende no bid k
+        for (int k = 0; k <= stops; k++)
+            new PlaceOrderCommand(buyer, Side.BUY, Price.ofTicks(TOP - k), one).execute(context);
+        for (int k = 1; k <= stops; k++)
+            new PlaceOrderCommand(seller, Side.SELL, OrderType.STOP, TimeInForce.IOC, null,
+                    Price.ofTicks(TOP - k + 1), one).execute(context);
+        trigger = new PlaceOrderCommand(seller, Side.SELL, Price.ofTicks(TOP), one);
+
+        // acima do bid mais alto: não cruza os stops de venda
+        Price cross = Price.ofTicks(TOP + 1_000);
+        sells = new PlaceOrderCommand[BATCH];
+        buys = new PlaceOrderCommand[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            sells[i] = new PlaceOrderCommand(seller, Side.SELL, cross, one);
+            buys[i] = new PlaceOrderCommand(buyer, Side.BUY, cross, one);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 10, batchSize = BATCH)
+    public PlaceOrderResult crossingPair() {
+        sells[next].execute(context);
+        return buys[next++].execute(context);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public PlaceOrderResult cascade() {
+        return trigger.execute(context);
+    }
+}
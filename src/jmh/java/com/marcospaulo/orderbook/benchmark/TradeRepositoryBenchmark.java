@@ -0,0 +1,84 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.application.ports.out.TradePage;
+import com.marcospaulo.orderbook.application.ports.out.TradeQuery;
+import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.TradeId;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Custo de {@code append} e de uma página de histórico com a fita já cheia
+ * ({@code tapeSize} trades entre {@code users} usuários). Os dois devem ficar
+ * estáveis com o tamanho da fita.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradeRepositoryBenchmark {
+
+    @Param({ "10000", "1000000" })
+    int tapeSize;
+
+    @Param({ "1000" })
+    int users;
+
+    private InMemoryTradeRepository repo;
+    private UserId[] userIds;
+    private Trade next;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        repo = new InMemoryTradeRepository();
+        userIds = new UserId[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = UserId.of(UUID.randomUUID());
+        }
+        Instant t0 = Instant.parse("2026-01-02T10:00:00Z");
+        for (int i = 0; i < tapeSize; i++) {
+            repo.append(trade(i, t0.plusMillis(i)));
+        }
+        next = trade(0, t0.plusMillis(tapeSize));
+    }
+
+    @Benchmark
+    public int append() {
+        repo.append(next);
+        return repo.count();
+    }
+
+    @Benchmark
+    public TradePage latestPageForUser() {
+        return repo.findByUser(userIds[cursor++ % users], TradeQuery.latest(50));
+    }
+
+    private Trade trade(int i, Instant at) {
+        return Trade.restore(TradeId.newId(), OrderId.newId(), OrderId.newId(),
+                userIds[i % users], userIds[(i + 1) % users],
+                Price.ofTicks(1_000 + i % 100), Quantity.ofPositive(1), at);
+    }
+}
@@ -0,0 +1,56 @@
+package com.marcospaulo.orderbook.benchmark;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Aritmética de settlement do {@link Wallet}. Cada operação compra e revende a
+ * mesma quantidade ao mesmo preço, então o saldo não deriva.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WalletBenchmark {
+
+    private Wallet wallet;
+    private Price limit;
+    private Price tradePrice;
+    private Quantity qty;
+
+    @Setup
+    public void setup() {
+        wallet = Wallet.create(UserId.of(UUID.randomUUID()), new BigDecimal("1000000.00"), new BigDecimal("1000"));
+        limit = Price.of(new BigDecimal("10.25"));
+        tradePrice = Price.of(new BigDecimal("9.75"));
+        qty = Quantity.ofPositive(7);
+    }
+
+    @Benchmark
+    public Wallet reserveAndSettleBuy() {
+        wallet.reserveForBuy(limit, qty);
+        wallet.applyTradeAsBuyer(limit, tradePrice, qty);
+        wallet.reserveForSell(qty);
+        wallet.applyTradeAsSeller(tradePrice, qty);
+        return wallet;
+    }
+}
@@ -0,0 +1,139 @@
+package com.marcospaulo.orderbook.adapters.in.binary;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.UUID;
+
+/**
+ * Cliente Java do {@link BinaryProtocol}, bloqueante e de uma thread só:
+ * {@code send*} escreve o frame e {@link #poll} entrega as respostas ao
+ * {@link Listener} sem criar objetos por mensagem. Os ids vêm como pares de
+ * longs (bits do UUID).
+ *
+ * Não é thread-safe; use um cliente por thread.
+ */
+public final class BinaryOrderClient implements AutoCloseable {
+
+    /**
+     * Respostas do gateway, na ordem em que chegaram.
+     */
+    public interface Listener {
+        void onAck(long clOrdId, long orderMsb, long orderLsb, int trades);
+
+        void onFill(long clOrdId, long tradeMsb, long tradeLsb, long priceTicks, long quantity);
+
+        void onCancelled(long clOrdId, long orderMsb, long orderLsb, long cancelledQty);
+
+        void onReject(long clOrdId, byte reason);
+    }
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BinaryProtocol.MAX_FRAME_BYTES);
+    private final ByteBuffer in = ByteBuffer.allocateDirect(64 * 1024);
+
+    private BinaryOrderClient(SocketChannel channel) {
+        this.channel = channel;
+        in.flip();
+    }
+
+    public static BinaryOrderClient connect(InetSocketAddress address) {
+        try {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            return new BinaryOrderClient(channel);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot connect to order gateway at " + address, e);
+        }
+    }
+
+    public void sendNewOrder(long clOrdId, UUID userId, int instrument, int side, long priceTicks, long quantity) {
+        out.clear();
+        BinaryProtocol.putNewOrder(out, clOrdId, userId.getMostSignificantBits(), userId.getLeastSignificantBits(),
+                instrument, side, priceTicks, quantity);
+        write();
+    }
+
+    public void sendCancel(long clOrdId, UUID userId, int instrument, long orderMsb, long orderLsb) {
+        out.clear();
+        BinaryProtocol.putCancel(out, clOrdId, userId.getMostSignificantBits(), userId.getLeastSignificantBits(),
+                instrument, orderMsb, orderLsb);
+        write();
+    }
+
+    /**
+     * Bloqueia até haver ao menos uma resposta completa e entrega todas as que
+     * já estiverem no buffer.
+     *
+     * @return quantas respostas foram entregues
+     */
+    public int poll(Listener listener) {
+        int delivered = 0;
+        while (delivered == 0) {
+            while (hasFrame()) {
+                deliver(listener);
+                delivered++;
+            }
+            if (delivered == 0)
+                fill();
+        }
+        return delivered;
+    }
+
+    private boolean hasFrame() {
+        if (in.remaining() < BinaryProtocol.HEADER_BYTES)
+            return false;
+        int length = in.getShort(in.position()) & 0xFFFF;
+        return in.remaining() >= BinaryProtocol.HEADER_BYTES + length;
+    }
+
+    private void deliver(Listener listener) {
+        int length = in.getShort() & 0xFFFF;
+        byte type = in.get();
+        if (BinaryProtocol.responseLength(type) != length)
+            throw new IllegalStateException("unexpected frame type=" + type + " length=" + length);
+        long clOrdId = in.getLong();
+        switch (type) {
+            case BinaryProtocol.ACK -> listener.onAck(clOrdId, in.getLong(), in.getLong(), in.getInt());
+            case BinaryProtocol.FILL -> listener.onFill(clOrdId, in.getLong(), in.getLong(), in.getLong(),
+                    in.getLong());
+            case BinaryProtocol.CANCELLED -> listener.onCancelled(clOrdId, in.getLong(), in.getLong(), in.getLong());
+            default -> listener.onReject(clOrdId, in.get());
+        }
+    }
+
+    private void fill() {
+        in.compact();
+        try {
+            if (channel.read(in) < 0)
+                throw new UncheckedIOException(new EOFException("gateway closed the connection"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            in.flip();
+        }
+    }
+
+    private void write() {
+        out.flip();
+        try {
+            while (out.hasRemaining())
+                channel.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // nada a fazer
+        }
+    }
+}
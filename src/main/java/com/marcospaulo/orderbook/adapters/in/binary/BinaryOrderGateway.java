@@ -0,0 +1,434 @@
+package com.marcospaulo.orderbook.adapters.in.binary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.application.exception.BackpressureException;
+import com.marcospaulo.orderbook.application.ports.out.ExecutionListener;
+import com.marcospaulo.orderbook.application.service.AdmissionControl;
+import com.marcospaulo.orderbook.application.service.InstrumentRouter;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Gateway de ordens em TCP com o {@link BinaryProtocol}, ao lado do HTTP/JSON.
+ *
+ * Uma thread de selector aceita conexões e decodifica os frames direto do
+ * {@link ByteBuffer} de cada sessão para {@link PlaceOrderCommand} /
+ * {@link CancelOrderCommand}, que seguem pelo mesmo caminho do REST
+ * ({@link AdmissionControl} e {@link InstrumentRouter}). As respostas são
+ * codificadas pela thread que completa o comando, direto no buffer de saída
+ * da sessão; o selector só volta a tocar na sessão se o socket não aceitar
+ * tudo de uma vez.
+ *
+ * Os fills vêm do settlement pelo {@link ExecutionReports}, não da fita: cada
+ * ordem enviada por aqui fica registrada com a sessão dona até não sobrar
+ * quantidade, então o maker também recebe FILL quando é atingido. Quem
+ * entrega os fills é o selector, que segura os de uma ordem até o ACK dela
+ * ter saído (lotes diferentes podem completar em threads diferentes).
+ */
+public final class BinaryOrderGateway implements AutoCloseable {
+
+    private static final Side[] SIDES = Side.values();
+
+    private final InstrumentRouter router;
+    private final AdmissionControl admission;
+    private final String[] symbols;
+    private final ExecutionReports reports;
+    private final ExecutionListener fills = this::onExecution;
+    private final ConcurrentLinkedQueue<Trade> executions = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    // só a thread do selector mexe: enviadas sem id ainda e as com id, até zerar
+    private final List<OpenOrder> awaitingId = new ArrayList<>();
+    private final Map<OrderId, OpenOrder> openOrders = new HashMap<>();
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Thread selectorThread;
+    private final Set<GatewaySession> sessions = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<GatewaySession> pendingWrites = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    private BinaryOrderGateway(InetSocketAddress address, InstrumentRouter router, AdmissionControl admission,
+            ExecutionReports reports) throws IOException {
+        this.router = Objects.requireNonNull(router, "router");
+        this.admission = Objects.requireNonNull(admission, "admission");
+        this.reports = Objects.requireNonNull(reports, "reports");
+        List<Instrument> instruments = router.instruments();
+        this.symbols = new String[instruments.size()];
+        for (int i = 0; i < symbols.length; i++)
+            symbols[i] = instruments.get(i).symbol();
+
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        try {
+            server.bind(address);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            server.close();
+            selector.close();
+            throw e;
+        }
+        this.selectorThread = new Thread(this::run, "orderbook-gateway");
+        this.selectorThread.setDaemon(true);
+    }
+
+    /**
+     * Abre o socket e começa a aceitar conexões. Porta 0 escolhe uma livre
+     * (ver {@link #port()}). {@code reports} é o mesmo passado aos engines do
+     * router.
+     */
+    public static BinaryOrderGateway start(InetSocketAddress address, InstrumentRouter router,
+            AdmissionControl admission, ExecutionReports reports) {
+        try {
+            BinaryOrderGateway gateway = new BinaryOrderGateway(address, router, admission, reports);
+            reports.subscribe(gateway.fills);
+            gateway.selectorThread.start();
+            return gateway;
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot bind order gateway at " + address, e);
+        }
+    }
+
+    public int port() {
+        return server.socket().getLocalPort();
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                if (!running)
+                    return;
+                throw new UncheckedIOException(e);
+            }
+            GatewaySession pending;
+            while ((pending = pendingWrites.poll()) != null) {
+                SelectionKey key = pending.key();
+                if (key != null && key.isValid())
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+            deliverExecutions();
+
+            Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+            while (it.hasNext()) {
+                SelectionKey key = it.next();
+                it.remove();
+                if (!key.isValid())
+                    continue;
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                GatewaySession session = (GatewaySession) key.attachment();
+                if (key.isWritable() && !session.flush() && key.isValid())
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                if (key.isValid() && key.isReadable())
+                    session.onReadable();
+            }
+        }
+    }
+
+    private void accept() {
+        SocketChannel channel;
+        try {
+            channel = server.accept();
+            if (channel == null)
+                return;
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        } catch (IOException e) {
+            return;
+        }
+        GatewaySession session = new GatewaySession(this, channel);
+        try {
+            session.attach(channel.register(selector, SelectionKey.OP_READ, session));
+        } catch (IOException e) {
+            session.close();
+            return;
+        }
+        sessions.add(session);
+    }
+
+    /**
+     * Frame já validado (tipo e tamanho); {@code buf} está posicionado no
+     * primeiro campo. Roda na thread do selector.
+     */
+    void dispatch(GatewaySession session, byte type, ByteBuffer buf) {
+        long clOrdId = buf.getLong();
+        long userMsb = buf.getLong();
+        long userLsb = buf.getLong();
+        int instrument = buf.get() & 0xFF;
+        if (instrument >= symbols.length) {
+            reject(session, clOrdId, BinaryProtocol.REASON_INVALID);
+            return;
+        }
+        if (type == BinaryProtocol.NEW_ORDER) {
+            newOrder(session, clOrdId, userMsb, userLsb, instrument, buf.get() & 0xFF, buf.getLong(), buf.getLong());
+        } else {
+            cancel(session, clOrdId, userMsb, userLsb, instrument, buf.getLong(), buf.getLong());
+        }
+    }
+
+    private void newOrder(GatewaySession session, long clOrdId, long userMsb, long userLsb, int instrument,
+            int side, long priceTicks, long quantity) {
+        if (side >= SIDES.length || priceTicks <= 0 || quantity <= 0) {
+            reject(session, clOrdId, BinaryProtocol.REASON_INVALID);
+            return;
+        }
+        UserId userId = UserId.of(new UUID(userMsb, userLsb));
+        PlaceOrderCommand command = new PlaceOrderCommand(userId, SIDES[side], Price.ofTicks(priceTicks),
+                Quantity.ofPositive(quantity));
+
+        OpenOrder open = new OpenOrder(command, session, clOrdId, quantity);
+        awaitingId.add(open);
+
+        admission.submit(userId, () -> router.submit(symbols[instrument], command))
+                .whenComplete((result, failure) -> {
+                    if (failure != null) {
+                        reject(session, clOrdId, reason(failure));
+                        onSelector(() -> forget(open));
+                        return;
+                    }
+                    UUID orderId = command.orderId().toUuid();
+                    session.sendAck(clOrdId, orderId.getMostSignificantBits(), orderId.getLeastSignificantBits(),
+                            result.tradesExecuted());
+                    session.flush();
+                    long expiredQty = result.expiredQty();
+                    onSelector(() -> acked(open, expiredQty));
+                });
+    }
+
+    /**
+     * Chamado por quem completa os comandos, depois dos futures do lote.
+     */
+    private void onExecution(Trade trade) {
+        executions.add(trade);
+        selector.wakeup();
+    }
+
+    private void onSelector(Runnable task) {
+        selectorTasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Roda na thread do selector. Primeiro as respostas já enviadas (liberam
+     * os fills segurados), depois os ids que o writer atribuiu e só então os
+     * fills novos: o id de uma ordem é atribuído antes de qualquer trade dela.
+     */
+    private void deliverExecutions() {
+        Runnable task;
+        while ((task = selectorTasks.poll()) != null)
+            task.run();
+        if (executions.isEmpty())
+            return;
+        for (int i = awaitingId.size() - 1; i >= 0; i--) {
+            OpenOrder o = awaitingId.get(i);
+            if (o.command.orderId() != null) {
+                awaitingId.remove(i);
+                openOrders.put(o.command.orderId(), o);
+            }
+        }
+        Trade trade;
+        while ((trade = executions.poll()) != null) {
+            fill(trade.buyOrderId(), trade);
+            fill(trade.sellOrderId(), trade);
+        }
+    }
+
+    private void acked(OpenOrder open, long expiredQty) {
+        OrderId orderId = open.command.orderId();
+        if (open.session.isClosed()) {
+            forget(open);
+            return;
+        }
+        if (openOrders.putIfAbsent(orderId, open) == null)
+            awaitingId.remove(open);
+        open.acked = true;
+        open.leaves -= expiredQty;
+        if (open.held != null) {
+            for (Trade held : open.held)
+                sendFill(open, held);
+            open.held = null;
+        }
+        if (open.leaves <= 0)
+            openOrders.remove(orderId, open);
+    }
+
+    private void forget(OpenOrder open) {
+        awaitingId.remove(open);
+        OrderId orderId = open.command.orderId();
+        if (orderId != null)
+            openOrders.remove(orderId, open);
+    }
+
+    private void forgetSession(GatewaySession session) {
+        awaitingId.removeIf(open -> open.session == session);
+        openOrders.values().removeIf(open -> open.session == session);
+    }
+
+    private void fill(OrderId orderId, Trade trade) {
+        OpenOrder open = openOrders.get(orderId);
+        if (open == null)
+            return;
+        if (open.session.isClosed()) {
+            openOrders.remove(orderId);
+            return;
+        }
+        if (!open.acked) {
+            if (open.held == null)
+                open.held = new ArrayList<>(2);
+            open.held.add(trade);
+            return;
+        }
+        sendFill(open, trade);
+        if (open.leaves <= 0)
+            openOrders.remove(orderId);
+    }
+
+    private static void sendFill(OpenOrder open, Trade trade) {
+        long quantity = trade.quantity().value();
+        open.leaves -= quantity;
+        UUID id = trade.id().toUuid();
+        open.session.sendFill(open.clOrdId, id.getMostSignificantBits(), id.getLeastSignificantBits(),
+                trade.price().ticks(), quantity);
+        open.session.flush();
+    }
+
+    private void cancel(GatewaySession session, long clOrdId, long userMsb, long userLsb, int instrument,
+            long orderMsb, long orderLsb) {
+        if (orderMsb != 0 || orderLsb <= 0) {
+            // não foi emitido aqui, então a ordem não existe
+            reject(session, clOrdId, BinaryProtocol.REASON_REJECTED);
+            return;
+        }
+        UserId userId = UserId.of(new UUID(userMsb, userLsb));
+        CancelOrderCommand command = new CancelOrderCommand(userId, OrderId.of(orderLsb));
+
+        admission.submit(userId, () -> router.submit(symbols[instrument], command))
+                .whenComplete((result, failure) -> {
+                    if (failure != null) {
+                        reject(session, clOrdId, reason(failure));
+                        return;
+                    }
+                    session.sendCancelled(clOrdId, orderMsb, orderLsb, result.cancelledQty());
+                    session.flush();
+                    onSelector(() -> {
+                        OpenOrder open = openOrders.get(command.orderId());
+                        if (open != null && open.session == session)
+                            forget(open);
+                    });
+                });
+    }
+
+    private static void reject(GatewaySession session, long clOrdId, byte reason) {
+        session.sendReject(clOrdId, reason);
+        session.flush();
+    }
+
+    /**
+     * Mesma tradução do REST: fila cheia, regra de negócio, falha do engine.
+     */
+    static byte reason(Throwable failure) {
+        Throwable t = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (t instanceof BackpressureException)
+            return BinaryProtocol.REASON_BACKPRESSURE;
+        if (t instanceof ApplicationException && t.getCause() instanceof DomainException)
+            return BinaryProtocol.REASON_REJECTED;
+        if (t instanceof DomainException)
+            return BinaryProtocol.REASON_INVALID;
+        return BinaryProtocol.REASON_UNAVAILABLE;
+    }
+
+    void requestWrite(GatewaySession session) {
+        pendingWrites.add(session);
+        selector.wakeup();
+    }
+
+    void closed(GatewaySession session) {
+        sessions.remove(session);
+        onSelector(() -> forgetSession(session));
+    }
+
+    /**
+     * Para de aceitar conexões e fecha as sessões abertas. Comandos já
+     * submetidos seguem no engine; as respostas deles são descartadas.
+     */
+    @Override
+    public void close() {
+        if (!running)
+            return;
+        running = false;
+        reports.unsubscribe(fills);
+        selector.wakeup();
+        try {
+            selectorThread.join(2_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (GatewaySession session : sessions)
+            session.close();
+        try {
+            server.close();
+            selector.close();
+        } catch (IOException ignored) {
+            // nada a fazer no shutdown
+        }
+    }
+
+    /**
+     * Ordem enviada por este gateway e ainda com quantidade em aberto. Os
+     * campos mutáveis são só do selector.
+     */
+    private static final class OpenOrder {
+        final PlaceOrderCommand command;
+        final GatewaySession session;
+        final long clOrdId;
+        long leaves;
+        boolean acked;
+        List<Trade> held;
+
+        OpenOrder(PlaceOrderCommand command, GatewaySession session, long clOrdId, long quantity) {
+            this.command = command;
+            this.session = session;
+            this.clOrdId = clOrdId;
+            this.leaves = quantity;
+        }
+    }
+}
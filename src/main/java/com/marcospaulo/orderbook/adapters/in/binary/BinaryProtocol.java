@@ -0,0 +1,143 @@
+package com.marcospaulo.orderbook.adapters.in.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Protocolo binário de entrada de ordens. Cada mensagem é um frame
+ * {@code [u16 tamanho][u8 tipo][campos]}, onde o tamanho conta tipo + campos,
+ * em big-endian como o journal. Campos são de tamanho fixo: UUID = 2 longs,
+ * preço em ticks ({@code Price#ticks()}), quantidade em long.
+ *
+ * <pre>
+ * NEW_ORDER  clOrdId:i64 user:uuid instrument:u8 side:u8 priceTicks:i64 qty:i64
+ * CANCEL     clOrdId:i64 user:uuid instrument:u8 orderId:uuid
+ * ACK        clOrdId:i64 orderId:uuid trades:i32
+ * FILL       clOrdId:i64 tradeId:uuid priceTicks:i64 qty:i64
+ * CANCELLED  clOrdId:i64 orderId:uuid cancelledQty:i64
+ * REJECT     clOrdId:i64 reason:u8
+ * </pre>
+ *
+ * {@code instrument} é a posição do instrumento em
+ * {@code InstrumentRouter#instruments()}; {@code side} é o ordinal de
+ * {@code Side}. Um NEW_ORDER aceito gera um ACK seguido de um FILL por trade
+ * executado na entrada; execuções posteriores da ordem (já no livro) não são
+ * reportadas por esta sessão.
+ */
+public final class BinaryProtocol {
+
+    public static final byte NEW_ORDER = 1;
+    public static final byte CANCEL = 2;
+
+    public static final byte ACK = (byte) 0x81;
+    public static final byte FILL = (byte) 0x82;
+    public static final byte CANCELLED = (byte) 0x83;
+    public static final byte REJECT = (byte) 0x84;
+
+    public static final byte REASON_BACKPRESSURE = 1;
+    public static final byte REASON_REJECTED = 2;
+    public static final byte REASON_INVALID = 3;
+    public static final byte REASON_UNAVAILABLE = 4;
+
+    static final int HEADER_BYTES = 2;
+
+    static final int NEW_ORDER_BYTES = 1 + 8 + 16 + 1 + 1 + 8 + 8;
+    static final int CANCEL_BYTES = 1 + 8 + 16 + 1 + 16;
+    static final int ACK_BYTES = 1 + 8 + 16 + 4;
+    static final int FILL_BYTES = 1 + 8 + 16 + 8 + 8;
+    static final int CANCELLED_BYTES = 1 + 8 + 16 + 8;
+    static final int REJECT_BYTES = 1 + 8 + 1;
+
+    /**
+     * Maior frame do protocolo, cabeçalho incluído.
+     */
+    public static final int MAX_FRAME_BYTES = HEADER_BYTES + NEW_ORDER_BYTES;
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Tamanho esperado (tipo + campos) de uma mensagem de cliente, ou -1 se o
+     * tipo não é de cliente.
+     */
+    static int requestLength(byte type) {
+        return switch (type) {
+            case NEW_ORDER -> NEW_ORDER_BYTES;
+            case CANCEL -> CANCEL_BYTES;
+            default -> -1;
+        };
+    }
+
+    /**
+     * Tamanho esperado de uma mensagem do servidor, ou -1 se o tipo não é de
+     * servidor.
+     */
+    static int responseLength(byte type) {
+        return switch (type) {
+            case ACK -> ACK_BYTES;
+            case FILL -> FILL_BYTES;
+            case CANCELLED -> CANCELLED_BYTES;
+            case REJECT -> REJECT_BYTES;
+            default -> -1;
+        };
+    }
+
+    public static void putNewOrder(ByteBuffer buf, long clOrdId, long userMsb, long userLsb, int instrument,
+            int side, long priceTicks, long quantity) {
+        buf.putShort((short) NEW_ORDER_BYTES);
+        buf.put(NEW_ORDER);
+        buf.putLong(clOrdId);
+        buf.putLong(userMsb);
+        buf.putLong(userLsb);
+        buf.put((byte) instrument);
+        buf.put((byte) side);
+        buf.putLong(priceTicks);
+        buf.putLong(quantity);
+    }
+
+    public static void putCancel(ByteBuffer buf, long clOrdId, long userMsb, long userLsb, int instrument,
+            long orderMsb, long orderLsb) {
+        buf.putShort((short) CANCEL_BYTES);
+        buf.put(CANCEL);
+        buf.putLong(clOrdId);
+        buf.putLong(userMsb);
+        buf.putLong(userLsb);
+        buf.put((byte) instrument);
+        buf.putLong(orderMsb);
+        buf.putLong(orderLsb);
+    }
+
+    static void putAck(ByteBuffer buf, long clOrdId, long orderMsb, long orderLsb, int trades) {
+        buf.putShort((short) ACK_BYTES);
+        buf.put(ACK);
+        buf.putLong(clOrdId);
+        buf.putLong(orderMsb);
+        buf.putLong(orderLsb);
+        buf.putInt(trades);
+    }
+
+    static void putFill(ByteBuffer buf, long clOrdId, long tradeMsb, long tradeLsb, long priceTicks, long quantity) {
+        buf.putShort((short) FILL_BYTES);
+        buf.put(FILL);
+        buf.putLong(clOrdId);
+        buf.putLong(tradeMsb);
+        buf.putLong(tradeLsb);
+        buf.putLong(priceTicks);
+        buf.putLong(quantity);
+    }
+
+    static void putCancelled(ByteBuffer buf, long clOrdId, long orderMsb, long orderLsb, long cancelledQty) {
+        buf.putShort((short) CANCELLED_BYTES);
+        buf.put(CANCELLED);
+        buf.putLong(clOrdId);
+        buf.putLong(orderMsb);
+        buf.putLong(orderLsb);
+        buf.putLong(cancelledQty);
+    }
+
+    static void putReject(ByteBuffer buf, long clOrdId, byte reason) {
+        buf.putShort((short) REJECT_BYTES);
+        buf.put(REJECT);
+        buf.putLong(clOrdId);
+        buf.put(reason);
+    }
+}
@@ -0,0 +1,33 @@
+package com.marcospaulo.orderbook.adapters.in.binary;
+
+import java.util.Objects;
+
+import com.marcospaulo.orderbook.application.ports.out.ExecutionListener;
+import com.marcospaulo.orderbook.domain.model.Trade;
+
+/**
+ * Ponte entre os engines e o {@link BinaryOrderGateway}: vai no
+ * {@link com.marcospaulo.orderbook.application.service.EngineOptions} antes
+ * de o router existir e o gateway se liga ao subir. Sem gateway ligado, as
+ * execuções são descartadas.
+ */
+public final class ExecutionReports implements ExecutionListener {
+
+    private volatile ExecutionListener target;
+
+    void subscribe(ExecutionListener target) {
+        this.target = Objects.requireNonNull(target, "target");
+    }
+
+    void unsubscribe(ExecutionListener target) {
+        if (this.target == target)
+            this.target = null;
+    }
+
+    @Override
+    public void onExecution(Trade trade) {
+        ExecutionListener t = target;
+        if (t != null)
+            t.onExecution(trade);
+    }
+}
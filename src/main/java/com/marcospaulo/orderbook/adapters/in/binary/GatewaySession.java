@@ -0,0 +1,158 @@
+package com.marcospaulo.orderbook.adapters.in.binary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Uma conexão do gateway. A leitura é só da thread do selector; a escrita
+ * vem das threads que completam os comandos, serializada pelo monitor da
+ * sessão. Cada resposta é codificada direto no buffer de saída e a sessão
+ * tenta escrever na hora; o que o socket não aceitar fica no buffer e o
+ * selector termina com OP_WRITE.
+ *
+ * Cliente que não lê (buffer de saída cheio) é desconectado em vez de
+ * acumular respostas sem limite.
+ */
+final class GatewaySession {
+
+    static final int INBOUND_BYTES = 64 * 1024;
+    static final int OUTBOUND_BYTES = 256 * 1024;
+
+    private final BinaryOrderGateway gateway;
+    private final SocketChannel channel;
+    private final ByteBuffer inbound = ByteBuffer.allocateDirect(INBOUND_BYTES);
+    private final ByteBuffer outbound = ByteBuffer.allocateDirect(OUTBOUND_BYTES);
+
+    private SelectionKey key;
+    private boolean writeRequested;
+    private volatile boolean closed;
+
+    GatewaySession(BinaryOrderGateway gateway, SocketChannel channel) {
+        this.gateway = gateway;
+        this.channel = channel;
+    }
+
+    void attach(SelectionKey key) {
+        this.key = key;
+    }
+
+    SelectionKey key() {
+        return key;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Lê o que houver e entrega cada frame completo ao gateway, que decodifica
+     * direto do buffer. Frame inválido fecha a conexão.
+     */
+    void onReadable() {
+        int n;
+        try {
+            n = channel.read(inbound);
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        if (n < 0) {
+            close();
+            return;
+        }
+
+        inbound.flip();
+        while (inbound.remaining() >= BinaryProtocol.HEADER_BYTES) {
+            int start = inbound.position();
+            int length = inbound.getShort(start) & 0xFFFF;
+            if (length == 0 || length > BinaryProtocol.MAX_FRAME_BYTES - BinaryProtocol.HEADER_BYTES) {
+                close();
+                return;
+            }
+            if (inbound.remaining() < BinaryProtocol.HEADER_BYTES + length)
+                break;
+
+            byte type = inbound.get(start + BinaryProtocol.HEADER_BYTES);
+            if (BinaryProtocol.requestLength(type) != length) {
+                close();
+                return;
+            }
+            inbound.position(start + BinaryProtocol.HEADER_BYTES + 1);
+            gateway.dispatch(this, type, inbound);
+            inbound.position(start + BinaryProtocol.HEADER_BYTES + length);
+        }
+        inbound.compact();
+    }
+
+    synchronized void sendAck(long clOrdId, long orderMsb, long orderLsb, int trades) {
+        if (reserve(BinaryProtocol.HEADER_BYTES + BinaryProtocol.ACK_BYTES))
+            BinaryProtocol.putAck(outbound, clOrdId, orderMsb, orderLsb, trades);
+    }
+
+    synchronized void sendFill(long clOrdId, long tradeMsb, long tradeLsb, long priceTicks, long quantity) {
+        if (reserve(BinaryProtocol.HEADER_BYTES + BinaryProtocol.FILL_BYTES))
+            BinaryProtocol.putFill(outbound, clOrdId, tradeMsb, tradeLsb, priceTicks, quantity);
+    }
+
+    synchronized void sendCancelled(long clOrdId, long orderMsb, long orderLsb, long cancelledQty) {
+        if (reserve(BinaryProtocol.HEADER_BYTES + BinaryProtocol.CANCELLED_BYTES))
+            BinaryProtocol.putCancelled(outbound, clOrdId, orderMsb, orderLsb, cancelledQty);
+    }
+
+    synchronized void sendReject(long clOrdId, byte reason) {
+        if (reserve(BinaryProtocol.HEADER_BYTES + BinaryProtocol.REJECT_BYTES))
+            BinaryProtocol.putReject(outbound, clOrdId, reason);
+    }
+
+    /**
+     * Escreve o que estiver pendente. Chamado depois de um lote de respostas
+     * (pela thread que as gerou) e pelo selector em OP_WRITE.
+     *
+     * @return se ainda sobrou algo no buffer
+     */
+    synchronized boolean flush() {
+        if (closed)
+            return false;
+        outbound.flip();
+        try {
+            channel.write(outbound);
+        } catch (IOException e) {
+            outbound.clear();
+            close();
+            return false;
+        }
+        boolean pending = outbound.hasRemaining();
+        outbound.compact();
+        if (pending && !writeRequested) {
+            writeRequested = true;
+            gateway.requestWrite(this);
+        } else if (!pending) {
+            writeRequested = false;
+        }
+        return pending;
+    }
+
+    void close() {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // já estava fechando
+        }
+        gateway.closed(this);
+    }
+
+    private boolean reserve(int bytes) {
+        if (closed)
+            return false;
+        if (outbound.remaining() < bytes) {
+            close();
+            return false;
+        }
+        return true;
+    }
+}
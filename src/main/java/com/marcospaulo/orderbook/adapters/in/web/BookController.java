@@ -0,0 +1,44 @@
+package com.marcospaulo.orderbook.adapters.in.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.marcospaulo.orderbook.application.marketdata.BookSnapshot;
+import com.marcospaulo.orderbook.application.service.InstrumentRouter;
+
+/**
+ * Profundidade do livro lida da última publicação do writer: nunca entra na
+ * fila de comandos. O ETag é a versão do snapshot, então polling sem mudança
+ * responde 304 sem corpo.
+ */
+@RestController
+@RequestMapping("/book")
+public class BookController {
+
+    private final InstrumentRouter router;
+
+    public BookController(InstrumentRouter router) {
+        this.router = router;
+    }
+
+    @GetMapping
+    public ResponseEntity<BookResponse> get(
+            @RequestParam(required = false) String symbol,
+            @RequestParam(defaultValue = "10") int depth,
+            @RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch) {
+        String s = symbol == null ? router.defaultInstrument().symbol() : symbol;
+        BookSnapshot book = router.book(s).orElse(null);
+        if (book == null)
+            return ResponseEntity.notFound().build();
+
+        String etag = "\"" + book.version() + "-" + depth + "\"";
+        if (etag.equals(ifNoneMatch))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        return ResponseEntity.ok().eTag(etag).body(BookResponse.from(book, depth));
+    }
+}
@@ -0,0 +1,36 @@
+package com.marcospaulo.orderbook.adapters.in.web;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import com.marcospaulo.orderbook.application.marketdata.BookSnapshot;
+import com.marcospaulo.orderbook.domain.model.Side;
+
+public record BookResponse(
+        String symbol,
+        long version,
+        long sequence,
+        Instant publishedAt,
+        List<Level> bids,
+        List<Level> asks) {
+
+    public record Level(BigDecimal price, long quantity) {
+    }
+
+    public static BookResponse from(BookSnapshot book, int depth) {
+        return new BookResponse(
+                book.symbol(),
+                book.version(),
+                book.marketDataSequence(),
+                book.publishedAt(),
+                levels(book, Side.BUY, depth),
+                levels(book, Side.SELL, depth));
+    }
+
+    private static List<Level> levels(BookSnapshot book, Side side, int depth) {
+        return book.levels(side, depth).stream()
+                .map(l -> new Level(l.price().value(), l.quantity()))
+                .toList();
+    }
+}
@@ -0,0 +1,73 @@
+package com.marcospaulo.orderbook.adapters.in.web;
+
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.application.exception.BackpressureException;
+import com.marcospaulo.orderbook.application.exception.OutcomeUnknownException;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+
+/**
+ * Tradução das falhas do engine para HTTP. O Spring MVC já desembrulha a
+ * {@code CompletionException} dos futures, então o mesmo handler cobre erros
+ * síncronos (parse da requisição) e assíncronos (execução no writer).
+ *
+ * <ul>
+ * <li>{@link BackpressureException}: fila cheia ou engine fechando → 429 com
+ * {@code Retry-After};</li>
+ * <li>regra de negócio recusada no writer → 422;</li>
+ * <li>{@link OutcomeUnknownException}: executou mas o commit falhou → 503
+ * com {@code unknown}, para o cliente consultar antes de reenviar;</li>
+ * <li>demais falhas do engine (journal, snapshot) → 503;</li>
+ * <li>entrada inválida (inclusive corpo que não passa no {@code @Valid}) →
+ * 400.</li>
+ * </ul>
+ */
+@RestControllerAdvice
+public class EngineExceptionHandler {
+
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    @ExceptionHandler(BackpressureException.class)
+    public ResponseEntity<ErrorResponse> backpressure(BackpressureException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(new ErrorResponse("backpressure", e.getMessage()));
+    }
+
+    @ExceptionHandler(OutcomeUnknownException.class)
+    public ResponseEntity<ErrorResponse> outcomeUnknown(OutcomeUnknownException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse("unknown", e.getMessage()));
+    }
+
+    @ExceptionHandler(ApplicationException.class)
+    public ResponseEntity<ErrorResponse> application(ApplicationException e) {
+        if (e.getCause() instanceof DomainException rejected)
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(new ErrorResponse("rejected", rejected.getMessage()));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse("unavailable", e.getMessage()));
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponse> invalidBody(MethodArgumentNotValidException e) {
+        String message = e.getBindingResult().getFieldErrors().stream()
+                .map(f -> f.getField() + " " + f.getDefaultMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        return ResponseEntity.badRequest().body(new ErrorResponse("invalid", message));
+    }
+
+    @ExceptionHandler({ DomainException.class, IllegalArgumentException.class })
+    public ResponseEntity<ErrorResponse> badRequest(RuntimeException e) {
+        return ResponseEntity.badRequest().body(new ErrorResponse("invalid", e.getMessage()));
+    }
+}
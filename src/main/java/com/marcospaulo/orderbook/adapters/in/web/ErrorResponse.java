@@ -0,0 +1,4 @@
+package com.marcospaulo.orderbook.adapters.in.web;
+
+public record ErrorResponse(String error, String message) {
+}
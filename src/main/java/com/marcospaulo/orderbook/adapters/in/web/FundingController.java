@@ -1,7 +1,7 @@
 package com.marcospaulo.orderbook.adapters.in.web;
 
 import java.math.BigDecimal;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -9,20 +9,34 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.marcospaulo.orderbook.application.ports.out.WalletRepository;
-import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.application.command.DepositCommand;
+import com.marcospaulo.orderbook.application.command.FundWalletCommand;
+import com.marcospaulo.orderbook.application.service.AdmissionControl;
+import com.marcospaulo.orderbook.application.service.InstrumentRouter;
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
 import com.marcospaulo.orderbook.domain.model.vo.UserId;
 
+import jakarta.validation.*;
 import jakarta.validation.constraints.*;
 
+/**
+ * Depósito passa pelo engine do instrumento, como qualquer outra mudança de
+ * saldo: nada de mexer na carteira fora da thread do writer. Cada instrumento
+ * tem seu ledger; saldo muda de ledger por transferência
+ * ({@link InstrumentRouter#transfer}).
+ */
 @RestController
 @RequestMapping("/funding")
 public class FundingController {
 
-    private final WalletRepository wallets;
+    private final InstrumentRouter router;
+    private final AdmissionControl admission;
 
-    public FundingController(WalletRepository wallets) {
-        this.wallets = wallets;
+    public FundingController(InstrumentRouter router, AdmissionControl admission) {
+        this.router = router;
+        this.admission = admission;
     }
 
     public record FundRequest(
@@ -31,17 +45,73 @@ public class FundingController {
             @NotNull @PositiveOrZero BigDecimal vibranium) {
     }
 
+    /**
+     * {@code symbol} opcional: o instrumento padrão. {@code asset} é o código
+     * da base ou da cotação do instrumento.
+     */
+    public record DepositRequest(
+            @NotBlank String userId,
+            String symbol,
+            @NotBlank String asset,
+            @NotNull @Positive BigDecimal amount) {
+    }
+
+    public record TransferRequest(
+            @NotBlank String userId,
+            @NotBlank String asset,
+            @NotNull @Positive BigDecimal amount,
+            @NotBlank String fromSymbol,
+            @NotBlank String toSymbol) {
+    }
+
+    /**
+     * Cash e vibranium no ledger do instrumento padrão.
+     */
     @PostMapping
-    public ResponseEntity<Void> fund(@RequestBody FundRequest req) {
-        UserId uid = UserId.of(UUID.fromString(req.userId()));
+    public CompletableFuture<ResponseEntity<Void>> fund(@Valid @RequestBody FundRequest req) {
+        UserId userId = UserId.fromString(req.userId());
+        FundWalletCommand command = new FundWalletCommand(userId, req.cash(), req.vibranium());
+        return admission.submit(userId, () -> router.submit(router.defaultInstrument().symbol(), command))
+                .thenApply(done -> ResponseEntity.noContent().<Void>build());
+    }
+
+    @PostMapping("/deposits")
+    public CompletableFuture<ResponseEntity<Void>> deposit(@Valid @RequestBody DepositRequest req) {
+        String symbol = req.symbol() == null || req.symbol().isBlank()
+                ? router.defaultInstrument().symbol()
+                : req.symbol();
+        Instrument instrument = router.instrument(symbol).orElse(null);
+        if (instrument == null)
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
 
-        Wallet w = wallets.findByUserId(uid)
-                .orElseGet(() -> Wallet.create(uid, BigDecimal.ZERO, BigDecimal.ZERO));
+        UserId userId = UserId.fromString(req.userId());
+        DepositCommand command = new DepositCommand(userId, assetOf(instrument, req.asset()), req.amount());
+        return admission.submit(userId, () -> router.submit(symbol, command))
+                .thenApply(done -> ResponseEntity.noContent().<Void>build());
+    }
 
-        w.depositCash(req.cash());
-        w.depositVibranium(req.vibranium());
+    /**
+     * O ativo tem que ser negociado no instrumento de destino; sair da origem
+     * depende só do saldo disponível lá.
+     */
+    @PostMapping("/transfers")
+    public CompletableFuture<ResponseEntity<Void>> transfer(@Valid @RequestBody TransferRequest req) {
+        Instrument to = router.instrument(req.toSymbol()).orElse(null);
+        if (to == null || router.instrument(req.fromSymbol()).isEmpty())
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+
+        UserId userId = UserId.fromString(req.userId());
+        Asset asset = assetOf(to, req.asset());
+        return admission.submit(userId,
+                () -> router.transfer(userId, asset, req.amount(), req.fromSymbol(), req.toSymbol()))
+                .thenApply(done -> ResponseEntity.noContent().<Void>build());
+    }
 
-        wallets.save(w);
-        return ResponseEntity.noContent().build();
+    private static Asset assetOf(Instrument instrument, String code) {
+        if (instrument.base().code().equals(code))
+            return instrument.base();
+        if (instrument.quote().code().equals(code))
+            return instrument.quote();
+        throw new DomainException("asset " + code + " is not traded on " + instrument.symbol());
     }
 }
@@ -0,0 +1,50 @@
+package com.marcospaulo.orderbook.adapters.in.web;
+
+import java.io.IOException;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.marcospaulo.orderbook.adapters.out.marketdata.ConflatingMarketDataHub;
+import com.marcospaulo.orderbook.adapters.out.marketdata.MarketDataBatch;
+import com.marcospaulo.orderbook.application.marketdata.MarketDataUpdate;
+
+/**
+ * Stream SSE de deltas L2 e trades. Cada evento {@code update} traz um
+ * instrumento; níveis vêm com o agregado atual (0 = nível removido). Com
+ * {@code gap = true} o cliente perdeu algo e deve recarregar o livro.
+ */
+@RestController
+@RequestMapping("/market-data")
+public class MarketDataController {
+
+    private final ConflatingMarketDataHub hub;
+
+    public MarketDataController(ConflatingMarketDataHub hub) {
+        this.hub = hub;
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) String symbol) {
+        SseEmitter emitter = new SseEmitter(0L);
+        ConflatingMarketDataHub.Subscription subscription = hub.subscribe(symbol, batch -> send(emitter, batch));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        return emitter;
+    }
+
+    private static void send(SseEmitter emitter, MarketDataBatch batch) throws IOException {
+        boolean gap = batch.gap();
+        for (MarketDataUpdate u : batch.updates()) {
+            emitter.send(SseEmitter.event().name("update").data(MarketDataEvent.from(u, gap)));
+            gap = false;
+        }
+        if (gap)
+            emitter.send(SseEmitter.event().name("gap").data(""));
+    }
+}
@@ -0,0 +1,41 @@
+package com.marcospaulo.orderbook.adapters.in.web;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import com.marcospaulo.orderbook.application.marketdata.LevelUpdate;
+import com.marcospaulo.orderbook.application.marketdata.MarketDataUpdate;
+import com.marcospaulo.orderbook.application.marketdata.TradePrint;
+
+public record MarketDataEvent(
+        String symbol,
+        long sequence,
+        boolean gap,
+        List<Level> levels,
+        List<Print> trades) {
+
+    public record Level(String side, BigDecimal price, long quantity) {
+    }
+
+    public record Print(String tradeId, BigDecimal price, long quantity, String aggressor, Instant executedAt) {
+    }
+
+    public static MarketDataEvent from(MarketDataUpdate u, boolean gap) {
+        return new MarketDataEvent(
+                u.symbol(),
+                u.sequence(),
+                gap,
+                u.levels().stream().map(MarketDataEvent::level).toList(),
+                u.trades().stream().map(MarketDataEvent::print).toList());
+    }
+
+    private static Level level(LevelUpdate l) {
+        return new Level(l.side().name(), l.price().value(), l.quantity());
+    }
+
+    private static Print print(TradePrint t) {
+        return new Print(t.tradeId().toString(), t.price().value(), t.quantity(), t.aggressor().name(),
+                t.executedAt());
+    }
+}
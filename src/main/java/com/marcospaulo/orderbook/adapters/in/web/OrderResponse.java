@@ -0,0 +1,33 @@
+package com.marcospaulo.orderbook.adapters.in.web;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.Side;
+
+/**
+ * Cópia imutável de uma ordem, montada na thread do writer.
+ */
+public record OrderResponse(
+        String orderId,
+        String userId,
+        Side side,
+        BigDecimal price,
+        long originalQty,
+        long remainingQty,
+        String status,
+        Instant createdAt) {
+    public static OrderResponse from(Order o) {
+        String status = o.isCancelled() ? "CANCELLED" : o.isFilled() ? "FILLED" : "OPEN";
+        return new OrderResponse(
+                o.id().toString(),
+                o.userId().toString(),
+                o.side(),
+                o.price().value(),
+                o.originalQty().value(),
+                o.remainingQty().value(),
+                status,
+                o.createdAt());
+    }
+}
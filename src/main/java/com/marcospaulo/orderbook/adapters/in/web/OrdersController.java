@@ -0,0 +1,137 @@
+package com.marcospaulo.orderbook.adapters.in.web;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.CancelOrderResult;
+import com.marcospaulo.orderbook.application.command.Command;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderResult;
+import com.marcospaulo.orderbook.application.service.AdmissionControl;
+import com.marcospaulo.orderbook.application.service.InstrumentRouter;
+import com.marcospaulo.orderbook.domain.model.OrderType;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.TimeInForce;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+import jakarta.validation.*;
+import jakarta.validation.constraints.*;
+
+/**
+ * Entrada de ordens. O comando vai para a fila do engine e o future volta
+ * direto para o Spring MVC: a thread do servlet é liberada na hora e a
+ * resposta sai quando o writer completa o comando (já com commit no journal).
+ * Antes da fila passa por {@link AdmissionControl}, que recusa com 429 quando
+ * há comandos demais em voo. Falhas são traduzidas em
+ * {@link EngineExceptionHandler}.
+ *
+ * A consulta de uma ordem também vai pela fila: o repositório de ordens é do
+ * writer e a resposta é copiada lá. Ordens terminadas ficam visíveis enquanto
+ * estiverem no arquivo do repositório.
+ */
+@RestController
+@RequestMapping("/orders")
+public class OrdersController {
+
+    private final InstrumentRouter router;
+    private final AdmissionControl admission;
+
+    public OrdersController(InstrumentRouter router, AdmissionControl admission) {
+        this.router = router;
+        this.admission = admission;
+    }
+
+    /**
+     * {@code type} e {@code timeInForce} opcionais: LIMIT e GTC. Ordem a
+     * mercado vai sem {@code price}; STOP e STOP_LIMIT levam
+     * {@code stopPrice}. {@code displayQuantity} faz de uma LIMIT/GTC uma
+     * iceberg.
+     */
+    public record PlaceOrderRequest(
+            @NotBlank String userId,
+            String symbol,
+            @NotNull Side side,
+            OrderType type,
+            TimeInForce timeInForce,
+            @Positive BigDecimal price,
+            @Positive BigDecimal stopPrice,
+            @Positive long quantity,
+            @Positive Long displayQuantity) {
+    }
+
+    @PostMapping
+    public CompletableFuture<ResponseEntity<PlaceOrderResult>> place(@Valid @RequestBody PlaceOrderRequest req) {
+        String symbol = symbolOrDefault(req.symbol());
+        if (router.instrument(symbol).isEmpty())
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+
+        UserId userId = UserId.fromString(req.userId());
+        PlaceOrderCommand command = new PlaceOrderCommand(
+                userId,
+                req.side(),
+                req.type() == null ? OrderType.LIMIT : req.type(),
+                req.timeInForce() == null ? TimeInForce.GTC : req.timeInForce(),
+                req.price() == null ? null : Price.of(req.price()),
+                req.stopPrice() == null ? null : Price.of(req.stopPrice()),
+                Quantity.ofPositive(req.quantity()),
+                req.displayQuantity() == null ? null : Quantity.ofPositive(req.displayQuantity()));
+        return admission.submit(userId, () -> router.submit(symbol, command))
+                .thenApply(result -> ResponseEntity.status(HttpStatus.CREATED).body(result));
+    }
+
+    @DeleteMapping("/{orderId}")
+    public CompletableFuture<ResponseEntity<CancelOrderResult>> cancel(
+            @PathVariable String orderId,
+            @RequestParam String userId,
+            @RequestParam(required = false) String symbol) {
+        String s = symbolOrDefault(symbol);
+        if (router.instrument(s).isEmpty())
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+
+        UserId uid = UserId.fromString(userId);
+        CancelOrderCommand command = new CancelOrderCommand(uid, OrderId.fromString(orderId));
+        return admission.submit(uid, () -> router.submit(s, command)).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{orderId}")
+    public CompletableFuture<ResponseEntity<OrderResponse>> get(
+            @PathVariable String orderId,
+            @RequestParam String userId,
+            @RequestParam(required = false) String symbol) {
+        String s = symbolOrDefault(symbol);
+        if (router.instrument(s).isEmpty())
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+
+        UserId uid = UserId.fromString(userId);
+        OrderId oid = OrderId.fromString(orderId);
+        Command<Optional<OrderResponse>> read = ctx -> ctx.orderRepository()
+                .findById(oid)
+                .filter(o -> o.userId().equals(uid))
+                .map(OrderResponse::from);
+
+        return admission.submit(uid, () -> router.submit(s, read))
+                .thenApply(order -> order
+                        .map(ResponseEntity::ok)
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    private String symbolOrDefault(String symbol) {
+        return symbol == null || symbol.isBlank() ? router.defaultInstrument().symbol() : symbol;
+    }
+}
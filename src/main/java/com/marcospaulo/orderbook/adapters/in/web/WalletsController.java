@@ -1,33 +1,54 @@
 package com.marcospaulo.orderbook.adapters.in.web;
 
-import java.util.UUID;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.marcospaulo.orderbook.application.ports.out.WalletRepository;
+import com.marcospaulo.orderbook.application.command.Command;
+import com.marcospaulo.orderbook.application.service.AdmissionControl;
+import com.marcospaulo.orderbook.application.service.InstrumentRouter;
 import com.marcospaulo.orderbook.domain.model.vo.UserId;
 
+/**
+ * A carteira é estado do writer: a leitura vai pela fila como um comando sem
+ * journal e a resposta é montada na thread do writer, sem ver saldo no meio de
+ * uma execução. Cada instrumento tem seu ledger; sem {@code symbol}, o do
+ * instrumento padrão.
+ */
 @RestController
 @RequestMapping("/wallets")
 public class WalletsController {
 
-    private final WalletRepository wallets;
+    private final InstrumentRouter router;
+    private final AdmissionControl admission;
 
-    public WalletsController(WalletRepository wallets) {
-        this.wallets = wallets;
+    public WalletsController(InstrumentRouter router, AdmissionControl admission) {
+        this.router = router;
+        this.admission = admission;
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<WalletResponse> get(@PathVariable String userId) {
-        UserId uid = UserId.of(UUID.fromString(userId));
-
-        return wallets.findByUserId(uid)
-                .map(WalletResponse::from)
-                .map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public CompletableFuture<ResponseEntity<WalletResponse>> get(
+            @PathVariable String userId,
+            @RequestParam(required = false) String symbol) {
+        String s = symbol == null || symbol.isBlank() ? router.defaultInstrument().symbol() : symbol;
+        if (router.instrument(s).isEmpty())
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+
+        UserId uid = UserId.fromString(userId);
+        Command<Optional<WalletResponse>> read = ctx -> ctx.walletRepository()
+                .findByUserId(uid)
+                .map(WalletResponse::from);
+
+        return admission.submit(uid, () -> router.submit(s, read))
+                .thenApply(wallet -> wallet
+                        .map(ResponseEntity::ok)
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
     }
 }
@@ -0,0 +1,289 @@
+package com.marcospaulo.orderbook.adapters.out.journal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.CompleteTransferCommand;
+import com.marcospaulo.orderbook.application.command.DepositCommand;
+import com.marcospaulo.orderbook.application.command.ForgetTransferCommand;
+import com.marcospaulo.orderbook.application.command.FundWalletCommand;
+import com.marcospaulo.orderbook.application.command.JournaledCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.ReduceOrderCommand;
+import com.marcospaulo.orderbook.application.command.TransferInCommand;
+import com.marcospaulo.orderbook.application.command.TransferOutCommand;
+import com.marcospaulo.orderbook.application.command.WithdrawCommand;
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.OrderType;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.TimeInForce;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Formato binário dos comandos no journal: 1 byte de tipo + campos de tamanho
+ * fixo (usuário = UUID em 2 longs, id de ordem em 1 long, preço em ticks,
+ * quantidades em long, valores monetários em unidades da escala do ativo).
+ * Id de ordem 0 no PlaceOrder significa "atribuído pelo writer", preço 0,
+ * ordem a mercado, stop 0, ordem sem disparo, e parcela visível 0, ordem
+ * comum. Ativos vão como código ASCII prefixado pelo tamanho, mais a escala;
+ * símbolos de instrumento, como ASCII prefixado pelo tamanho. Transferências
+ * levam o id (UUID) que as torna idempotentes.
+ *
+ * Qualquer mudança aqui muda a versão do journal e a da gravação.
+ */
+final class CommandCodec {
+
+    static final byte PLACE_ORDER = 1;
+    static final byte CANCEL_ORDER = 2;
+    static final byte REDUCE_ORDER = 3;
+    static final byte FUND_WALLET = 4;
+    static final byte DEPOSIT = 5;
+    static final byte WITHDRAW = 6;
+    static final byte TRANSFER_OUT = 7;
+    static final byte TRANSFER_IN = 8;
+    static final byte COMPLETE_TRANSFER = 9;
+    static final byte FORGET_TRANSFER = 10;
+
+    // tamanho + código de até MAX_CODE_LENGTH + escala
+    private static final int MAX_ASSET_BYTES = 1 + Asset.MAX_CODE_LENGTH + 1;
+    // tamanho + símbolo de até MAX_SYMBOL_LENGTH
+    private static final int MAX_SYMBOL_BYTES = 1 + Instrument.MAX_SYMBOL_LENGTH;
+
+    /**
+     * Maior comando codificado, em bytes (tipo incluído), com código de ativo
+     * e símbolo no tamanho máximo. Hoje é a saída de transferência: 1 + 16 +
+     * 16 + 18 + 8 + 17 = 76.
+     */
+    static final int MAX_ENCODED_BYTES = max(
+            1 + 8 + 12 + 16 + 1 + 1 + 1 + 8 + 8 + 8 + 8, // PlaceOrder
+            1 + 16 + 8, // CancelOrder
+            1 + 16 + 8 + 8, // ReduceOrder
+            1 + 16 + 8 + 8, // FundWallet
+            1 + 16 + MAX_ASSET_BYTES + 8, // Deposit, Withdraw
+            1 + 16 + 16 + MAX_ASSET_BYTES + 8 + MAX_SYMBOL_BYTES, // TransferOut
+            1 + 16 + 16 + MAX_ASSET_BYTES + 8, // TransferIn
+            1 + 16 + 1, // CompleteTransfer
+            1 + 16); // ForgetTransfer
+
+    private CommandCodec() {
+    }
+
+    static void encode(JournaledCommand<?> command, ByteBuffer buf) {
+        if (command instanceof PlaceOrderCommand c) {
+            buf.put(PLACE_ORDER);
+            buf.putLong(c.orderId() == null ? 0 : c.orderId().value());
+            buf.putLong(c.submittedAt().getEpochSecond());
+            buf.putInt(c.submittedAt().getNano());
+            putUuid(buf, c.userId().value());
+            buf.put((byte) c.side().ordinal());
+            buf.put((byte) c.type().ordinal());
+            buf.put((byte) c.timeInForce().ordinal());
+            buf.putLong(c.price() == null ? 0 : c.price().ticks());
+            buf.putLong(c.stopPrice() == null ? 0 : c.stopPrice().ticks());
+            buf.putLong(c.quantity().value());
+            buf.putLong(c.displayQty() == null ? 0 : c.displayQty().value());
+        } else if (command instanceof CancelOrderCommand c) {
+            buf.put(CANCEL_ORDER);
+            putUuid(buf, c.userId().value());
+            buf.putLong(c.orderId().value());
+        } else if (command instanceof ReduceOrderCommand c) {
+            buf.put(REDUCE_ORDER);
+            putUuid(buf, c.userId().value());
+            buf.putLong(c.orderId().value());
+            buf.putLong(c.reduceBy().value());
+        } else if (command instanceof FundWalletCommand c) {
+            buf.put(FUND_WALLET);
+            putUuid(buf, c.userId().value());
+            buf.putLong(toUnits(c.cash(), Asset.CASH));
+            buf.putLong(toUnits(c.vibranium(), Asset.VIBRANIUM));
+        } else if (command instanceof DepositCommand c) {
+            buf.put(DEPOSIT);
+            putUuid(buf, c.userId().value());
+            putAsset(buf, c.asset());
+            buf.putLong(toUnits(c.amount(), c.asset()));
+        } else if (command instanceof WithdrawCommand c) {
+            buf.put(WITHDRAW);
+            putUuid(buf, c.userId().value());
+            putAsset(buf, c.asset());
+            buf.putLong(toUnits(c.amount(), c.asset()));
+        } else if (command instanceof TransferOutCommand c) {
+            buf.put(TRANSFER_OUT);
+            putUuid(buf, c.transferId());
+            putUuid(buf, c.userId().value());
+            putAsset(buf, c.asset());
+            buf.putLong(toUnits(c.amount(), c.asset()));
+            putAscii(buf, c.toSymbol());
+        } else if (command instanceof TransferInCommand c) {
+            buf.put(TRANSFER_IN);
+            putUuid(buf, c.transferId());
+            putUuid(buf, c.userId().value());
+            putAsset(buf, c.asset());
+            buf.putLong(toUnits(c.amount(), c.asset()));
+        } else if (command instanceof CompleteTransferCommand c) {
+            buf.put(COMPLETE_TRANSFER);
+            putUuid(buf, c.transferId());
+            buf.put((byte) (c.refund() ? 1 : 0));
+        } else if (command instanceof ForgetTransferCommand c) {
+            buf.put(FORGET_TRANSFER);
+            putUuid(buf, c.transferId());
+        } else {
+            throw new ApplicationException("no journal encoding for " + command.getClass().getName());
+        }
+    }
+
+    /**
+     * Decodifica o comando de {@code length} bytes na posição corrente e
+     * avança sobre ele. Um corpo que não ocupa exatamente {@code length}
+     * bytes é um registro corrompido ou de outro formato.
+     */
+    static JournaledCommand<?> decode(ByteBuffer buf, int length) {
+        int start = buf.position();
+        if (length <= 0 || length > buf.remaining())
+            throw new ApplicationException("command of " + length + " bytes does not fit the record");
+        ByteBuffer body = buf.slice(start, length);
+        JournaledCommand<?> command;
+        try {
+            command = decode(body);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException | DomainException e) {
+            throw new ApplicationException("corrupt command of " + length + " bytes", e);
+        }
+        if (body.hasRemaining())
+            throw new ApplicationException("command decoded from " + body.position() + " of " + length + " bytes");
+        buf.position(start + length);
+        return command;
+    }
+
+    private static JournaledCommand<?> decode(ByteBuffer buf) {
+        byte type = buf.get();
+        return switch (type) {
+            case PLACE_ORDER -> new PlaceOrderCommand(
+                    orderIdOrNull(buf.getLong()),
+                    Instant.ofEpochSecond(buf.getLong(), buf.getInt()),
+                    UserId.of(getUuid(buf)),
+                    Side.values()[buf.get()],
+                    OrderType.values()[buf.get()],
+                    TimeInForce.values()[buf.get()],
+                    priceOrNull(buf.getLong()),
+                    priceOrNull(buf.getLong()),
+                    Quantity.ofNonNegative(buf.getLong()),
+                    quantityOrNull(buf.getLong()));
+            case CANCEL_ORDER -> new CancelOrderCommand(
+                    UserId.of(getUuid(buf)),
+                    OrderId.of(buf.getLong()));
+            case REDUCE_ORDER -> new ReduceOrderCommand(
+                    UserId.of(getUuid(buf)),
+                    OrderId.of(buf.getLong()),
+                    Quantity.ofNonNegative(buf.getLong()));
+            case FUND_WALLET -> new FundWalletCommand(
+                    UserId.of(getUuid(buf)),
+                    BigDecimal.valueOf(buf.getLong(), Asset.CASH.scale()),
+                    BigDecimal.valueOf(buf.getLong(), Asset.VIBRANIUM.scale()));
+            case DEPOSIT -> {
+                UserId user = UserId.of(getUuid(buf));
+                Asset asset = getAsset(buf);
+                yield new DepositCommand(user, asset, BigDecimal.valueOf(buf.getLong(), asset.scale()));
+            }
+            case WITHDRAW -> {
+                UserId user = UserId.of(getUuid(buf));
+                Asset asset = getAsset(buf);
+                yield new WithdrawCommand(user, asset, BigDecimal.valueOf(buf.getLong(), asset.scale()));
+            }
+            case TRANSFER_OUT -> {
+                UUID id = getUuid(buf);
+                UserId user = UserId.of(getUuid(buf));
+                Asset asset = getAsset(buf);
+                BigDecimal amount = BigDecimal.valueOf(buf.getLong(), asset.scale());
+                yield new TransferOutCommand(id, user, asset, amount, getAscii(buf));
+            }
+            case TRANSFER_IN -> {
+                UUID id = getUuid(buf);
+                UserId user = UserId.of(getUuid(buf));
+                Asset asset = getAsset(buf);
+                yield new TransferInCommand(id, user, asset, BigDecimal.valueOf(buf.getLong(), asset.scale()));
+            }
+            case COMPLETE_TRANSFER -> new CompleteTransferCommand(getUuid(buf), buf.get() != 0);
+            case FORGET_TRANSFER -> new ForgetTransferCommand(getUuid(buf));
+            default -> throw new ApplicationException("unknown journal record type " + type);
+        };
+    }
+
+    private static int max(int... sizes) {
+        int max = 0;
+        for (int size : sizes) {
+            max = Math.max(max, size);
+        }
+        return max;
+    }
+
+    private static OrderId orderIdOrNull(long id) {
+        return id == 0 ? null : OrderId.of(id);
+    }
+
+    private static Price priceOrNull(long ticks) {
+        return ticks == 0 ? null : Price.ofTicks(ticks);
+    }
+
+    private static Quantity quantityOrNull(long value) {
+        return value == 0 ? null : Quantity.ofPositive(value);
+    }
+
+    private static void putUuid(ByteBuffer buf, UUID id) {
+        buf.putLong(id.getMostSignificantBits());
+        buf.putLong(id.getLeastSignificantBits());
+    }
+
+    private static void putAsset(ByteBuffer buf, Asset asset) {
+        byte[] code = asset.code().getBytes(StandardCharsets.US_ASCII);
+        buf.put((byte) code.length);
+        buf.put(code);
+        buf.put((byte) asset.scale());
+    }
+
+    private static void putAscii(ByteBuffer buf, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length > Instrument.MAX_SYMBOL_LENGTH)
+            throw new ApplicationException("symbol too long for journal: " + value);
+        buf.put((byte) bytes.length);
+        buf.put(bytes);
+    }
+
+    private static String getAscii(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.get()];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static Asset getAsset(ByteBuffer buf) {
+        byte[] code = new byte[buf.get()];
+        buf.get(code);
+        return Asset.of(new String(code, StandardCharsets.US_ASCII), buf.get());
+    }
+
+    private static UUID getUuid(ByteBuffer buf) {
+        return new UUID(buf.getLong(), buf.getLong());
+    }
+
+    /**
+     * O depósito normaliza para a escala do ativo (HALF_UP) de qualquer forma,
+     * então gravar já normalizado não muda o resultado do replay.
+     */
+    private static long toUnits(BigDecimal amount, Asset asset) {
+        try {
+            return amount.setScale(asset.scale(), RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new ApplicationException("amount out of range for journal: " + amount);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.marcospaulo.orderbook.adapters.out.journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.marcospaulo.orderbook.application.command.JournaledCommand;
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.application.ports.out.CommandRecorder;
+import com.marcospaulo.orderbook.application.replay.CommandRecording;
+
+/**
+ * Gravação em arquivo: cabeçalho {@code [magic][versão]}, depois, no
+ * {@link #begin}, {@code [shard][sequência de ordens][sequência de trades]}, e
+ * então registros {@code [u8 tipo][corpo]}, com o corpo de comando no mesmo
+ * formato do journal ({@link CommandCodec}) e as leituras do relógio como
+ * segundos + nanos. Bufferizado; o engine chama {@link #flush()} a cada lote.
+ */
+public final class FileCommandRecorder implements CommandRecorder {
+
+    private static final int MAGIC = 0x4F425243; // "OBRC"
+    private static final int VERSION = 7;
+    private static final byte COMMAND = 1;
+    private static final byte TIME = 2;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final Path file;
+    private final DataOutputStream out;
+    private final ByteBuffer scratch = ByteBuffer.allocate(CommandCodec.MAX_ENCODED_BYTES);
+    private boolean started;
+
+    private FileCommandRecorder(Path file, DataOutputStream out) {
+        this.file = file;
+        this.out = out;
+    }
+
+    /**
+     * Cria (ou sobrescreve) a gravação.
+     */
+    public static FileCommandRecorder create(Path file) {
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                    BUFFER_BYTES));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            return new FileCommandRecorder(file, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot create recording " + file, e);
+        }
+    }
+
+    @Override
+    public void begin(int idShard, long orderIdSequence, long tradeIdSequence) {
+        if (started)
+            throw new ApplicationException("recording already started");
+        try {
+            out.writeInt(idShard);
+            out.writeLong(orderIdSequence);
+            out.writeLong(tradeIdSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot write recording " + file, e);
+        }
+        started = true;
+    }
+
+    @Override
+    public void recordCommand(JournaledCommand<?> command) {
+        if (!started)
+            return;
+        scratch.clear();
+        CommandCodec.encode(command, scratch);
+        scratch.flip();
+        try {
+            out.writeByte(COMMAND);
+            out.writeByte(scratch.remaining());
+            out.write(scratch.array(), 0, scratch.remaining());
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot write recording " + file, e);
+        }
+    }
+
+    @Override
+    public void recordTime(Instant instant) {
+        if (!started)
+            return;
+        try {
+            out.writeByte(TIME);
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot write recording " + file, e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot write recording " + file, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot close recording " + file, e);
+        }
+    }
+
+    /**
+     * Lê a gravação inteira. Um registro incompleto no fim (processo morto no
+     * meio de um flush) é descartado.
+     */
+    public static CommandRecording read(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file),
+                BUFFER_BYTES))) {
+            if (in.readInt() != MAGIC)
+                throw new ApplicationException("not a command recording: " + file);
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new ApplicationException("unsupported recording version " + version);
+            int idShard;
+            long orderIdSequence;
+            long tradeIdSequence;
+            try {
+                idShard = in.readInt();
+                orderIdSequence = in.readLong();
+                tradeIdSequence = in.readLong();
+            } catch (EOFException e) {
+                throw new ApplicationException("recording " + file + " was never started");
+            }
+
+            List<JournaledCommand<?>> commands = new ArrayList<>();
+            List<Instant> clockReads = new ArrayList<>();
+            byte[] body = new byte[CommandCodec.MAX_ENCODED_BYTES];
+            while (true) {
+                int type = in.read();
+                if (type < 0)
+                    break;
+                try {
+                    if (type == COMMAND) {
+                        int length = in.readUnsignedByte();
+                        in.readFully(body, 0, length);
+                        commands.add(CommandCodec.decode(ByteBuffer.wrap(body), length));
+                    } else if (type == TIME) {
+                        clockReads.add(Instant.ofEpochSecond(in.readLong(), in.readInt()));
+                    } else {
+                        throw new ApplicationException("corrupt recording " + file + ": record type " + type);
+                    }
+                } catch (EOFException truncated) {
+                    break;
+                }
+            }
+            return new CommandRecording(idShard, orderIdSequence, tradeIdSequence, commands, clockReads);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot read recording " + file, e);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.marcospaulo.orderbook.adapters.out.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import com.marcospaulo.orderbook.application.command.JournaledCommand;
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.application.ports.out.CommandJournal;
+
+/**
+ * Journal em segmentos de tamanho fixo mapeados em memória
+ * ({@code <primeira sequência>.journal}).
+ *
+ * Cada segmento começa com {@code [int magic][int versão]}; a versão muda a
+ * cada mudança no formato dos registros ou do {@link CommandCodec}, e a
+ * abertura recusa segmentos de outra versão em vez de decodificá-los errado.
+ *
+ * Registro: {@code [int tamanho][long seq][long segundos][int nanos][comando][int crc32c]},
+ * onde tamanho cobre seq, instante de execução e comando. O tamanho é escrito
+ * por último; na abertura, a leitura para no primeiro registro com tamanho 0
+ * (fim dos dados). Um registro inválido só é aceito como escrita interrompida
+ * se for o último do último segmento: ele é descartado e os próximos appends
+ * continuam dali. Em qualquer outro lugar (segmento anterior, ou seguido de
+ * um registro válido) é corrupção e a abertura falha.
+ *
+ * Group commit: {@link #commitIfDue()} só faz {@code force} depois de
+ * {@code syncEveryCommands} comandos ou {@code syncIntervalMicros}
+ * microssegundos desde o primeiro append ainda não durável.
+ */
+public final class MappedFileCommandJournal implements CommandJournal {
+
+    public static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+    public static final int DEFAULT_SYNC_EVERY_COMMANDS = 256;
+    public static final long DEFAULT_SYNC_INTERVAL_MICROS = 1_000;
+
+    private static final String SUFFIX = ".journal";
+    private static final int MAGIC = 0x4F424A4C; // "OBJL"
+    private static final int VERSION = 2;
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final int HEADER_BYTES = 4;
+    private static final int TRAILER_BYTES = 4;
+    private static final int END = 0;
+    private static final int BROKEN = -1;
+    // seq + instante de execução
+    private static final int PREFIX_BYTES = 8 + 8 + 4;
+    private static final int MAX_RECORD_BYTES = HEADER_BYTES + PREFIX_BYTES + CommandCodec.MAX_ENCODED_BYTES
+            + TRAILER_BYTES;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int syncEveryCommands;
+    private final long syncIntervalNanos;
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int syncedPosition;
+
+    private long lastSequence;
+    private int unsyncedCommands;
+    private long firstUnsyncedAtNanos;
+
+    public MappedFileCommandJournal(Path dir) {
+        this(dir, DEFAULT_SEGMENT_BYTES, DEFAULT_SYNC_EVERY_COMMANDS, DEFAULT_SYNC_INTERVAL_MICROS);
+    }
+
+    public MappedFileCommandJournal(Path dir, int segmentBytes, int syncEveryCommands, long syncIntervalMicros) {
+        if (segmentBytes < SEGMENT_HEADER_BYTES + MAX_RECORD_BYTES * 2)
+            throw new IllegalArgumentException("segmentBytes too small");
+        if (syncEveryCommands <= 0)
+            throw new IllegalArgumentException("syncEveryCommands must be > 0");
+        if (syncIntervalMicros < 0)
+            throw new IllegalArgumentException("syncIntervalMicros must be >= 0");
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.syncEveryCommands = syncEveryCommands;
+        this.syncIntervalNanos = TimeUnit.MICROSECONDS.toNanos(syncIntervalMicros);
+
+        try {
+            Files.createDirectories(dir);
+            openTail();
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot open journal at " + dir, e);
+        }
+    }
+
+    @Override
+    public long append(JournaledCommand<?> command, Instant executedAt) {
+        if (segment.remaining() < MAX_RECORD_BYTES) {
+            roll();
+        }
+
+        long seq = lastSequence + 1;
+        int start = segment.position();
+
+        segment.position(start + HEADER_BYTES);
+        segment.putLong(seq);
+        segment.putLong(executedAt.getEpochSecond());
+        segment.putInt(executedAt.getNano());
+        CommandCodec.encode(command, segment);
+        int end = segment.position();
+        int length = end - start - HEADER_BYTES;
+
+        segment.putInt(checksum(segment, start + HEADER_BYTES, length));
+        segment.putInt(start, length);
+
+        lastSequence = seq;
+        if (unsyncedCommands++ == 0) {
+            firstUnsyncedAtNanos = System.nanoTime();
+        }
+        return seq;
+    }
+
+    @Override
+    public boolean commitIfDue() {
+        if (unsyncedCommands == 0)
+            return true;
+        if (unsyncedCommands >= syncEveryCommands
+                || System.nanoTime() - firstUnsyncedAtNanos >= syncIntervalNanos) {
+            commit();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void commit() {
+        int position = segment.position();
+        if (position > syncedPosition) {
+            segment.force(syncedPosition, position - syncedPosition);
+            syncedPosition = position;
+        }
+        unsyncedCommands = 0;
+    }
+
+    @Override
+    public long maxCommitDelayNanos() {
+        return syncIntervalNanos;
+    }
+
+    @Override
+    public void replay(long afterSequence, BiConsumer<JournaledCommand<?>, Instant> consumer) {
+        List<Path> files = segments();
+        for (int i = 0; i < files.size(); i++) {
+            // segmento inteiro já coberto (ex.: por um snapshot): nem abre
+            if (i + 1 < files.size() && firstSequence(files.get(i + 1)) <= afterSequence + 1)
+                continue;
+            ByteBuffer buf = openSegment(files.get(i));
+            boolean last = i == files.size() - 1;
+            while (true) {
+                int length = nextRecord(buf, files.get(i), last);
+                if (length < 0)
+                    break;
+                int start = buf.position();
+                long seq = buf.getLong(start + HEADER_BYTES);
+                if (seq > afterSequence) {
+                    Instant executedAt = Instant.ofEpochSecond(buf.getLong(start + HEADER_BYTES + 8),
+                            buf.getInt(start + HEADER_BYTES + 16));
+                    buf.position(start + HEADER_BYTES + PREFIX_BYTES);
+                    consumer.accept(CommandCodec.decode(buf, length - PREFIX_BYTES), executedAt);
+                }
+                buf.position(start + HEADER_BYTES + length + TRAILER_BYTES);
+            }
+        }
+    }
+
+    @Override
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public void close() {
+        if (channel == null)
+            return;
+        commit();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+            segment = null;
+        }
+    }
+
+    /**
+     * Varre os segmentos existentes para achar a última sequência válida e
+     * posiciona a escrita logo depois dela.
+     */
+    private void openTail() throws IOException {
+        List<Path> files = segments();
+        if (files.isEmpty()) {
+            createSegment(1);
+            return;
+        }
+
+        for (int i = 0; i < files.size(); i++) {
+            ByteBuffer buf = openSegment(files.get(i));
+            while (true) {
+                int length = nextRecord(buf, files.get(i), i == files.size() - 1);
+                if (length < 0)
+                    break;
+                lastSequence = buf.getLong(buf.position() + HEADER_BYTES);
+                buf.position(buf.position() + HEADER_BYTES + length + TRAILER_BYTES);
+            }
+        }
+
+        Path last = files.get(files.size() - 1);
+        channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        segment.position(SEGMENT_HEADER_BYTES);
+        while (true) {
+            int length = nextRecord(segment, last, true);
+            if (length < 0)
+                break;
+            segment.position(segment.position() + HEADER_BYTES + length + TRAILER_BYTES);
+        }
+
+        // apaga um eventual registro pela metade depois do último válido
+        int tail = segment.position();
+        for (int i = tail; i < Math.min(tail + MAX_RECORD_BYTES, segment.capacity()); i++) {
+            segment.put(i, (byte) 0);
+        }
+        syncedPosition = tail;
+    }
+
+    /**
+     * Tamanho do registro na posição corrente, ou -1 no fim dos dados. Um
+     * registro inválido também é o fim se for a escrita interrompida do último
+     * segmento; fora disso, falha.
+     */
+    private int nextRecord(ByteBuffer buf, Path file, boolean lastSegment) {
+        int start = buf.position();
+        int length = recordLength(buf, start);
+        if (length > 0)
+            return length;
+        if (length == END)
+            return -1;
+        if (lastSegment && !validRecordFollows(buf, start))
+            return -1;
+        throw new ApplicationException("corrupt journal record at offset " + start + " of " + file);
+    }
+
+    /**
+     * Se o tamanho do registro quebrado em {@code start} é plausível e logo
+     * depois dele há um registro íntegro, a quebra não é o fim do log.
+     */
+    private boolean validRecordFollows(ByteBuffer buf, int start) {
+        int length = buf.getInt(start);
+        if (length <= PREFIX_BYTES || length > MAX_RECORD_BYTES)
+            return false;
+        return recordLength(buf, start + HEADER_BYTES + length + TRAILER_BYTES) > 0;
+    }
+
+    /**
+     * Tamanho do registro íntegro em {@code start}, {@link #END} se ali não
+     * começa nenhum (tamanho 0 ou fim do segmento) ou {@link #BROKEN}.
+     */
+    private int recordLength(ByteBuffer buf, int start) {
+        if (buf.limit() - start < HEADER_BYTES)
+            return END;
+        int length = buf.getInt(start);
+        if (length == 0)
+            return END;
+        if (length <= PREFIX_BYTES || length > MAX_RECORD_BYTES)
+            return BROKEN;
+        if (start + HEADER_BYTES + length + TRAILER_BYTES > buf.limit())
+            return BROKEN;
+        int stored = buf.getInt(start + HEADER_BYTES + length);
+        return stored == checksum(buf, start + HEADER_BYTES, length) ? length : BROKEN;
+    }
+
+    private int checksum(ByteBuffer buf, int offset, int length) {
+        crc.reset();
+        crc.update(buf.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private void roll() {
+        commit();
+        try {
+            channel.close();
+            createSegment(lastSequence + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot roll journal segment", e);
+        }
+    }
+
+    private void createSegment(long firstSequence) throws IOException {
+        Path file = dir.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        segment.putInt(MAGIC);
+        segment.putInt(VERSION);
+        segment.force(0, SEGMENT_HEADER_BYTES);
+        syncedPosition = SEGMENT_HEADER_BYTES;
+    }
+
+    /**
+     * Mapeia o segmento para leitura, confere o cabeçalho e posiciona no
+     * primeiro registro.
+     */
+    private static ByteBuffer openSegment(Path file) {
+        ByteBuffer buf = map(file, FileChannel.MapMode.READ_ONLY);
+        if (buf.limit() < SEGMENT_HEADER_BYTES || buf.getInt(0) != MAGIC)
+            throw new ApplicationException("not a journal segment: " + file);
+        int version = buf.getInt(4);
+        if (version != VERSION)
+            throw new ApplicationException("unsupported journal version " + version + " in " + file);
+        return buf.position(SEGMENT_HEADER_BYTES);
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return new ArrayList<>(files
+                    .filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot list journal segments in " + dir, e);
+        }
+    }
+
+    private static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private static ByteBuffer map(Path file, FileChannel.MapMode mode) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return ch.map(mode, 0, ch.size());
+        } catch (IOException e) {
+            throw new ApplicationException("cannot read journal segment " + file, e);
+        }
+    }
+}
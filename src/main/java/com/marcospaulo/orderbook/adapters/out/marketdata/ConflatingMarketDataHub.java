@@ -0,0 +1,282 @@
+package com.marcospaulo.orderbook.adapters.out.marketdata;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.marcospaulo.orderbook.application.marketdata.LevelUpdate;
+import com.marcospaulo.orderbook.application.marketdata.MarketDataUpdate;
+import com.marcospaulo.orderbook.application.marketdata.TradePrint;
+import com.marcospaulo.orderbook.application.ports.out.MarketDataPublisher;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+
+/**
+ * Distribui market data para assinantes sem deixar um assinante lento chegar
+ * até o writer.
+ *
+ * <ul>
+ * <li>{@link #publish} só faz {@code offer} numa fila limitada. Fila cheia
+ * descarta o update e marca {@code gap} para todos.</li>
+ * <li>Um dispatcher consome a fila e funde cada update no pendente de cada
+ * assinante: níveis por (instrumento, lado, preço), ficando só o agregado mais
+ * recente; trades em fila limitada, descartando os mais antigos (com
+ * {@code gap}).</li>
+ * <li>A entrega roda no executor, uma tarefa por assinante por vez: enquanto
+ * um assinante está enviando, o que chega se acumula (conflado) no pendente
+ * dele.</li>
+ * </ul>
+ */
+public final class ConflatingMarketDataHub implements MarketDataPublisher, AutoCloseable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1 << 16;
+    public static final int DEFAULT_MAX_PENDING_TRADES = 10_000;
+
+    private final ArrayBlockingQueue<MarketDataUpdate> inbox;
+    private final int maxPendingTrades;
+    private final Executor delivery;
+    private final ExecutorService ownedDelivery;
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final Thread dispatcher;
+
+    public ConflatingMarketDataHub() {
+        this(DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_PENDING_TRADES, null);
+    }
+
+    /**
+     * @param delivery executor das entregas; {@code null} usa uma virtual
+     *                 thread por entrega (e o hub a encerra no close)
+     */
+    public ConflatingMarketDataHub(int queueCapacity, int maxPendingTrades, Executor delivery) {
+        if (queueCapacity <= 0)
+            throw new IllegalArgumentException("queueCapacity must be > 0");
+        if (maxPendingTrades <= 0)
+            throw new IllegalArgumentException("maxPendingTrades must be > 0");
+        this.inbox = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxPendingTrades = maxPendingTrades;
+        this.ownedDelivery = delivery == null ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        this.delivery = delivery == null ? ownedDelivery : delivery;
+        this.dispatcher = new Thread(this::dispatch, "orderbook-market-data");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    @Override
+    public void publish(MarketDataUpdate update) {
+        if (!inbox.offer(update))
+            dropped.incrementAndGet();
+    }
+
+    /**
+     * @param symbol só updates deste instrumento; {@code null} assina todos
+     */
+    public Subscription subscribe(String symbol, MarketDataSubscriber subscriber) {
+        if (subscriber == null)
+            throw new IllegalArgumentException("subscriber must not be null");
+        Subscription s = new Subscription(symbol, subscriber);
+        subscriptions.add(s);
+        return s;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Updates descartados com a fila cheia desde a criação.
+     */
+    public long droppedUpdates() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() {
+        if (!running.compareAndSet(true, false))
+            return;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join(2_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        subscriptions.clear();
+        if (ownedDelivery != null)
+            ownedDelivery.shutdown();
+    }
+
+    private void dispatch() {
+        List<MarketDataUpdate> batch = new ArrayList<>();
+        long droppedSeen = 0;
+        while (running.get()) {
+            MarketDataUpdate first;
+            try {
+                first = inbox.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            long d = dropped.get();
+            boolean gap = d != droppedSeen;
+            droppedSeen = d;
+            if (first == null && !gap)
+                continue;
+
+            if (first != null)
+                batch.add(first);
+            inbox.drainTo(batch);
+            for (Subscription s : subscriptions) {
+                s.merge(batch, gap);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Assinatura de um consumidor. {@link #close()} para de entregar; uma
+     * entrega em andamento termina normalmente.
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final String symbol;
+        private final MarketDataSubscriber subscriber;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        // pendente, guardado pelo monitor da assinatura
+        private final Map<String, Pending> pending = new LinkedHashMap<>();
+        private boolean gap;
+
+        private Subscription(String symbol, MarketDataSubscriber subscriber) {
+            this.symbol = symbol;
+            this.subscriber = subscriber;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+
+        private void merge(List<MarketDataUpdate> updates, boolean droppedUpstream) {
+            boolean any = droppedUpstream;
+            synchronized (this) {
+                gap |= droppedUpstream;
+                for (int i = 0; i < updates.size(); i++) {
+                    MarketDataUpdate u = updates.get(i);
+                    if (symbol != null && !symbol.equals(u.symbol()))
+                        continue;
+                    any = true;
+                    Pending p = pending.computeIfAbsent(u.symbol(), Pending::new);
+                    if (p.merge(u, maxPendingTrades))
+                        gap = true;
+                }
+            }
+            if (any)
+                schedule();
+        }
+
+        private void schedule() {
+            if (closed || !scheduled.compareAndSet(false, true))
+                return;
+            try {
+                delivery.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+
+        private void drain() {
+            while (!closed) {
+                MarketDataBatch batch = take();
+                if (batch == null) {
+                    scheduled.set(false);
+                    // algo pode ter chegado entre o take vazio e o set
+                    if (!hasPending() || !scheduled.compareAndSet(false, true))
+                        return;
+                    continue;
+                }
+                try {
+                    subscriber.onBatch(batch);
+                } catch (Exception e) {
+                    close();
+                }
+            }
+            scheduled.set(false);
+        }
+
+        private synchronized MarketDataBatch take() {
+            if (pending.isEmpty() && !gap)
+                return null;
+            List<MarketDataUpdate> out = new ArrayList<>(pending.size());
+            for (Pending p : pending.values()) {
+                out.add(p.toUpdate());
+            }
+            MarketDataBatch batch = new MarketDataBatch(out, gap);
+            pending.clear();
+            gap = false;
+            return batch;
+        }
+
+        private synchronized boolean hasPending() {
+            return !pending.isEmpty() || gap;
+        }
+    }
+
+    /**
+     * Updates de um instrumento ainda não entregues a um assinante, já
+     * conflados.
+     */
+    private static final class Pending {
+
+        private final String symbol;
+        private long sequence;
+        private final Map<LevelKey, LevelUpdate> levels = new LinkedHashMap<>();
+        private final ArrayDeque<TradePrint> trades = new ArrayDeque<>();
+
+        Pending(String symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * @return {@code true} se trades antigos foram descartados
+         */
+        boolean merge(MarketDataUpdate u, int maxTrades) {
+            sequence = u.sequence();
+            for (LevelUpdate l : u.levels()) {
+                levels.put(new LevelKey(l.side(), l.price()), l);
+            }
+            boolean dropped = false;
+            for (TradePrint t : u.trades()) {
+                if (trades.size() == maxTrades) {
+                    trades.pollFirst();
+                    dropped = true;
+                }
+                trades.addLast(t);
+            }
+            return dropped;
+        }
+
+        MarketDataUpdate toUpdate() {
+            return new MarketDataUpdate(symbol, sequence, List.copyOf(levels.values()), List.copyOf(trades));
+        }
+    }
+
+    private record LevelKey(Side side, Price price) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.marcospaulo.orderbook.adapters.out.marketdata;
+
+import java.util.List;
+
+import com.marcospaulo.orderbook.application.marketdata.MarketDataUpdate;
+
+/**
+ * O que se acumulou para um assinante desde a última entrega: no máximo um
+ * update por instrumento, com cada nível só no agregado mais recente.
+ *
+ * {@code gap} avisa que algo se perdeu (trades descartados por atraso do
+ * assinante ou updates descartados pelo hub): o consumidor deve recarregar o
+ * livro antes de continuar aplicando deltas.
+ */
+public record MarketDataBatch(List<MarketDataUpdate> updates, boolean gap) {
+}
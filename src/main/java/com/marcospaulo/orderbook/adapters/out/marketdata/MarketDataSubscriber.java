@@ -0,0 +1,12 @@
+package com.marcospaulo.orderbook.adapters.out.marketdata;
+
+/**
+ * Consumidor de market data. Roda no executor de entrega do hub, nunca na
+ * thread do writer nem na do dispatcher; pode bloquear em I/O. Uma exceção
+ * encerra a assinatura.
+ */
+@FunctionalInterface
+public interface MarketDataSubscriber {
+
+    void onBatch(MarketDataBatch batch) throws Exception;
+}
@@ -1,35 +1,188 @@
 package com.marcospaulo.orderbook.adapters.out.memory;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
 
+import com.marcospaulo.orderbook.application.ports.out.TradePage;
+import com.marcospaulo.orderbook.application.ports.out.TradeQuery;
 import com.marcospaulo.orderbook.application.ports.out.TradeRepository;
 import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
 import com.marcospaulo.orderbook.domain.model.vo.UserId;
 
+/**
+ * Fita em chunks de {@value #CHUNK_SIZE} trades: o append nunca copia trades
+ * já gravados (só o diretório de chunks, raramente). Índices por usuário e por
+ * ordem guardam posições na fita e são mantidos no append, então uma página de
+ * histórico custa O(log n + limit).
+ *
+ * Leitores não travam: posições e tamanho são publicados por campos voláteis
+ * depois que o trade está no chunk. O filtro por tempo faz busca binária em
+ * {@link Trade#executedAt()}, que é não-decrescente ao longo da fita porque os
+ * trades são gerados em ordem pelo writer.
+ */
 public final class InMemoryTradeRepository implements TradeRepository {
 
-    private final CopyOnWriteArrayList<Trade> trades = new CopyOnWriteArrayList<>();
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile Trade[][] chunks = new Trade[16][];
+    private volatile int size;
+
+    private final ConcurrentHashMap<UserId, TradePositions> byUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<OrderId, TradePositions> byOrder = new ConcurrentHashMap<>();
 
     @Override
-    public void append(Trade trade) {
-        trades.add(trade);
+    public synchronized void append(Trade trade) {
+        int position = size;
+        if (position == Integer.MAX_VALUE)
+            throw new IllegalStateException("trade tape is full");
+        int c = position >>> CHUNK_SHIFT;
+        Trade[][] dir = chunks;
+        if (c == dir.length) {
+            dir = Arrays.copyOf(dir, dir.length << 1);
+            chunks = dir;
+        }
+        Trade[] chunk = dir[c];
+        if (chunk == null) {
+            chunk = new Trade[CHUNK_SIZE];
+            dir[c] = chunk;
+        }
+        chunk[position & CHUNK_MASK] = trade;
+        size = position + 1;
+
+        index(byUser, trade.buyerId(), position, 8);
+        if (!trade.sellerId().equals(trade.buyerId()))
+            index(byUser, trade.sellerId(), position, 8);
+        index(byOrder, trade.buyOrderId(), position, 2);
+        index(byOrder, trade.sellOrderId(), position, 2);
     }
 
     @Override
     public List<Trade> findByUser(UserId userId) {
-        List<Trade> out = new ArrayList<>();
-        for (Trade t : trades) {
-            if (userId != null) {
-                out.add(t);
-            }
+        return collect(byUser.get(userId));
+    }
+
+    @Override
+    public TradePage findByUser(UserId userId, TradeQuery query) {
+        TradePositions idx = byUser.get(userId);
+        if (idx == null)
+            return new TradePage(List.of(), TradePage.END);
+        int n = idx.size();
+        int[] positions = idx.array();
+        return page(i -> positions[i], n, query);
+    }
+
+    @Override
+    public List<Trade> findByOrder(OrderId orderId) {
+        return collect(byOrder.get(orderId));
+    }
+
+    @Override
+    public TradePage findPage(TradeQuery query) {
+        return page(i -> i, size, query);
+    }
+
+    @Override
+    public List<Trade> findAll() {
+        int n = size;
+        List<Trade> out = new ArrayList<>(n);
+        Trade[][] dir = chunks;
+        for (int i = 0; i < n; i++) {
+            out.add(dir[i >>> CHUNK_SHIFT][i & CHUNK_MASK]);
         }
         return out;
     }
 
     @Override
-    public List<Trade> findAll() {
-        return new ArrayList<>(trades);
+    public int count() {
+        return size;
+    }
+
+    @Override
+    public void forEach(int count, Consumer<Trade> visitor) {
+        int n = size;
+        if (count < 0 || count > n)
+            throw new IndexOutOfBoundsException("tape has " + n + " trades, asked for " + count);
+        n = count;
+        Trade[][] dir = chunks;
+        for (int i = 0; i < n; i++) {
+            visitor.accept(dir[i >>> CHUNK_SHIFT][i & CHUNK_MASK]);
+        }
+    }
+
+    private static <K> void index(ConcurrentHashMap<K, TradePositions> map, K key, int position, int capacity) {
+        TradePositions idx = map.get(key);
+        if (idx == null) {
+            idx = new TradePositions(capacity);
+            map.put(key, idx);
+        }
+        idx.add(position);
+    }
+
+    private List<Trade> collect(TradePositions idx) {
+        if (idx == null)
+            return List.of();
+        int n = idx.size();
+        int[] positions = idx.array();
+        Trade[][] dir = chunks;
+        List<Trade> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(at(dir, positions[i]));
+        }
+        return out;
+    }
+
+    /**
+     * {@code positionAt} é crescente em [0, n). Os limites do cursor e do
+     * intervalo de tempo saem por busca binária; depois só a página é lida.
+     */
+    private TradePage page(IntUnaryOperator positionAt, int n, TradeQuery query) {
+        Trade[][] dir = chunks;
+
+        int hi = lowerBound(0, n, i -> positionAt.applyAsInt(i) >= query.before());
+        if (query.to() != null) {
+            Instant to = query.to();
+            hi = lowerBound(0, hi, i -> !at(dir, positionAt.applyAsInt(i)).executedAt().isBefore(to));
+        }
+        int lo = 0;
+        if (query.from() != null) {
+            Instant from = query.from();
+            lo = lowerBound(0, hi, i -> !at(dir, positionAt.applyAsInt(i)).executedAt().isBefore(from));
+        }
+
+        int start = Math.max(lo, hi - query.limit());
+        List<Trade> out = new ArrayList<>(hi - start);
+        for (int i = hi - 1; i >= start; i--) {
+            out.add(at(dir, positionAt.applyAsInt(i)));
+        }
+        long next = start > lo ? positionAt.applyAsInt(start) : TradePage.END;
+        return new TradePage(out, next);
+    }
+
+    /**
+     * Primeiro índice em [lo, hi) onde {@code test} é verdadeiro (o predicado
+     * é monotônico: falso... verdadeiro); {@code hi} se nenhum.
+     */
+    private static int lowerBound(int lo, int hi, IntPredicate test) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (test.test(mid))
+                hi = mid;
+            else
+                lo = mid + 1;
+        }
+        return lo;
+    }
+
+    private static Trade at(Trade[][] dir, int position) {
+        return dir[position >>> CHUNK_SHIFT][position & CHUNK_MASK];
     }
 }
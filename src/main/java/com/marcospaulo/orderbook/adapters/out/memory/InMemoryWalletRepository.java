@@ -6,6 +6,7 @@ import com.marcospaulo.orderbook.domain.model.vo.UserId;
 
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public final class InMemoryWalletRepository implements WalletRepository {
     private final ConcurrentHashMap<UserId, Wallet> store = new ConcurrentHashMap<>();
@@ -19,4 +20,9 @@ public final class InMemoryWalletRepository implements WalletRepository {
     public void save(Wallet wallet) {
         store.put(wallet.userId(), wallet);
     }
+
+    @Override
+    public void forEach(Consumer<Wallet> visitor) {
+        store.values().forEach(visitor);
+    }
 }
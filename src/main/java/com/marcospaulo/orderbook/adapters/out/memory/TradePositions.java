@@ -0,0 +1,42 @@
+package com.marcospaulo.orderbook.adapters.out.memory;
+
+import java.util.Arrays;
+
+/**
+ * Lista crescente de posições na fita de trades (índice secundário por
+ * usuário ou por ordem). Um único escritor; leitores sem lock: o elemento é
+ * escrito antes do {@code size} volátil, e um array trocado no crescimento
+ * sempre contém tudo que o anterior tinha.
+ */
+final class TradePositions {
+
+    private volatile int[] positions;
+    private volatile int size;
+
+    TradePositions(int initialCapacity) {
+        this.positions = new int[initialCapacity];
+    }
+
+    void add(int position) {
+        int n = size;
+        int[] p = positions;
+        if (n == p.length) {
+            p = Arrays.copyOf(p, p.length << 1);
+            positions = p;
+        }
+        p[n] = position;
+        size = n + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Array com pelo menos {@link #size()} posições válidas. Ler o tamanho
+     * antes.
+     */
+    int[] array() {
+        return positions;
+    }
+}
@@ -0,0 +1,128 @@
+package com.marcospaulo.orderbook.adapters.out.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.application.ports.out.SnapshotStore;
+import com.marcospaulo.orderbook.application.snapshot.StateSnapshot;
+
+/**
+ * Um arquivo por snapshot ({@code <sequência>.snapshot}), com CRC32C no fim.
+ * Escreve num temporário, faz fsync e só então renomeia, então um arquivo
+ * {@code .snapshot} nunca fica pela metade. Mantém os {@code retain} mais
+ * recentes; se o último estiver corrompido, {@link #loadLatest()} cai para o
+ * anterior.
+ */
+public final class FileSnapshotStore implements SnapshotStore {
+
+    private static final String SUFFIX = ".snapshot";
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final Path dir;
+    private final int retain;
+
+    public FileSnapshotStore(Path dir) {
+        this(dir, 2);
+    }
+
+    public FileSnapshotStore(Path dir, int retain) {
+        if (retain <= 0)
+            throw new IllegalArgumentException("retain must be > 0");
+        this.dir = dir;
+        this.retain = retain;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot create snapshot dir " + dir, e);
+        }
+    }
+
+    @Override
+    public void save(StateSnapshot snapshot) {
+        String name = String.format("%020d%s", snapshot.sequence(), SUFFIX);
+        Path tmp = dir.resolve(name + ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                CRC32C crc = new CRC32C();
+                OutputStream raw = Channels.newOutputStream(ch);
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(new CheckedOutputStream(raw, crc), BUFFER_BYTES));
+                snapshot.writeTo(out);
+                out.flush();
+                new DataOutputStream(raw).writeInt((int) crc.getValue());
+                ch.force(true);
+            }
+            Files.move(tmp, dir.resolve(name), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot write snapshot " + name, e);
+        }
+        prune();
+    }
+
+    @Override
+    public Optional<StateSnapshot> loadLatest() {
+        for (Path file : snapshotsNewestFirst()) {
+            try {
+                return Optional.of(read(file));
+            } catch (IOException | ApplicationException e) {
+                // corrompido ou truncado: tenta o anterior
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static StateSnapshot read(Path file) throws IOException {
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES)) {
+            CRC32C crc = new CRC32C();
+            DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc));
+            StateSnapshot snapshot = StateSnapshot.readFrom(in);
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(raw).readInt() != expected)
+                throw new ApplicationException("snapshot checksum mismatch: " + file);
+            return snapshot;
+        }
+    }
+
+    private void prune() {
+        List<Path> files = snapshotsNewestFirst();
+        for (int i = retain; i < files.size(); i++) {
+            try {
+                Files.deleteIfExists(files.get(i));
+            } catch (IOException e) {
+                // fica para a próxima gravação
+            }
+        }
+    }
+
+    private List<Path> snapshotsNewestFirst() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing((Path p) -> p.getFileName().toString()).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot list snapshots in " + dir, e);
+        }
+    }
+}
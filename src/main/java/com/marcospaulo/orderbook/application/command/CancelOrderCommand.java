@@ -0,0 +1,79 @@
+package com.marcospaulo.orderbook.application.command;
+
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.StopOrder;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public final class CancelOrderCommand implements JournaledCommand<CancelOrderResult> {
+
+    private final UserId userId;
+    private final OrderId orderId;
+
+    public CancelOrderCommand(UserId userId, OrderId orderId) {
+        this.userId = userId;
+        this.orderId = orderId;
+    }
+
+    public UserId userId() {
+        return userId;
+    }
+
+    public OrderId orderId() {
+        return orderId;
+    }
+
+    @Override
+    public CancelOrderResult execute(CommandContext ctx) {
+        if (userId == null)
+            throw new DomainException("userId must not be null");
+        if (orderId == null)
+            throw new DomainException("orderId must not be null");
+
+        OrderBook book = ctx.orderBookRepository().get();
+        Order order = ctx.orderRepository().findById(orderId).orElse(null);
+        if (order == null)
+            return cancelStop(book);
+        if (!order.userId().equals(userId))
+            throw new DomainException("order does not belong to userId=" + userId);
+
+        // 1) Sai do livro (O(1) pelo índice do lado)
+        book.remove(order).orElseThrow(() -> new DomainException("order is not resting: " + orderId));
+
+        // 2) Libera a reserva do que não foi executado
+        Quantity cancelled = order.remainingQty();
+        Wallet wallet = ctx.walletRepository()
+                .findByUserId(userId)
+                .orElseThrow(() -> new DomainException("wallet not found for userId=" + userId));
+        if (order.side() == Side.BUY) {
+            wallet.releaseForBuy(ctx.instrument(), order.price(), cancelled);
+        } else {
+            wallet.releaseForSell(ctx.instrument(), cancelled);
+        }
+        order.cancel();
+
+        ctx.walletRepository().save(wallet);
+        ctx.orderRepository().save(order);
+        ctx.orderBookRepository().save(book);
+
+        return new CancelOrderResult(order.id().toString(), cancelled.value());
+    }
+
+    /**
+     * Stop ainda não disparado: não tem reserva, só sai do livro de disparo.
+     */
+    private CancelOrderResult cancelStop(OrderBook book) {
+        StopOrder stop = book.stops()
+                .find(orderId)
+                .orElseThrow(() -> new DomainException("order not found: " + orderId));
+        if (!stop.userId().equals(userId))
+            throw new DomainException("order does not belong to userId=" + userId);
+        book.stops().remove(orderId);
+        return new CancelOrderResult(stop.id().toString(), stop.quantity().value());
+    }
+}
@@ -0,0 +1,4 @@
+package com.marcospaulo.orderbook.application.command;
+
+public record CancelOrderResult(String orderId, long cancelledQty) {
+}
@@ -1,28 +1,129 @@
 package com.marcospaulo.orderbook.application.command;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.util.Objects;
 
+import com.marcospaulo.orderbook.application.marketdata.MarketDataRecorder;
 import com.marcospaulo.orderbook.application.ports.out.OrderBookRepository;
 import com.marcospaulo.orderbook.application.ports.out.OrderRepository;
 import com.marcospaulo.orderbook.application.ports.out.TradeRepository;
 import com.marcospaulo.orderbook.application.ports.out.WalletRepository;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.policy.RestingOrderPricingPolicy;
+import com.marcospaulo.orderbook.domain.policy.AllocationPolicy;
+import com.marcospaulo.orderbook.domain.policy.FifoAllocationPolicy;
+import com.marcospaulo.orderbook.domain.policy.SelfTradePrevention;
+import com.marcospaulo.orderbook.domain.service.SequentialIdGenerator;
+import com.marcospaulo.orderbook.domain.service.OrderMatchingEngine;
 
+/**
+ * Estado de um engine: um instrumento, seu livro, suas ordens e trades, o
+ * ledger de carteiras que esse engine controla e as transferências entre
+ * ledgers em andamento. Também guarda o pipeline de matching (engine,
+ * política de preço e settlement) e o gravador de market data, criados uma
+ * vez e reaproveitados a cada ordem pela thread do writer.
+ *
+ * Ids de ordem e de trade e o instante de cada trade vêm de {@link #ids()} e
+ * {@link #now()}, não do domínio: com as sequências e o relógio de uma
+ * gravação, o replay reproduz a mesma fita. O engine lê o relógio uma vez por
+ * comando journaled e grava o instante no journal; a recuperação reexecuta
+ * com o instante gravado.
+ */
 public final class CommandContext {
 
+    private final Instrument instrument;
     private final OrderBookRepository orderBookRepository;
     private final WalletRepository walletRepository;
     private final TradeRepository tradeRepository;
     private final OrderRepository orderRepository;
+    private final SequentialIdGenerator ids;
+    private final Clock clock;
+
+    private final OrderMatchingEngine matcher;
+    private final TradeSettlement settlement = new TradeSettlement(this);
+    private final MarketDataRecorder marketData;
+    private final TransferLedger transfers = new TransferLedger();
+    private final ExecutionRecorder executions = new ExecutionRecorder();
+
+    // instante do comando em execução, fixado pelo engine; exclusivo do writer
+    private Instant commandTime;
+
+    public CommandContext(
+            OrderBookRepository orderBookRepository,
+            WalletRepository walletRepository,
+            TradeRepository tradeRepository,
+            OrderRepository orderRepository) {
+        this(Instrument.DEFAULT, orderBookRepository, walletRepository, tradeRepository, orderRepository);
+    }
 
     public CommandContext(
+            Instrument instrument,
             OrderBookRepository orderBookRepository,
             WalletRepository walletRepository,
             TradeRepository tradeRepository,
             OrderRepository orderRepository) {
+        this(instrument, orderBookRepository, walletRepository, tradeRepository, orderRepository,
+                new SequentialIdGenerator(0), Clock.systemUTC());
+    }
+
+    public CommandContext(
+            Instrument instrument,
+            OrderBookRepository orderBookRepository,
+            WalletRepository walletRepository,
+            TradeRepository tradeRepository,
+            OrderRepository orderRepository,
+            SequentialIdGenerator ids,
+            Clock clock) {
+        this(instrument, orderBookRepository, walletRepository, tradeRepository, orderRepository, ids, clock,
+                SelfTradePrevention.NONE);
+    }
+
+    /**
+     * {@code selfTrade} faz parte do estado determinístico: o replay precisa
+     * do mesmo modo.
+     */
+    public CommandContext(
+            Instrument instrument,
+            OrderBookRepository orderBookRepository,
+            WalletRepository walletRepository,
+            TradeRepository tradeRepository,
+            OrderRepository orderRepository,
+            SequentialIdGenerator ids,
+            Clock clock,
+            SelfTradePrevention selfTrade) {
+        this(instrument, orderBookRepository, walletRepository, tradeRepository, orderRepository, ids, clock,
+                selfTrade, new FifoAllocationPolicy());
+    }
+
+    /**
+     * {@code selfTrade} e {@code allocation} fazem parte do estado
+     * determinístico: o replay precisa dos mesmos.
+     */
+    public CommandContext(
+            Instrument instrument,
+            OrderBookRepository orderBookRepository,
+            WalletRepository walletRepository,
+            TradeRepository tradeRepository,
+            OrderRepository orderRepository,
+            SequentialIdGenerator ids,
+            Clock clock,
+            SelfTradePrevention selfTrade,
+            AllocationPolicy allocation) {
+        this.instrument = Objects.requireNonNull(instrument, "instrument");
         this.orderBookRepository = Objects.requireNonNull(orderBookRepository, "orderBookRepository");
         this.walletRepository = Objects.requireNonNull(walletRepository, "walletRepository");
         this.tradeRepository = Objects.requireNonNull(tradeRepository, "tradeRepository");
         this.orderRepository = Objects.requireNonNull(orderRepository, "orderRepository");
+        this.ids = Objects.requireNonNull(ids, "ids");
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.matcher = new OrderMatchingEngine(new RestingOrderPricingPolicy(),
+                Objects.requireNonNull(selfTrade, "selfTrade"), Objects.requireNonNull(allocation, "allocation"));
+        this.marketData = new MarketDataRecorder(instrument.symbol());
+    }
+
+    public Instrument instrument() {
+        return instrument;
     }
 
     public OrderBookRepository orderBookRepository() {
@@ -40,4 +141,51 @@ public final class CommandContext {
     public OrderRepository orderRepository() {
         return orderRepository;
     }
+
+    public SequentialIdGenerator ids() {
+        return ids;
+    }
+
+    public Clock clock() {
+        return clock;
+    }
+
+    /**
+     * Fixa o instante do comando que vai executar; {@code null} volta a ler
+     * o relógio a cada chamada de {@link #now()}.
+     */
+    public void executingAt(Instant at) {
+        this.commandTime = at;
+    }
+
+    /**
+     * Instante do comando em execução, ou uma leitura do relógio fora do
+     * engine.
+     */
+    public Instant now() {
+        return commandTime != null ? commandTime : clock.instant();
+    }
+
+    public OrderMatchingEngine matcher() {
+        return matcher;
+    }
+
+    public MarketDataRecorder marketData() {
+        return marketData;
+    }
+
+    public ExecutionRecorder executions() {
+        return executions;
+    }
+
+    /**
+     * Transferências entre ledgers pendentes neste engine.
+     */
+    public TransferLedger transfers() {
+        return transfers;
+    }
+
+    TradeSettlement settlement() {
+        return settlement;
+    }
 }
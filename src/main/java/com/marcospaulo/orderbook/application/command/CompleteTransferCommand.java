@@ -0,0 +1,47 @@
+package com.marcospaulo.orderbook.application.command;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+
+/**
+ * Encerra uma transferência na origem. Com {@code refund}, o destino não
+ * creditou e o valor volta para o disponível. Sem pendência com esse id não
+ * faz nada.
+ */
+public final class CompleteTransferCommand implements JournaledCommand<Void> {
+
+    private final UUID transferId;
+    private final boolean refund;
+
+    public CompleteTransferCommand(UUID transferId, boolean refund) {
+        this.transferId = transferId;
+        this.refund = refund;
+    }
+
+    public UUID transferId() {
+        return transferId;
+    }
+
+    public boolean refund() {
+        return refund;
+    }
+
+    @Override
+    public Void execute(CommandContext ctx) {
+        if (transferId == null)
+            throw new DomainException("transferId must not be null");
+
+        PendingTransfer transfer = ctx.transfers().complete(transferId);
+        if (transfer == null || !refund)
+            return null;
+        Wallet wallet = ctx.walletRepository()
+                .findByUserId(transfer.userId())
+                .orElseGet(() -> Wallet.create(transfer.userId(), BigDecimal.ZERO, BigDecimal.ZERO));
+        wallet.deposit(transfer.asset(), transfer.amount());
+        ctx.walletRepository().save(wallet);
+        return null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.marcospaulo.orderbook.application.command;
+
+import java.util.Arrays;
+
+import com.marcospaulo.orderbook.domain.model.Trade;
+
+/**
+ * Trades liquidados pelo {@link TradeSettlement} desde o último
+ * {@link #drain()}, para o
+ * {@link com.marcospaulo.orderbook.application.ports.out.ExecutionListener}.
+ * Desligado até {@link #enable()}; só a thread do writer usa.
+ */
+public final class ExecutionRecorder {
+
+    private boolean enabled;
+    private Trade[] trades = new Trade[16];
+    private int count;
+
+    public void enable() {
+        enabled = true;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    void onTrade(Trade trade) {
+        if (!enabled)
+            return;
+        if (count == trades.length)
+            trades = Arrays.copyOf(trades, count * 2);
+        trades[count++] = trade;
+    }
+
+    /**
+     * O que foi gravado desde o último drain, na ordem de execução, ou
+     * {@code null} se nada executou.
+     */
+    public Trade[] drain() {
+        if (count == 0)
+            return null;
+        Trade[] drained = Arrays.copyOf(trades, count);
+        Arrays.fill(trades, 0, count, null);
+        count = 0;
+        return drained;
+    }
+}
@@ -0,0 +1,30 @@
+package com.marcospaulo.orderbook.application.command;
+
+import java.util.UUID;
+
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+
+/**
+ * Descarta no destino o id de uma transferência que a origem já encerrou:
+ * depois disso ela não é mais reenviada.
+ */
+public final class ForgetTransferCommand implements JournaledCommand<Void> {
+
+    private final UUID transferId;
+
+    public ForgetTransferCommand(UUID transferId) {
+        this.transferId = transferId;
+    }
+
+    public UUID transferId() {
+        return transferId;
+    }
+
+    @Override
+    public Void execute(CommandContext ctx) {
+        if (transferId == null)
+            throw new DomainException("transferId must not be null");
+        ctx.transfers().forget(transferId);
+        return null;
+    }
+}
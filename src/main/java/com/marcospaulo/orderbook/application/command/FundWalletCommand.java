@@ -0,0 +1,58 @@
+package com.marcospaulo.orderbook.application.command;
+
+import java.math.BigDecimal;
+
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Depósito de cash/vibranium. Passa pelo engine (e pelo journal) como
+ * qualquer outra mudança de saldo; cria a carteira se ela não existir.
+ */
+public final class FundWalletCommand implements JournaledCommand<Void> {
+
+    private final UserId userId;
+    private final BigDecimal cash;
+    private final BigDecimal vibranium;
+
+    public FundWalletCommand(UserId userId, BigDecimal cash, BigDecimal vibranium) {
+        this.userId = userId;
+        this.cash = cash;
+        this.vibranium = vibranium;
+    }
+
+    public UserId userId() {
+        return userId;
+    }
+
+    public BigDecimal cash() {
+        return cash;
+    }
+
+    public BigDecimal vibranium() {
+        return vibranium;
+    }
+
+    @Override
+    public Void execute(CommandContext ctx) {
+        if (userId == null)
+            throw new DomainException("userId must not be null");
+        if (cash == null || cash.signum() < 0)
+            throw new DomainException("cash must be >= 0");
+        if (vibranium == null || vibranium.signum() < 0)
+            throw new DomainException("vibranium must be >= 0");
+
+        Wallet wallet = ctx.walletRepository()
+                .findByUserId(userId)
+                .orElseGet(() -> Wallet.create(userId, BigDecimal.ZERO, BigDecimal.ZERO));
+
+        if (cash.signum() > 0)
+            wallet.depositCash(cash);
+        if (vibranium.signum() > 0)
+            wallet.depositVibranium(vibranium);
+
+        ctx.walletRepository().save(wallet);
+        return null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.marcospaulo.orderbook.application.command;
+
+/**
+ * Comando que muda estado e por isso vai para o journal antes de executar.
+ * Precisa ser determinístico: executado de novo sobre o mesmo estado, produz
+ * o mesmo estado.
+ */
+public interface JournaledCommand<R> extends Command<R> {
+}
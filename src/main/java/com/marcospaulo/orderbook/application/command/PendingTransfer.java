@@ -0,0 +1,14 @@
+package com.marcospaulo.orderbook.application.command;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Transferência já debitada na origem e ainda não encerrada: o destino pode
+ * ou não ter creditado.
+ */
+public record PendingTransfer(UUID id, UserId userId, Asset asset, BigDecimal amount, String toSymbol) {
+}
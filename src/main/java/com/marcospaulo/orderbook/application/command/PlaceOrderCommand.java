@@ -1,95 +1,387 @@
 package com.marcospaulo.orderbook.application.command;
 
-import java.util.List;
+import java.time.Instant;
 
 import com.marcospaulo.orderbook.domain.model.Order;
 import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderType;
 import com.marcospaulo.orderbook.domain.model.Side;
-import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.StopOrder;
+import com.marcospaulo.orderbook.domain.model.StopOrderBook;
+import com.marcospaulo.orderbook.domain.model.TimeInForce;
 import com.marcospaulo.orderbook.domain.model.Wallet;
 import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
 import com.marcospaulo.orderbook.domain.model.vo.Price;
 import com.marcospaulo.orderbook.domain.model.vo.Quantity;
 import com.marcospaulo.orderbook.domain.model.vo.UserId;
-import com.marcospaulo.orderbook.domain.policy.RestingOrderPricingPolicy;
-import com.marcospaulo.orderbook.domain.service.OrderMatchingEngine;
 
-public final class PlaceOrderCommand implements Command<PlaceOrderResult> {
+public final class PlaceOrderCommand implements JournaledCommand<PlaceOrderResult> {
 
+    // atribuído pelo writer na execução; lido por quem submeteu depois do future
+    private OrderId orderId;
+    private final Instant submittedAt;
     private final UserId userId;
     private final Side side;
+    private final OrderType type;
+    private final TimeInForce timeInForce;
     private final Price price;
+    private final Price stopPrice;
     private final Quantity quantity;
+    private final Quantity displayQty;
 
+    /**
+     * O timestamp é gerado aqui, na thread de quem submete, e viaja com o
+     * comando (e com o journal). O id é atribuído pelo writer na execução:
+     * como a sequência é determinística, o replay do journal atribui o mesmo.
+     */
     public PlaceOrderCommand(UserId userId, Side side, Price price, Quantity quantity) {
+        this(null, Instant.now(), userId, side, OrderType.LIMIT, TimeInForce.GTC, price, quantity);
+    }
+
+    /**
+     * Iceberg limitada GTC: mostra no livro no máximo {@code displayQty} por
+     * vez e reserva a quantidade inteira na entrada.
+     */
+    public PlaceOrderCommand(UserId userId, Side side, Price price, Quantity quantity, Quantity displayQty) {
+        this(null, Instant.now(), userId, side, OrderType.LIMIT, TimeInForce.GTC, price, null, quantity, displayQty);
+    }
+
+    /**
+     * Ordem a mercado ({@code price} nulo) ou limitada, com validade
+     * {@code timeInForce}.
+     */
+    public PlaceOrderCommand(UserId userId, Side side, OrderType type, TimeInForce timeInForce, Price price,
+            Quantity quantity) {
+        this(null, Instant.now(), userId, side, type, timeInForce, price, null, quantity);
+    }
+
+    /**
+     * Ordem stop: {@code STOP} sem {@code price}, {@code STOP_LIMIT} com o
+     * preço limite que vale depois do disparo.
+     */
+    public PlaceOrderCommand(UserId userId, Side side, OrderType type, TimeInForce timeInForce, Price price,
+            Price stopPrice, Quantity quantity) {
+        this(null, Instant.now(), userId, side, type, timeInForce, price, stopPrice, quantity);
+    }
+
+    /**
+     * Todos os parâmetros de entrada, como chegam da API.
+     */
+    public PlaceOrderCommand(UserId userId, Side side, OrderType type, TimeInForce timeInForce, Price price,
+            Price stopPrice, Quantity quantity, Quantity displayQty) {
+        this(null, Instant.now(), userId, side, type, timeInForce, price, stopPrice, quantity, displayQty);
+    }
+
+    public PlaceOrderCommand(
+            OrderId orderId,
+            Instant submittedAt,
+            UserId userId,
+            Side side,
+            Price price,
+            Quantity quantity) {
+        this(orderId, submittedAt, userId, side, OrderType.LIMIT, TimeInForce.GTC, price, quantity);
+    }
+
+    /**
+     * {@code orderId} nulo deixa o writer atribuir; um id explícito é
+     * rejeitado se já existir.
+     */
+    public PlaceOrderCommand(
+            OrderId orderId,
+            Instant submittedAt,
+            UserId userId,
+            Side side,
+            OrderType type,
+            TimeInForce timeInForce,
+            Price price,
+            Quantity quantity) {
+        this(orderId, submittedAt, userId, side, type, timeInForce, price, null, quantity);
+    }
+
+    public PlaceOrderCommand(
+            OrderId orderId,
+            Instant submittedAt,
+            UserId userId,
+            Side side,
+            OrderType type,
+            TimeInForce timeInForce,
+            Price price,
+            Price stopPrice,
+            Quantity quantity) {
+        this(orderId, submittedAt, userId, side, type, timeInForce, price, stopPrice, quantity, null);
+    }
+
+    /**
+     * {@code displayQty} nulo é uma ordem comum.
+     */
+    public PlaceOrderCommand(
+            OrderId orderId,
+            Instant submittedAt,
+            UserId userId,
+            Side side,
+            OrderType type,
+            TimeInForce timeInForce,
+            Price price,
+            Price stopPrice,
+            Quantity quantity,
+            Quantity displayQty) {
+        this.orderId = orderId;
+        this.submittedAt = submittedAt;
         this.userId = userId;
         this.side = side;
+        this.type = type;
+        this.timeInForce = timeInForce;
         this.price = price;
+        this.stopPrice = stopPrice;
         this.quantity = quantity;
+        this.displayQty = displayQty;
+    }
+
+    /**
+     * Nulo até o comando executar, se o id não veio explícito.
+     */
+    public OrderId orderId() {
+        return orderId;
+    }
+
+    public Instant submittedAt() {
+        return submittedAt;
+    }
+
+    public UserId userId() {
+        return userId;
+    }
+
+    public Side side() {
+        return side;
+    }
+
+    public OrderType type() {
+        return type;
+    }
+
+    public TimeInForce timeInForce() {
+        return timeInForce;
+    }
+
+    /**
+     * Nulo numa ordem a mercado ou stop a mercado.
+     */
+    public Price price() {
+        return price;
+    }
+
+    /**
+     * Preço de disparo; nulo fora de STOP/STOP_LIMIT.
+     */
+    public Price stopPrice() {
+        return stopPrice;
+    }
+
+    public Quantity quantity() {
+        return quantity;
     }
 
+    /**
+     * Parcela visível de uma iceberg; nulo numa ordem comum.
+     */
+    public Quantity displayQty() {
+        return displayQty;
+    }
+
+    /**
+     * Ordens a mercado casam com o preço de proteção do livro (ver
+     * {@link com.marcospaulo.orderbook.domain.service.OrderMatchingEngine#marketPriceOrNull})
+     * e a compra reserva por ele. Um FOK que não cabe inteiro é morto antes
+     * de reservar; o resto não executado de IOC e de ordens a mercado expira
+     * aqui, devolvendo a reserva, sem passar pelo livro.
+     *
+     * Uma iceberg reserva a quantidade inteira uma vez, aqui; as parcelas
+     * repostas pelo livro não passam pela carteira.
+     *
+     * Stops vão para o {@link StopOrderBook} sem reservar. No fim de todo
+     * comando os stops cruzados pelo último preço disparam, no mesmo passo do
+     * writer (ver {@link #fireStops}).
+     */
     @Override
     public PlaceOrderResult execute(CommandContext ctx) {
         if (userId == null)
             throw new DomainException("userId must not be null");
         if (side == null)
             throw new DomainException("side must not be null");
-        if (price == null)
+        if (type == null)
+            throw new DomainException("type must not be null");
+        if (timeInForce == null)
+            throw new DomainException("timeInForce must not be null");
+        OrderType entered = type.triggered();
+        if (entered == OrderType.LIMIT && price == null)
             throw new DomainException("price must not be null");
+        if (entered == OrderType.MARKET && price != null)
+            throw new DomainException("market order must not have a price");
+        if (entered == OrderType.MARKET && timeInForce == TimeInForce.GTC)
+            throw new DomainException("market order cannot rest in the book: use IOC or FOK");
+        if (type.isStop() && stopPrice == null)
+            throw new DomainException("stopPrice must not be null");
+        if (!type.isStop() && stopPrice != null)
+            throw new DomainException("only stop orders have a stopPrice");
         if (quantity == null || quantity.isZero())
             throw new DomainException("quantity must be > 0");
+        if (submittedAt == null)
+            throw new DomainException("submittedAt must not be null");
+        if (displayQty != null && (type != OrderType.LIMIT || timeInForce != TimeInForce.GTC))
+            throw new DomainException("only GTC limit orders can be icebergs");
+        if (displayQty != null && (displayQty.isZero() || displayQty.value() >= quantity.value()))
+            throw new DomainException("displayQty must be > 0 and lower than quantity");
 
-        Wallet wallet = ctx.walletRepository()
+        OrderBook book = ctx.orderBookRepository().get();
+        PlaceOrderResult result;
+        if (type.isStop()) {
+            result = park(ctx, book);
+        } else {
+            Placement placement = place(ctx, book);
+            if (placement.rejection() != null)
+                throw new DomainException(placement.rejection());
+            result = placement.result();
+        }
+        fireStops(ctx, book);
+        return result;
+    }
+
+    /**
+     * Saída de {@link #place}: o resultado, ou o motivo de uma recusa feita
+     * antes de reservar (nada mudou além do id atribuído).
+     */
+    private record Placement(PlaceOrderResult result, String rejection) {
+
+        static Placement placed(PlaceOrderResult result) {
+            return new Placement(result, null);
+        }
+
+        static Placement rejected(String reason) {
+            return new Placement(null, reason);
+        }
+    }
+
+    private PlaceOrderResult park(CommandContext ctx, OrderBook book) {
+        assignOrderId(ctx, book);
+        ctx.walletRepository()
                 .findByUserId(userId)
                 .orElseThrow(() -> new DomainException("wallet not found for userId=" + userId));
+        book.stops().add(StopOrder.create(orderId, userId, side, stopPrice, price, timeInForce, quantity,
+                submittedAt));
+        return new PlaceOrderResult(orderId.toString(), 0, 0);
+    }
 
-        // 1) Reserva antes de entrar no livro
-        if (side == Side.BUY) {
-            wallet.reserveForBuy(price, Quantity.ofPositive(quantity.value()));
-        } else {
-            wallet.reserveForSell(Quantity.ofPositive(quantity.value()));
+    /**
+     * Dispara os stops cruzados pelo último preço. Cada um entra como um
+     * PlaceOrder com o id e o instante do stop; os trades dele movem o último
+     * preço e podem disparar outros, e o laço só para quando nenhum stop está
+     * cruzado. Um stop que {@link #place} recusa (sem liquidez para o stop a
+     * mercado, sem carteira, sem saldo para reservar) fica registrado como
+     * ordem cancelada, para o dono ver que disparou e não executou. Uma falha
+     * depois da reserva não é recusa e sobe.
+     */
+    private static void fireStops(CommandContext ctx, OrderBook book) {
+        StopOrderBook stops = book.stops();
+        StopOrder stop;
+        while ((stop = stops.pollTriggeredOrNull()) != null) {
+            PlaceOrderCommand triggered = new PlaceOrderCommand(stop.id(), stop.createdAt(), stop.userId(),
+                    stop.side(), stop.type().triggered(), stop.timeInForce(), stop.limitPrice(), stop.quantity());
+            if (triggered.place(ctx, book).rejection() != null)
+                cancelTriggered(ctx, stop);
         }
-        ctx.walletRepository().save(wallet);
-
-        // 2) Cria ordem incoming
-        Order incoming = Order.create(userId, side, price, Quantity.ofPositive(quantity.value()));
-        ctx.orderRepository().save(incoming);
+    }
 
-        // 3) Matching contra livro
-        OrderBook book = ctx.orderBookRepository().get();
-        OrderMatchingEngine matcher = new OrderMatchingEngine(new RestingOrderPricingPolicy());
+    /**
+     * Stop parado não reserva, então a ordem cancelada só guarda o que foi
+     * pedido. O stop a mercado fica com o preço de disparo.
+     */
+    private static void cancelTriggered(CommandContext ctx, StopOrder stop) {
+        Price price = stop.limitPrice() != null ? stop.limitPrice() : stop.stopPrice();
+        Order cancelled = Order.create(stop.id(), stop.userId(), stop.side(), price, stop.quantity(),
+                stop.createdAt());
+        cancelled.cancel();
+        ctx.orderRepository().save(cancelled);
+    }
 
-        List<Trade> trades = matcher.matchIncoming(incoming, book);
+    private void assignOrderId(CommandContext ctx, OrderBook book) {
+        if (orderId == null)
+            orderId = ctx.ids().nextOrderId();
+        else if (ctx.orderRepository().findById(orderId).isPresent() || book.stops().contains(orderId))
+            throw new DomainException("duplicate orderId: " + orderId);
+    }
 
-        // 4) Settlement por trade (wallets buyer/seller via OrderRepository)
-        for (Trade t : trades) {
-            Order buyOrder = ctx.orderRepository().findById(t.buyOrderId()).orElseThrow();
-            Order sellOrder = ctx.orderRepository().findById(t.sellOrderId()).orElseThrow();
+    private Placement place(CommandContext ctx, OrderBook book) {
+        Price limit = price;
+        if (type == OrderType.MARKET) {
+            limit = ctx.matcher().marketPriceOrNull(side, quantity, book);
+            if (limit == null)
+                return Placement.rejected("no liquidity for market order");
+        }
 
-            Wallet buyer = ctx.walletRepository().findByUserId(buyOrder.userId()).orElseThrow();
-            Wallet seller = ctx.walletRepository().findByUserId(sellOrder.userId()).orElseThrow();
+        assignOrderId(ctx, book);
 
-            buyer.applyTradeAsBuyer(buyOrder.price(), t.price(), t.quantity());
-            seller.applyTradeAsSeller(t.price(), t.quantity());
+        Wallet wallet = ctx.walletRepository().findByUserId(userId).orElse(null);
+        if (wallet == null)
+            return Placement.rejected("wallet not found for userId=" + userId);
 
-            ctx.walletRepository().save(buyer);
-            ctx.walletRepository().save(seller);
+        Order incoming = displayQty == null
+                ? Order.create(orderId, userId, side, limit, quantity, submittedAt)
+                : Order.createIceberg(orderId, userId, side, limit, quantity, displayQty, submittedAt);
 
-            ctx.tradeRepository().append(t);
+        // 0) FOK que não cabe morre sem reservar nem tocar no livro
+        if (timeInForce == TimeInForce.FOK && !ctx.matcher().canFillCompletely(side, limit, quantity, userId, book)) {
+            incoming.cancel();
+            ctx.orderRepository().save(incoming);
+            return Placement.placed(new PlaceOrderResult(incoming.id().toString(), 0, quantity.value()));
+        }
 
-            // garante persistência do estado das ordens (referência mutável)
-            ctx.orderRepository().save(buyOrder);
-            ctx.orderRepository().save(sellOrder);
+        // 1) Reserva antes de entrar no livro
+        boolean covered = side == Side.BUY
+                ? wallet.canReserveForBuy(ctx.instrument(), limit, quantity)
+                : wallet.canReserveForSell(ctx.instrument(), quantity);
+        if (!covered)
+            return Placement.rejected("insufficient available balance to reserve");
+        if (side == Side.BUY) {
+            wallet.reserveForBuy(ctx.instrument(), limit, quantity);
+        } else {
+            wallet.reserveForSell(ctx.instrument(), quantity);
         }
+        ctx.walletRepository().save(wallet);
 
-        // 5) Se sobrar qty, entra no livro
-        if (!incoming.isFilled()) {
-            book.add(incoming);
+        // 2) Ordem incoming
+        ctx.orderRepository().save(incoming);
+
+        // 3) Matching contra livro, com settlement a cada fill
+        int trades = ctx.matcher().match(incoming, book, ctx.settlement().forTaker(wallet));
+        if (trades > 0)
+            book.stops().onTrade(ctx.settlement().lastPrice());
+
+        // 4) Se sobrar qty: GTC entra no livro, IOC/mercado expira; cancelada
+        // pela prevenção de auto-negociação já teve a reserva liberada
+        long expired = 0;
+        if (incoming.isCancelled()) {
+            expired = incoming.remainingQty().value();
+        } else if (!incoming.isFilled()) {
+            if (timeInForce == TimeInForce.GTC) {
+                book.add(incoming);
+            } else {
+                Quantity remaining = incoming.remainingQty();
+                if (side == Side.BUY) {
+                    wallet.releaseForBuy(ctx.instrument(), limit, remaining);
+                } else {
+                    wallet.releaseForSell(ctx.instrument(), remaining);
+                }
+                incoming.cancel();
+                expired = remaining.value();
+            }
         }
 
+        ctx.walletRepository().save(wallet);
         ctx.orderBookRepository().save(book);
         ctx.orderRepository().save(incoming);
 
-        return new PlaceOrderResult(incoming.id().toString(), trades.size());
+        return Placement.placed(new PlaceOrderResult(incoming.id().toString(), trades, expired));
     }
 }
@@ -1,4 +1,8 @@
 package com.marcospaulo.orderbook.application.command;
 
-public record PlaceOrderResult(String orderId, int tradesExecuted) {
+/**
+ * {@code expiredQty}: quantidade que não executou e não ficou no livro (resto
+ * de IOC ou de ordem a mercado, FOK morto). 0 para ordens GTC.
+ */
+public record PlaceOrderResult(String orderId, int tradesExecuted, long expiredQty) {
 }
@@ -0,0 +1,76 @@
+package com.marcospaulo.orderbook.application.command;
+
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Amend-down: reduz a quantidade de uma ordem em repouso sem perder a
+ * prioridade de tempo no nível.
+ */
+public final class ReduceOrderCommand implements JournaledCommand<ReduceOrderResult> {
+
+    private final UserId userId;
+    private final OrderId orderId;
+    private final Quantity reduceBy;
+
+    public ReduceOrderCommand(UserId userId, OrderId orderId, Quantity reduceBy) {
+        this.userId = userId;
+        this.orderId = orderId;
+        this.reduceBy = reduceBy;
+    }
+
+    public UserId userId() {
+        return userId;
+    }
+
+    public OrderId orderId() {
+        return orderId;
+    }
+
+    public Quantity reduceBy() {
+        return reduceBy;
+    }
+
+    @Override
+    public ReduceOrderResult execute(CommandContext ctx) {
+        if (userId == null)
+            throw new DomainException("userId must not be null");
+        if (orderId == null)
+            throw new DomainException("orderId must not be null");
+        if (reduceBy == null || reduceBy.isZero())
+            throw new DomainException("reduceBy must be > 0");
+
+        Order order = ctx.orderRepository()
+                .findById(orderId)
+                .orElseThrow(() -> new DomainException("order not found: " + orderId));
+        if (!order.userId().equals(userId))
+            throw new DomainException("order does not belong to userId=" + userId);
+
+        Wallet wallet = ctx.walletRepository()
+                .findByUserId(userId)
+                .orElseThrow(() -> new DomainException("wallet not found for userId=" + userId));
+
+        // 1) Reduz no livro (valida que está em repouso e que sobra qty > 0)
+        OrderBook book = ctx.orderBookRepository().get();
+        book.reduce(order, reduceBy);
+
+        // 2) Libera a reserva correspondente
+        if (order.side() == Side.BUY) {
+            wallet.releaseForBuy(ctx.instrument(), order.price(), reduceBy);
+        } else {
+            wallet.releaseForSell(ctx.instrument(), reduceBy);
+        }
+
+        ctx.walletRepository().save(wallet);
+        ctx.orderRepository().save(order);
+        ctx.orderBookRepository().save(book);
+
+        return new ReduceOrderResult(order.id().toString(), order.remainingQty().value());
+    }
+}
@@ -0,0 +1,4 @@
+package com.marcospaulo.orderbook.application.command;
+
+public record ReduceOrderResult(String orderId, long remainingQty) {
+}
@@ -0,0 +1,90 @@
+package com.marcospaulo.orderbook.application.command;
+
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.service.FillSink;
+
+/**
+ * Settlement de cada fill, direto das ordens recebidas do matching: a carteira
+ * do taker vem do comando e só a do maker é buscada. Uma instância por
+ * {@link CommandContext}, reaproveitada a cada ordem; só a thread do writer
+ * usa.
+ */
+final class TradeSettlement implements FillSink {
+
+    private final CommandContext ctx;
+    private Wallet takerWallet;
+    private Price lastPrice;
+
+    TradeSettlement(CommandContext ctx) {
+        this.ctx = ctx;
+    }
+
+    TradeSettlement forTaker(Wallet takerWallet) {
+        this.takerWallet = takerWallet;
+        return this;
+    }
+
+    /**
+     * Preço do último fill liquidado; alimenta o disparo de stops.
+     */
+    Price lastPrice() {
+        return lastPrice;
+    }
+
+    @Override
+    public void onFill(Order incoming, Order resting, Price price, Quantity quantity) {
+        Wallet makerWallet = ctx.walletRepository()
+                .findByUserId(resting.userId())
+                .orElseThrow(() -> new DomainException("wallet not found for userId=" + resting.userId()));
+        Instrument instrument = ctx.instrument();
+
+        Order buy;
+        Order sell;
+        Wallet buyer;
+        Wallet seller;
+        if (incoming.side() == Side.BUY) {
+            buy = incoming;
+            sell = resting;
+            buyer = takerWallet;
+            seller = makerWallet;
+        } else {
+            buy = resting;
+            sell = incoming;
+            buyer = makerWallet;
+            seller = takerWallet;
+        }
+
+        buyer.applyTradeAsBuyer(instrument, buy.priceTicks(), price, quantity);
+        seller.applyTradeAsSeller(instrument, price, quantity);
+
+        ctx.walletRepository().save(makerWallet);
+        Trade trade = Trade.create(ctx.ids().nextTradeId(), buy.id(), sell.id(), buy.userId(), sell.userId(), price,
+                quantity, ctx.now());
+        ctx.tradeRepository().append(trade);
+        ctx.marketData().onTrade(trade, incoming.side());
+        ctx.executions().onTrade(trade);
+        ctx.orderRepository().save(resting);
+        lastPrice = price;
+    }
+
+    /**
+     * As duas ordens são do taker, então a reserva sai da carteira dele. A
+     * ordem que chega é salva pelo comando.
+     */
+    @Override
+    public void onSelfTradePrevented(Order order, Quantity quantity) {
+        if (order.side() == Side.BUY) {
+            takerWallet.releaseForBuy(ctx.instrument(), order.priceTicks(), quantity);
+        } else {
+            takerWallet.releaseForSell(ctx.instrument(), quantity);
+        }
+        ctx.orderRepository().save(order);
+    }
+}
@@ -0,0 +1,60 @@
+package com.marcospaulo.orderbook.application.command;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Perna de entrada de uma transferência. Idempotente pelo id: a recuperação
+ * reenvia as pendentes sem saber se o crédito chegou antes do crash.
+ */
+public final class TransferInCommand implements JournaledCommand<Void> {
+
+    private final UUID transferId;
+    private final UserId userId;
+    private final Asset asset;
+    private final BigDecimal amount;
+
+    public TransferInCommand(UUID transferId, UserId userId, Asset asset, BigDecimal amount) {
+        this.transferId = transferId;
+        this.userId = userId;
+        this.asset = asset;
+        this.amount = amount;
+    }
+
+    public UUID transferId() {
+        return transferId;
+    }
+
+    public UserId userId() {
+        return userId;
+    }
+
+    public Asset asset() {
+        return asset;
+    }
+
+    public BigDecimal amount() {
+        return amount;
+    }
+
+    @Override
+    public Void execute(CommandContext ctx) {
+        if (transferId == null || userId == null || asset == null)
+            throw new DomainException("transferId, userId and asset must not be null");
+        if (ctx.transfers().isCredited(transferId))
+            return null;
+
+        Wallet wallet = ctx.walletRepository()
+                .findByUserId(userId)
+                .orElseGet(() -> Wallet.create(userId, BigDecimal.ZERO, BigDecimal.ZERO));
+        wallet.deposit(asset, amount);
+        ctx.walletRepository().save(wallet);
+        ctx.transfers().credited(transferId);
+        return null;
+    }
+}
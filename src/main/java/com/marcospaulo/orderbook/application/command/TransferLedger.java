@@ -0,0 +1,72 @@
+package com.marcospaulo.orderbook.application.command;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Transferências entre ledgers em andamento, do ponto de vista de um engine:
+ * as que saíram daqui e a origem ainda não encerrou, e as que foram
+ * creditadas aqui e a origem ainda não mandou esquecer. É estado do writer,
+ * vai para o snapshot e é reconstruído pelo journal.
+ */
+public final class TransferLedger {
+
+    private final Map<UUID, PendingTransfer> outgoing = new LinkedHashMap<>();
+    private final Set<UUID> incoming = new LinkedHashSet<>();
+
+    void debited(PendingTransfer transfer) {
+        outgoing.put(transfer.id(), transfer);
+    }
+
+    PendingTransfer complete(UUID id) {
+        return outgoing.remove(id);
+    }
+
+    boolean isCredited(UUID id) {
+        return incoming.contains(id);
+    }
+
+    void credited(UUID id) {
+        incoming.add(id);
+    }
+
+    void forget(UUID id) {
+        incoming.remove(id);
+    }
+
+    public List<PendingTransfer> pending() {
+        return new ArrayList<>(outgoing.values());
+    }
+
+    public void forEachPending(Consumer<PendingTransfer> visitor) {
+        outgoing.values().forEach(visitor);
+    }
+
+    public void forEachCredited(Consumer<UUID> visitor) {
+        incoming.forEach(visitor);
+    }
+
+    public int pendingCount() {
+        return outgoing.size();
+    }
+
+    public int creditedCount() {
+        return incoming.size();
+    }
+
+    /**
+     * Usado só pela restauração de snapshot.
+     */
+    public void restore(List<PendingTransfer> pending, List<UUID> credited) {
+        outgoing.clear();
+        incoming.clear();
+        pending.forEach(this::debited);
+        incoming.addAll(credited);
+    }
+}
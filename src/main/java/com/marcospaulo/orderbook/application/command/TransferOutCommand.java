@@ -0,0 +1,65 @@
+package com.marcospaulo.orderbook.application.command;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Perna de saída de uma transferência entre ledgers: debita o disponível e
+ * registra a intenção. Enquanto o {@link CompleteTransferCommand} não vier, a
+ * transferência fica pendente e é retomada na recuperação.
+ */
+public final class TransferOutCommand implements JournaledCommand<Void> {
+
+    private final UUID transferId;
+    private final UserId userId;
+    private final Asset asset;
+    private final BigDecimal amount;
+    private final String toSymbol;
+
+    public TransferOutCommand(UUID transferId, UserId userId, Asset asset, BigDecimal amount, String toSymbol) {
+        this.transferId = transferId;
+        this.userId = userId;
+        this.asset = asset;
+        this.amount = amount;
+        this.toSymbol = toSymbol;
+    }
+
+    public UUID transferId() {
+        return transferId;
+    }
+
+    public UserId userId() {
+        return userId;
+    }
+
+    public Asset asset() {
+        return asset;
+    }
+
+    public BigDecimal amount() {
+        return amount;
+    }
+
+    public String toSymbol() {
+        return toSymbol;
+    }
+
+    @Override
+    public Void execute(CommandContext ctx) {
+        if (transferId == null || userId == null || asset == null || toSymbol == null)
+            throw new DomainException("transferId, userId, asset and toSymbol must not be null");
+
+        Wallet wallet = ctx.walletRepository()
+                .findByUserId(userId)
+                .orElseThrow(() -> new DomainException("wallet not found for userId=" + userId));
+        wallet.withdraw(asset, amount);
+        ctx.walletRepository().save(wallet);
+        ctx.transfers().debited(new PendingTransfer(transferId, userId, asset, amount, toSymbol));
+        return null;
+    }
+}
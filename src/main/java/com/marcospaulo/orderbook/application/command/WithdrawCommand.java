@@ -0,0 +1,52 @@
+package com.marcospaulo.orderbook.application.command;
+
+import java.math.BigDecimal;
+
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Debita saldo disponível do ledger deste engine. Transferência entre
+ * ledgers usa {@link TransferOutCommand}, que também registra a intenção.
+ */
+public final class WithdrawCommand implements JournaledCommand<Void> {
+
+    private final UserId userId;
+    private final Asset asset;
+    private final BigDecimal amount;
+
+    public WithdrawCommand(UserId userId, Asset asset, BigDecimal amount) {
+        this.userId = userId;
+        this.asset = asset;
+        this.amount = amount;
+    }
+
+    public UserId userId() {
+        return userId;
+    }
+
+    public Asset asset() {
+        return asset;
+    }
+
+    public BigDecimal amount() {
+        return amount;
+    }
+
+    @Override
+    public Void execute(CommandContext ctx) {
+        if (userId == null)
+            throw new DomainException("userId must not be null");
+        if (asset == null)
+            throw new DomainException("asset must not be null");
+
+        Wallet wallet = ctx.walletRepository()
+                .findByUserId(userId)
+                .orElseThrow(() -> new DomainException("wallet not found for userId=" + userId));
+        wallet.withdraw(asset, amount);
+        ctx.walletRepository().save(wallet);
+        return null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.marcospaulo.orderbook.application.exception;
+
+/**
+ * O comando executou em memória mas o commit do journal falhou: ele pode ou
+ * não sobreviver a um restart. Quem recebe não deve tratar como recusa nem
+ * reenviar às cegas; o engine parou.
+ */
+public final class OutcomeUnknownException extends ApplicationException {
+    public OutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
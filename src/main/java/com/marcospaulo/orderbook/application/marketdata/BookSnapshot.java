@@ -0,0 +1,102 @@
+package com.marcospaulo.orderbook.application.marketdata;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+
+/**
+ * Profundidade do livro num ponto entre lotes: os melhores {@code depth}
+ * níveis de cada lado com a quantidade agregada. Imutável; o writer cria uma
+ * nova a cada publicação e qualquer thread pode ler.
+ *
+ * {@code version} cresce a cada publicação. {@code marketDataSequence} é o
+ * último {@link MarketDataUpdate#sequence()} já refletido aqui: quem assina o
+ * stream descarta updates com sequência menor ou igual e aplica o resto.
+ */
+public final class BookSnapshot {
+
+    public record Level(Price price, long quantity) {
+    }
+
+    private final String symbol;
+    private final long version;
+    private final long marketDataSequence;
+    private final Instant publishedAt;
+    private final long[] bidTicks;
+    private final long[] bidQuantities;
+    private final long[] askTicks;
+    private final long[] askQuantities;
+
+    private BookSnapshot(String symbol, long version, long marketDataSequence, Instant publishedAt,
+            long[] bidTicks, long[] bidQuantities, long[] askTicks, long[] askQuantities) {
+        this.symbol = symbol;
+        this.version = version;
+        this.marketDataSequence = marketDataSequence;
+        this.publishedAt = publishedAt;
+        this.bidTicks = bidTicks;
+        this.bidQuantities = bidQuantities;
+        this.askTicks = askTicks;
+        this.askQuantities = askQuantities;
+    }
+
+    /**
+     * Lê o livro; só a thread do writer pode chamar.
+     */
+    public static BookSnapshot capture(String symbol, long version, long marketDataSequence, OrderBook book,
+            int depth) {
+        long[] bidTicks = new long[depth];
+        long[] bidQuantities = new long[depth];
+        long[] askTicks = new long[depth];
+        long[] askQuantities = new long[depth];
+        int bids = book.bids().copyTopLevels(bidTicks, bidQuantities);
+        int asks = book.asks().copyTopLevels(askTicks, askQuantities);
+        return new BookSnapshot(symbol, version, marketDataSequence, Instant.now(),
+                Arrays.copyOf(bidTicks, bids), Arrays.copyOf(bidQuantities, bids),
+                Arrays.copyOf(askTicks, asks), Arrays.copyOf(askQuantities, asks));
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public long marketDataSequence() {
+        return marketDataSequence;
+    }
+
+    public Instant publishedAt() {
+        return publishedAt;
+    }
+
+    /**
+     * Níveis de um lado, do melhor para o pior, no máximo {@code maxLevels}.
+     */
+    public List<Level> levels(Side side, int maxLevels) {
+        long[] ticks = side == Side.BUY ? bidTicks : askTicks;
+        long[] quantities = side == Side.BUY ? bidQuantities : askQuantities;
+        int n = Math.min(ticks.length, Math.max(0, maxLevels));
+        List<Level> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new Level(Price.ofTicks(ticks[i]), quantities[i]));
+        }
+        return out;
+    }
+
+    public int depth(Side side) {
+        return side == Side.BUY ? bidTicks.length : askTicks.length;
+    }
+
+    public Level best(Side side) {
+        long[] ticks = side == Side.BUY ? bidTicks : askTicks;
+        long[] quantities = side == Side.BUY ? bidQuantities : askQuantities;
+        return ticks.length == 0 ? null : new Level(Price.ofTicks(ticks[0]), quantities[0]);
+    }
+}
@@ -0,0 +1,10 @@
+package com.marcospaulo.orderbook.application.marketdata;
+
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+
+/**
+ * Novo agregado de um nível L2. {@code quantity == 0} remove o nível.
+ */
+public record LevelUpdate(Side side, Price price, long quantity) {
+}
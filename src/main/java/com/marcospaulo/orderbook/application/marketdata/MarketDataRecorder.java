@@ -0,0 +1,113 @@
+package com.marcospaulo.orderbook.application.marketdata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.marcospaulo.orderbook.domain.model.LevelListener;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+
+/**
+ * Junta o que um comando fez no livro para virar um {@link MarketDataUpdate}.
+ * Desligado até {@link #attach(OrderBook)}: sem publisher configurado, o
+ * matching não paga nada além de um teste de {@code null}.
+ *
+ * Só a thread do writer usa. Mudanças seguidas no mesmo nível (vários fills
+ * numa fila) sobrescrevem a última entrada; repetições não consecutivas são
+ * resolvidas no {@link #drain()}.
+ */
+public final class MarketDataRecorder implements LevelListener {
+
+    private final String symbol;
+    private boolean attached;
+    private long sequence;
+
+    private Side[] sides = new Side[16];
+    private Price[] prices = new Price[16];
+    private long[] quantities = new long[16];
+    private int count;
+    private final List<TradePrint> trades = new ArrayList<>();
+
+    private final Map<Price, Integer> seenBids = new HashMap<>();
+    private final Map<Price, Integer> seenAsks = new HashMap<>();
+
+    public MarketDataRecorder(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public void attach(OrderBook book) {
+        book.setLevelListener(this);
+        attached = true;
+    }
+
+    public boolean isAttached() {
+        return attached;
+    }
+
+    /**
+     * Sequência do último update devolvido por {@link #drain()}.
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    @Override
+    public void onLevelChanged(Side side, Price price, long quantity) {
+        int last = count - 1;
+        if (last >= 0 && sides[last] == side && prices[last].equals(price)) {
+            quantities[last] = quantity;
+            return;
+        }
+        if (count == sides.length)
+            grow();
+        sides[count] = side;
+        prices[count] = price;
+        quantities[count] = quantity;
+        count++;
+    }
+
+    public void onTrade(Trade trade, Side aggressor) {
+        if (attached)
+            trades.add(TradePrint.of(trade, aggressor));
+    }
+
+    /**
+     * O que foi gravado desde o último drain, ou {@code null} se o comando não
+     * mexeu no livro.
+     */
+    public MarketDataUpdate drain() {
+        if (count == 0 && trades.isEmpty())
+            return null;
+
+        List<LevelUpdate> levels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<Price, Integer> seen = sides[i] == Side.BUY ? seenBids : seenAsks;
+            LevelUpdate update = new LevelUpdate(sides[i], prices[i], quantities[i]);
+            Integer at = seen.putIfAbsent(prices[i], levels.size());
+            if (at == null)
+                levels.add(update);
+            else
+                levels.set(at, update);
+            prices[i] = null;
+        }
+        count = 0;
+        seenBids.clear();
+        seenAsks.clear();
+
+        MarketDataUpdate update = new MarketDataUpdate(symbol, ++sequence, levels, List.copyOf(trades));
+        trades.clear();
+        return update;
+    }
+
+    private void grow() {
+        int size = sides.length * 2;
+        sides = Arrays.copyOf(sides, size);
+        prices = Arrays.copyOf(prices, size);
+        quantities = Arrays.copyOf(quantities, size);
+    }
+}
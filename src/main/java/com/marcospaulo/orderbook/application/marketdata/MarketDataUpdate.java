@@ -0,0 +1,12 @@
+package com.marcospaulo.orderbook.application.marketdata;
+
+import java.util.List;
+
+/**
+ * Efeito de um comando no livro de um instrumento: níveis que mudaram (já com
+ * o agregado final do comando) e trades, na ordem em que aconteceram.
+ * {@code sequence} cresce de 1 em 1 por instrumento, para o consumidor notar
+ * buracos.
+ */
+public record MarketDataUpdate(String symbol, long sequence, List<LevelUpdate> levels, List<TradePrint> trades) {
+}
@@ -0,0 +1,19 @@
+package com.marcospaulo.orderbook.application.marketdata;
+
+import java.time.Instant;
+
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.TradeId;
+
+/**
+ * Execução publicada na fita pública: sem ids de ordem nem de usuário.
+ * {@code aggressor} é o lado da ordem que chegou (taker).
+ */
+public record TradePrint(TradeId tradeId, Price price, long quantity, Side aggressor, Instant executedAt) {
+
+    public static TradePrint of(Trade trade, Side aggressor) {
+        return new TradePrint(trade.id(), trade.price(), trade.quantity().value(), aggressor, trade.executedAt());
+    }
+}
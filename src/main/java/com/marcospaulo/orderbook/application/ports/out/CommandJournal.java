@@ -0,0 +1,53 @@
+package com.marcospaulo.orderbook.application.ports.out;
+
+import java.time.Instant;
+import java.util.function.BiConsumer;
+
+import com.marcospaulo.orderbook.application.command.JournaledCommand;
+
+/**
+ * Log append-only dos comandos que mudam estado. Só a thread do writer do
+ * engine chama {@link #append}/{@link #commitIfDue}/{@link #commit}.
+ */
+public interface CommandJournal extends AutoCloseable {
+
+    /**
+     * Grava o comando (write-ahead) com o instante em que o writer o executa
+     * e devolve a sequência atribuída. Não garante durabilidade por si só;
+     * ver {@link #commitIfDue()}.
+     */
+    long append(JournaledCommand<?> command, Instant executedAt);
+
+    /**
+     * Group commit: faz fsync se a política (a cada N comandos ou T
+     * microssegundos) mandar. Devolve {@code true} quando tudo que foi
+     * gravado até aqui está durável.
+     */
+    boolean commitIfDue();
+
+    /**
+     * fsync incondicional do que foi gravado.
+     */
+    void commit();
+
+    /**
+     * Tempo máximo, em nanos, que um append pode esperar pelo fsync. O engine
+     * usa para não dormir além disso com commits pendentes.
+     */
+    long maxCommitDelayNanos();
+
+    /**
+     * Entrega, em ordem, os comandos com sequência maior que
+     * {@code afterSequence}, cada um com o instante gravado no append. Usado
+     * na recuperação, antes de novos appends.
+     */
+    void replay(long afterSequence, BiConsumer<JournaledCommand<?>, Instant> consumer);
+
+    /**
+     * Sequência do último comando gravado (0 se vazio).
+     */
+    long lastSequence();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,36 @@
+package com.marcospaulo.orderbook.application.ports.out;
+
+import java.time.Instant;
+
+import com.marcospaulo.orderbook.application.command.JournaledCommand;
+
+/**
+ * Gravação do fluxo de entrada de um engine para replay: os comandos que
+ * mudam estado, na ordem de execução, e cada leitura do relógio do contexto
+ * feita durante a execução deles. Só a thread do writer chama.
+ *
+ * Diferente do journal, não é write-ahead nem durável: serve para reproduzir
+ * um incidente, não para recuperar estado.
+ */
+public interface CommandRecorder extends AutoCloseable {
+
+    /**
+     * Marca o início da gravação, depois que o engine recuperou o estado:
+     * registra de onde o gerador de ids parte. O que vier antes (leituras do
+     * relógio durante a recuperação) é descartado.
+     */
+    void begin(int idShard, long orderIdSequence, long tradeIdSequence);
+
+    void recordCommand(JournaledCommand<?> command);
+
+    void recordTime(Instant instant);
+
+    /**
+     * Empurra o que estiver em buffer; chamado pelo engine ao fim de cada
+     * lote.
+     */
+    void flush();
+
+    @Override
+    void close();
+}
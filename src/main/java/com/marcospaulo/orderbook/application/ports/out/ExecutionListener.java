@@ -0,0 +1,14 @@
+package com.marcospaulo.orderbook.application.ports.out;
+
+import com.marcospaulo.orderbook.domain.model.Trade;
+
+/**
+ * Saída das execuções privadas (com ids de ordem e de usuário), na ordem do
+ * matching. Chamado por quem completa o lote, depois dos futures dele: quem
+ * responde ao taker pelo future já respondeu quando o fill chega. Não pode
+ * bloquear.
+ */
+public interface ExecutionListener {
+
+    void onExecution(Trade trade);
+}
@@ -1,22 +1,122 @@
 package com.marcospaulo.orderbook.application.ports.out;
 
+import java.util.Arrays;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
+import com.marcospaulo.orderbook.domain.model.LongOrderTable;
 import com.marcospaulo.orderbook.domain.model.Order;
 import com.marcospaulo.orderbook.domain.model.vo.OrderId;
 
+/**
+ * Ordens do writer em dois níveis, ambos em {@link LongOrderTable}:
+ *
+ * <ul>
+ * <li>vivas: em repouso ou em execução. Crescem com o livro.</li>
+ * <li>arquivo: as últimas {@code archiveCapacity} ordens terminadas
+ * (executadas ou canceladas), em ordem de término. Ao salvar uma ordem
+ * terminada ela sai das vivas e entra aqui; com o arquivo cheio, a mais antiga
+ * é descartada. Com capacidade 0 as terminadas são descartadas na hora; o que
+ * aconteceu com elas continua na fita de trades e no journal.</li>
+ * </ul>
+ *
+ * A memória fica limitada a ordens em repouso + {@code archiveCapacity}, em vez
+ * de crescer com todo o histórico. Ordem descartada some de
+ * {@link #findById} e do snapshot.
+ *
+ * Não é thread-safe: só o writer acessa. Leitura de fora (API) vai pela fila
+ * como comando, igual às carteiras.
+ */
 public final class InMemoryOrderRepository implements OrderRepository {
 
-    private final ConcurrentHashMap<OrderId, Order> store = new ConcurrentHashMap<>();
+    public static final int DEFAULT_EXPECTED_LIVE = 1 << 10;
+    public static final int DEFAULT_ARCHIVE_CAPACITY = 1 << 20;
+
+    private final LongOrderTable live;
+    private final LongOrderTable archived;
+    private final int archiveCapacity;
+    // anel em ordem de término; cresce até archiveCapacity e daí sobrescreve
+    private Order[] archive;
+    private int archiveHead;
+    private int archiveCount;
+
+    public InMemoryOrderRepository() {
+        this(DEFAULT_EXPECTED_LIVE, DEFAULT_ARCHIVE_CAPACITY);
+    }
+
+    /**
+     * @param expectedLive ordens vivas que cabem sem realocar a tabela
+     * @param archiveCapacity quantas ordens terminadas guardar (0 = nenhuma)
+     */
+    public InMemoryOrderRepository(int expectedLive, int archiveCapacity) {
+        if (archiveCapacity < 0)
+            throw new IllegalArgumentException("archiveCapacity must be >= 0");
+        this.live = new LongOrderTable(expectedLive);
+        this.archived = new LongOrderTable(Math.min(archiveCapacity, DEFAULT_EXPECTED_LIVE));
+        this.archiveCapacity = archiveCapacity;
+        this.archive = new Order[Math.min(archiveCapacity, DEFAULT_EXPECTED_LIVE)];
+    }
 
     @Override
     public Optional<Order> findById(OrderId id) {
-        return Optional.ofNullable(store.get(id));
+        long key = id.value();
+        Order order = live.get(key);
+        if (order == null && archiveCount > 0)
+            order = archived.get(key);
+        return Optional.ofNullable(order);
     }
 
     @Override
     public void save(Order order) {
-        store.put(order.id(), order);
+        long key = order.id().value();
+        if (!order.isFilled() && !order.isCancelled()) {
+            live.put(key, order);
+            return;
+        }
+        live.remove(key);
+        if (archived.get(key) != null) {
+            archived.put(key, order);
+            return;
+        }
+        archive(key, order);
+    }
+
+    @Override
+    public void forEach(Consumer<Order> visitor) {
+        live.forEach(visitor);
+        for (int i = 0; i < archiveCount; i++) {
+            visitor.accept(archive[(archiveHead + i) % archive.length]);
+        }
+    }
+
+    public int liveCount() {
+        return live.size();
+    }
+
+    public int archivedCount() {
+        return archiveCount;
+    }
+
+    public int archiveCapacity() {
+        return archiveCapacity;
+    }
+
+    private void archive(long key, Order order) {
+        if (archiveCapacity == 0)
+            return;
+        if (archiveCount == archive.length && archive.length < archiveCapacity) {
+            // ainda não deu a volta: head é 0 e a cópia mantém a ordem
+            archive = Arrays.copyOf(archive, (int) Math.min((long) archive.length << 1, archiveCapacity));
+        }
+        if (archiveCount == archive.length) {
+            Order oldest = archive[archiveHead];
+            archived.remove(oldest.id().value());
+            archive[archiveHead] = order;
+            archiveHead = (archiveHead + 1) % archive.length;
+        } else {
+            archive[(archiveHead + archiveCount) % archive.length] = order;
+            archiveCount++;
+        }
+        archived.put(key, order);
     }
 }
@@ -0,0 +1,12 @@
+package com.marcospaulo.orderbook.application.ports.out;
+
+import com.marcospaulo.orderbook.application.marketdata.MarketDataUpdate;
+
+/**
+ * Saída de market data do engine. Chamado na thread do writer: a
+ * implementação não pode bloquear nem fazer I/O aqui.
+ */
+public interface MarketDataPublisher {
+
+    void publish(MarketDataUpdate update);
+}
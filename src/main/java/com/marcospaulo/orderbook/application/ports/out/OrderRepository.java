@@ -1,6 +1,7 @@
 package com.marcospaulo.orderbook.application.ports.out;
 
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import com.marcospaulo.orderbook.domain.model.Order;
 import com.marcospaulo.orderbook.domain.model.vo.OrderId;
@@ -9,4 +10,9 @@ public interface OrderRepository {
     Optional<Order> findById(OrderId id);
 
     void save(Order order);
+
+    /**
+     * Visita todas as ordens (em qualquer ordem). Usado para snapshot.
+     */
+    void forEach(Consumer<Order> visitor);
 }
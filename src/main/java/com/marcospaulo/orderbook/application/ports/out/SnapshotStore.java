@@ -0,0 +1,23 @@
+package com.marcospaulo.orderbook.application.ports.out;
+
+import java.util.Optional;
+
+import com.marcospaulo.orderbook.application.snapshot.StateSnapshot;
+
+/**
+ * Onde os snapshots de estado são guardados. O engine chama {@link #save}
+ * fora da thread do writer.
+ */
+public interface SnapshotStore {
+
+    /**
+     * Grava de forma durável; só depois disso o snapshot pode ser devolvido
+     * por {@link #loadLatest()}.
+     */
+    void save(StateSnapshot snapshot);
+
+    /**
+     * Snapshot íntegro de maior sequência, se houver.
+     */
+    Optional<StateSnapshot> loadLatest();
+}
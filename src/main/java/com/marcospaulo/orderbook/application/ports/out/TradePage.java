@@ -0,0 +1,19 @@
+package com.marcospaulo.orderbook.application.ports.out;
+
+import java.util.List;
+
+import com.marcospaulo.orderbook.domain.model.Trade;
+
+/**
+ * Resultado de uma {@link TradeQuery}. {@code nextCursor} vai no
+ * {@link TradeQuery#before(long)} da próxima página; {@link #END} quando não
+ * há mais nada.
+ */
+public record TradePage(List<Trade> trades, long nextCursor) {
+
+    public static final long END = -1;
+
+    public boolean hasMore() {
+        return nextCursor != END;
+    }
+}
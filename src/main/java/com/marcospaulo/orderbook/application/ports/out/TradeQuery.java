@@ -0,0 +1,38 @@
+package com.marcospaulo.orderbook.application.ports.out;
+
+import java.time.Instant;
+
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+
+/**
+ * Página de histórico de trades, do mais recente para o mais antigo.
+ *
+ * {@code before} é o cursor: só entram trades com posição na fita menor que
+ * ele ({@link TradePage#nextCursor()} da página anterior). {@code from} é
+ * inclusivo e {@code to} exclusivo; {@code null} deixa o lado aberto.
+ */
+public record TradeQuery(long before, Instant from, Instant to, int limit) {
+
+    public static final int MAX_LIMIT = 1000;
+
+    public TradeQuery {
+        if (before < 0)
+            throw new ApplicationException("cursor must be >= 0");
+        if (limit <= 0 || limit > MAX_LIMIT)
+            throw new ApplicationException("limit must be in 1.." + MAX_LIMIT);
+        if (from != null && to != null && to.isBefore(from))
+            throw new ApplicationException("to must not be before from");
+    }
+
+    public static TradeQuery latest(int limit) {
+        return new TradeQuery(Long.MAX_VALUE, null, null, limit);
+    }
+
+    public TradeQuery before(long cursor) {
+        return new TradeQuery(cursor, from, to, limit);
+    }
+
+    public TradeQuery between(Instant from, Instant to) {
+        return new TradeQuery(before, from, to, limit);
+    }
+}
@@ -1,17 +1,46 @@
 package com.marcospaulo.orderbook.application.ports.out;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
 import com.marcospaulo.orderbook.domain.model.vo.UserId;
 
+/**
+ * Fita de trades, append-only. Cada trade ganha uma posição (0, 1, 2...) na
+ * ordem do append; é ela que serve de cursor nas consultas paginadas. Só o
+ * writer faz append; as leituras podem vir de qualquer thread.
+ */
 public interface TradeRepository {
     void append(Trade trade);
 
     /**
-     * MVP: query simples por usuário. Depois pode ser otimizado/indexado.
+     * Todos os trades em que o usuário foi comprador ou vendedor, do mais
+     * antigo para o mais recente.
      */
     List<Trade> findByUser(UserId userId);
 
+    TradePage findByUser(UserId userId, TradeQuery query);
+
+    /**
+     * Execuções de uma ordem (como compra ou venda), na ordem do append.
+     */
+    List<Trade> findByOrder(OrderId orderId);
+
+    /**
+     * Fita inteira, paginada.
+     */
+    TradePage findPage(TradeQuery query);
+
     List<Trade> findAll();
+
+    int count();
+
+    /**
+     * Visita os {@code count} primeiros trades na ordem do append. O prefixo
+     * não muda depois de gravado, então o snapshot serializa a fita fora do
+     * writer enquanto ele continua anexando.
+     */
+    void forEach(int count, Consumer<Trade> visitor);
 }
@@ -1,6 +1,7 @@
 package com.marcospaulo.orderbook.application.ports.out;
 
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import com.marcospaulo.orderbook.domain.model.Wallet;
 import com.marcospaulo.orderbook.domain.model.vo.UserId;
@@ -9,4 +10,9 @@ public interface WalletRepository {
     Optional<Wallet> findByUserId(UserId userId);
 
     void save(Wallet wallet);
+
+    /**
+     * Visita todas as carteiras (em qualquer ordem). Usado para snapshot.
+     */
+    void forEach(Consumer<Wallet> visitor);
 }
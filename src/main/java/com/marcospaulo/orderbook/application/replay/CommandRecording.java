@@ -0,0 +1,41 @@
+package com.marcospaulo.orderbook.application.replay;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.marcospaulo.orderbook.application.command.JournaledCommand;
+import com.marcospaulo.orderbook.domain.service.SequentialIdGenerator;
+
+/**
+ * Conteúdo de uma gravação: de onde o {@link SequentialIdGenerator} do engine
+ * gravado partiu (shard e sequências), os comandos em ordem de execução e as
+ * leituras do relógio.
+ */
+public record CommandRecording(
+        int idShard,
+        long orderIdSequence,
+        long tradeIdSequence,
+        List<JournaledCommand<?>> commands,
+        List<Instant> clockReads) {
+
+    public CommandRecording {
+        commands = List.copyOf(commands);
+        clockReads = List.copyOf(clockReads);
+    }
+
+    /**
+     * Gerador no ponto de partida gravado, para o contexto do replay.
+     */
+    public SequentialIdGenerator ids() {
+        SequentialIdGenerator ids = new SequentialIdGenerator(idShard);
+        ids.restore(orderIdSequence, tradeIdSequence);
+        return ids;
+    }
+
+    /**
+     * Relógio que devolve as leituras gravadas, para o contexto do replay.
+     */
+    public ReplayClock clock() {
+        return new ReplayClock(clockReads);
+    }
+}
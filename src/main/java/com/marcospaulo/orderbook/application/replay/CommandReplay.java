@@ -0,0 +1,63 @@
+package com.marcospaulo.orderbook.application.replay;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.JournaledCommand;
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.application.service.EngineOptions;
+import com.marcospaulo.orderbook.application.service.OrderBookCommandEngine;
+
+/**
+ * Reexecuta uma gravação num engine novo, o mais rápido possível.
+ *
+ * O contexto de destino deve partir do mesmo estado da execução gravada
+ * (vazio, ou o snapshot de onde ela partiu) e usar
+ * {@link CommandRecording#ids()} e {@link CommandRecording#clock()}; aí a fita
+ * de trades e as carteiras saem idênticas, o que {@link StateComparison}
+ * confere. Como a carga é a da produção, o tempo do replay também serve de
+ * benchmark com o formato real do tráfego.
+ */
+public final class CommandReplay {
+
+    private CommandReplay() {
+    }
+
+    /**
+     * Submete os comandos mantendo no máximo metade da capacidade em voo,
+     * para não esbarrar na backpressure do engine.
+     */
+    public static ReplayReport run(CommandRecording recording, CommandContext target, EngineOptions options) {
+        if (options.journal() != null || options.snapshotStore() != null)
+            throw new ApplicationException("replay must not write a journal or snapshots");
+        int window = Math.max(1, options.capacity() / 2);
+        ArrayDeque<CompletableFuture<?>> inFlight = new ArrayDeque<>(window);
+        int failed = 0;
+
+        long start = System.nanoTime();
+        try (OrderBookCommandEngine engine = new OrderBookCommandEngine(target, options)) {
+            for (JournaledCommand<?> command : recording.commands()) {
+                if (inFlight.size() == window)
+                    failed += await(inFlight.pollFirst());
+                inFlight.addLast(engine.submit(command));
+            }
+            while (!inFlight.isEmpty())
+                failed += await(inFlight.pollFirst());
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int unusedClockReads = target.clock() instanceof ReplayClock clock ? clock.remaining() : 0;
+        return new ReplayReport(recording.commands().size(), failed, elapsed, unusedClockReads);
+    }
+
+    private static int await(CompletableFuture<?> future) {
+        try {
+            future.join();
+            return 0;
+        } catch (CompletionException e) {
+            return 1;
+        }
+    }
+}
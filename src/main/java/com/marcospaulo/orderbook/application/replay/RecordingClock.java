@@ -0,0 +1,41 @@
+package com.marcospaulo.orderbook.application.replay;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Objects;
+
+import com.marcospaulo.orderbook.application.ports.out.CommandRecorder;
+
+/**
+ * Relógio do contexto enquanto o engine grava: cada leitura vai para o
+ * {@link CommandRecorder}, para o {@link ReplayClock} devolver o mesmo
+ * instante na mesma posição.
+ */
+public final class RecordingClock extends Clock {
+
+    private final Clock delegate;
+    private final CommandRecorder recorder;
+
+    public RecordingClock(Clock delegate, CommandRecorder recorder) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.recorder = Objects.requireNonNull(recorder, "recorder");
+    }
+
+    @Override
+    public Instant instant() {
+        Instant now = delegate.instant();
+        recorder.recordTime(now);
+        return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return delegate.getZone();
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new RecordingClock(delegate.withZone(zone), recorder);
+    }
+}
@@ -0,0 +1,55 @@
+package com.marcospaulo.orderbook.application.replay;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+
+/**
+ * Devolve, em ordem, os instantes lidos na execução gravada. Se o replay
+ * fizer mais leituras que a gravação, a execução divergiu e a leitura falha.
+ */
+public final class ReplayClock extends Clock {
+
+    private final List<Instant> reads;
+    private int next;
+
+    public ReplayClock(List<Instant> reads) {
+        this.reads = List.copyOf(reads);
+    }
+
+    @Override
+    public Instant instant() {
+        if (next == reads.size())
+            throw new ApplicationException("replay diverged: clock read #" + (next + 1) + " is not in the recording");
+        return reads.get(next++);
+    }
+
+    /**
+     * Leituras ainda não consumidas; diferente de zero no fim do replay também
+     * indica divergência.
+     */
+    public int remaining() {
+        return reads.size() - next;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    /**
+     * A gravação guarda só instantes, em UTC; pedir outra zona é uma execução
+     * diferente da gravada.
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        if (zone != null && zone.normalized().equals(ZoneOffset.UTC))
+            return this;
+        throw new ApplicationException("replay diverged: clock asked for zone " + zone
+                + " but the recording is UTC");
+    }
+}
@@ -0,0 +1,14 @@
+package com.marcospaulo.orderbook.application.replay;
+
+/**
+ * Resultado de um {@link CommandReplay#run}. {@code failed} conta comandos
+ * recusados no replay (os mesmos que falharam na gravação, se não houve
+ * divergência); {@code unusedClockReads} diferente de zero indica que o
+ * replay leu o relógio menos vezes que a execução gravada.
+ */
+public record ReplayReport(int commands, int failed, long elapsedNanos, int unusedClockReads) {
+
+    public double commandsPerSecond() {
+        return elapsedNanos == 0 ? 0 : commands * 1_000_000_000.0 / elapsedNanos;
+    }
+}
@@ -0,0 +1,108 @@
+package com.marcospaulo.orderbook.application.replay;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.Balance;
+import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+
+/**
+ * Compara fita de trades (posição a posição, todos os campos) e carteiras
+ * (todo saldo, disponível e reservado) de dois contextos. Devolve as
+ * diferenças em texto; lista vazia = idênticos.
+ */
+public final class StateComparison {
+
+    /**
+     * Acima disso o resto é omitido: depois da primeira divergência quase tudo
+     * diverge.
+     */
+    static final int MAX_DIFFERENCES = 50;
+
+    private StateComparison() {
+    }
+
+    public static List<String> differences(CommandContext expected, CommandContext actual) {
+        List<String> out = new ArrayList<>();
+        compareTrades(expected.tradeRepository().findAll(), actual.tradeRepository().findAll(), out);
+        compareWallets(expected, actual, out);
+        return out.size() > MAX_DIFFERENCES ? out.subList(0, MAX_DIFFERENCES) : out;
+    }
+
+    private static void compareTrades(List<Trade> expected, List<Trade> actual, List<String> out) {
+        if (expected.size() != actual.size())
+            out.add("trade count: expected " + expected.size() + " but was " + actual.size());
+        int n = Math.min(expected.size(), actual.size());
+        for (int i = 0; i < n && out.size() < MAX_DIFFERENCES; i++) {
+            Trade e = expected.get(i);
+            Trade a = actual.get(i);
+            if (!e.id().equals(a.id())
+                    || !e.buyOrderId().equals(a.buyOrderId())
+                    || !e.sellOrderId().equals(a.sellOrderId())
+                    || !e.buyerId().equals(a.buyerId())
+                    || !e.sellerId().equals(a.sellerId())
+                    || !e.price().equals(a.price())
+                    || e.quantity().value() != a.quantity().value()
+                    || !e.executedAt().equals(a.executedAt())) {
+                out.add("trade #" + i + ": expected " + describe(e) + " but was " + describe(a));
+            }
+        }
+    }
+
+    private static void compareWallets(CommandContext expected, CommandContext actual, List<String> out) {
+        expected.walletRepository().forEach(e -> {
+            Wallet a = actual.walletRepository().findByUserId(e.userId()).orElse(null);
+            if (a == null) {
+                out.add("wallet " + e.userId() + ": missing");
+                return;
+            }
+            compareBalances(e, a, out);
+        });
+        actual.walletRepository().forEach(a -> {
+            if (expected.walletRepository().findByUserId(a.userId()).isEmpty())
+                out.add("wallet " + a.userId() + ": unexpected");
+        });
+    }
+
+    private static void compareBalances(Wallet expected, Wallet actual, List<String> out) {
+        Map<Asset, Balance> e = expected.balances();
+        Map<Asset, Balance> a = actual.balances();
+        for (Map.Entry<Asset, Balance> entry : e.entrySet()) {
+            Balance other = a.get(entry.getKey());
+            Balance mine = entry.getValue();
+            if (other == null ? !isZero(mine)
+                    : !same(mine.available(), other.available()) || !same(mine.reserved(), other.reserved())) {
+                out.add("wallet " + expected.userId() + " " + entry.getKey() + ": expected " + describe(mine)
+                        + " but was " + (other == null ? "none" : describe(other)));
+            }
+        }
+        for (Map.Entry<Asset, Balance> entry : a.entrySet()) {
+            if (!e.containsKey(entry.getKey()) && !isZero(entry.getValue()))
+                out.add("wallet " + expected.userId() + " " + entry.getKey() + ": unexpected "
+                        + describe(entry.getValue()));
+        }
+    }
+
+    private static boolean same(BigDecimal x, BigDecimal y) {
+        return Objects.equals(x, y) || (x != null && y != null && x.compareTo(y) == 0);
+    }
+
+    private static boolean isZero(Balance b) {
+        return b.available().signum() == 0 && b.reserved().signum() == 0;
+    }
+
+    private static String describe(Balance b) {
+        return b.available() + "/" + b.reserved();
+    }
+
+    private static String describe(Trade t) {
+        return t.id() + " " + t.buyOrderId() + "<-" + t.sellOrderId() + " " + t.quantity().value() + "@" + t.price()
+                + " " + t.executedAt();
+    }
+}
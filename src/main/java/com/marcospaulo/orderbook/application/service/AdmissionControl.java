@@ -0,0 +1,124 @@
+package com.marcospaulo.orderbook.application.service;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.marcospaulo.orderbook.application.exception.BackpressureException;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Limite de comandos em voo (submetidos e ainda não completados), global e
+ * por usuário, na frente de {@link OrderBookCommandEngine#submit}.
+ *
+ * Com virtual threads o número de requisições simultâneas deixa de ser
+ * limitado pelo pool do servidor; sem este limite, um burst vira fila no
+ * engine e latência para todo mundo. Aqui o excesso falha na hora com
+ * {@link BackpressureException}, e um único usuário não consegue ocupar a
+ * capacidade global sozinho.
+ *
+ * O contador de cada usuário só existe enquanto ele tem comando em voo, então
+ * o mapa não cresce com o número de usuários já vistos.
+ */
+public final class AdmissionControl {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 16_384;
+    public static final int DEFAULT_MAX_IN_FLIGHT_PER_USER = 32;
+
+    private final int maxInFlight;
+    private final int maxInFlightPerUser;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentHashMap<UserId, Counter> perUser = new ConcurrentHashMap<>();
+
+    public AdmissionControl(int maxInFlight, int maxInFlightPerUser) {
+        if (maxInFlight <= 0)
+            throw new IllegalArgumentException("maxInFlight must be > 0");
+        if (maxInFlightPerUser <= 0 || maxInFlightPerUser > maxInFlight)
+            throw new IllegalArgumentException("maxInFlightPerUser must be in (0, maxInFlight]");
+        this.maxInFlight = maxInFlight;
+        this.maxInFlightPerUser = maxInFlightPerUser;
+    }
+
+    /**
+     * Admite e executa {@code submission} (tipicamente um
+     * {@code router.submit(...)}); a vaga volta quando o future completar, com
+     * sucesso ou não. Recusa vem como future já falho, igual à backpressure do
+     * próprio engine.
+     */
+    public <R> CompletableFuture<R> submit(UserId userId, Supplier<CompletableFuture<R>> submission) {
+        Objects.requireNonNull(userId, "userId");
+        if (!acquireGlobal())
+            return CompletableFuture.failedFuture(new BackpressureException("too many commands in flight"));
+        if (!acquireUser(userId)) {
+            inFlight.decrementAndGet();
+            return CompletableFuture.failedFuture(
+                    new BackpressureException("too many commands in flight for userId=" + userId));
+        }
+
+        CompletableFuture<R> future;
+        try {
+            future = submission.get();
+        } catch (RuntimeException e) {
+            release(userId);
+            throw e;
+        }
+        future.whenComplete((result, failure) -> release(userId));
+        return future;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int inFlight(UserId userId) {
+        Counter c = perUser.get(userId);
+        return c == null ? 0 : c.value;
+    }
+
+    public int maxInFlight() {
+        return maxInFlight;
+    }
+
+    public int maxInFlightPerUser() {
+        return maxInFlightPerUser;
+    }
+
+    private boolean acquireGlobal() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maxInFlight)
+                return false;
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private boolean acquireUser(UserId userId) {
+        boolean[] admitted = new boolean[1];
+        perUser.compute(userId, (k, counter) -> {
+            if (counter == null)
+                counter = new Counter();
+            if (counter.value < maxInFlightPerUser) {
+                counter.value++;
+                admitted[0] = true;
+            }
+            return counter;
+        });
+        return admitted[0];
+    }
+
+    private void release(UserId userId) {
+        perUser.computeIfPresent(userId, (k, counter) -> --counter.value == 0 ? null : counter);
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Só é alterado dentro de {@code compute} da chave, que serializa o
+     * acesso; fora dele é só leitura para métricas.
+     */
+    private static final class Counter {
+        volatile int value;
+    }
+}
@@ -0,0 +1,88 @@
+package com.marcospaulo.orderbook.application.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.marcospaulo.orderbook.application.command.Command;
+
+/**
+ * Implementação original: {@link ArrayBlockingQueue} com um {@link Semaphore}
+ * limitando comandos na fila + em execução.
+ */
+final class BlockingQueueIngress implements CommandIngress {
+
+    static final long DEFAULT_POLL_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final BlockingQueue<QueuedCommand> queue;
+    private final Semaphore capacity;
+    private final long pollTimeoutNanos;
+
+    BlockingQueueIngress(int capacity) {
+        this(capacity, DEFAULT_POLL_TIMEOUT_NANOS);
+    }
+
+    /**
+     * @param pollTimeoutNanos quanto o writer espera por comandos antes de
+     *                         voltar ao loop (ex.: para um group commit
+     *                         vencido por tempo)
+     */
+    BlockingQueueIngress(int capacity, long pollTimeoutNanos) {
+        this.capacity = new Semaphore(capacity);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.pollTimeoutNanos = Math.max(1, pollTimeoutNanos);
+    }
+
+    @Override
+    public boolean offer(Command<?> command, CompletableFuture<?> future) {
+        if (!capacity.tryAcquire())
+            return false;
+        if (!queue.offer(new QueuedCommand(command, future))) {
+            capacity.release();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int drainTo(Command<?>[] commands, CompletableFuture<?>[] futures, int max) {
+        QueuedCommand item = queue.poll();
+        if (item == null) {
+            try {
+                item = queue.poll(pollTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                // close(): o engine decide pelo flag running se continua drenando
+                return 0;
+            }
+            if (item == null)
+                return 0;
+        }
+
+        int n = 0;
+        while (true) {
+            commands[n] = item.command;
+            futures[n] = item.future;
+            n++;
+            if (n == max)
+                return n;
+            item = queue.poll();
+            if (item == null)
+                return n;
+        }
+    }
+
+    @Override
+    public void release(int count) {
+        capacity.release(count);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    private record QueuedCommand(Command<?> command, CompletableFuture<?> future) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.marcospaulo.orderbook.application.service;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.marcospaulo.orderbook.application.command.Command;
+
+/**
+ * Entrada de comandos do {@link OrderBookCommandEngine}: vários produtores,
+ * um único consumidor (o writer).
+ *
+ * A capacidade cobre comandos na fila e comandos em execução: uma posição só
+ * volta a ficar livre em {@link #release(int)}, depois que o writer executou o
+ * lote.
+ */
+interface CommandIngress {
+
+    /**
+     * Chamado pelos produtores. {@code false} quando não há capacidade.
+     */
+    boolean offer(Command<?> command, CompletableFuture<?> future);
+
+    /**
+     * Chamado pelo writer. Copia até {@code max} comandos para os arrays e
+     * devolve quantos foram copiados; se não houver nada, espera um pouco
+     * (conforme a implementação) e devolve 0.
+     */
+    int drainTo(Command<?>[] commands, CompletableFuture<?>[] futures, int max);
+
+    /**
+     * Chamado pelo writer depois de executar os {@code count} comandos do
+     * último {@link #drainTo}.
+     */
+    void release(int count);
+
+    boolean isEmpty();
+
+}
@@ -0,0 +1,225 @@
+package com.marcospaulo.orderbook.application.service;
+
+import java.util.concurrent.Executor;
+
+import com.marcospaulo.orderbook.application.ports.out.CommandJournal;
+import com.marcospaulo.orderbook.application.ports.out.CommandRecorder;
+import com.marcospaulo.orderbook.application.ports.out.ExecutionListener;
+import com.marcospaulo.orderbook.application.ports.out.MarketDataPublisher;
+import com.marcospaulo.orderbook.application.ports.out.SnapshotStore;
+
+/**
+ * Configuração do {@link OrderBookCommandEngine}. Imutável; cada
+ * {@code withX} devolve uma cópia.
+ */
+public final class EngineOptions {
+
+    public static final int DEFAULT_BOOK_DEPTH = 20;
+
+    private final int capacity;
+    private final int batchSize;
+    private final Executor completionExecutor;
+    private final IngressType ingressType;
+    private final WaitStrategy waitStrategy;
+    private final CommandJournal journal;
+    private final SnapshotStore snapshotStore;
+    private final long snapshotEveryCommands;
+    private final MarketDataPublisher marketData;
+    private final int bookDepth;
+    private final CommandRecorder recorder;
+    private final ExecutionListener executions;
+
+    private EngineOptions(
+            int capacity,
+            int batchSize,
+            Executor completionExecutor,
+            IngressType ingressType,
+            WaitStrategy waitStrategy,
+            CommandJournal journal,
+            SnapshotStore snapshotStore,
+            long snapshotEveryCommands,
+            MarketDataPublisher marketData,
+            int bookDepth,
+            CommandRecorder recorder,
+            ExecutionListener executions) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be > 0");
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("batchSize must be > 0");
+        if (ingressType == null)
+            throw new IllegalArgumentException("ingressType must not be null");
+        if (waitStrategy == null)
+            throw new IllegalArgumentException("waitStrategy must not be null");
+        if (bookDepth < 0)
+            throw new IllegalArgumentException("bookDepth must be >= 0");
+        if (snapshotEveryCommands < 0)
+            throw new IllegalArgumentException("snapshotEveryCommands must be >= 0");
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.completionExecutor = completionExecutor;
+        this.ingressType = ingressType;
+        this.waitStrategy = waitStrategy;
+        this.journal = journal;
+        this.snapshotStore = snapshotStore;
+        this.snapshotEveryCommands = snapshotEveryCommands;
+        this.marketData = marketData;
+        this.bookDepth = bookDepth;
+        this.recorder = recorder;
+        this.executions = executions;
+    }
+
+    /**
+     * Um comando por vez, futures completados na thread do writer, fila
+     * bloqueante.
+     */
+    public static EngineOptions of(int capacity) {
+        return new EngineOptions(capacity, 1, null, IngressType.BLOCKING_QUEUE, WaitStrategy.PARK, null, null, 0, null,
+                DEFAULT_BOOK_DEPTH, null, null);
+    }
+
+    /**
+     * Quantos comandos o writer drena e executa por vez antes de entregar os
+     * resultados.
+     */
+    public EngineOptions withBatchSize(int batchSize) {
+        return new EngineOptions(capacity, batchSize, completionExecutor, ingressType, waitStrategy, journal,
+                snapshotStore, snapshotEveryCommands, marketData, bookDepth, recorder, executions);
+    }
+
+    /**
+     * Executor que completa os futures de cada lote, para que callbacks dos
+     * clientes nunca rodem na thread de matching. {@code null} completa na
+     * própria thread do writer.
+     */
+    public EngineOptions withCompletionExecutor(Executor completionExecutor) {
+        return new EngineOptions(capacity, batchSize, completionExecutor, ingressType, waitStrategy, journal,
+                snapshotStore, snapshotEveryCommands, marketData, bookDepth, recorder, executions);
+    }
+
+    public EngineOptions withIngress(IngressType ingressType) {
+        return new EngineOptions(capacity, batchSize, completionExecutor, ingressType, waitStrategy, journal,
+                snapshotStore, snapshotEveryCommands, marketData, bookDepth, recorder, executions);
+    }
+
+    /**
+     * Espera do writer com a fila vazia. Só vale para
+     * {@link IngressType#RING_BUFFER}; a fila bloqueante sempre usa poll com
+     * timeout.
+     */
+    public EngineOptions withWaitStrategy(WaitStrategy waitStrategy) {
+        return new EngineOptions(capacity, batchSize, completionExecutor, ingressType, waitStrategy, journal,
+                snapshotStore, snapshotEveryCommands, marketData, bookDepth, recorder, executions);
+    }
+
+    /**
+     * Journal write-ahead. Na construção o engine reexecuta o que houver
+     * nele; depois, cada {@link com.marcospaulo.orderbook.application.command.JournaledCommand}
+     * é gravado antes de executar e o future só completa depois do group
+     * commit. O engine passa a ser dono do journal e o fecha no
+     * {@code close()}.
+     */
+    public EngineOptions withJournal(CommandJournal journal) {
+        return new EngineOptions(capacity, batchSize, completionExecutor, ingressType, waitStrategy, journal,
+                snapshotStore, snapshotEveryCommands, marketData, bookDepth, recorder, executions);
+    }
+
+    /**
+     * Snapshots de estado. Na construção o engine carrega o mais recente e só
+     * reexecuta o journal a partir da sequência dele. Com
+     * {@code everyCommands > 0}, tira um snapshot novo a cada tantos comandos
+     * journaled; com 0, só sob demanda ({@link OrderBookCommandEngine#snapshot()}).
+     */
+    public EngineOptions withSnapshots(SnapshotStore snapshotStore, long everyCommands) {
+        return new EngineOptions(capacity, batchSize, completionExecutor, ingressType, waitStrategy, journal,
+                snapshotStore, everyCommands, marketData, bookDepth, recorder, executions);
+    }
+
+    /**
+     * Publica um {@link com.marcospaulo.orderbook.application.marketdata.MarketDataUpdate}
+     * por comando que mexeu no livro. Com journal, só depois do commit que
+     * torna o comando durável.
+     */
+    public EngineOptions withMarketData(MarketDataPublisher marketData) {
+        return new EngineOptions(capacity, batchSize, completionExecutor, ingressType, waitStrategy, journal,
+                snapshotStore, snapshotEveryCommands, marketData, bookDepth, recorder, executions);
+    }
+
+    /**
+     * Quantos níveis por lado entram no {@link com.marcospaulo.orderbook.application.marketdata.BookSnapshot}
+     * publicado pelo writer. 0 desliga a publicação.
+     */
+    public EngineOptions withBookDepth(int bookDepth) {
+        return new EngineOptions(capacity, batchSize, completionExecutor, ingressType, waitStrategy, journal,
+                snapshotStore, snapshotEveryCommands, marketData, bookDepth, recorder, executions);
+    }
+
+    /**
+     * Grava cada {@link com.marcospaulo.orderbook.application.command.JournaledCommand}
+     * na ordem de execução, para replay. As leituras do relógio só entram na
+     * gravação se o contexto usar um
+     * {@link com.marcospaulo.orderbook.application.replay.RecordingClock} com
+     * o mesmo recorder. O engine passa a ser dono do recorder e o fecha no
+     * {@code close()}.
+     */
+    public EngineOptions withRecorder(CommandRecorder recorder) {
+        return new EngineOptions(capacity, batchSize, completionExecutor, ingressType, waitStrategy, journal,
+                snapshotStore, snapshotEveryCommands, marketData, bookDepth, recorder, executions);
+    }
+
+    /**
+     * Recebe cada trade liquidado, depois do commit que o torna durável e
+     * dos futures do lote em que foi executado.
+     */
+    public EngineOptions withExecutions(ExecutionListener executions) {
+        return new EngineOptions(capacity, batchSize, completionExecutor, ingressType, waitStrategy, journal,
+                snapshotStore, snapshotEveryCommands, marketData, bookDepth, recorder, executions);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public Executor completionExecutor() {
+        return completionExecutor;
+    }
+
+    public IngressType ingressType() {
+        return ingressType;
+    }
+
+    public WaitStrategy waitStrategy() {
+        return waitStrategy;
+    }
+
+    public CommandJournal journal() {
+        return journal;
+    }
+
+    public SnapshotStore snapshotStore() {
+        return snapshotStore;
+    }
+
+    public long snapshotEveryCommands() {
+        return snapshotEveryCommands;
+    }
+
+    public MarketDataPublisher marketData() {
+        return marketData;
+    }
+
+    public int bookDepth() {
+        return bookDepth;
+    }
+
+    public CommandRecorder recorder() {
+        return recorder;
+    }
+
+    public ExecutionListener executions() {
+        return executions;
+    }
+}
@@ -0,0 +1,16 @@
+package com.marcospaulo.orderbook.application.service;
+
+public enum IngressType {
+
+    /**
+     * {@link java.util.concurrent.ArrayBlockingQueue} + {@link java.util.concurrent.Semaphore}.
+     */
+    BLOCKING_QUEUE,
+
+    /**
+     * Ring pré-alocado, potência de dois, com claim de sequência por CAS
+     * (estilo Disruptor). Sem lock e sem wrapper por comando.
+     */
+    RING_BUFFER
+
+}
@@ -0,0 +1,214 @@
+package com.marcospaulo.orderbook.application.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import com.marcospaulo.orderbook.application.command.Command;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.CompleteTransferCommand;
+import com.marcospaulo.orderbook.application.command.ForgetTransferCommand;
+import com.marcospaulo.orderbook.application.command.PendingTransfer;
+import com.marcospaulo.orderbook.application.command.TransferInCommand;
+import com.marcospaulo.orderbook.application.command.TransferOutCommand;
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.application.exception.BackpressureException;
+import com.marcospaulo.orderbook.application.marketdata.BookSnapshot;
+import com.marcospaulo.orderbook.application.ports.out.TradeRepository;
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Um {@link OrderBookCommandEngine} por instrumento, cada um com sua thread de
+ * writer e seu próprio estado (livro, ordens, trades e ledger de carteiras).
+ * Nada é compartilhado entre engines, então não há lock no caminho quente.
+ *
+ * Saldo é alocado por instrumento: para operar em outro par o usuário
+ * transfere entre ledgers com {@link #transfer}, que debita no engine de
+ * origem e só então credita no de destino (hand-off em duas pernas, cada uma
+ * executada pelo writer dono do ledger). A saída fica registrada na origem
+ * com um id até o destino confirmar; {@link #resumeTransfers} completa as
+ * que um crash deixou no meio.
+ */
+public final class InstrumentRouter implements AutoCloseable {
+
+    private final Map<String, OrderBookCommandEngine> engines = new LinkedHashMap<>();
+
+    public InstrumentRouter(Collection<OrderBookCommandEngine> engines) {
+        Objects.requireNonNull(engines, "engines");
+        for (OrderBookCommandEngine engine : engines) {
+            String symbol = engine.instrument().symbol();
+            if (this.engines.putIfAbsent(symbol, engine) != null)
+                throw new IllegalArgumentException("duplicate instrument " + symbol);
+        }
+        if (this.engines.isEmpty())
+            throw new IllegalArgumentException("at least one instrument is required");
+    }
+
+    /**
+     * Cria um engine por instrumento, com contexto e opções próprios (ex.:
+     * journal em diretórios separados).
+     */
+    public static InstrumentRouter start(
+            List<Instrument> instruments,
+            Function<Instrument, CommandContext> contextFactory,
+            Function<Instrument, EngineOptions> optionsFactory) {
+        List<OrderBookCommandEngine> started = new ArrayList<>();
+        try {
+            for (Instrument instrument : instruments) {
+                CommandContext context = contextFactory.apply(instrument);
+                if (!context.instrument().equals(instrument))
+                    throw new IllegalArgumentException("context for " + instrument + " is bound to "
+                            + context.instrument());
+                started.add(new OrderBookCommandEngine(context, optionsFactory.apply(instrument)));
+            }
+            InstrumentRouter router = new InstrumentRouter(started);
+            router.resumeTransfers().join();
+            return router;
+        } catch (RuntimeException e) {
+            started.forEach(OrderBookCommandEngine::close);
+            throw e;
+        }
+    }
+
+    public <R> CompletableFuture<R> submit(String symbol, Command<R> command) {
+        OrderBookCommandEngine engine = engines.get(symbol);
+        if (engine == null)
+            return CompletableFuture.failedFuture(new ApplicationException("unknown instrument " + symbol));
+        return engine.submit(command);
+    }
+
+    /**
+     * Move saldo disponível do ledger de um instrumento para o de outro.
+     *
+     * O débito na origem grava a intenção (id, destino, valor) no mesmo
+     * comando journaled; o crédito no destino é idempotente pelo id. Depois
+     * do crédito a origem encerra a pendência e o destino esquece o id. Se o
+     * crédito for recusado antes de entrar na fila do destino
+     * (backpressure), o valor é devolvido à origem e o future falha; qualquer
+     * outra falha pode ter vindo depois de o crédito valer, então o future
+     * falha e a pendência fica para {@link #resumeTransfers}, como depois de
+     * um crash entre as pernas.
+     */
+    public CompletableFuture<Void> transfer(UserId userId, Asset asset, BigDecimal amount, String fromSymbol,
+            String toSymbol) {
+        OrderBookCommandEngine from = engines.get(fromSymbol);
+        OrderBookCommandEngine to = engines.get(toSymbol);
+        if (from == null || to == null)
+            return CompletableFuture.failedFuture(
+                    new ApplicationException("unknown instrument " + (from == null ? fromSymbol : toSymbol)));
+        if (from == to)
+            return CompletableFuture.failedFuture(new ApplicationException("transfer to the same instrument"));
+
+        PendingTransfer transfer = new PendingTransfer(UUID.randomUUID(), userId, asset, amount, toSymbol);
+        return from.submit(new TransferOutCommand(transfer.id(), userId, asset, amount, toSymbol))
+                .thenCompose(debited -> deliver(from, fromSymbol, to, transfer));
+    }
+
+    /**
+     * Completa as transferências que ficaram pendentes em algum engine:
+     * reenvia o crédito (o destino ignora o que já creditou) e encerra na
+     * origem. Roda ao subir, antes de aceitar tráfego. Um crédito recusado
+     * antes da fila é devolvido à origem, como em {@link #transfer};
+     * pendências para um instrumento que não está mais configurado continuam
+     * pendentes.
+     */
+    public CompletableFuture<Void> resumeTransfers() {
+        Command<List<PendingTransfer>> pending = ctx -> ctx.transfers().pending();
+        List<CompletableFuture<Void>> resumed = new ArrayList<>();
+        engines.forEach((fromSymbol, from) -> {
+            for (PendingTransfer transfer : from.submit(pending).join()) {
+                OrderBookCommandEngine to = engines.get(transfer.toSymbol());
+                if (to != null)
+                    resumed.add(deliver(from, fromSymbol, to, transfer).exceptionally(failure -> null));
+            }
+        });
+        return CompletableFuture.allOf(resumed.toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Crédito no destino e encerramento na origem. Falha no encerramento ou
+     * no esquecimento não desfaz nada: a pendência é retomada depois.
+     */
+    private static CompletableFuture<Void> deliver(OrderBookCommandEngine from, String fromSymbol,
+            OrderBookCommandEngine to, PendingTransfer transfer) {
+        UUID id = transfer.id();
+        return to.submit(new TransferInCommand(id, transfer.userId(), transfer.asset(), transfer.amount()))
+                .thenCompose(credited -> from.submit(new CompleteTransferCommand(id, false))
+                        .thenCompose(completed -> to.submit(new ForgetTransferCommand(id)))
+                        .handle((forgotten, failure) -> (Void) null))
+                .exceptionallyCompose(failure -> neverCredited(failure)
+                        ? refund(from, fromSymbol, id, failure)
+                        : CompletableFuture.failedFuture(new ApplicationException(
+                                "transfer credit failed; transfer stays pending until resumed", failure)));
+    }
+
+    /**
+     * Backpressure só sai do submit, antes de o comando entrar na fila, ou de
+     * uma fila que o writer abandonou ao parar: o crédito não rodou. Qualquer
+     * outra falha (execução, commit do journal) pode ter vindo com o crédito
+     * já aplicado, e devolver creditaria duas vezes; o {@code isCredited} do
+     * destino torna o reenvio seguro.
+     */
+    private static boolean neverCredited(Throwable failure) {
+        Throwable t = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        return t instanceof BackpressureException;
+    }
+
+    private static CompletableFuture<Void> refund(OrderBookCommandEngine from, String fromSymbol, UUID id,
+            Throwable creditFailure) {
+        return from.submit(new CompleteTransferCommand(id, true))
+                .handle((refunded, refundFailure) -> {
+                    throw new ApplicationException(refundFailure == null
+                            ? "transfer credit failed; amount returned to " + fromSymbol
+                            : "transfer credit and refund both failed; transfer stays pending", creditFailure);
+                });
+    }
+
+    /**
+     * Profundidade publicada do instrumento, sem passar pela fila do engine.
+     */
+    public Optional<BookSnapshot> book(String symbol) {
+        return Optional.ofNullable(engines.get(symbol)).map(OrderBookCommandEngine::book);
+    }
+
+    /**
+     * Fita de trades do instrumento, para leitura (ver
+     * {@link OrderBookCommandEngine#trades()}).
+     */
+    public Optional<TradeRepository> trades(String symbol) {
+        return Optional.ofNullable(engines.get(symbol)).map(OrderBookCommandEngine::trades);
+    }
+
+    public Optional<Instrument> instrument(String symbol) {
+        return Optional.ofNullable(engines.get(symbol)).map(OrderBookCommandEngine::instrument);
+    }
+
+    /**
+     * O primeiro instrumento configurado; usado por quem não informa símbolo.
+     */
+    public Instrument defaultInstrument() {
+        return engines.values().iterator().next().instrument();
+    }
+
+    public List<Instrument> instruments() {
+        return engines.values().stream().map(OrderBookCommandEngine::instrument).toList();
+    }
+
+    @Override
+    public void close() {
+        engines.values().forEach(OrderBookCommandEngine::close);
+    }
+}
@@ -1,35 +1,126 @@
 package com.marcospaulo.orderbook.application.service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.marcospaulo.orderbook.application.command.Command;
 import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.JournaledCommand;
 import com.marcospaulo.orderbook.application.exception.ApplicationException;
 import com.marcospaulo.orderbook.application.exception.BackpressureException;
+import com.marcospaulo.orderbook.application.exception.OutcomeUnknownException;
+import com.marcospaulo.orderbook.application.marketdata.BookSnapshot;
+import com.marcospaulo.orderbook.application.marketdata.MarketDataUpdate;
+import com.marcospaulo.orderbook.application.ports.out.CommandJournal;
+import com.marcospaulo.orderbook.application.ports.out.CommandRecorder;
+import com.marcospaulo.orderbook.application.ports.out.ExecutionListener;
+import com.marcospaulo.orderbook.application.ports.out.MarketDataPublisher;
+import com.marcospaulo.orderbook.application.ports.out.SnapshotStore;
+import com.marcospaulo.orderbook.application.ports.out.TradeRepository;
+import com.marcospaulo.orderbook.application.snapshot.StateSnapshot;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.Trade;
 
 public final class OrderBookCommandEngine implements AutoCloseable {
 
-    private final BlockingQueue<QueuedCommand<?>> queue;
+    private final CommandIngress ingress;
     private final CommandContext context;
 
-    private final Semaphore capacity;
+    private final int batchSize;
+    private final Executor completionExecutor;
+    private final CommandJournal journal;
+    private final SnapshotStore snapshotStore;
+    private final long snapshotEveryCommands;
+    private final ExecutorService snapshotWriter;
+    private final MarketDataPublisher marketData;
+    private final ExecutionListener executions;
+    private final int bookDepth;
+    private CommandRecorder recorder;
     private final Thread worker;
     private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicReference<CompletableFuture<Long>> snapshotRequest = new AtomicReference<>();
+    // commit do journal que falhou; o writer para e não volta
+    private volatile Throwable journalFailure;
+
+    // sequência do último comando journaled aplicado; exclusivo do writer
+    private long appliedSequence;
+    private long lastSnapshotSequence;
+    private CompletableFuture<Void> snapshotInFlight;
+
+    // profundidade publicada; escrita só pelo writer, lida por qualquer thread
+    private volatile BookSnapshot book;
+    private long bookChangesPublished = -1;
+
+    // lote corrente, exclusivo do writer
+    private final Command<?>[] commands;
+    private final CompletableFuture<?>[] futures;
+
+    // executados e ainda não entregues; com journal, esperam o group commit
+    private CompletableFuture<?>[] pendingFutures;
+    private Object[] pendingResults;
+    private Throwable[] pendingFailures;
+    private int pending;
+    private final List<MarketDataUpdate> pendingMarketData = new ArrayList<>();
 
     public OrderBookCommandEngine(CommandContext context, int capacity) {
+        this(context, EngineOptions.of(capacity));
+    }
+
+    public OrderBookCommandEngine(CommandContext context, EngineOptions options) {
         this.context = Objects.requireNonNull(context, "context");
-        if (capacity <= 0)
-            throw new IllegalArgumentException("capacity must be > 0");
+        Objects.requireNonNull(options, "options");
+
+        this.journal = options.journal();
+        this.snapshotStore = options.snapshotStore();
+        this.snapshotEveryCommands = options.snapshotEveryCommands();
+        this.marketData = options.marketData();
+        this.executions = options.executions();
+        this.bookDepth = options.bookDepth();
+        this.recorder = options.recorder();
+        this.snapshotWriter = snapshotStore == null ? null : Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "orderbook-snapshot-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        long pollTimeoutNanos = journal == null
+                ? BlockingQueueIngress.DEFAULT_POLL_TIMEOUT_NANOS
+                : Math.min(BlockingQueueIngress.DEFAULT_POLL_TIMEOUT_NANOS, journal.maxCommitDelayNanos());
+
+        this.ingress = switch (options.ingressType()) {
+            case BLOCKING_QUEUE -> new BlockingQueueIngress(options.capacity(), pollTimeoutNanos);
+            case RING_BUFFER -> new RingBufferIngress(options.capacity(), options.waitStrategy());
+        };
+        this.batchSize = options.batchSize();
+        this.completionExecutor = options.completionExecutor();
 
-        this.capacity = new Semaphore(capacity);
-        this.queue = new ArrayBlockingQueue<>(capacity);
-        this.worker = new Thread(this::runLoop, "orderbook-single-writer");
+        this.commands = new Command<?>[batchSize];
+        this.futures = new CompletableFuture<?>[batchSize];
+        this.pendingFutures = new CompletableFuture<?>[batchSize];
+        this.pendingResults = new Object[batchSize];
+        this.pendingFailures = new Throwable[batchSize];
+
+        recover();
+        if (recorder != null)
+            beginRecording();
+        // o replay não publica: assinantes partem do estado recuperado
+        if (marketData != null)
+            context.marketData().attach(context.orderBookRepository().get());
+        if (executions != null)
+            context.executions().enable();
+        publishBook();
+
+        this.worker = new Thread(this::runLoop, "orderbook-single-writer-" + context.instrument().symbol());
         this.worker.setDaemon(true);
         this.worker.start();
     }
@@ -39,66 +130,478 @@ public final class OrderBookCommandEngine implements AutoCloseable {
 
         CompletableFuture<R> future = new CompletableFuture<>();
 
-        if (!capacity.tryAcquire()) {
+        if (!running.get()) {
+            future.completeExceptionally(stopped());
+            return future;
+        }
+
+        if (!ingress.offer(command, future)) {
             future.completeExceptionally(new BackpressureException("engine capacity exceeded"));
             return future;
         }
 
-        QueuedCommand<R> item = new QueuedCommand<>(command, future);
+        // close() ou um commit falho pode ter passado entre o teste e o offer,
+        // com o writer já fora do loop
+        if (!running.get())
+            failAbandoned();
 
-        boolean accepted = queue.offer(item);
-        if (!accepted) {
-            capacity.release();
-            future.completeExceptionally(new BackpressureException("command queue is full"));
+        return future;
+    }
+
+    /**
+     * Falha os comandos que entraram na fila depois que o writer saiu. Só
+     * drena com o writer morto (a fila tem um único consumidor); com ele
+     * vivo, o loop ou o {@link #close()} depois do join os alcançam, porque
+     * o offer veio antes. Depois de um commit falho o writer não drena mais
+     * a fila fora deste lock, então qualquer thread pode drenar.
+     */
+    private void failAbandoned() {
+        if (journalFailure == null && worker.isAlive())
+            return;
+        synchronized (commands) {
+            // um slot reservado e ainda não publicado conta como não vazio
+            while (!ingress.isEmpty()) {
+                int n = ingress.drainTo(commands, futures, batchSize);
+                for (int i = 0; i < n; i++) {
+                    futures[i].completeExceptionally(stopped());
+                }
+                Arrays.fill(commands, 0, n, null);
+                Arrays.fill(futures, 0, n, null);
+                ingress.release(n);
+            }
         }
+    }
 
-        return future;
+    /**
+     * Carrega o snapshot mais recente (se houver) e reexecuta o journal a
+     * partir dele, antes de aceitar comandos. Falhas no replay se repetem
+     * exatamente como na execução original (que também falhou), então são
+     * ignoradas.
+     */
+    private void recover() {
+        if (snapshotStore != null) {
+            snapshotStore.loadLatest().ifPresent(snapshot -> {
+                snapshot.restoreInto(context);
+                appliedSequence = snapshot.sequence();
+                lastSnapshotSequence = snapshot.sequence();
+            });
+        }
+        if (journal == null)
+            return;
+        if (journal.lastSequence() < appliedSequence)
+            throw new ApplicationException("journal ends at " + journal.lastSequence()
+                    + " but the latest snapshot is at " + appliedSequence);
+
+        journal.replay(appliedSequence, (command, executedAt) -> {
+            context.executingAt(executedAt);
+            try {
+                command.execute(context);
+            } catch (RuntimeException ignored) {
+                // o comando original também falhou
+            } finally {
+                context.executingAt(null);
+            }
+        });
+        appliedSequence = journal.lastSequence();
+    }
+
+    public Instrument instrument() {
+        return context.instrument();
+    }
+
+    /**
+     * Última profundidade publicada pelo writer. Não passa pela fila de
+     * comandos: é uma leitura volátil, segura de qualquer thread. Reflete o
+     * livro até o último lote entregue (com journal, o último commit).
+     * {@code null} se a publicação estiver desligada ({@code bookDepth = 0}).
+     */
+    public BookSnapshot book() {
+        return book;
+    }
+
+    /**
+     * Fita de trades do instrumento, só para leitura fora do writer: ela é
+     * append-only e segura para leitores concorrentes. Um trade aparece aqui
+     * antes de o future do comando que o gerou completar.
+     */
+    public TradeRepository trades() {
+        return context.tradeRepository();
+    }
+
+    /**
+     * Pede um snapshot no próximo ponto entre lotes. O future completa com a
+     * sequência do snapshot depois que ele estiver gravado.
+     */
+    public CompletableFuture<Long> snapshot() {
+        if (snapshotStore == null)
+            return CompletableFuture.failedFuture(new ApplicationException("no snapshot store configured"));
+        if (!running.get())
+            return CompletableFuture.failedFuture(stopped());
+        CompletableFuture<Long> request = new CompletableFuture<>();
+        CompletableFuture<Long> existing = snapshotRequest.compareAndExchange(null, request);
+        if (existing != null)
+            return existing;
+        // close() pode ter passado entre o teste acima e o CAS
+        if (!running.get())
+            failSnapshotRequest(stopped());
+        return request;
+    }
+
+    /**
+     * Recusa de quem chega depois da parada: fechando é passageiro (429), um
+     * commit falho não.
+     */
+    private ApplicationException stopped() {
+        Throwable failure = journalFailure;
+        return failure == null
+                ? new BackpressureException("engine is shutting down")
+                : new ApplicationException("engine stopped after a journal commit failure", failure);
     }
 
     private void runLoop() {
-        while (running.get() || !queue.isEmpty()) {
-            try {
-                QueuedCommand<?> item = queue.poll(200, TimeUnit.MILLISECONDS);
-                if (item == null)
+        try {
+            while (journalFailure == null && (running.get() || !ingress.isEmpty())) {
+                int n = ingress.drainTo(commands, futures, batchSize);
+                if (n == 0) {
+                    // nada chegou: um commit vencido por tempo não pode esperar o próximo comando
+                    if (pending > 0)
+                        commitAndComplete(false);
+                    maybeSnapshot();
                     continue;
+                }
 
-                executeOne(item);
+                // o interrupt de close() só serve para acordar a espera; não deve
+                // vazar para a execução dos comandos
+                Thread.interrupted();
 
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                executeBatch(n);
+                ingress.release(n);
+                commitAndComplete(false);
+                maybeSnapshot();
             }
+        } finally {
+            if (journal != null) {
+                if (journalFailure == null) {
+                    commitAndComplete(true);
+                    journal.close();
+                } else {
+                    closeBrokenJournal();
+                }
+            }
+            if (recorder != null)
+                stopRecording();
+            if (snapshotWriter != null) {
+                failSnapshotRequest(stopped());
+                if (snapshotInFlight != null) {
+                    snapshotInFlight.exceptionally(t -> null).join();
+                }
+                snapshotWriter.shutdown();
+            }
+            if (journalFailure != null)
+                failAbandoned();
         }
     }
 
-    private <R> void executeOne(QueuedCommand<R> item) {
+    private void closeBrokenJournal() {
         try {
-            R result = item.command.execute(context);
-            item.future.complete(result);
-        } catch (Throwable t) {
-            item.future.completeExceptionally(new ApplicationException("command execution failed", t));
-        } finally {
-            capacity.release();
+            journal.close();
+        } catch (RuntimeException ignored) {
+            // já estava quebrado
         }
     }
 
-    @Override
-    public void close() {
+    /**
+     * Tira um snapshot se foi pedido ou se o intervalo venceu. Não empilha
+     * gravações: o periódico espera a anterior terminar.
+     */
+    private void maybeSnapshot() {
+        if (snapshotStore == null)
+            return;
+        CompletableFuture<Long> request = snapshotRequest.getAndSet(null);
+        boolean due = snapshotEveryCommands > 0
+                && appliedSequence - lastSnapshotSequence >= snapshotEveryCommands
+                && (snapshotInFlight == null || snapshotInFlight.isDone());
+        if (request == null && !due)
+            return;
+
+        // o snapshot nunca pode estar à frente do que o journal garante
+        if (journal != null) {
+            commitAndComplete(true);
+            if (journalFailure != null) {
+                if (request != null)
+                    request.completeExceptionally(stopped());
+                return;
+            }
+        }
+
+        StateSnapshot image;
+        try {
+            image = StateSnapshot.capture(context, appliedSequence);
+        } catch (RuntimeException e) {
+            if (request != null)
+                request.completeExceptionally(new ApplicationException("snapshot capture failed", e));
+            return;
+        }
+        lastSnapshotSequence = appliedSequence;
+
+        CompletableFuture<Void> previous = snapshotInFlight == null
+                ? CompletableFuture.completedFuture(null)
+                : snapshotInFlight.exceptionally(t -> null);
+        snapshotInFlight = previous.thenRunAsync(() -> snapshotStore.save(image), snapshotWriter);
+        if (request != null) {
+            snapshotInFlight.whenComplete((ok, error) -> {
+                if (error != null)
+                    request.completeExceptionally(new ApplicationException("snapshot write failed", error));
+                else
+                    request.complete(image.sequence());
+            });
+        }
+    }
+
+    private void failSnapshotRequest(Throwable cause) {
+        CompletableFuture<Long> request = snapshotRequest.getAndSet(null);
+        if (request != null)
+            request.completeExceptionally(cause);
+    }
+
+    private void executeBatch(int n) {
+        ensurePendingCapacity(pending + n);
+        for (int i = 0; i < n; i++) {
+            Command<?> command = commands[i];
+            int slot = pending++;
+            pendingFutures[slot] = futures[i];
+            // um instante por comando que muda estado, o mesmo que o journal guarda
+            Instant executedAt = command instanceof JournaledCommand<?> ? context.clock().instant() : null;
+            try {
+                if (command instanceof JournaledCommand<?> journaled) {
+                    appliedSequence = journal != null ? journal.append(journaled, executedAt) : appliedSequence + 1;
+                }
+            } catch (Throwable t) {
+                // não gravado = não executado
+                pendingFailures[slot] = new ApplicationException("journal append failed", t);
+                continue;
+            }
+            if (recorder != null && command instanceof JournaledCommand<?> journaled)
+                record(journaled);
+            context.executingAt(executedAt);
+            try {
+                pendingResults[slot] = command.execute(context);
+            } catch (Throwable t) {
+                pendingFailures[slot] = new ApplicationException("command execution failed", t);
+            } finally {
+                context.executingAt(null);
+            }
+            if (marketData != null) {
+                MarketDataUpdate update = context.marketData().drain();
+                if (update != null)
+                    pendingMarketData.add(update);
+            }
+        }
+        Arrays.fill(commands, 0, n, null);
+        Arrays.fill(futures, 0, n, null);
+    }
+
+    /**
+     * Entrega os pendentes se o que foi gravado já está durável (ou se não há
+     * journal). {@code force} faz o commit incondicional, usado no fechamento.
+     * Um commit que falha para o engine: ver {@link #stopAfterCommitFailure}.
+     */
+    private void commitAndComplete(boolean force) {
+        if (journalFailure != null)
+            return;
+        if (journal != null) {
+            try {
+                if (force) {
+                    journal.commit();
+                } else if (!journal.commitIfDue()) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                stopAfterCommitFailure(e);
+                return;
+            }
+        }
+        if (recorder != null)
+            flushRecorder();
+        publishMarketData();
+        publishBook();
+        completeAll(pending, executions == null ? null : context.executions().drain());
+        pending = 0;
+    }
+
+    /**
+     * Os pendentes já mudaram o estado em memória e os registros deles podem
+     * ficar duráveis num commit seguinte ou no restart: não dá para dizer que
+     * falharam nem que valeram. O writer para (continuar empilharia comandos
+     * sobre um estado que o journal talvez não tenha) e os pendentes recebem
+     * {@link OutcomeUnknownException}. Nem market data nem execuções saem
+     * deste lote.
+     */
+    private void stopAfterCommitFailure(RuntimeException cause) {
+        journalFailure = cause;
         running.set(false);
-        worker.interrupt();
+        for (int i = 0; i < pending; i++) {
+            pendingResults[i] = null;
+            pendingFailures[i] = new OutcomeUnknownException("journal commit failed: outcome unknown", cause);
+        }
+        pendingMarketData.clear();
+        if (executions != null)
+            context.executions().drain();
+        completeAll(pending, null);
+        pending = 0;
+    }
+
+    /**
+     * Troca a referência publicada se o livro mudou desde a última vez.
+     */
+    private void publishBook() {
+        if (bookDepth == 0)
+            return;
+        OrderBook current = context.orderBookRepository().get();
+        long changes = current.changeCount();
+        if (changes == bookChangesPublished)
+            return;
+        BookSnapshot previous = book;
+        book = BookSnapshot.capture(context.instrument().symbol(), previous == null ? 1 : previous.version() + 1,
+                context.marketData().sequence(), current, bookDepth);
+        bookChangesPublished = changes;
+    }
+
+    /**
+     * A gravação é diagnóstico: se falhar, o engine para de gravar em vez de
+     * recusar comandos.
+     */
+    private void record(JournaledCommand<?> command) {
         try {
-            worker.join(2_000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            recorder.recordCommand(command);
+        } catch (RuntimeException e) {
+            stopRecording();
+        }
+    }
+
+    private void beginRecording() {
+        try {
+            recorder.begin(context.ids().shard(), context.ids().orderSequence(), context.ids().tradeSequence());
+        } catch (RuntimeException e) {
+            stopRecording();
+        }
+    }
+
+    private void flushRecorder() {
+        try {
+            recorder.flush();
+        } catch (RuntimeException e) {
+            stopRecording();
         }
     }
 
-    private static final class QueuedCommand<R> {
-        private final Command<R> command;
-        private final CompletableFuture<R> future;
+    private void stopRecording() {
+        CommandRecorder broken = recorder;
+        recorder = null;
+        try {
+            broken.close();
+        } catch (RuntimeException ignored) {
+            // já estava quebrado
+        }
+    }
 
-        private QueuedCommand(Command<R> command, CompletableFuture<R> future) {
-            this.command = command;
-            this.future = future;
+    private void publishMarketData() {
+        for (int i = 0; i < pendingMarketData.size(); i++) {
+            try {
+                marketData.publish(pendingMarketData.get(i));
+            } catch (RuntimeException ignored) {
+                // market data nunca derruba o writer
+            }
         }
+        pendingMarketData.clear();
+    }
+
+    private void ensurePendingCapacity(int required) {
+        if (required <= pendingFutures.length)
+            return;
+        int size = Math.max(required, pendingFutures.length * 2);
+        pendingFutures = Arrays.copyOf(pendingFutures, size);
+        pendingResults = Arrays.copyOf(pendingResults, size);
+        pendingFailures = Arrays.copyOf(pendingFailures, size);
+    }
+
+    /**
+     * Entrega os resultados pendentes e depois as execuções do lote. Com
+     * completionExecutor, uma única tarefa faz as duas coisas fora da thread
+     * do writer.
+     */
+    private void completeAll(int n, Trade[] executed) {
+        if (n == 0)
+            return;
+        if (completionExecutor == null) {
+            complete(pendingFutures, pendingResults, pendingFailures, n);
+            notifyExecutions(executions, executed);
+        } else {
+            CompletableFuture<?>[] f = Arrays.copyOf(pendingFutures, n);
+            Object[] r = Arrays.copyOf(pendingResults, n);
+            Throwable[] e = Arrays.copyOf(pendingFailures, n);
+            ExecutionListener listener = executions;
+            try {
+                completionExecutor.execute(() -> {
+                    complete(f, r, e, n);
+                    notifyExecutions(listener, executed);
+                });
+            } catch (RejectedExecutionException ex) {
+                complete(f, r, e, n);
+                notifyExecutions(listener, executed);
+            }
+        }
+
+        Arrays.fill(pendingFutures, 0, n, null);
+        Arrays.fill(pendingResults, 0, n, null);
+        Arrays.fill(pendingFailures, 0, n, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void complete(CompletableFuture<?>[] f, Object[] r, Throwable[] e, int n) {
+        for (int i = 0; i < n; i++) {
+            if (e[i] != null) {
+                f[i].completeExceptionally(e[i]);
+            } else {
+                ((CompletableFuture<Object>) f[i]).complete(r[i]);
+            }
+        }
+    }
+
+    private static void notifyExecutions(ExecutionListener listener, Trade[] executed) {
+        if (executed == null)
+            return;
+        for (Trade trade : executed) {
+            try {
+                listener.onExecution(trade);
+            } catch (RuntimeException ignored) {
+                // como o market data: um assinante não derruba a entrega
+            }
+        }
+    }
+
+    /**
+     * Para de aceitar comandos e espera o writer drenar o que já foi aceito
+     * (com journal, também o commit final e o fechamento do journal). Não há
+     * prazo: quem fecha o executor de completion depois disso conta com todo
+     * future já entregue a ele. Chamado do próprio writer, só pede a parada.
+     */
+    @Override
+    public void close() {
+        running.set(false);
+        worker.interrupt();
+        if (Thread.currentThread() == worker)
+            return;
+        boolean interrupted = false;
+        while (worker.isAlive()) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        failAbandoned();
     }
 }
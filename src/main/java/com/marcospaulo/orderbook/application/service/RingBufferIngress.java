@@ -0,0 +1,108 @@
+package com.marcospaulo.orderbook.application.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.marcospaulo.orderbook.application.command.Command;
+
+/**
+ * Ring MPSC pré-alocado (estilo Disruptor multi-producer).
+ *
+ * Produtores disputam a próxima sequência por CAS em {@code claim}; o claim
+ * falha (backpressure) se a sequência estiver a {@code capacity} ou mais do
+ * que o writer já liberou. Depois de escrever no slot, o produtor publica a
+ * sequência em {@code published[slot]}; o writer só lê um slot cuja sequência
+ * publicada é exatamente a que ele espera, então slots reaproveitados de uma
+ * volta anterior nunca são lidos por engano.
+ */
+final class RingBufferIngress implements CommandIngress {
+
+    private final int capacity;
+    private final int mask;
+    private final Command<?>[] commands;
+    private final CompletableFuture<?>[] futures;
+    private final AtomicLongArray published;
+
+    private final AtomicLong claim = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+
+    private final WaitStrategy waitStrategy;
+
+    // estado exclusivo do writer
+    private long next;
+    private int idleCount;
+
+    RingBufferIngress(int capacity, WaitStrategy waitStrategy) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be > 0");
+        if (capacity > (1 << 30))
+            throw new IllegalArgumentException("capacity too large for ring buffer");
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+
+        this.capacity = capacity;
+        this.mask = size - 1;
+        this.commands = new Command<?>[size];
+        this.futures = new CompletableFuture<?>[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1L);
+        }
+        this.waitStrategy = waitStrategy == null ? WaitStrategy.PARK : waitStrategy;
+    }
+
+    @Override
+    public boolean offer(Command<?> command, CompletableFuture<?> future) {
+        long seq;
+        do {
+            seq = claim.get();
+            if (seq - released.getAcquire() >= capacity)
+                return false;
+        } while (!claim.compareAndSet(seq, seq + 1));
+
+        int slot = (int) (seq & mask);
+        commands[slot] = command;
+        futures[slot] = future;
+        published.setRelease(slot, seq);
+        return true;
+    }
+
+    @Override
+    public int drainTo(Command<?>[] outCommands, CompletableFuture<?>[] outFutures, int max) {
+        int n = 0;
+        while (n < max) {
+            long seq = next + n;
+            int slot = (int) (seq & mask);
+            if (published.getAcquire(slot) != seq)
+                break;
+            outCommands[n] = commands[slot];
+            outFutures[n] = futures[slot];
+            commands[slot] = null;
+            futures[slot] = null;
+            n++;
+        }
+
+        if (n == 0) {
+            waitStrategy.idle(idleCount);
+            // um writer ocioso por muito tempo não pode dar a volta no contador
+            if (idleCount < Integer.MAX_VALUE)
+                idleCount++;
+            return 0;
+        }
+        idleCount = 0;
+        next += n;
+        return n;
+    }
+
+    @Override
+    public void release(int count) {
+        released.setRelease(released.get() + count);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return claim.get() == released.get();
+    }
+}
@@ -0,0 +1,59 @@
+package com.marcospaulo.orderbook.application.service;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Como o writer espera quando o {@link IngressType#RING_BUFFER} está vazio.
+ * {@code idleCount} é o número de tentativas vazias seguidas.
+ */
+public enum WaitStrategy {
+
+    /**
+     * Gira na CPU. Menor latência; só faz sentido com o writer fixado num core
+     * dedicado.
+     */
+    BUSY_SPIN {
+        @Override
+        void idle(int idleCount) {
+            Thread.onSpinWait();
+        }
+    },
+
+    /**
+     * Gira um pouco e depois cede a CPU com {@link Thread#yield()}.
+     */
+    YIELD {
+        @Override
+        void idle(int idleCount) {
+            if (idleCount < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+
+    /**
+     * Gira, cede e por fim dorme {@value #PARK_NANOS} ns por tentativa. Não
+     * ocupa CPU quando ocioso; é o padrão.
+     */
+    PARK {
+        @Override
+        void idle(int idleCount) {
+            if (idleCount < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (idleCount < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    abstract void idle(int idleCount);
+
+}
@@ -0,0 +1,628 @@
+package com.marcospaulo.orderbook.application.snapshot;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.PendingTransfer;
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.application.ports.out.TradeRepository;
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.Balance;
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderBookSide;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.StopOrder;
+import com.marcospaulo.orderbook.domain.model.StopOrderBook;
+import com.marcospaulo.orderbook.domain.model.TimeInForce;
+import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.TradeId;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Cópia do estado inteiro (ordens, livro, carteiras, transferências
+ * pendentes, trades) num ponto
+ * consistente, em arrays primitivos por coluna.
+ *
+ * {@link #capture} roda na thread do writer e só copia números, então o
+ * matching fica parado pelo tempo da cópia e não pelo da escrita em disco. A
+ * imagem não referencia nenhum objeto de domínio mutável e pode ser
+ * serializada em outra thread.
+ *
+ * A fita de trades não é copiada: ela é append-only e os trades são
+ * imutáveis, então a captura guarda só quantos trades havia, e o prefixo da
+ * fita é lido na serialização, fora do writer. O custo da captura não cresce
+ * com a fita.
+ *
+ * O livro é guardado como a lista de ids em ordem de prioridade de cada lado;
+ * {@link #restoreInto} reinsere nessa ordem, o que preserva o FIFO de cada
+ * nível. Os stops pendentes vão do mesmo jeito, na ordem de disparo, junto
+ * com o último preço negociado.
+ */
+public final class StateSnapshot {
+
+    private static final int MAGIC = 0x4F42534E; // "OBSN"
+    private static final int VERSION = 8;
+
+    private final long sequence;
+    // sequências do gerador de ids no ponto do snapshot
+    private final long orderIdSequence;
+    private final long tradeIdSequence;
+
+    // ordens
+    private final int orderCount;
+    private final long[] orderIds;
+    private final long[] orderUsers;
+    private final byte[] orderSides;
+    private final long[] orderPrices;
+    private final long[] orderOriginal;
+    private final long[] orderRemaining;
+    // parcela visível: tamanho e o que resta dela (iguais aos acima sem iceberg)
+    private final long[] orderDisplay;
+    private final long[] orderVisible;
+    private final long[] orderCreatedSeconds;
+    private final int[] orderCreatedNanos;
+    private final byte[] orderCancelled;
+
+    // livro: ids em ordem de prioridade
+    private final long[] bidIds;
+    private final long[] askIds;
+
+    // stops pendentes, compras e depois vendas, na ordem de disparo
+    private final long lastTradeTicks;
+    private final int stopCount;
+    private final long[] stopIds;
+    private final long[] stopUsers;
+    private final byte[] stopSides;
+    private final long[] stopTriggers;
+    private final long[] stopLimits;
+    private final byte[] stopTimeInForces;
+    private final long[] stopQuantities;
+    private final long[] stopCreatedSeconds;
+    private final int[] stopCreatedNanos;
+
+    // carteiras: cada uma com walletBalanceCounts[k] saldos consecutivos;
+    // cada saldo é (índice em assets, available, reserved) em unidades
+    private final Asset[] assets;
+    private final int walletCount;
+    private final long[] walletUsers;
+    private final int[] walletBalanceCounts;
+    private final int[] balanceAssets;
+    private final long[] balanceUnits;
+
+    // transferências entre ledgers: pendentes na origem e creditadas aqui
+    private List<PendingTransfer> pendingTransfers;
+    private List<UUID> creditedTransfers;
+
+    // trades: os tradeCount primeiros da fita capturada, ou os lidos do arquivo
+    private final int tradeCount;
+    private TradeRepository tape;
+    private List<Trade> trades;
+
+    private StateSnapshot(long sequence, long orderIdSequence, long tradeIdSequence, int orderCount, Asset[] assets,
+            int walletCount, int balanceCount, int tradeCount, int bidCount, int askCount, long lastTradeTicks,
+            int stopCount) {
+        this.sequence = sequence;
+        this.orderIdSequence = orderIdSequence;
+        this.tradeIdSequence = tradeIdSequence;
+        this.orderCount = orderCount;
+        this.orderIds = new long[orderCount];
+        this.orderUsers = new long[orderCount * 2];
+        this.orderSides = new byte[orderCount];
+        this.orderPrices = new long[orderCount];
+        this.orderOriginal = new long[orderCount];
+        this.orderRemaining = new long[orderCount];
+        this.orderDisplay = new long[orderCount];
+        this.orderVisible = new long[orderCount];
+        this.orderCreatedSeconds = new long[orderCount];
+        this.orderCreatedNanos = new int[orderCount];
+        this.orderCancelled = new byte[orderCount];
+        this.bidIds = new long[bidCount];
+        this.askIds = new long[askCount];
+        this.lastTradeTicks = lastTradeTicks;
+        this.stopCount = stopCount;
+        this.stopIds = new long[stopCount];
+        this.stopUsers = new long[stopCount * 2];
+        this.stopSides = new byte[stopCount];
+        this.stopTriggers = new long[stopCount];
+        this.stopLimits = new long[stopCount];
+        this.stopTimeInForces = new byte[stopCount];
+        this.stopQuantities = new long[stopCount];
+        this.stopCreatedSeconds = new long[stopCount];
+        this.stopCreatedNanos = new int[stopCount];
+        this.assets = assets;
+        this.walletCount = walletCount;
+        this.walletUsers = new long[walletCount * 2];
+        this.walletBalanceCounts = new int[walletCount];
+        this.balanceAssets = new int[balanceCount];
+        this.balanceUnits = new long[balanceCount * 2];
+        this.tradeCount = tradeCount;
+    }
+
+    /**
+     * Copia o estado do contexto. Tem que rodar na thread do writer (ou com
+     * o engine parado).
+     *
+     * @param sequence último comando do journal refletido no estado
+     */
+    public static StateSnapshot capture(CommandContext ctx, long sequence) {
+        int[] counts = new int[5];
+        Map<Asset, Integer> assetIndex = new LinkedHashMap<>();
+        ctx.orderRepository().forEach(o -> counts[0]++);
+        ctx.walletRepository().forEach(w -> {
+            counts[1]++;
+            counts[2] += w.balances().size();
+            for (Asset a : w.balances().keySet()) {
+                assetIndex.putIfAbsent(a, assetIndex.size());
+            }
+        });
+        OrderBook book = ctx.orderBookRepository().get();
+        book.bids().forEachOrder(o -> counts[3]++);
+        book.asks().forEachOrder(o -> counts[4]++);
+
+        StopOrderBook stops = book.stops();
+        Price lastTrade = stops.lastTradePrice();
+
+        StateSnapshot s = new StateSnapshot(sequence, ctx.ids().orderSequence(), ctx.ids().tradeSequence(),
+                counts[0], assetIndex.keySet().toArray(new Asset[0]), counts[1], counts[2],
+                ctx.tradeRepository().count(), counts[3], counts[4], lastTrade == null ? 0 : lastTrade.ticks(),
+                stops.size());
+
+        int[] i = { 0 };
+        ctx.orderRepository().forEach(o -> {
+            int k = i[0]++;
+            s.orderIds[k] = o.id().value();
+            putUuid(s.orderUsers, k, o.userId().value());
+            s.orderSides[k] = (byte) o.side().ordinal();
+            s.orderPrices[k] = o.price().ticks();
+            s.orderOriginal[k] = o.originalQty().value();
+            s.orderRemaining[k] = o.remainingQty().value();
+            s.orderDisplay[k] = o.displayQty().value();
+            s.orderVisible[k] = o.visibleQty().value();
+            s.orderCreatedSeconds[k] = o.createdAt().getEpochSecond();
+            s.orderCreatedNanos[k] = o.createdAt().getNano();
+            s.orderCancelled[k] = (byte) (o.isCancelled() ? 1 : 0);
+        });
+
+        copyIds(book.bids(), s.bidIds);
+        copyIds(book.asks(), s.askIds);
+
+        i[0] = 0;
+        Consumer<StopOrder> copyStop = st -> {
+            int k = i[0]++;
+            s.stopIds[k] = st.id().value();
+            putUuid(s.stopUsers, k, st.userId().value());
+            s.stopSides[k] = (byte) st.side().ordinal();
+            s.stopTriggers[k] = st.stopPrice().ticks();
+            s.stopLimits[k] = st.limitPrice() == null ? 0 : st.limitPrice().ticks();
+            s.stopTimeInForces[k] = (byte) st.timeInForce().ordinal();
+            s.stopQuantities[k] = st.quantity().value();
+            s.stopCreatedSeconds[k] = st.createdAt().getEpochSecond();
+            s.stopCreatedNanos[k] = st.createdAt().getNano();
+        };
+        stops.forEach(Side.BUY, copyStop);
+        stops.forEach(Side.SELL, copyStop);
+
+        i[0] = 0;
+        int[] b = { 0 };
+        ctx.walletRepository().forEach(w -> {
+            int k = i[0]++;
+            putUuid(s.walletUsers, k, w.userId().value());
+            s.walletBalanceCounts[k] = w.balances().size();
+            w.balances().forEach((asset, balance) -> {
+                int j = b[0]++;
+                s.balanceAssets[j] = assetIndex.get(asset);
+                s.balanceUnits[2 * j] = balance.availableUnits();
+                s.balanceUnits[2 * j + 1] = balance.reservedUnits();
+            });
+        });
+
+        s.pendingTransfers = ctx.transfers().pending();
+        s.creditedTransfers = new ArrayList<>(ctx.transfers().creditedCount());
+        ctx.transfers().forEachCredited(s.creditedTransfers::add);
+
+        s.tape = ctx.tradeRepository();
+        return s;
+    }
+
+    /**
+     * Recria o estado num contexto vazio (repositórios recém-criados).
+     */
+    public void restoreInto(CommandContext ctx) {
+        ctx.ids().restore(orderIdSequence, tradeIdSequence);
+        for (int k = 0; k < orderCount; k++) {
+            ctx.orderRepository().save(Order.restore(
+                    OrderId.of(orderIds[k]),
+                    UserId.of(getUuid(orderUsers, k)),
+                    Side.values()[orderSides[k]],
+                    Price.ofTicks(orderPrices[k]),
+                    Quantity.ofPositive(orderOriginal[k]),
+                    Quantity.ofNonNegative(orderRemaining[k]),
+                    Quantity.ofPositive(orderDisplay[k]),
+                    Quantity.ofNonNegative(orderVisible[k]),
+                    Instant.ofEpochSecond(orderCreatedSeconds[k], orderCreatedNanos[k]),
+                    orderCancelled[k] != 0));
+        }
+
+        OrderBook book = ctx.orderBookRepository().get();
+        restoreSide(ctx, book, bidIds);
+        restoreSide(ctx, book, askIds);
+        if (lastTradeTicks != 0)
+            book.stops().onTrade(Price.ofTicks(lastTradeTicks));
+        for (int k = 0; k < stopCount; k++) {
+            long limit = stopLimits[k];
+            book.stops().add(StopOrder.create(
+                    OrderId.of(stopIds[k]),
+                    UserId.of(getUuid(stopUsers, k)),
+                    Side.values()[stopSides[k]],
+                    Price.ofTicks(stopTriggers[k]),
+                    limit == 0 ? null : Price.ofTicks(limit),
+                    TimeInForce.values()[stopTimeInForces[k]],
+                    Quantity.ofPositive(stopQuantities[k]),
+                    Instant.ofEpochSecond(stopCreatedSeconds[k], stopCreatedNanos[k])));
+        }
+        ctx.orderBookRepository().save(book);
+
+        int j = 0;
+        for (int k = 0; k < walletCount; k++) {
+            Map<Asset, Balance> balances = new LinkedHashMap<>();
+            for (int end = j + walletBalanceCounts[k]; j < end; j++) {
+                Asset asset = assets[balanceAssets[j]];
+                balances.put(asset, Balance.ofUnits(asset.scale(), balanceUnits[2 * j], balanceUnits[2 * j + 1]));
+            }
+            ctx.walletRepository().save(Wallet.restore(UserId.of(getUuid(walletUsers, k)), balances));
+        }
+
+        ctx.transfers().restore(pendingTransfers, creditedTransfers);
+        forEachTrade(ctx.tradeRepository()::append);
+    }
+
+    private void forEachTrade(Consumer<Trade> visitor) {
+        if (tape != null)
+            tape.forEach(tradeCount, visitor);
+        else
+            trades.forEach(visitor);
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public int orderCount() {
+        return orderCount;
+    }
+
+    public int restingOrderCount() {
+        return bidIds.length + askIds.length;
+    }
+
+    public int stopOrderCount() {
+        return stopCount;
+    }
+
+    public int walletCount() {
+        return walletCount;
+    }
+
+    public int tradeCount() {
+        return tradeCount;
+    }
+
+    public int pendingTransferCount() {
+        return pendingTransfers.size();
+    }
+
+    /**
+     * Formato: cabeçalho (magic, versão, sequência, sequências de ids, escala
+     * de preço, tamanhos), tabela de ativos e depois as colunas. Big-endian, sem
+     * compressão.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(sequence);
+        out.writeLong(orderIdSequence);
+        out.writeLong(tradeIdSequence);
+        out.writeInt(Price.SCALE);
+
+        out.writeInt(orderCount);
+        out.writeInt(bidIds.length);
+        out.writeInt(askIds.length);
+        out.writeLong(lastTradeTicks);
+        out.writeInt(stopCount);
+        out.writeInt(walletCount);
+        out.writeInt(balanceAssets.length);
+        out.writeInt(tradeCount);
+
+        out.writeInt(assets.length);
+        for (Asset asset : assets) {
+            byte[] code = asset.code().getBytes(StandardCharsets.US_ASCII);
+            out.writeByte(code.length);
+            out.write(code);
+            out.writeByte(asset.scale());
+        }
+
+        writeLongs(out, orderIds);
+        writeLongs(out, orderUsers);
+        out.write(orderSides);
+        writeLongs(out, orderPrices);
+        writeLongs(out, orderOriginal);
+        writeLongs(out, orderRemaining);
+        writeLongs(out, orderDisplay);
+        writeLongs(out, orderVisible);
+        writeLongs(out, orderCreatedSeconds);
+        writeInts(out, orderCreatedNanos);
+        out.write(orderCancelled);
+
+        writeLongs(out, bidIds);
+        writeLongs(out, askIds);
+
+        writeLongs(out, stopIds);
+        writeLongs(out, stopUsers);
+        out.write(stopSides);
+        writeLongs(out, stopTriggers);
+        writeLongs(out, stopLimits);
+        out.write(stopTimeInForces);
+        writeLongs(out, stopQuantities);
+        writeLongs(out, stopCreatedSeconds);
+        writeInts(out, stopCreatedNanos);
+
+        writeLongs(out, walletUsers);
+        writeInts(out, walletBalanceCounts);
+        writeInts(out, balanceAssets);
+        writeLongs(out, balanceUnits);
+
+        out.writeInt(pendingTransfers.size());
+        for (PendingTransfer t : pendingTransfers) {
+            writeTransfer(out, t);
+        }
+        out.writeInt(creditedTransfers.size());
+        for (UUID id : creditedTransfers) {
+            writeUuid(out, id);
+        }
+
+        // trades por linha: uma passada só pela fita
+        try {
+            forEachTrade(t -> {
+                try {
+                    writeTrade(out, t);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeTrade(DataOutputStream out, Trade t) throws IOException {
+        out.writeLong(t.id().value());
+        out.writeLong(t.buyOrderId().value());
+        out.writeLong(t.sellOrderId().value());
+        writeUuid(out, t.buyerId().value());
+        writeUuid(out, t.sellerId().value());
+        out.writeLong(t.price().ticks());
+        out.writeLong(t.quantity().value());
+        out.writeLong(t.executedAt().getEpochSecond());
+        out.writeInt(t.executedAt().getNano());
+    }
+
+    private static Trade readTrade(DataInputStream in) throws IOException {
+        try {
+            return Trade.restore(
+                    TradeId.of(in.readLong()),
+                    OrderId.of(in.readLong()),
+                    OrderId.of(in.readLong()),
+                    UserId.of(new UUID(in.readLong(), in.readLong())),
+                    UserId.of(new UUID(in.readLong(), in.readLong())),
+                    Price.ofTicks(in.readLong()),
+                    Quantity.ofPositive(in.readLong()),
+                    Instant.ofEpochSecond(in.readLong(), in.readInt()));
+        } catch (DomainException e) {
+            throw new ApplicationException("corrupt snapshot: bad trade", e);
+        }
+    }
+
+    private static void writeTransfer(DataOutputStream out, PendingTransfer t) throws IOException {
+        writeUuid(out, t.id());
+        writeUuid(out, t.userId().value());
+        writeAscii(out, t.asset().code());
+        out.writeByte(t.asset().scale());
+        out.writeLong(t.amount().setScale(t.asset().scale(), RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        writeAscii(out, t.toSymbol());
+    }
+
+    private static PendingTransfer readTransfer(DataInputStream in) throws IOException {
+        UUID id = new UUID(in.readLong(), in.readLong());
+        UserId user = UserId.of(new UUID(in.readLong(), in.readLong()));
+        try {
+            Asset asset = Asset.of(readAscii(in), in.readUnsignedByte());
+            BigDecimal amount = BigDecimal.valueOf(in.readLong(), asset.scale());
+            return new PendingTransfer(id, user, asset, amount, readAscii(in));
+        } catch (DomainException e) {
+            throw new ApplicationException("corrupt snapshot: bad pending transfer", e);
+        }
+    }
+
+    private static void writeAscii(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        out.writeByte(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readAscii(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedByte()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    public static StateSnapshot readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC)
+            throw new ApplicationException("not a snapshot file");
+        int version = in.readInt();
+        if (version != VERSION)
+            throw new ApplicationException("unsupported snapshot version " + version);
+        long sequence = in.readLong();
+        long orderIdSequence = in.readLong();
+        long tradeIdSequence = in.readLong();
+        if (in.readInt() != Price.SCALE)
+            throw new ApplicationException("snapshot was written with a different price scale");
+
+        int orders = nonNegative(in.readInt());
+        int bids = nonNegative(in.readInt());
+        int asks = nonNegative(in.readInt());
+        long lastTradeTicks = in.readLong();
+        int stops = nonNegative(in.readInt());
+        int wallets = nonNegative(in.readInt());
+        int balances = nonNegative(in.readInt());
+        int trades = nonNegative(in.readInt());
+
+        Asset[] assets = new Asset[nonNegative(in.readInt())];
+        for (int k = 0; k < assets.length; k++) {
+            byte[] code = new byte[in.readUnsignedByte()];
+            in.readFully(code);
+            try {
+                assets[k] = Asset.of(new String(code, StandardCharsets.US_ASCII), in.readUnsignedByte());
+            } catch (DomainException e) {
+                throw new ApplicationException("snapshot asset table does not match this build", e);
+            }
+        }
+        return new StateSnapshot(sequence, orderIdSequence, tradeIdSequence, orders, assets, wallets, balances, trades,
+                bids, asks, lastTradeTicks, stops).readColumns(in);
+    }
+
+    private StateSnapshot readColumns(DataInputStream in) throws IOException {
+        readLongs(in, orderIds);
+        readLongs(in, orderUsers);
+        in.readFully(orderSides);
+        readLongs(in, orderPrices);
+        readLongs(in, orderOriginal);
+        readLongs(in, orderRemaining);
+        readLongs(in, orderDisplay);
+        readLongs(in, orderVisible);
+        readLongs(in, orderCreatedSeconds);
+        readInts(in, orderCreatedNanos);
+        in.readFully(orderCancelled);
+
+        readLongs(in, bidIds);
+        readLongs(in, askIds);
+
+        readLongs(in, stopIds);
+        readLongs(in, stopUsers);
+        in.readFully(stopSides);
+        readLongs(in, stopTriggers);
+        readLongs(in, stopLimits);
+        in.readFully(stopTimeInForces);
+        readLongs(in, stopQuantities);
+        readLongs(in, stopCreatedSeconds);
+        readInts(in, stopCreatedNanos);
+
+        readLongs(in, walletUsers);
+        readInts(in, walletBalanceCounts);
+        readInts(in, balanceAssets);
+        readLongs(in, balanceUnits);
+        long totalBalances = 0;
+        for (int c : walletBalanceCounts) {
+            totalBalances += c;
+        }
+        if (totalBalances != balanceAssets.length)
+            throw new ApplicationException("corrupt snapshot: wallet balance counts do not add up");
+        for (int a : balanceAssets) {
+            if (a < 0 || a >= assets.length)
+                throw new ApplicationException("corrupt snapshot: bad asset index");
+        }
+
+        int pending = nonNegative(in.readInt());
+        pendingTransfers = new ArrayList<>(pending);
+        for (int k = 0; k < pending; k++) {
+            pendingTransfers.add(readTransfer(in));
+        }
+        int credited = nonNegative(in.readInt());
+        creditedTransfers = new ArrayList<>(credited);
+        for (int k = 0; k < credited; k++) {
+            creditedTransfers.add(new UUID(in.readLong(), in.readLong()));
+        }
+
+        trades = new ArrayList<>(tradeCount);
+        for (int k = 0; k < tradeCount; k++) {
+            trades.add(readTrade(in));
+        }
+        return this;
+    }
+
+    private static void restoreSide(CommandContext ctx, OrderBook book, long[] ids) {
+        for (long raw : ids) {
+            OrderId id = OrderId.of(raw);
+            Order order = ctx.orderRepository().findById(id)
+                    .orElseThrow(() -> new ApplicationException("resting order missing from snapshot: " + id));
+            book.add(order);
+        }
+    }
+
+    private static void copyIds(OrderBookSide side, long[] target) {
+        int[] i = { 0 };
+        side.forEachOrder(o -> target[i[0]++] = o.id().value());
+    }
+
+    private static void putUuid(long[] target, int k, UUID id) {
+        target[2 * k] = id.getMostSignificantBits();
+        target[2 * k + 1] = id.getLeastSignificantBits();
+    }
+
+    private static UUID getUuid(long[] source, int k) {
+        return new UUID(source[2 * k], source[2 * k + 1]);
+    }
+
+    private static int nonNegative(int count) {
+        if (count < 0)
+            throw new ApplicationException("corrupt snapshot: negative count");
+        return count;
+    }
+
+    private static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+        for (long v : values) {
+            out.writeLong(v);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int v : values) {
+            out.writeInt(v);
+        }
+    }
+
+    private static void readLongs(DataInputStream in, long[] values) throws IOException {
+        for (int k = 0; k < values.length; k++) {
+            values[k] = in.readLong();
+        }
+    }
+
+    private static void readInts(DataInputStream in, int[] values) throws IOException {
+        for (int k = 0; k < values.length; k++) {
+            values[k] = in.readInt();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.marcospaulo.orderbook.bootstrap;
+
+import java.net.InetSocketAddress;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.marcospaulo.orderbook.adapters.in.binary.BinaryOrderGateway;
+import com.marcospaulo.orderbook.adapters.in.binary.ExecutionReports;
+import com.marcospaulo.orderbook.application.service.AdmissionControl;
+import com.marcospaulo.orderbook.application.service.InstrumentRouter;
+
+/**
+ * Gateway binário só sobe com {@code orderbook.gateway.port} definido (0 =
+ * porta livre). Depende do engine, então fecha antes dele no shutdown. Os
+ * fills chegam pelo {@link ExecutionReports}, que os engines recebem na
+ * construção.
+ */
+@Configuration
+@ConditionalOnProperty(name = "orderbook.gateway.port")
+public class BinaryGatewayConfiguration {
+
+    @Bean
+    public ExecutionReports executionReports() {
+        return new ExecutionReports();
+    }
+
+    @Bean(destroyMethod = "close")
+    public BinaryOrderGateway binaryOrderGateway(
+            InstrumentRouter router,
+            AdmissionControl admissionControl,
+            ExecutionReports executionReports,
+            @Value("${orderbook.gateway.host:127.0.0.1}") String host,
+            @Value("${orderbook.gateway.port}") int port) {
+        return BinaryOrderGateway.start(new InetSocketAddress(host, port), router, admissionControl,
+                executionReports);
+    }
+}
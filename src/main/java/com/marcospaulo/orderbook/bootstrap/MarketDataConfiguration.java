@@ -0,0 +1,15 @@
+package com.marcospaulo.orderbook.bootstrap;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.marcospaulo.orderbook.adapters.out.marketdata.ConflatingMarketDataHub;
+
+@Configuration
+public class MarketDataConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public ConflatingMarketDataHub marketDataHub() {
+        return new ConflatingMarketDataHub();
+    }
+}
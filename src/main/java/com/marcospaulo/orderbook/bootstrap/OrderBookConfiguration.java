@@ -0,0 +1,175 @@
+package com.marcospaulo.orderbook.bootstrap;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.marcospaulo.orderbook.adapters.out.journal.FileCommandRecorder;
+import com.marcospaulo.orderbook.adapters.out.journal.MappedFileCommandJournal;
+import com.marcospaulo.orderbook.adapters.out.marketdata.ConflatingMarketDataHub;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.adapters.out.snapshot.FileSnapshotStore;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.ports.out.CommandRecorder;
+import com.marcospaulo.orderbook.application.ports.out.ExecutionListener;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.application.replay.RecordingClock;
+import com.marcospaulo.orderbook.application.service.AdmissionControl;
+import com.marcospaulo.orderbook.application.service.EngineOptions;
+import com.marcospaulo.orderbook.application.service.IngressType;
+import com.marcospaulo.orderbook.application.service.InstrumentRouter;
+import com.marcospaulo.orderbook.application.service.OrderBookCommandEngine;
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderBookLayout;
+import com.marcospaulo.orderbook.domain.policy.AllocationPolicy;
+import com.marcospaulo.orderbook.domain.policy.SelfTradePrevention;
+import com.marcospaulo.orderbook.domain.service.SequentialIdGenerator;
+
+/**
+ * Um engine por instrumento de {@code orderbook.instruments}, cada um com
+ * repositórios em memória e shard de ids próprios. Journal e snapshots só
+ * ligam se o diretório estiver configurado, com um subdiretório por símbolo;
+ * a gravação para replay, se {@code orderbook.recording.file} estiver
+ * definido, com um arquivo por símbolo ao lado dele. As execuções privadas
+ * só saem se houver um {@link ExecutionListener} (o do gateway binário).
+ *
+ * No shutdown o Spring fecha o router (e com ele os engines) antes dos
+ * executores de que ele depende: {@link OrderBookCommandEngine#close()} para
+ * de aceitar comandos, drena a fila e faz o commit final do journal.
+ */
+@Configuration
+public class OrderBookConfiguration {
+
+    /**
+     * Completa os futures fora da thread do writer: o dispatch assíncrono do
+     * Spring MVC e os callbacks dos controllers rodam aqui.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService engineCompletionExecutor(
+            @Value("${orderbook.engine.completion-threads:2}") int threads) {
+        AtomicInteger n = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "orderbook-completion-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * O shard de cada engine é {@code orderbook.ids.shard} mais a posição do
+     * instrumento na lista, para que ids de ordem e de trade não se repitam
+     * entre instrumentos.
+     */
+    @Bean(destroyMethod = "close")
+    public InstrumentRouter instrumentRouter(
+            @Value("${orderbook.instruments:VIB-CASH=VIBRANIUM:2/CASH:2}") String instruments,
+            @Value("${orderbook.book.layout:TICK_LADDER}") OrderBookLayout layout,
+            @Value("${orderbook.orders.expected-live:65536}") int expectedLive,
+            @Value("${orderbook.orders.archive-size:1048576}") int archiveSize,
+            @Value("${orderbook.ids.shard:0}") int shard,
+            @Value("${orderbook.matching.self-trade-prevention:NONE}") SelfTradePrevention selfTrade,
+            @Value("${orderbook.matching.allocation:FIFO}") String allocation,
+            @Value("${orderbook.recording.file:}") String recordingFile,
+            ExecutorService engineCompletionExecutor,
+            ConflatingMarketDataHub marketDataHub,
+            Optional<ExecutionListener> executions,
+            @Value("${orderbook.engine.capacity:65536}") int capacity,
+            @Value("${orderbook.engine.batch-size:64}") int batchSize,
+            @Value("${orderbook.engine.ingress:BLOCKING_QUEUE}") IngressType ingress,
+            @Value("${orderbook.engine.book-depth:20}") int bookDepth,
+            @Value("${orderbook.journal.dir:}") String journalDir,
+            @Value("${orderbook.snapshot.dir:}") String snapshotDir,
+            @Value("${orderbook.snapshot.every-commands:0}") long snapshotEveryCommands) {
+        List<Instrument> configured = parseInstruments(instruments);
+        // o engine é dono do recorder e o fecha
+        Map<Instrument, CommandRecorder> recorders = new HashMap<>();
+
+        Function<Instrument, CommandContext> contexts = instrument -> {
+            InMemoryOrderBookRepository books = new InMemoryOrderBookRepository();
+            books.save(new OrderBook(layout));
+            Clock clock = Clock.systemUTC();
+            if (!recordingFile.isBlank()) {
+                Path file = Path.of(recordingFile);
+                CommandRecorder recorder = FileCommandRecorder.create(
+                        file.resolveSibling(file.getFileName() + "." + instrument.symbol()));
+                recorders.put(instrument, recorder);
+                clock = new RecordingClock(clock, recorder);
+            }
+            return new CommandContext(instrument, books, new InMemoryWalletRepository(),
+                    new InMemoryTradeRepository(), new InMemoryOrderRepository(expectedLive, archiveSize),
+                    new SequentialIdGenerator(shard + configured.indexOf(instrument)), clock, selfTrade,
+                    AllocationPolicy.named(allocation));
+        };
+
+        Function<Instrument, EngineOptions> options = instrument -> {
+            EngineOptions o = EngineOptions.of(capacity)
+                    .withBatchSize(batchSize)
+                    .withIngress(ingress)
+                    .withCompletionExecutor(engineCompletionExecutor)
+                    .withMarketData(marketDataHub)
+                    .withBookDepth(bookDepth)
+                    .withExecutions(executions.orElse(null));
+            if (!journalDir.isBlank())
+                o = o.withJournal(new MappedFileCommandJournal(Path.of(journalDir, instrument.symbol())));
+            if (!snapshotDir.isBlank())
+                o = o.withSnapshots(new FileSnapshotStore(Path.of(snapshotDir, instrument.symbol())),
+                        snapshotEveryCommands);
+            CommandRecorder recorder = recorders.get(instrument);
+            if (recorder != null)
+                o = o.withRecorder(recorder);
+            return o;
+        };
+
+        return InstrumentRouter.start(configured, contexts, options);
+    }
+
+    /**
+     * {@code SIMBOLO=BASE:escala/QUOTE:escala}, separados por vírgula. O
+     * primeiro é o instrumento padrão das rotas sem símbolo.
+     */
+    static List<Instrument> parseInstruments(String spec) {
+        List<Instrument> instruments = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] symbolAndPair = entry.trim().split("=");
+            String[] pair = symbolAndPair.length == 2 ? symbolAndPair[1].split("/") : new String[0];
+            if (pair.length != 2)
+                throw new IllegalArgumentException("instrument must be SYMBOL=BASE:scale/QUOTE:scale: " + entry);
+            instruments.add(new Instrument(symbolAndPair[0].trim(), parseAsset(pair[0]), parseAsset(pair[1])));
+        }
+        return instruments;
+    }
+
+    private static Asset parseAsset(String spec) {
+        String[] codeAndScale = spec.trim().split(":");
+        if (codeAndScale.length != 2)
+            throw new IllegalArgumentException("asset must be CODE:scale: " + spec);
+        return Asset.of(codeAndScale[0].trim(), Integer.parseInt(codeAndScale[1].trim()));
+    }
+
+    /**
+     * Limite de comandos em voo na frente do engine; mantenha abaixo da
+     * capacidade da fila para que o excesso vire 429 antes de virar fila.
+     */
+    @Bean
+    public AdmissionControl admissionControl(
+            @Value("${orderbook.admission.max-in-flight:16384}") int maxInFlight,
+            @Value("${orderbook.admission.max-in-flight-per-user:32}") int maxInFlightPerUser) {
+        return new AdmissionControl(maxInFlight, maxInFlightPerUser);
+    }
+}
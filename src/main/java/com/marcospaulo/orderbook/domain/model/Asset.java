@@ -1,7 +1,78 @@
 package com.marcospaulo.orderbook.domain.model;
 
-public enum Asset {
-    CASH,
-    VIBRANIUM
+import java.util.Objects;
+
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+
+/**
+ * Ativo negociável ou usado como moeda de cotação. {@link #CASH} e
+ * {@link #VIBRANIUM} são os ativos do instrumento original; outros vêm da
+ * configuração dos {@link Instrument}s.
+ */
+public final class Asset {
+
+    public static final int MAX_CODE_LENGTH = 16;
+
+    public static final Asset CASH = new Asset("CASH", 2);
+    public static final Asset VIBRANIUM = new Asset("VIBRANIUM", 2);
+
+    private final String code;
+    private final int scale;
+
+    private Asset(String code, int scale) {
+        this.code = code;
+        this.scale = scale;
+    }
+
+    public static Asset of(String code, int scale) {
+        if (code == null || code.isBlank())
+            throw new DomainException("asset code must not be blank");
+        if (code.length() > MAX_CODE_LENGTH || !code.chars().allMatch(c -> c < 128))
+            throw new DomainException("asset code must be ASCII with at most " + MAX_CODE_LENGTH + " chars");
+        if (scale < 0 || scale > 8)
+            throw new DomainException("asset scale must be between 0 and 8");
+        if (CASH.code.equals(code))
+            return checkScale(CASH, scale);
+        if (VIBRANIUM.code.equals(code))
+            return checkScale(VIBRANIUM, scale);
+        return new Asset(code, scale);
+    }
+
+    public String code() {
+        return code;
+    }
+
+    /**
+     * Casas decimais dos saldos deste ativo (mantissa em unidades de
+     * 10^-scale).
+     */
+    public int scale() {
+        return scale;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof Asset that))
+            return false;
+        return scale == that.scale && code.equals(that.code);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(code, scale);
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+
+    private static Asset checkScale(Asset asset, int scale) {
+        if (asset.scale != scale)
+            throw new DomainException("asset " + asset.code + " has scale " + asset.scale);
+        return asset;
+    }
 
 }
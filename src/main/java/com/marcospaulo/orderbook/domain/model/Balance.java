@@ -1,91 +1,145 @@
 package com.marcospaulo.orderbook.domain.model;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Objects;
 
 import com.marcospaulo.orderbook.domain.model.exception.DomainException;
 
+/**
+ * Saldo de um ativo em ponto fixo: {@code available} e {@code reserved} são
+ * mantissas {@code long} na escala do ativo. Os métodos {@code *Units} são o
+ * caminho de settlement; os que recebem/devolvem {@link BigDecimal} ficam para
+ * as bordas (API, funding).
+ */
 public final class Balance {
-    private static final int SCALE = 2;
-    private static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+    private static final int DEFAULT_SCALE = 2;
 
-    private BigDecimal available;
-    private BigDecimal reserved;
+    private final int scale;
+    private long available;
+    private long reserved;
 
-    private Balance(BigDecimal available, BigDecimal reserved) {
-        this.available = normalize(nonNull(available, "available"));
-        this.reserved = normalize(nonNull(reserved, "reserved"));
-        if (this.available.signum() < 0)
+    private Balance(int scale, long available, long reserved) {
+        this.scale = scale;
+        this.available = available;
+        this.reserved = reserved;
+        if (this.available < 0)
             throw new DomainException("available must be >= 0");
-        if (this.reserved.signum() < 0)
+        if (this.reserved < 0)
             throw new DomainException("reserved must be >= 0");
     }
 
     public static Balance of(BigDecimal available, BigDecimal reserved) {
-        return new Balance(available, reserved);
+        return of(DEFAULT_SCALE, available, reserved);
+    }
+
+    public static Balance of(int scale, BigDecimal available, BigDecimal reserved) {
+        return new Balance(scale,
+                FixedPoint.toUnits(nonNull(available, "available"), scale),
+                FixedPoint.toUnits(nonNull(reserved, "reserved"), scale));
+    }
+
+    public static Balance ofUnits(int scale, long available, long reserved) {
+        return new Balance(scale, available, reserved);
+    }
+
+    public int scale() {
+        return scale;
     }
 
     public BigDecimal available() {
-        return available;
+        return FixedPoint.toDecimal(available, scale);
     }
 
     public BigDecimal reserved() {
+        return FixedPoint.toDecimal(reserved, scale);
+    }
+
+    public long availableUnits() {
+        return available;
+    }
+
+    public long reservedUnits() {
         return reserved;
     }
 
     public void reserve(BigDecimal amount) {
-        BigDecimal a = normalize(nonNull(amount, "amount"));
-        if (a.signum() <= 0)
+        reserveUnits(toUnits(amount));
+    }
+
+    public void release(BigDecimal amount) {
+        releaseUnits(toUnits(amount));
+    }
+
+    public void debitReserved(BigDecimal amount) {
+        debitReservedUnits(toUnits(amount));
+    }
+
+    public void creditAvailable(BigDecimal amount) {
+        creditAvailableUnits(toUnits(amount));
+    }
+
+    public void debitAvailable(BigDecimal amount) {
+        debitAvailableUnits(toUnits(amount));
+    }
+
+    public void reserveUnits(long amount) {
+        if (amount <= 0)
             throw new DomainException("reserve amount must be > 0");
-        if (available.compareTo(a) < 0)
+        if (available < amount)
             throw new DomainException("insufficient available balance to reserve");
-        available = available.subtract(a);
-        reserved = reserved.add(a);
+        reserved = FixedPoint.add(reserved, amount);
+        available -= amount;
     }
 
-    public void release(BigDecimal amount) {
-        BigDecimal a = normalize(nonNull(amount, "amount"));
-        if (a.signum() <= 0)
+    public void releaseUnits(long amount) {
+        if (amount <= 0)
             throw new DomainException("release amount must be > 0");
-        if (reserved.compareTo(a) < 0)
+        if (reserved < amount)
             throw new DomainException("insufficient reserved balance to release");
-        reserved = reserved.subtract(a);
-        available = available.add(a);
+        available = FixedPoint.add(available, amount);
+        reserved -= amount;
     }
 
-    public void debitReserved(BigDecimal amount) {
-        BigDecimal a = normalize(nonNull(amount, "amount"));
-        if (a.signum() <= 0)
+    public void debitReservedUnits(long amount) {
+        if (amount <= 0)
             throw new DomainException("debit amount must be > 0");
-        if (reserved.compareTo(a) < 0)
+        if (reserved < amount)
             throw new DomainException("insufficient reserved balance to debit");
-        reserved = reserved.subtract(a);
+        reserved -= amount;
     }
 
-    public void creditAvailable(BigDecimal amount) {
-        BigDecimal a = normalize(nonNull(amount, "amount"));
-        if (a.signum() <= 0)
+    public void debitAvailableUnits(long amount) {
+        if (amount <= 0)
+            throw new DomainException("debit amount must be > 0");
+        if (available < amount)
+            throw new DomainException("insufficient available balance to debit");
+        available -= amount;
+    }
+
+    public void creditAvailableUnits(long amount) {
+        if (amount <= 0)
             throw new DomainException("credit amount must be > 0");
-        available = available.add(a);
+        available = FixedPoint.add(available, amount);
     }
 
+    /**
+     * Mesma escala e mesmas mantissas.
+     */
     @Override
     public boolean equals(Object other) {
         if (this == other)
             return true;
         if (!(other instanceof Balance that))
             return false;
-        return available.compareTo(that.available) == 0 && reserved.compareTo(that.reserved) == 0;
+        return scale == that.scale && available == that.available && reserved == that.reserved;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(available.stripTrailingZeros(), reserved.stripTrailingZeros());
+        return 31 * (31 * scale + Long.hashCode(available)) + Long.hashCode(reserved);
     }
 
-    private static BigDecimal normalize(BigDecimal v) {
-        return v.setScale(SCALE, ROUNDING);
+    private long toUnits(BigDecimal amount) {
+        return FixedPoint.toUnits(nonNull(amount, "amount"), scale);
     }
 
     private static BigDecimal nonNull(BigDecimal v, String field) {
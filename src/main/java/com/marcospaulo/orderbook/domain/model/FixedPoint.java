@@ -0,0 +1,78 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+
+/**
+ * Aritmética de ponto fixo sobre {@code long}: valor = mantissa * 10^-scale.
+ * Toda operação detecta overflow; arredondamento é HALF_UP, igual ao
+ * {@code setScale(scale, HALF_UP)} que a versão BigDecimal fazia.
+ */
+final class FixedPoint {
+
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    static long toUnits(BigDecimal v, int scale) {
+        try {
+            return v.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new DomainException("amount out of range");
+        }
+    }
+
+    static BigDecimal toDecimal(long units, int scale) {
+        return BigDecimal.valueOf(units, scale);
+    }
+
+    static long add(long a, long b) {
+        long r = a + b;
+        if (((a ^ r) & (b ^ r)) < 0)
+            throw new DomainException("amount overflow");
+        return r;
+    }
+
+    static long multiply(long a, long b) {
+        long hi = Math.multiplyHigh(a, b);
+        long lo = a * b;
+        if ((hi != 0 || lo < 0) && (hi != -1 || lo >= 0))
+            throw new DomainException("amount overflow");
+        return lo;
+    }
+
+    /**
+     * Converte a mantissa de {@code fromScale} para {@code toScale}; reduzir a
+     * escala arredonda HALF_UP.
+     */
+    static long rescale(long units, int fromScale, int toScale) {
+        if (fromScale == toScale)
+            return units;
+        if (toScale > fromScale)
+            return multiply(units, pow10(toScale - fromScale));
+
+        long divisor = pow10(fromScale - toScale);
+        long q = units / divisor;
+        long r = units % divisor;
+        if (Math.abs(r) * 2 >= divisor)
+            q += Long.signum(units);
+        return q;
+    }
+
+    static long pow10(int n) {
+        if (n < 0 || n >= POW10.length)
+            throw new DomainException("scale out of range");
+        return POW10[n];
+    }
+
+}
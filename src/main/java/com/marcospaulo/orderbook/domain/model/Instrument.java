@@ -0,0 +1,92 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import java.util.Objects;
+
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+
+/**
+ * Par negociado: quantidade em {@code base}, preço em {@code quote} por
+ * unidade de base. BUY reserva quote, SELL reserva base.
+ */
+public final class Instrument {
+
+    public static final int MAX_SYMBOL_LENGTH = 16;
+
+    /**
+     * O instrumento original (vibranium cotado em cash).
+     */
+    public static final Instrument DEFAULT = new Instrument("VIB-CASH", Asset.VIBRANIUM, Asset.CASH);
+
+    private final String symbol;
+    private final Asset base;
+    private final Asset quote;
+
+    public Instrument(String symbol, Asset base, Asset quote) {
+        if (symbol == null || symbol.isBlank())
+            throw new DomainException("symbol must not be blank");
+        if (symbol.length() > MAX_SYMBOL_LENGTH || !symbol.chars().allMatch(c -> c < 128))
+            throw new DomainException("symbol must be ASCII with at most " + MAX_SYMBOL_LENGTH + " chars");
+        if (base == null || quote == null)
+            throw new DomainException("base and quote assets must not be null");
+        if (base.code().equals(quote.code()))
+            throw new DomainException("base and quote must be different assets");
+        // com menos casas que o preço, o arredondamento de cada fill poderia
+        // gastar mais quote do que a reserva feita no preço limite
+        if (quote.scale() < Price.SCALE)
+            throw new DomainException("quote asset scale must be at least " + Price.SCALE);
+        this.symbol = symbol;
+        this.base = base;
+        this.quote = quote;
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    public Asset base() {
+        return base;
+    }
+
+    public Asset quote() {
+        return quote;
+    }
+
+    /**
+     * price * qty na escala do ativo de cotação, sem passar por BigDecimal.
+     * Exato: a escala do quote nunca é menor que a do preço.
+     */
+    long quoteUnits(Price price, Quantity qty) {
+        return quoteUnits(price.ticks(), qty.value());
+    }
+
+    long quoteUnits(long priceTicks, long qty) {
+        long notional = FixedPoint.multiply(priceTicks, qty);
+        return FixedPoint.rescale(notional, Price.SCALE, quote.scale());
+    }
+
+    long baseUnits(Quantity qty) {
+        return FixedPoint.multiply(qty.value(), FixedPoint.pow10(base.scale()));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other)
+            return true;
+        if (!(other instanceof Instrument that))
+            return false;
+        return symbol.equals(that.symbol);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(symbol);
+    }
+
+    @Override
+    public String toString() {
+        return symbol;
+    }
+
+}
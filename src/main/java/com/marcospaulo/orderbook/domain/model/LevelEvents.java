@@ -0,0 +1,35 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+
+/**
+ * Ligação entre os níveis de um lado e o {@link LevelListener} do livro. Um
+ * por lado, compartilhado pelos níveis, para o listener poder ser trocado sem
+ * percorrer os níveis existentes. Também conta as mudanças, para quem só
+ * quer saber se o lado mudou.
+ */
+final class LevelEvents {
+
+    private final Side side;
+    private LevelListener listener;
+    private long changes;
+
+    LevelEvents(Side side) {
+        this.side = side;
+    }
+
+    void listener(LevelListener listener) {
+        this.listener = listener;
+    }
+
+    long changes() {
+        return changes;
+    }
+
+    void changed(Price price, long quantity) {
+        changes++;
+        LevelListener l = listener;
+        if (l != null)
+            l.onLevelChanged(side, price, quantity);
+    }
+}
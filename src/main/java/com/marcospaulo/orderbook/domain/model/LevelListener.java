@@ -0,0 +1,14 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+
+/**
+ * Avisado a cada mudança na quantidade agregada de um nível de preço (ordem
+ * entrou, saiu, foi executada ou reduzida). {@code quantity == 0} quer dizer
+ * que o nível sumiu. Roda na thread que altera o livro.
+ */
+@FunctionalInterface
+public interface LevelListener {
+
+    void onLevelChanged(Side side, Price price, long quantity);
+}
@@ -0,0 +1,136 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import java.util.function.Consumer;
+
+/**
+ * Tabela de endereçamento aberto {@code long → Order} com sondagem linear: um
+ * {@code long[]} de chaves e um {@code Order[]} de valores, sem nó por entrada
+ * nem boxing. Chave 0 marca slot vazio (ids são > 0). A remoção desloca para
+ * trás as entradas seguintes do mesmo cluster, então não há tombstones e a
+ * busca continua parando no primeiro slot vazio.
+ *
+ * É o índice por id dos lados do livro e do repositório de ordens. Não é
+ * thread-safe.
+ */
+public final class LongOrderTable {
+
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private Order[] values;
+    private int shift;
+    private int size;
+    private int resizeAt;
+
+    /**
+     * @param expected quantas entradas cabem sem crescer
+     */
+    public LongOrderTable(int expected) {
+        if (expected < 0)
+            throw new IllegalArgumentException("expected must be >= 0");
+        long wanted = Math.max(16, Long.highestOneBit(Math.max(1, expected * 4L / 3)) << 1);
+        allocate((int) Math.min(wanted, MAX_CAPACITY));
+    }
+
+    public Order get(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key)
+                return values[i];
+            if (k == 0)
+                return null;
+        }
+    }
+
+    public void put(long key, Order value) {
+        int mask = keys.length - 1;
+        int i = slot(key);
+        for (long k; (k = keys[i]) != 0; i = (i + 1) & mask) {
+            if (k == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        if (size + 1 >= resizeAt) {
+            rehash(keys.length << 1);
+            put(key, value);
+            return;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    public Order remove(long key) {
+        int mask = keys.length - 1;
+        int i = slot(key);
+        for (long k; (k = keys[i]) != key; i = (i + 1) & mask) {
+            if (k == 0)
+                return null;
+        }
+        Order removed = values[i];
+        // fecha o buraco: puxa para i quem estaria fora do lugar sem ele
+        for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = 0;
+        values[i] = null;
+        size--;
+        return removed;
+    }
+
+    public void forEach(Consumer<Order> visitor) {
+        for (Order order : values) {
+            if (order != null)
+                visitor.accept(order);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Hash de Fibonacci: ids sequenciais caem espalhados pela tabela.
+     */
+    private int slot(long key) {
+        return (int) ((key * GOLDEN) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY)
+            throw new IllegalStateException("order table is full");
+        keys = new long[capacity];
+        values = new Order[capacity];
+        shift = Long.numberOfLeadingZeros(capacity - 1);
+        resizeAt = capacity / 4 * 3;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Order[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long key = oldKeys[j];
+            if (key == 0)
+                continue;
+            int i = slot(key);
+            while (keys[i] != 0)
+                i = (i + 1) & mask;
+            keys[i] = key;
+            values[i] = oldValues[j];
+        }
+    }
+}
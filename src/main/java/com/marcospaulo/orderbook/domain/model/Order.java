@@ -1,7 +1,6 @@
 package com.marcospaulo.orderbook.domain.model;
 
 import java.time.Instant;
-import java.util.Objects;
 
 import com.marcospaulo.orderbook.domain.model.exception.DomainException;
 import com.marcospaulo.orderbook.domain.model.vo.OrderId;
@@ -9,16 +8,36 @@ import com.marcospaulo.orderbook.domain.model.vo.Price;
 import com.marcospaulo.orderbook.domain.model.vo.Quantity;
 import com.marcospaulo.orderbook.domain.model.vo.UserId;
 
+/**
+ * Ordem do livro. Guarda id, preço, quantidades e instante como primitivos:
+ * uma ordem em repouso é um objeto só (mais o {@link UserId}, compartilhado
+ * entre as ordens do usuário), e um fill não aloca. Os value objects dos
+ * acessores são criados na chamada.
+ *
+ * Uma ordem iceberg mostra no livro só uma parcela ({@link #visibleQty()}) de
+ * no máximo {@link #displayQty()}; numa ordem comum a parcela visível é
+ * sempre o restante inteiro.
+ */
 public final class Order {
 
-    private final OrderId id;
+    private final long id;
     private final UserId userId;
     private final Side side;
-    private final Price price;
-    private final Instant createdAt;
+    private final long priceTicks;
+    private final long createdSeconds;
+    private final int createdNanos;
 
-    private final Quantity originalQty;
-    private Quantity remainingQty;
+    private final long originalQty;
+    private long remainingQty;
+    // tamanho da parcela visível; igual a originalQty numa ordem comum
+    private final long peakQty;
+    private long visibleQty;
+    private boolean cancelled;
+
+    // encadeamento intrusivo no nível de preço (ver PriceLevel)
+    Order prev;
+    Order next;
+    PriceLevel level;
 
     private Order(
             OrderId id,
@@ -26,19 +45,26 @@ public final class Order {
             Side side,
             Price price,
             Quantity originalQty,
+            Quantity displayQty,
             Instant createdAt) {
-        this.id = requireNonNull(id, "orderId");
+        this.id = requireNonNull(id, "orderId").value();
         this.userId = requireNonNull(userId, "userId");
         this.side = requireNonNull(side, "side");
-        this.price = requireNonNull(price, "price");
-        this.originalQty = requireNonNull(originalQty, "originalQty");
-        this.createdAt = requireNonNull(createdAt, "createdAt");
+        this.priceTicks = requireNonNull(price, "price").ticks();
+        this.originalQty = requireNonNull(originalQty, "originalQty").value();
+        requireNonNull(createdAt, "createdAt");
+        this.createdSeconds = createdAt.getEpochSecond();
+        this.createdNanos = createdAt.getNano();
 
         if (originalQty.isZero()) {
             throw new DomainException("originalQty must be > 0");
         }
 
-        this.remainingQty = Quantity.ofNonNegative(originalQty.value());
+        this.remainingQty = this.originalQty;
+        this.peakQty = displayQty == null ? this.originalQty : displayQty.value();
+        if (peakQty == 0 || peakQty > this.originalQty)
+            throw new DomainException("displayQty must be > 0 and not exceed originalQty");
+        this.visibleQty = peakQty;
     }
 
     public static Order create(
@@ -52,11 +78,96 @@ public final class Order {
                 side,
                 price,
                 originalQty,
+                null,
                 Instant.now());
     }
 
+    /**
+     * Id e instante vindos de fora (do comando), para que o replay do journal
+     * recrie exatamente a mesma ordem.
+     */
+    public static Order create(
+            OrderId id,
+            UserId userId,
+            Side side,
+            Price price,
+            Quantity originalQty,
+            Instant createdAt) {
+        return new Order(
+                id,
+                userId,
+                side,
+                price,
+                originalQty,
+                null,
+                createdAt);
+    }
+
+    /**
+     * Ordem iceberg: no livro aparece no máximo {@code displayQty} por vez.
+     */
+    public static Order createIceberg(
+            OrderId id,
+            UserId userId,
+            Side side,
+            Price price,
+            Quantity originalQty,
+            Quantity displayQty,
+            Instant createdAt) {
+        if (displayQty == null)
+            throw new DomainException("displayQty must not be null");
+        return new Order(id, userId, side, price, originalQty, displayQty, createdAt);
+    }
+
+    /**
+     * Reconstrói uma ordem a partir de um snapshot, com quantidade restante e
+     * estado de cancelamento já aplicados. Não a coloca no livro.
+     */
+    public static Order restore(
+            OrderId id,
+            UserId userId,
+            Side side,
+            Price price,
+            Quantity originalQty,
+            Quantity remainingQty,
+            Instant createdAt,
+            boolean cancelled) {
+        return restore(id, userId, side, price, originalQty, remainingQty, originalQty, remainingQty, createdAt,
+                cancelled);
+    }
+
+    /**
+     * Como {@link #restore(OrderId, UserId, Side, Price, Quantity, Quantity, Instant, boolean)},
+     * com o tamanho e o que resta da parcela visível de uma iceberg.
+     */
+    public static Order restore(
+            OrderId id,
+            UserId userId,
+            Side side,
+            Price price,
+            Quantity originalQty,
+            Quantity remainingQty,
+            Quantity displayQty,
+            Quantity visibleQty,
+            Instant createdAt,
+            boolean cancelled) {
+        Order order = new Order(id, userId, side, price, originalQty, displayQty, createdAt);
+        if (remainingQty == null)
+            throw new DomainException("remainingQty must not be null");
+        if (remainingQty.value() > originalQty.value())
+            throw new DomainException("remainingQty cannot exceed originalQty");
+        if (visibleQty == null)
+            throw new DomainException("visibleQty must not be null");
+        if (visibleQty.value() > Math.min(order.peakQty, remainingQty.value()))
+            throw new DomainException("visibleQty cannot exceed displayQty or remainingQty");
+        order.remainingQty = remainingQty.value();
+        order.visibleQty = visibleQty.value();
+        order.cancelled = cancelled;
+        return order;
+    }
+
     public OrderId id() {
-        return id;
+        return OrderId.of(id);
     }
 
     public UserId userId() {
@@ -68,23 +179,81 @@ public final class Order {
     }
 
     public Price price() {
-        return price;
+        return Price.ofTicks(priceTicks);
     }
 
     public Instant createdAt() {
-        return createdAt;
+        return Instant.ofEpochSecond(createdSeconds, createdNanos);
     }
 
     public Quantity originalQty() {
-        return originalQty;
+        return Quantity.ofPositive(originalQty);
     }
 
     public Quantity remainingQty() {
+        return Quantity.ofNonNegative(remainingQty);
+    }
+
+    /**
+     * Tamanho da parcela visível: o original numa ordem comum.
+     */
+    public Quantity displayQty() {
+        return Quantity.ofPositive(peakQty);
+    }
+
+    /**
+     * O que resta da parcela visível agora. Zera numa iceberg em repouso
+     * quando a parcela é executada, até o livro repor a próxima.
+     */
+    public Quantity visibleQty() {
+        return Quantity.ofNonNegative(visibleQty);
+    }
+
+    public boolean isIceberg() {
+        return peakQty < originalQty;
+    }
+
+    // para o índice e os níveis do livro, sem criar value objects
+    long idValue() {
+        return id;
+    }
+
+    /**
+     * Primitivos para o caminho quente (matching e settlement), sem criar
+     * value objects; fora dele, {@link #price()}, {@link #remainingQty()} e
+     * {@link #visibleQty()}.
+     */
+    public long priceTicks() {
+        return priceTicks;
+    }
+
+    public long remaining() {
         return remainingQty;
     }
 
+    public long visible() {
+        return visibleQty;
+    }
+
+    /**
+     * Mostra a próxima parcela. Só o nível chama, ao mandar a ordem para o
+     * fim da fila.
+     */
+    long replenish() {
+        visibleQty = Math.min(peakQty, remainingQty);
+        return visibleQty;
+    }
+
     public boolean isFilled() {
-        return remainingQty.isZero();
+        return remainingQty == 0;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isResting() {
+        return level != null;
     }
 
     public void fill(Quantity executedQty) {
@@ -94,10 +263,54 @@ public final class Order {
         if (executedQty.isZero()) {
             throw new DomainException("executedQty must be > 0");
         }
-        if (executedQty.value() > remainingQty.value()) {
+        long executed = executedQty.value();
+        if (executed > remainingQty) {
             throw new DomainException("executedQty cannot exceed remainingQty");
         }
-        remainingQty = remainingQty.minus(executedQty);
+        if (level == null) {
+            // fora do livro (a ordem que chega) a parcela é só o que vai mostrar ao entrar
+            remainingQty -= executed;
+            visibleQty = Math.min(peakQty, remainingQty);
+            return;
+        }
+        if (executed > visibleQty) {
+            throw new DomainException("executedQty cannot exceed visibleQty of a resting order");
+        }
+        remainingQty -= executed;
+        visibleQty -= executed;
+        level.reduced(executed, executed);
+    }
+
+    /**
+     * Amend-down: reduz a quantidade restante mantendo a prioridade no livro.
+     * Reduzir tudo é cancelamento, não amend.
+     */
+    public void reduce(Quantity reduceBy) {
+        if (reduceBy == null) {
+            throw new DomainException("reduceBy must not be null");
+        }
+        if (reduceBy.isZero()) {
+            throw new DomainException("reduceBy must be > 0");
+        }
+        long by = reduceBy.value();
+        if (by >= remainingQty) {
+            throw new DomainException("reduceBy must be lower than remainingQty");
+        }
+        remainingQty -= by;
+        long shownBy = visibleQty - Math.min(visibleQty, remainingQty);
+        visibleQty -= shownBy;
+        if (level != null)
+            level.reduced(by, shownBy);
+    }
+
+    public void cancel() {
+        if (cancelled) {
+            throw new DomainException("order already cancelled");
+        }
+        if (isFilled()) {
+            throw new DomainException("filled order cannot be cancelled");
+        }
+        cancelled = true;
     }
 
     @Override
@@ -106,12 +319,12 @@ public final class Order {
             return true;
         if (!(other instanceof Order that))
             return false;
-        return id.equals(that.id);
+        return id == that.id;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Long.hashCode(id);
     }
 
     private static <T> T requireNonNull(T v, String field) {
@@ -1,18 +1,25 @@
 package com.marcospaulo.orderbook.domain.model;
 
-import java.util.Comparator;
 import java.util.Optional;
 
 import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
 
 public final class OrderBook {
 
     private final OrderBookSide bids;
     private final OrderBookSide asks;
+    private final StopOrderBook stops = new StopOrderBook();
 
     public OrderBook() {
-        this.bids = new OrderBookSide(Comparator.reverseOrder());
-        this.asks = new OrderBookSide(Comparator.naturalOrder());
+        this(OrderBookLayout.TREE);
+    }
+
+    public OrderBook(OrderBookLayout layout) {
+        if (layout == null)
+            throw new DomainException("layout must not be null");
+        this.bids = layout.newSide(Side.BUY);
+        this.asks = layout.newSide(Side.SELL);
     }
 
     public void add(Order order) {
@@ -25,6 +32,44 @@ public final class OrderBook {
         asks.add(order);
     }
 
+    /**
+     * Retira do livro uma ordem em repouso (cancelamento). O(1).
+     */
+    public Optional<Order> remove(Order order) {
+        if (order == null)
+            throw new DomainException("order must not be null");
+        return side(order.side()).remove(order.id());
+    }
+
+    /**
+     * Amend-down de uma ordem em repouso, mantendo a prioridade.
+     */
+    public Order reduce(Order order, Quantity reduceBy) {
+        if (order == null)
+            throw new DomainException("order must not be null");
+        return side(order.side()).reduce(order.id(), reduceBy);
+    }
+
+    /**
+     * Liga (ou desliga, com {@code null}) o aviso de mudanças de nível nos
+     * dois lados.
+     */
+    public void setLevelListener(LevelListener listener) {
+        bids.setLevelListener(listener);
+        asks.setLevelListener(listener);
+    }
+
+    /**
+     * Soma dos contadores de mudança dos dois lados.
+     */
+    public long changeCount() {
+        return bids.changeCount() + asks.changeCount();
+    }
+
+    public OrderBookSide side(Side side) {
+        return side == Side.BUY ? bids : asks;
+    }
+
     public OrderBookSide bids() {
         return bids;
     }
@@ -33,6 +78,13 @@ public final class OrderBook {
         return asks;
     }
 
+    /**
+     * Ordens stop esperando o disparo; não fazem parte da profundidade.
+     */
+    public StopOrderBook stops() {
+        return stops;
+    }
+
     public Optional<Order> bestBid() {
         return bids.peekBestOrder();
     }
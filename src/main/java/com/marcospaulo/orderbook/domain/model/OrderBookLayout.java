@@ -0,0 +1,31 @@
+package com.marcospaulo.orderbook.domain.model;
+
+/**
+ * Estrutura usada pelos lados do livro, escolhida na construção do
+ * {@link OrderBook}.
+ */
+public enum OrderBookLayout {
+
+    /**
+     * {@link TreeOrderBookSide}: implementação de referência.
+     */
+    TREE {
+        @Override
+        OrderBookSide newSide(Side side) {
+            return new TreeOrderBookSide(side);
+        }
+    },
+
+    /**
+     * {@link TickLadderOrderBookSide}: níveis indexados por ticks.
+     */
+    TICK_LADDER {
+        @Override
+        OrderBookSide newSide(Side side) {
+            return new TickLadderOrderBookSide(side);
+        }
+    };
+
+    abstract OrderBookSide newSide(Side side);
+
+}
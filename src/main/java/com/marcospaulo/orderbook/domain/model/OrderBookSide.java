@@ -1,78 +1,135 @@
 package com.marcospaulo.orderbook.domain.model;
 
-import java.util.ArrayDeque;
-import java.util.Comparator;
-import java.util.Deque;
-import java.util.NavigableMap;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.TreeMap;
+import java.util.function.Consumer;
 
-import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
 import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
 
-public final class OrderBookSide {
-
-    private final NavigableMap<Price, Deque<Order>> levels;
-
-    public OrderBookSide(Comparator<Price> comparator) {
-        this.levels = new TreeMap<>(Objects.requireNonNull(comparator, "comparator"));
-    }
-
-    public void add(Order order) {
-        if (order == null)
-            throw new DomainException("order must not be null");
-        levels.computeIfAbsent(order.price(), p -> new ArrayDeque<>()).addLast(order);
-    }
-
-    public boolean isEmpty() {
-        cleanupEmptyLevels();
-        return levels.isEmpty();
-    }
-
-    public Optional<Price> bestPrice() {
-        cleanupEmptyLevels();
-        if (levels.isEmpty())
-            return Optional.empty();
-        return Optional.of(levels.firstKey());
-    }
-
-    public Optional<Order> peekBestOrder() {
-        cleanupEmptyLevels();
-        if (levels.isEmpty())
-            return Optional.empty();
-        Deque<Order> q = levels.firstEntry().getValue();
-        if (q.isEmpty())
-            return Optional.empty();
-        return Optional.ofNullable(q.peekFirst());
-    }
-
-    public Optional<Order> pollBestOrder() {
-        cleanupEmptyLevels();
-        if (levels.isEmpty())
-            return Optional.empty();
-        var entry = levels.firstEntry();
-        Deque<Order> q = entry.getValue();
-        Order o = q.pollFirst();
-        if (q.isEmpty()) {
-            levels.remove(entry.getKey());
-        }
-        return Optional.ofNullable(o);
-    }
-
-    public void putBackAtFront(Order order) {
-        if (order == null)
-            throw new DomainException("order must not be null");
-        levels.computeIfAbsent(order.price(), p -> new ArrayDeque<>()).addFirst(order);
-    }
-
-    private void cleanupEmptyLevels() {
-        while (!levels.isEmpty()) {
-            var first = levels.firstEntry();
-            if (first.getValue() != null && !first.getValue().isEmpty())
-                return;
-            levels.remove(first.getKey());
-        }
-    }
+/**
+ * Um lado do livro (bids ou asks): níveis de preço ordenados do melhor para o
+ * pior, FIFO dentro de cada nível.
+ */
+public interface OrderBookSide {
+
+    void add(Order order);
+
+    boolean isEmpty();
+
+    Optional<Price> bestPrice();
+
+    Optional<Order> peekBestOrder();
+
+    Optional<Order> pollBestOrder();
+
+    /**
+     * Como {@link #peekBestOrder()}, sem o {@link Optional}: {@code null} se
+     * o lado estiver vazio. Para o loop de matching.
+     */
+    Order peekBestOrderOrNull();
+
+    /**
+     * Quantas ordens há no melhor nível; 0 se o lado estiver vazio.
+     */
+    int bestLevelSize();
+
+    /**
+     * Soma das parcelas visíveis do melhor nível, mantida pelo nível.
+     */
+    long bestLevelDisplayedQuantity();
+
+    /**
+     * Copia as ordens do melhor nível, em ordem de prioridade, e a parcela
+     * visível de cada uma. Os arrays precisam de {@link #bestLevelSize()}
+     * posições. Devolve quantas copiou.
+     */
+    int copyBestLevel(Order[] orders, long[] visible);
+
+    /**
+     * Devolve uma ordem parcialmente executada para a frente do seu nível,
+     * preservando a prioridade de tempo.
+     */
+    void putBackAtFront(Order order);
+
+    /**
+     * Iceberg em repouso cuja parcela visível zerou: mostra a próxima e vai
+     * para o fim do seu nível, com nova prioridade de tempo. O(1).
+     */
+    void replenish(Order order);
+
+    /**
+     * Ordem em repouso neste lado, se houver. O(1).
+     */
+    Optional<Order> find(OrderId id);
+
+    /**
+     * Retira a ordem do seu nível sem percorrer a fila. O(1) (mais a remoção
+     * do nível, se ele esvaziar).
+     */
+    Optional<Order> remove(OrderId id);
+
+    /**
+     * Amend-down: reduz a ordem em repouso sem perder a prioridade de tempo.
+     */
+    Order reduce(OrderId id, Quantity reduceBy);
+
+    /**
+     * Percorre as ordens em repouso na ordem de prioridade (melhor nível
+     * primeiro, FIFO dentro do nível). Usado para snapshot; não pode alterar
+     * o lado durante a visita.
+     */
+    void forEachOrder(Consumer<Order> visitor);
+
+    /**
+     * Soma das quantidades restantes no nível {@code price}, escondidas
+     * incluídas; 0 se o nível não existe. Mantida a cada alteração, não
+     * recalculada.
+     */
+    long levelQuantity(Price price);
+
+    /**
+     * Soma das quantidades dos níveis ao preço {@code limit} ou melhor, do
+     * melhor para o pior, parando assim que alcançar {@code wanted}. Só lê os
+     * totais dos níveis: O(níveis percorridos), sem tocar nas ordens.
+     */
+    long availableQuantity(Price limit, long wanted);
+
+    /**
+     * {@link #availableQuantity(Price, long)} para uma ordem de {@code owner}
+     * com prevenção de auto-negociação: as ordens dele não contam. Com
+     * {@code skipOwner} o matching passaria por elas (saem do livro); sem, ele
+     * para na primeira delas ou, com {@code wholeLevels} (alocação que trata o
+     * nível inteiro de uma vez), antes do nível dela. Só percorre as ordens
+     * dos níveis visitados.
+     */
+    long availableQuantity(Price limit, long wanted, UserId owner, boolean skipOwner, boolean wholeLevels);
+
+    /**
+     * Preço do nível em que a quantidade acumulada, do melhor para o pior,
+     * alcança {@code wanted}: o pior preço que uma ordem a mercado desse
+     * tamanho executaria. O pior nível se o lado todo não tem
+     * {@code wanted}; {@code null} se o lado estiver vazio.
+     */
+    Price sweepPriceOrNull(long wanted);
+
+    /**
+     * Passa a avisar {@code listener} de cada mudança de nível deste lado;
+     * {@code null} desliga.
+     */
+    void setLevelListener(LevelListener listener);
+
+    /**
+     * Copia os melhores níveis (preço em ticks e quantidade visível agregada),
+     * do melhor para o pior, até encher {@code ticks}. Devolve quantos copiou.
+     */
+    int copyTopLevels(long[] ticks, long[] quantities);
+
+    /**
+     * Contador de mudanças de nível, crescente. Igual entre duas leituras =
+     * lado não mudou.
+     */
+    long changeCount();
 
 }
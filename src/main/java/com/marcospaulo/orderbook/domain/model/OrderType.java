@@ -0,0 +1,30 @@
+package com.marcospaulo.orderbook.domain.model;
+
+/**
+ * Tipo de ordem. Uma ordem a mercado não tem preço: entra com o pior preço do
+ * lado oposto que a sua quantidade alcançaria e nunca fica no livro.
+ *
+ * STOP e STOP_LIMIT esperam no {@link StopOrderBook} até o último preço
+ * negociado cruzar o preço de disparo e então entram como MARKET e LIMIT.
+ */
+public enum OrderType {
+    LIMIT,
+    MARKET,
+    STOP,
+    STOP_LIMIT;
+
+    public boolean isStop() {
+        return this == STOP || this == STOP_LIMIT;
+    }
+
+    /**
+     * Tipo com que a ordem entra no livro: o de disparo, num stop.
+     */
+    public OrderType triggered() {
+        return switch (this) {
+            case STOP -> MARKET;
+            case STOP_LIMIT -> LIMIT;
+            default -> this;
+        };
+    }
+}
@@ -0,0 +1,225 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import java.util.function.Consumer;
+
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Fila FIFO de um nível de preço. Lista duplamente encadeada intrusiva: os
+ * ponteiros ficam na própria {@link Order}, então remover uma ordem do meio do
+ * nível é O(1) e não aloca nada. Reutilizável via pool do lado do livro.
+ *
+ * Mantém a soma das quantidades restantes e a das parcelas visíveis (iguais
+ * sem icebergs): entrada e saída de ordens passam por aqui, e fills/reduções
+ * de uma ordem em repouso avisam o nível via {@link #reduced(long, long)}. Os
+ * avisos de mudança levam só a quantidade visível.
+ */
+final class PriceLevel {
+
+    private Order head;
+    private Order tail;
+    private int size;
+    private long quantity;
+    private long displayed;
+
+    private Price price;
+    private long key;
+    private LevelEvents events;
+
+    void reset(Price price, long key, LevelEvents events) {
+        this.price = price;
+        this.key = key;
+        this.events = events;
+        this.quantity = 0;
+        this.displayed = 0;
+    }
+
+    Price price() {
+        return price;
+    }
+
+    long key() {
+        return key;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Soma das quantidades restantes, escondidas incluídas.
+     */
+    long quantity() {
+        return quantity;
+    }
+
+    /**
+     * Soma das parcelas visíveis: o que o market data mostra.
+     */
+    long displayed() {
+        return displayed;
+    }
+
+    /**
+     * Uma ordem deste nível foi executada ou reduzida em {@code by}, dos
+     * quais {@code shownBy} na parcela visível.
+     */
+    void reduced(long by, long shownBy) {
+        quantity -= by;
+        if (shownBy != 0) {
+            displayed -= shownBy;
+            events.changed(price, displayed);
+        }
+    }
+
+    void addLast(Order order) {
+        link(order);
+        append(order);
+    }
+
+    /**
+     * Iceberg com a parcela visível executada: vai para o fim da fila com a
+     * próxima parcela, perdendo a prioridade de tempo. Continua no nível,
+     * então tamanho e total restante não mudam.
+     */
+    void replenish(Order order) {
+        if (order.level != this)
+            throw new DomainException("order is not in this level");
+        if (order.next != null) {
+            detach(order);
+            append(order);
+        }
+        displayed += order.replenish();
+        events.changed(price, displayed);
+    }
+
+    private void append(Order order) {
+        order.prev = tail;
+        order.next = null;
+        if (tail == null)
+            head = order;
+        else
+            tail.next = order;
+        tail = order;
+    }
+
+    void addFirst(Order order) {
+        link(order);
+        order.next = head;
+        if (head == null)
+            tail = order;
+        else
+            head.prev = order;
+        head = order;
+    }
+
+    Order peekFirst() {
+        return head;
+    }
+
+    Order pollFirst() {
+        Order o = head;
+        if (o != null)
+            unlink(o);
+        return o;
+    }
+
+    int copyTo(Order[] orders, long[] visible) {
+        int n = 0;
+        for (Order o = head; o != null; o = o.next) {
+            orders[n] = o;
+            visible[n] = o.visible();
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Soma do que resta nas ordens de {@code owner} neste nível.
+     */
+    long quantityOf(UserId owner) {
+        long total = 0;
+        for (Order o = head; o != null; o = o.next) {
+            if (o.userId().equals(owner))
+                total += o.remaining();
+        }
+        return total;
+    }
+
+    /**
+     * Soma do que resta nas ordens à frente da primeira de {@code owner}.
+     */
+    long quantityBefore(UserId owner) {
+        long total = 0;
+        for (Order o = head; o != null && !o.userId().equals(owner); o = o.next) {
+            total += o.remaining();
+        }
+        return total;
+    }
+
+    /**
+     * Passo de {@link OrderBookSide#availableQuantity(Price, long, UserId, boolean, boolean)}:
+     * o total depois deste nível, ou {@code -1 - total} se o matching pararia
+     * aqui numa ordem do {@code owner}.
+     */
+    long availableAfter(long total, UserId owner, boolean skipOwner, boolean wholeLevels) {
+        long own = quantityOf(owner);
+        if (own == 0)
+            return total + quantity;
+        if (skipOwner)
+            return total + quantity - own;
+        return -1 - (wholeLevels ? total : total + quantityBefore(owner));
+    }
+
+    void forEach(Consumer<Order> visitor) {
+        for (Order o = head; o != null; o = o.next) {
+            visitor.accept(o);
+        }
+    }
+
+    void unlink(Order order) {
+        if (order.level != this)
+            throw new DomainException("order is not in this level");
+        detach(order);
+        order.prev = null;
+        order.next = null;
+        order.level = null;
+        size--;
+        quantity -= order.remaining();
+        long visible = order.visible();
+        if (visible != 0) {
+            displayed -= visible;
+            events.changed(price, displayed);
+        }
+    }
+
+    private void detach(Order order) {
+        Order p = order.prev;
+        Order n = order.next;
+        if (p == null)
+            head = n;
+        else
+            p.next = n;
+        if (n == null)
+            tail = p;
+        else
+            n.prev = p;
+    }
+
+    private void link(Order order) {
+        if (order.level != null)
+            throw new DomainException("order is already resting in the book");
+        order.level = this;
+        size++;
+        quantity += order.remaining();
+        displayed += order.visible();
+        events.changed(price, displayed);
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import java.time.Instant;
+
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Ordem stop esperando o disparo no {@link StopOrderBook}. Não reserva nada:
+ * ao disparar vira uma ordem comum (a mercado, ou limitada em
+ * {@link #limitPrice()} num stop-limit) com o mesmo id, e a reserva é feita
+ * nessa hora.
+ */
+public final class StopOrder {
+
+    private final long id;
+    private final UserId userId;
+    private final Side side;
+    private final long stopTicks;
+    // 0 = stop a mercado
+    private final long limitTicks;
+    private final TimeInForce timeInForce;
+    private final long quantity;
+    private final long createdSeconds;
+    private final int createdNanos;
+
+    // encadeamento intrusivo no nível de disparo (ver StopOrderBook)
+    StopOrder prev;
+    StopOrder next;
+    StopOrderBook.Level level;
+
+    private StopOrder(OrderId id, UserId userId, Side side, Price stopPrice, Price limitPrice,
+            TimeInForce timeInForce, Quantity quantity, Instant createdAt) {
+        this.id = requireNonNull(id, "orderId").value();
+        this.userId = requireNonNull(userId, "userId");
+        this.side = requireNonNull(side, "side");
+        this.stopTicks = requireNonNull(stopPrice, "stopPrice").ticks();
+        this.limitTicks = limitPrice == null ? 0 : limitPrice.ticks();
+        this.timeInForce = requireNonNull(timeInForce, "timeInForce");
+        this.quantity = requireNonNull(quantity, "quantity").value();
+        requireNonNull(createdAt, "createdAt");
+        this.createdSeconds = createdAt.getEpochSecond();
+        this.createdNanos = createdAt.getNano();
+
+        if (quantity.isZero())
+            throw new DomainException("quantity must be > 0");
+        if (limitPrice == null && timeInForce == TimeInForce.GTC)
+            throw new DomainException("stop market order cannot rest in the book: use IOC or FOK");
+    }
+
+    /**
+     * {@code limitPrice} nulo é um stop a mercado.
+     */
+    public static StopOrder create(OrderId id, UserId userId, Side side, Price stopPrice, Price limitPrice,
+            TimeInForce timeInForce, Quantity quantity, Instant createdAt) {
+        return new StopOrder(id, userId, side, stopPrice, limitPrice, timeInForce, quantity, createdAt);
+    }
+
+    public OrderId id() {
+        return OrderId.of(id);
+    }
+
+    public UserId userId() {
+        return userId;
+    }
+
+    public Side side() {
+        return side;
+    }
+
+    public Price stopPrice() {
+        return Price.ofTicks(stopTicks);
+    }
+
+    /**
+     * Nulo num stop a mercado.
+     */
+    public Price limitPrice() {
+        return limitTicks == 0 ? null : Price.ofTicks(limitTicks);
+    }
+
+    public OrderType type() {
+        return limitTicks == 0 ? OrderType.STOP : OrderType.STOP_LIMIT;
+    }
+
+    public TimeInForce timeInForce() {
+        return timeInForce;
+    }
+
+    public Quantity quantity() {
+        return Quantity.ofPositive(quantity);
+    }
+
+    public Instant createdAt() {
+        return Instant.ofEpochSecond(createdSeconds, createdNanos);
+    }
+
+    long idValue() {
+        return id;
+    }
+
+    long stopTicks() {
+        return stopTicks;
+    }
+
+    public boolean isPending() {
+        return level != null;
+    }
+
+    private static <T> T requireNonNull(T v, String field) {
+        if (v == null)
+            throw new DomainException(field + " must not be null");
+        return v;
+    }
+}
@@ -0,0 +1,200 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+
+/**
+ * Livro de disparo das ordens stop, separado do livro de ofertas. Cada lado
+ * tem níveis por preço de disparo, em FIFO com lista intrusiva como os
+ * {@link PriceLevel}s: compra dispara quando o último preço negociado sobe
+ * até o stop (menor stop primeiro), venda quando desce até ele (maior stop
+ * primeiro).
+ *
+ * O stop mais próximo de cada lado fica em cache, então
+ * {@link #pollTriggeredOrNull()} sem nada cruzado são duas comparações: o
+ * matching não paga nada pelos stops enquanto o preço não chega neles. Uma
+ * cascata esvazia um nível inteiro com {@code poll} O(1) por ordem e só
+ * consulta a árvore ao trocar de nível.
+ *
+ * Só a thread do writer usa.
+ */
+public final class StopOrderBook {
+
+    private final TreeMap<Long, Level> buys = new TreeMap<>();
+    private final TreeMap<Long, Level> sells = new TreeMap<>(Comparator.reverseOrder());
+    private final Map<Long, StopOrder> index = new HashMap<>();
+
+    // stop de compra mais baixo e de venda mais alto
+    private long buyTrigger = Long.MAX_VALUE;
+    private long sellTrigger = Long.MIN_VALUE;
+    // 0 = nenhum trade ainda
+    private long lastTradeTicks;
+
+    public void add(StopOrder stop) {
+        if (stop == null)
+            throw new DomainException("stop order must not be null");
+        if (stop.isPending() || index.putIfAbsent(stop.idValue(), stop) != null)
+            throw new DomainException("duplicate orderId: " + stop.id());
+        TreeMap<Long, Level> levels = levels(stop.side());
+        Level level = levels.computeIfAbsent(stop.stopTicks(), Level::new);
+        level.addLast(stop);
+        refreshTrigger(stop.side());
+    }
+
+    /**
+     * Cancelamento de um stop pendente. O(1) no nível.
+     */
+    public Optional<StopOrder> remove(OrderId id) {
+        if (id == null)
+            throw new DomainException("orderId must not be null");
+        StopOrder stop = index.remove(id.value());
+        if (stop == null)
+            return Optional.empty();
+        Level level = stop.level;
+        level.unlink(stop);
+        if (level.isEmpty()) {
+            levels(stop.side()).remove(level.key);
+            refreshTrigger(stop.side());
+        }
+        return Optional.of(stop);
+    }
+
+    public Optional<StopOrder> find(OrderId id) {
+        if (id == null)
+            throw new DomainException("orderId must not be null");
+        return Optional.ofNullable(index.get(id.value()));
+    }
+
+    public boolean contains(OrderId id) {
+        return id != null && index.containsKey(id.value());
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Último preço negociado, alimentado pelos trades do matching.
+     */
+    public void onTrade(Price price) {
+        if (price == null)
+            throw new DomainException("price must not be null");
+        lastTradeTicks = price.ticks();
+    }
+
+    /**
+     * Nulo antes do primeiro trade.
+     */
+    public Price lastTradePrice() {
+        return lastTradeTicks == 0 ? null : Price.ofTicks(lastTradeTicks);
+    }
+
+    public boolean hasTriggered() {
+        return lastTradeTicks != 0 && (lastTradeTicks >= buyTrigger || lastTradeTicks <= sellTrigger);
+    }
+
+    /**
+     * Retira o próximo stop cruzado pelo último preço, ou {@code null}.
+     * Compras antes de vendas; dentro de um lado, na ordem dos níveis e FIFO
+     * em cada nível.
+     */
+    public StopOrder pollTriggeredOrNull() {
+        if (lastTradeTicks == 0)
+            return null;
+        if (lastTradeTicks >= buyTrigger)
+            return pollFirst(Side.BUY);
+        if (lastTradeTicks <= sellTrigger)
+            return pollFirst(Side.SELL);
+        return null;
+    }
+
+    /**
+     * Stops pendentes de um lado, na ordem em que disparariam.
+     */
+    public void forEach(Side side, Consumer<StopOrder> action) {
+        for (Level level : levels(side).values()) {
+            for (StopOrder s = level.head; s != null; s = s.next) {
+                action.accept(s);
+            }
+        }
+    }
+
+    private StopOrder pollFirst(Side side) {
+        TreeMap<Long, Level> levels = levels(side);
+        // firstEntry() e pollFirstEntry() alocam uma cópia imutável da entrada
+        Long key = levels.firstKey();
+        Level level = levels.get(key);
+        StopOrder stop = level.head;
+        level.unlink(stop);
+        index.remove(stop.idValue());
+        if (level.isEmpty()) {
+            levels.remove(key);
+            refreshTrigger(side);
+        }
+        return stop;
+    }
+
+    private void refreshTrigger(Side side) {
+        if (side == Side.BUY)
+            buyTrigger = buys.isEmpty() ? Long.MAX_VALUE : buys.firstKey();
+        else
+            sellTrigger = sells.isEmpty() ? Long.MIN_VALUE : sells.firstKey();
+    }
+
+    private TreeMap<Long, Level> levels(Side side) {
+        if (side == null)
+            throw new DomainException("side must not be null");
+        return side == Side.BUY ? buys : sells;
+    }
+
+    /**
+     * Fila FIFO dos stops de um preço de disparo.
+     */
+    static final class Level {
+
+        private final long key;
+        private StopOrder head;
+        private StopOrder tail;
+
+        Level(long key) {
+            this.key = key;
+        }
+
+        boolean isEmpty() {
+            return head == null;
+        }
+
+        void addLast(StopOrder stop) {
+            stop.level = this;
+            stop.prev = tail;
+            stop.next = null;
+            if (tail == null)
+                head = stop;
+            else
+                tail.next = stop;
+            tail = stop;
+        }
+
+        void unlink(StopOrder stop) {
+            if (stop.prev == null)
+                head = stop.next;
+            else
+                stop.prev.next = stop.next;
+            if (stop.next == null)
+                tail = stop.prev;
+            else
+                stop.next.prev = stop.prev;
+            stop.prev = null;
+            stop.next = null;
+            stop.level = null;
+        }
+    }
+}
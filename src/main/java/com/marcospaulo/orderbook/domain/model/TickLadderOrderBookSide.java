@@ -0,0 +1,429 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Lado do livro indexado por ticks ({@link Price#ticks()}) em vez de
+ * {@link Price}.
+ *
+ * Os níveis ficam numa janela circular de {@code window} ticks a partir de
+ * {@code base}, com um bitset de ocupação para achar o próximo nível em
+ * O(window / 64) no pior caso. Níveis fora da janela (longe do topo) ficam num
+ * {@link TreeMap} de overflow e são puxados para a janela conforme o melhor
+ * preço anda. As filas de cada nível são reaproveitadas via pool, e um índice
+ * {@link OrderId} → {@link Order} permite cancelar sem varrer o nível.
+ *
+ * Internamente tudo é "menor chave = melhor": asks usam {@code ticks}, bids
+ * usam {@code -ticks}.
+ */
+public final class TickLadderOrderBookSide implements OrderBookSide {
+
+    public static final int DEFAULT_WINDOW_TICKS = 4096;
+
+    private static final long NONE = Long.MAX_VALUE;
+    private static final int MAX_POOLED_LEVELS = 1024;
+
+    private final boolean descending;
+    private final int window;
+    private final long mask;
+    private final PriceLevel[] slots;
+    private final long[] occupied;
+
+    private final TreeMap<Long, PriceLevel> overflow = new TreeMap<>();
+    private final LongOrderTable index = new LongOrderTable(1 << 10);
+    private final ArrayDeque<PriceLevel> pool = new ArrayDeque<>();
+    private final LevelEvents events;
+
+    private long base;
+    private long bestKey = NONE;
+
+    public TickLadderOrderBookSide(Side side) {
+        this(side, DEFAULT_WINDOW_TICKS);
+    }
+
+    public TickLadderOrderBookSide(Side side, int windowTicks) {
+        if (side == null)
+            throw new DomainException("side must not be null");
+        if (windowTicks < 64 || Integer.bitCount(windowTicks) != 1)
+            throw new DomainException("windowTicks must be a power of two >= 64");
+        this.descending = side == Side.BUY;
+        this.window = windowTicks;
+        this.mask = windowTicks - 1L;
+        this.slots = new PriceLevel[windowTicks];
+        this.occupied = new long[windowTicks >>> 6];
+        this.events = new LevelEvents(side);
+    }
+
+    @Override
+    public void add(Order order) {
+        if (order == null)
+            throw new DomainException("order must not be null");
+        levelFor(order.price()).addLast(order);
+        index.put(order.idValue(), order);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bestKey == NONE;
+    }
+
+    @Override
+    public Optional<Price> bestPrice() {
+        if (bestKey == NONE)
+            return Optional.empty();
+        return Optional.of(slots[slot(bestKey)].price());
+    }
+
+    @Override
+    public Optional<Order> peekBestOrder() {
+        if (bestKey == NONE)
+            return Optional.empty();
+        return Optional.ofNullable(slots[slot(bestKey)].peekFirst());
+    }
+
+    @Override
+    public Order peekBestOrderOrNull() {
+        if (bestKey == NONE)
+            return null;
+        return slots[slot(bestKey)].peekFirst();
+    }
+
+    @Override
+    public int bestLevelSize() {
+        return bestKey == NONE ? 0 : slots[slot(bestKey)].size();
+    }
+
+    @Override
+    public long bestLevelDisplayedQuantity() {
+        return bestKey == NONE ? 0 : slots[slot(bestKey)].displayed();
+    }
+
+    @Override
+    public int copyBestLevel(Order[] orders, long[] visible) {
+        return bestKey == NONE ? 0 : slots[slot(bestKey)].copyTo(orders, visible);
+    }
+
+    @Override
+    public Optional<Order> pollBestOrder() {
+        if (bestKey == NONE)
+            return Optional.empty();
+        PriceLevel level = slots[slot(bestKey)];
+        Order o = level.pollFirst();
+        index.remove(o.idValue());
+        if (level.isEmpty()) {
+            removeLevel(level);
+        }
+        return Optional.of(o);
+    }
+
+    @Override
+    public void putBackAtFront(Order order) {
+        if (order == null)
+            throw new DomainException("order must not be null");
+        levelFor(order.price()).addFirst(order);
+        index.put(order.idValue(), order);
+    }
+
+    @Override
+    public void replenish(Order order) {
+        if (order == null)
+            throw new DomainException("order must not be null");
+        if (index.get(order.idValue()) != order)
+            throw new DomainException("order is not resting: " + order.id());
+        order.level.replenish(order);
+    }
+
+    @Override
+    public Optional<Order> find(OrderId id) {
+        return Optional.ofNullable(index.get(id.value()));
+    }
+
+    @Override
+    public Optional<Order> remove(OrderId id) {
+        Order o = index.remove(id.value());
+        if (o == null)
+            return Optional.empty();
+        PriceLevel level = o.level;
+        level.unlink(o);
+        if (level.isEmpty()) {
+            removeLevel(level);
+        }
+        return Optional.of(o);
+    }
+
+    @Override
+    public Order reduce(OrderId id, Quantity reduceBy) {
+        Order o = index.get(id.value());
+        if (o == null)
+            throw new DomainException("order is not resting: " + id);
+        o.reduce(reduceBy);
+        return o;
+    }
+
+    /**
+     * Janela primeiro, depois o overflow: toda chave do overflow fica além do
+     * fim da janela.
+     */
+    @Override
+    public void forEachOrder(Consumer<Order> visitor) {
+        if (bestKey == NONE)
+            return;
+        for (long k = nextOccupiedKey(base); k != NONE; k = nextOccupiedKey(k + 1)) {
+            slots[slot(k)].forEach(visitor);
+        }
+        for (PriceLevel level : overflow.values()) {
+            level.forEach(visitor);
+        }
+    }
+
+    @Override
+    public long levelQuantity(Price price) {
+        if (bestKey == NONE)
+            return 0;
+        long key = descending ? -price.ticks() : price.ticks();
+        PriceLevel level = key >= base && key - base < window ? slots[slot(key)] : overflow.get(key);
+        return level == null ? 0 : level.quantity();
+    }
+
+    @Override
+    public long availableQuantity(Price limit, long wanted) {
+        long limitKey = descending ? -limit.ticks() : limit.ticks();
+        long total = 0;
+        for (long k = bestKey; k != NONE && k <= limitKey; k = nextOccupiedKey(k + 1)) {
+            total += slots[slot(k)].quantity();
+            if (total >= wanted)
+                return total;
+        }
+        for (PriceLevel level : overflow.values()) {
+            if (level.key() > limitKey)
+                break;
+            total += level.quantity();
+            if (total >= wanted)
+                break;
+        }
+        return total;
+    }
+
+    @Override
+    public long availableQuantity(Price limit, long wanted, UserId owner, boolean skipOwner, boolean wholeLevels) {
+        long limitKey = descending ? -limit.ticks() : limit.ticks();
+        long total = 0;
+        for (long k = bestKey; k != NONE && k <= limitKey; k = nextOccupiedKey(k + 1)) {
+            total = slots[slot(k)].availableAfter(total, owner, skipOwner, wholeLevels);
+            if (total < 0)
+                return -1 - total;
+            if (total >= wanted)
+                return total;
+        }
+        for (PriceLevel level : overflow.values()) {
+            if (level.key() > limitKey)
+                break;
+            total = level.availableAfter(total, owner, skipOwner, wholeLevels);
+            if (total < 0)
+                return -1 - total;
+            if (total >= wanted)
+                break;
+        }
+        return total;
+    }
+
+    @Override
+    public Price sweepPriceOrNull(long wanted) {
+        PriceLevel last = null;
+        long total = 0;
+        for (long k = bestKey; k != NONE; k = nextOccupiedKey(k + 1)) {
+            last = slots[slot(k)];
+            total += last.quantity();
+            if (total >= wanted)
+                return last.price();
+        }
+        for (PriceLevel level : overflow.values()) {
+            last = level;
+            total += level.quantity();
+            if (total >= wanted)
+                break;
+        }
+        return last == null ? null : last.price();
+    }
+
+    @Override
+    public void setLevelListener(LevelListener listener) {
+        events.listener(listener);
+    }
+
+    @Override
+    public int copyTopLevels(long[] ticks, long[] quantities) {
+        if (bestKey == NONE)
+            return 0;
+        int n = 0;
+        for (long k = bestKey; k != NONE && n < ticks.length; k = nextOccupiedKey(k + 1)) {
+            PriceLevel level = slots[slot(k)];
+            ticks[n] = level.price().ticks();
+            quantities[n] = level.displayed();
+            n++;
+        }
+        if (n < ticks.length) {
+            for (PriceLevel level : overflow.values()) {
+                if (n == ticks.length)
+                    break;
+                ticks[n] = level.price().ticks();
+                quantities[n] = level.displayed();
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public long changeCount() {
+        return events.changes();
+    }
+
+    private PriceLevel levelFor(Price price) {
+        long key = descending ? -price.ticks() : price.ticks();
+
+        if (bestKey == NONE) {
+            // lado vazio (e, por invariante, overflow vazio): janela livre
+            base = key - (window >>> 2);
+        } else if (key < base) {
+            rebaseDown(key - (window >>> 2));
+        }
+
+        PriceLevel level;
+        if (key - base < window) {
+            int s = slot(key);
+            level = slots[s];
+            if (level == null) {
+                level = acquire(price, key);
+                slots[s] = level;
+                occupied[s >>> 6] |= 1L << s;
+            }
+        } else {
+            level = overflow.get(key);
+            if (level == null) {
+                level = acquire(price, key);
+                overflow.put(key, level);
+            }
+        }
+
+        if (key < bestKey)
+            bestKey = key;
+        return level;
+    }
+
+    private void removeLevel(PriceLevel level) {
+        long key = level.key();
+        if (key - base < window) {
+            clearSlot(slot(key));
+        } else {
+            overflow.remove(key);
+        }
+        release(level);
+        if (key == bestKey) {
+            advanceBest();
+        }
+    }
+
+    /**
+     * Melhor nível esvaziou: procura o próximo na janela; se a janela acabou,
+     * recomeça a partir do overflow.
+     */
+    private void advanceBest() {
+        long next = nextOccupiedKey(bestKey + 1);
+        if (next != NONE) {
+            bestKey = next;
+            if (next - base > (window >>> 1)) {
+                slideUp(next - (window >>> 2));
+            }
+            return;
+        }
+        if (overflow.isEmpty()) {
+            bestKey = NONE;
+            return;
+        }
+        bestKey = overflow.firstKey();
+        slideUp(bestKey - (window >>> 2));
+    }
+
+    /**
+     * Move a janela para chaves maiores. Nenhum nível ocupado fica abaixo de
+     * {@code newBase}, então só é preciso puxar níveis do overflow.
+     */
+    private void slideUp(long newBase) {
+        base = newBase;
+        while (!overflow.isEmpty()) {
+            Map.Entry<Long, PriceLevel> e = overflow.firstEntry();
+            long key = e.getKey();
+            if (key - base >= window)
+                return;
+            overflow.pollFirstEntry();
+            int s = slot(key);
+            slots[s] = e.getValue();
+            occupied[s >>> 6] |= 1L << s;
+        }
+    }
+
+    /**
+     * Move a janela para chaves menores: níveis que saem pelo fim da janela
+     * vão para o overflow.
+     */
+    private void rebaseDown(long newBase) {
+        long k = nextOccupiedKey(Math.max(newBase + window, base));
+        while (k != NONE) {
+            int s = slot(k);
+            overflow.put(k, slots[s]);
+            clearSlot(s);
+            k = nextOccupiedKey(k + 1);
+        }
+        base = newBase;
+    }
+
+    private long nextOccupiedKey(long fromKey) {
+        long limit = base + window;
+        long k = fromKey;
+        while (k < limit) {
+            int s = slot(k);
+            long bits = occupied[s >>> 6] >>> (s & 63);
+            if (bits != 0) {
+                long found = k + Long.numberOfTrailingZeros(bits);
+                return found < limit ? found : NONE;
+            }
+            k += 64 - (s & 63);
+        }
+        return NONE;
+    }
+
+    private int slot(long key) {
+        return (int) (key & mask);
+    }
+
+    private void clearSlot(int s) {
+        slots[s] = null;
+        occupied[s >>> 6] &= ~(1L << s);
+    }
+
+    private PriceLevel acquire(Price price, long key) {
+        PriceLevel level = pool.pollFirst();
+        if (level == null)
+            level = new PriceLevel();
+        level.reset(price, key, events);
+        return level;
+    }
+
+    private void release(PriceLevel level) {
+        level.reset(null, 0, null);
+        if (pool.size() < MAX_POOLED_LEVELS)
+            pool.addFirst(level);
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.marcospaulo.orderbook.domain.model;
+
+/**
+ * Quanto tempo uma ordem vale.
+ */
+public enum TimeInForce {
+
+    /**
+     * Good-till-cancelled: o que não executar na entrada fica no livro.
+     */
+    GTC,
+
+    /**
+     * Immediate-or-cancel: executa o que der na entrada e expira o resto.
+     */
+    IOC,
+
+    /**
+     * Fill-or-kill: executa tudo na entrada ou nada.
+     */
+    FOK
+
+}
@@ -8,11 +8,19 @@ import com.marcospaulo.orderbook.domain.model.vo.OrderId;
 import com.marcospaulo.orderbook.domain.model.vo.Price;
 import com.marcospaulo.orderbook.domain.model.vo.Quantity;
 import com.marcospaulo.orderbook.domain.model.vo.TradeId;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
 
+/**
+ * Execução entre uma ordem de compra e uma de venda. Guarda também o dono de
+ * cada lado, capturado no settlement, para o histórico por usuário não
+ * depender de buscar as ordens.
+ */
 public final class Trade {
     private final TradeId id;
     private final OrderId buyOrderId;
     private final OrderId sellOrderId;
+    private final UserId buyerId;
+    private final UserId sellerId;
     private final Price price;
     private final Quantity quantity;
     private final Instant executedAt;
@@ -21,12 +29,16 @@ public final class Trade {
             TradeId id,
             OrderId buyOrderId,
             OrderId sellOrderId,
+            UserId buyerId,
+            UserId sellerId,
             Price price,
             Quantity quantity,
             Instant executedAt) {
         this.id = requireNonNull(id, "tradeId");
         this.buyOrderId = requireNonNull(buyOrderId, "buyOrderId");
         this.sellOrderId = requireNonNull(sellOrderId, "sellOrderId");
+        this.buyerId = requireNonNull(buyerId, "buyerId");
+        this.sellerId = requireNonNull(sellerId, "sellerId");
         this.price = requireNonNull(price, "price");
         this.quantity = requireNonNull(quantity, "quantity");
         this.executedAt = requireNonNull(executedAt, "executedAt");
@@ -39,17 +51,49 @@ public final class Trade {
     public static Trade create(
             OrderId buyOrderId,
             OrderId sellOrderId,
+            UserId buyerId,
+            UserId sellerId,
             Price price,
             Quantity quantity) {
         return new Trade(
                 TradeId.newId(),
                 buyOrderId,
                 sellOrderId,
+                buyerId,
+                sellerId,
                 price,
                 quantity,
                 Instant.now());
     }
 
+    /**
+     * Id e instante vindos de fora (do gerador de ids e do relógio do
+     * contexto), para que o replay gere a mesma fita.
+     */
+    public static Trade create(
+            TradeId id,
+            OrderId buyOrderId,
+            OrderId sellOrderId,
+            UserId buyerId,
+            UserId sellerId,
+            Price price,
+            Quantity quantity,
+            Instant executedAt) {
+        return new Trade(id, buyOrderId, sellOrderId, buyerId, sellerId, price, quantity, executedAt);
+    }
+
+    public static Trade restore(
+            TradeId id,
+            OrderId buyOrderId,
+            OrderId sellOrderId,
+            UserId buyerId,
+            UserId sellerId,
+            Price price,
+            Quantity quantity,
+            Instant executedAt) {
+        return new Trade(id, buyOrderId, sellOrderId, buyerId, sellerId, price, quantity, executedAt);
+    }
+
     public TradeId id() {
         return id;
     }
@@ -62,6 +106,14 @@ public final class Trade {
         return sellOrderId;
     }
 
+    public UserId buyerId() {
+        return buyerId;
+    }
+
+    public UserId sellerId() {
+        return sellerId;
+    }
+
     public Price price() {
         return price;
     }
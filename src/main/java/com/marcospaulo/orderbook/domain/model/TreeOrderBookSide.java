@@ -0,0 +1,226 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import java.util.Comparator;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * Implementação de referência: {@link TreeMap} de {@link Price} para
+ * {@link PriceLevel}.
+ */
+public final class TreeOrderBookSide implements OrderBookSide {
+
+    private final NavigableMap<Price, PriceLevel> levels;
+    private final LongOrderTable index = new LongOrderTable(1 << 10);
+    private final LevelEvents events;
+
+    /**
+     * Bids do maior para o menor preço, asks do menor para o maior.
+     */
+    public TreeOrderBookSide(Side side) {
+        if (side == null)
+            throw new DomainException("side must not be null");
+        Comparator<Price> comparator = side == Side.BUY ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        this.levels = new TreeMap<>(comparator);
+        this.events = new LevelEvents(side);
+    }
+
+    @Override
+    public void add(Order order) {
+        if (order == null)
+            throw new DomainException("order must not be null");
+        levelFor(order.price()).addLast(order);
+        index.put(order.idValue(), order);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return levels.isEmpty();
+    }
+
+    @Override
+    public Optional<Price> bestPrice() {
+        if (levels.isEmpty())
+            return Optional.empty();
+        return Optional.of(levels.firstKey());
+    }
+
+    @Override
+    public Optional<Order> peekBestOrder() {
+        if (levels.isEmpty())
+            return Optional.empty();
+        return Optional.ofNullable(levels.firstEntry().getValue().peekFirst());
+    }
+
+    @Override
+    public Order peekBestOrderOrNull() {
+        // firstEntry() aloca uma cópia imutável da entrada
+        if (levels.isEmpty())
+            return null;
+        return levels.get(levels.firstKey()).peekFirst();
+    }
+
+    @Override
+    public int bestLevelSize() {
+        return levels.isEmpty() ? 0 : levels.get(levels.firstKey()).size();
+    }
+
+    @Override
+    public long bestLevelDisplayedQuantity() {
+        return levels.isEmpty() ? 0 : levels.get(levels.firstKey()).displayed();
+    }
+
+    @Override
+    public int copyBestLevel(Order[] orders, long[] visible) {
+        return levels.isEmpty() ? 0 : levels.get(levels.firstKey()).copyTo(orders, visible);
+    }
+
+    @Override
+    public Optional<Order> pollBestOrder() {
+        if (levels.isEmpty())
+            return Optional.empty();
+        PriceLevel level = levels.firstEntry().getValue();
+        Order o = level.pollFirst();
+        index.remove(o.idValue());
+        if (level.isEmpty()) {
+            levels.pollFirstEntry();
+        }
+        return Optional.of(o);
+    }
+
+    @Override
+    public void putBackAtFront(Order order) {
+        if (order == null)
+            throw new DomainException("order must not be null");
+        levelFor(order.price()).addFirst(order);
+        index.put(order.idValue(), order);
+    }
+
+    @Override
+    public void replenish(Order order) {
+        if (order == null)
+            throw new DomainException("order must not be null");
+        if (index.get(order.idValue()) != order)
+            throw new DomainException("order is not resting: " + order.id());
+        order.level.replenish(order);
+    }
+
+    @Override
+    public Optional<Order> find(OrderId id) {
+        return Optional.ofNullable(index.get(id.value()));
+    }
+
+    @Override
+    public Optional<Order> remove(OrderId id) {
+        Order o = index.remove(id.value());
+        if (o == null)
+            return Optional.empty();
+        PriceLevel level = o.level;
+        level.unlink(o);
+        if (level.isEmpty()) {
+            levels.remove(level.price());
+        }
+        return Optional.of(o);
+    }
+
+    @Override
+    public Order reduce(OrderId id, Quantity reduceBy) {
+        Order o = index.get(id.value());
+        if (o == null)
+            throw new DomainException("order is not resting: " + id);
+        o.reduce(reduceBy);
+        return o;
+    }
+
+    @Override
+    public void forEachOrder(Consumer<Order> visitor) {
+        for (PriceLevel level : levels.values()) {
+            level.forEach(visitor);
+        }
+    }
+
+    @Override
+    public long levelQuantity(Price price) {
+        PriceLevel level = levels.get(price);
+        return level == null ? 0 : level.quantity();
+    }
+
+    @Override
+    public long availableQuantity(Price limit, long wanted) {
+        long total = 0;
+        for (PriceLevel level : levels.headMap(limit, true).values()) {
+            total += level.quantity();
+            if (total >= wanted)
+                break;
+        }
+        return total;
+    }
+
+    @Override
+    public long availableQuantity(Price limit, long wanted, UserId owner, boolean skipOwner, boolean wholeLevels) {
+        long total = 0;
+        for (PriceLevel level : levels.headMap(limit, true).values()) {
+            total = level.availableAfter(total, owner, skipOwner, wholeLevels);
+            if (total < 0)
+                return -1 - total;
+            if (total >= wanted)
+                break;
+        }
+        return total;
+    }
+
+    @Override
+    public Price sweepPriceOrNull(long wanted) {
+        Price last = null;
+        long total = 0;
+        for (PriceLevel level : levels.values()) {
+            last = level.price();
+            total += level.quantity();
+            if (total >= wanted)
+                break;
+        }
+        return last;
+    }
+
+    @Override
+    public void setLevelListener(LevelListener listener) {
+        events.listener(listener);
+    }
+
+    @Override
+    public int copyTopLevels(long[] ticks, long[] quantities) {
+        int n = 0;
+        for (PriceLevel level : levels.values()) {
+            if (n == ticks.length)
+                break;
+            ticks[n] = level.price().ticks();
+            quantities[n] = level.displayed();
+            n++;
+        }
+        return n;
+    }
+
+    @Override
+    public long changeCount() {
+        return events.changes();
+    }
+
+    private PriceLevel levelFor(Price price) {
+        PriceLevel level = levels.get(price);
+        if (level == null) {
+            level = new PriceLevel();
+            level.reset(price, price.ticks(), events);
+            levels.put(price, level);
+        }
+        return level;
+    }
+
+}
@@ -1,15 +1,20 @@
 package com.marcospaulo.orderbook.domain.model;
 
 import java.math.BigDecimal;
-import java.util.EnumMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Objects;
 
 import com.marcospaulo.orderbook.domain.model.exception.DomainException;
 import com.marcospaulo.orderbook.domain.model.vo.Price;
 import com.marcospaulo.orderbook.domain.model.vo.Quantity;
 import com.marcospaulo.orderbook.domain.model.vo.UserId;
 
+/**
+ * Saldos de um usuário por {@link Asset}. As operações de trade recebem o
+ * {@link Instrument} para saber qual ativo é base e qual é cotação; as versões
+ * sem instrumento usam {@link Instrument#DEFAULT}.
+ */
 public final class Wallet {
 
     private final UserId userId;
@@ -21,9 +26,23 @@ public final class Wallet {
     }
 
     public static Wallet create(UserId userId, BigDecimal initialCash, BigDecimal initialVibranium) {
-        EnumMap<Asset, Balance> map = new EnumMap<>(Asset.class);
-        map.put(Asset.CASH, Balance.of(nz(initialCash), BigDecimal.ZERO));
-        map.put(Asset.VIBRANIUM, Balance.of(nz(initialVibranium), BigDecimal.ZERO));
+        Map<Asset, Balance> map = new LinkedHashMap<>();
+        map.put(Asset.CASH, Balance.of(Asset.CASH.scale(), nz(initialCash), BigDecimal.ZERO));
+        map.put(Asset.VIBRANIUM, Balance.of(Asset.VIBRANIUM.scale(), nz(initialVibranium), BigDecimal.ZERO));
+        return new Wallet(userId, map);
+    }
+
+    /**
+     * Reconstrói uma carteira a partir de um snapshot.
+     */
+    public static Wallet restore(UserId userId, Map<Asset, Balance> balances) {
+        requireNonNull(balances, "balances");
+        Map<Asset, Balance> map = new LinkedHashMap<>();
+        for (Map.Entry<Asset, Balance> e : balances.entrySet()) {
+            if (e.getKey().scale() != e.getValue().scale())
+                throw new DomainException("balance scale does not match asset " + e.getKey());
+            map.put(e.getKey(), e.getValue());
+        }
         return new Wallet(userId, map);
     }
 
@@ -32,34 +51,116 @@ public final class Wallet {
     }
 
     public Balance cash() {
-        return balances.get(Asset.CASH);
+        return balance(Asset.CASH);
     }
 
     public Balance vibranium() {
-        return balances.get(Asset.VIBRANIUM);
+        return balance(Asset.VIBRANIUM);
+    }
+
+    /**
+     * Saldo do ativo; ativo nunca movimentado aparece zerado.
+     */
+    public Balance balance(Asset asset) {
+        requireNonNull(asset, "asset");
+        return balances.computeIfAbsent(asset, a -> Balance.ofUnits(a.scale(), 0, 0));
+    }
+
+    /**
+     * Ativos com saldo registrado (somente leitura).
+     */
+    public Map<Asset, Balance> balances() {
+        return Collections.unmodifiableMap(balances);
     }
 
     /**
      * Reserva para BUY: cash = limitPrice * qty
      */
     public void reserveForBuy(Price limitPrice, Quantity qty) {
+        reserveForBuy(Instrument.DEFAULT, limitPrice, qty);
+    }
+
+    /**
+     * Reserva para BUY: quote = limitPrice * qty
+     */
+    public void reserveForBuy(Instrument instrument, Price limitPrice, Quantity qty) {
+        requireNonNull(instrument, "instrument");
         requireNonNull(limitPrice, "limitPrice");
-        requireNonNull(qty, "qty");
-        if (qty.isZero())
-            throw new DomainException("qty must be > 0");
-        BigDecimal amount = limitPrice.value().multiply(BigDecimal.valueOf(qty.value()));
-        cash().reserve(amount);
+        requirePositive(qty);
+        balance(instrument.quote()).reserveUnits(instrument.quoteUnits(limitPrice, qty));
     }
 
     /**
      * Reserva para SELL: vibranium qty
      */
     public void reserveForSell(Quantity qty) {
-        requireNonNull(qty, "qty");
-        if (qty.isZero())
-            throw new DomainException("qty must be > 0");
-        BigDecimal amount = BigDecimal.valueOf(qty.value());
-        vibranium().reserve(amount);
+        reserveForSell(Instrument.DEFAULT, qty);
+    }
+
+    /**
+     * Reserva para SELL: base qty
+     */
+    public void reserveForSell(Instrument instrument, Quantity qty) {
+        requireNonNull(instrument, "instrument");
+        requirePositive(qty);
+        balance(instrument.base()).reserveUnits(instrument.baseUnits(qty));
+    }
+
+    /**
+     * Se {@link #reserveForBuy(Instrument, Price, Quantity)} cabe no
+     * disponível, sem reservar.
+     */
+    public boolean canReserveForBuy(Instrument instrument, Price limitPrice, Quantity qty) {
+        requireNonNull(instrument, "instrument");
+        requireNonNull(limitPrice, "limitPrice");
+        requirePositive(qty);
+        return balance(instrument.quote()).availableUnits() >= instrument.quoteUnits(limitPrice, qty);
+    }
+
+    /**
+     * Se {@link #reserveForSell(Instrument, Quantity)} cabe no disponível, sem
+     * reservar.
+     */
+    public boolean canReserveForSell(Instrument instrument, Quantity qty) {
+        requireNonNull(instrument, "instrument");
+        requirePositive(qty);
+        return balance(instrument.base()).availableUnits() >= instrument.baseUnits(qty);
+    }
+
+    /**
+     * Devolve a reserva de BUY não executada (cancelamento/amend-down):
+     * cash = limitPrice * qty
+     */
+    public void releaseForBuy(Price limitPrice, Quantity qty) {
+        releaseForBuy(Instrument.DEFAULT, limitPrice, qty);
+    }
+
+    public void releaseForBuy(Instrument instrument, Price limitPrice, Quantity qty) {
+        requireNonNull(limitPrice, "limitPrice");
+        releaseForBuy(instrument, limitPrice.ticks(), qty);
+    }
+
+    /**
+     * Limite em ticks, para o settlement não criar um {@link Price} por ordem.
+     */
+    public void releaseForBuy(Instrument instrument, long limitTicks, Quantity qty) {
+        requireNonNull(instrument, "instrument");
+        requirePositiveTicks(limitTicks);
+        requirePositive(qty);
+        balance(instrument.quote()).releaseUnits(instrument.quoteUnits(limitTicks, qty.value()));
+    }
+
+    /**
+     * Devolve a reserva de SELL não executada: vibranium qty
+     */
+    public void releaseForSell(Quantity qty) {
+        releaseForSell(Instrument.DEFAULT, qty);
+    }
+
+    public void releaseForSell(Instrument instrument, Quantity qty) {
+        requireNonNull(instrument, "instrument");
+        requirePositive(qty);
+        balance(instrument.base()).releaseUnits(instrument.baseUnits(qty));
     }
 
     /**
@@ -69,27 +170,38 @@ public final class Wallet {
      * - libera troco (se tradePrice < limitPrice): (limitPrice - tradePrice) * qty
      */
     public void applyTradeAsBuyer(Price limitPrice, Price tradePrice, Quantity qty) {
+        applyTradeAsBuyer(Instrument.DEFAULT, limitPrice, tradePrice, qty);
+    }
+
+    public void applyTradeAsBuyer(Instrument instrument, Price limitPrice, Price tradePrice, Quantity qty) {
         requireNonNull(limitPrice, "limitPrice");
-        requireNonNull(tradePrice, "tradePrice");
-        requireNonNull(qty, "qty");
-        if (qty.isZero())
-            throw new DomainException("qty must be > 0");
+        applyTradeAsBuyer(instrument, limitPrice.ticks(), tradePrice, qty);
+    }
 
-        BigDecimal q = BigDecimal.valueOf(qty.value());
-        BigDecimal spent = tradePrice.value().multiply(q);
-        BigDecimal reservedAtLimit = limitPrice.value().multiply(q);
+    /**
+     * Limite em ticks, para o settlement não criar um {@link Price} por fill.
+     */
+    public void applyTradeAsBuyer(Instrument instrument, long limitTicks, Price tradePrice, Quantity qty) {
+        requireNonNull(instrument, "instrument");
+        requirePositiveTicks(limitTicks);
+        requireNonNull(tradePrice, "tradePrice");
+        requirePositive(qty);
 
-        cash().debitReserved(spent);
+        long spent = instrument.quoteUnits(tradePrice, qty);
+        long reservedAtLimit = instrument.quoteUnits(limitTicks, qty.value());
 
-        BigDecimal change = reservedAtLimit.subtract(spent);
-        if (change.signum() < 0) {
+        long change = reservedAtLimit - spent;
+        if (change < 0) {
             throw new DomainException("tradePrice cannot exceed limitPrice for buyer");
         }
-        if (change.signum() > 0) {
-            cash().release(change);
+
+        Balance quote = balance(instrument.quote());
+        quote.debitReservedUnits(spent);
+        if (change > 0) {
+            quote.releaseUnits(change);
         }
 
-        vibranium().creditAvailable(q);
+        balance(instrument.base()).creditAvailableUnits(instrument.baseUnits(qty));
     }
 
     /**
@@ -98,16 +210,16 @@ public final class Wallet {
      * - credita cash disponível: tradePrice * qty
      */
     public void applyTradeAsSeller(Price tradePrice, Quantity qty) {
-        requireNonNull(tradePrice, "tradePrice");
-        requireNonNull(qty, "qty");
-        if (qty.isZero())
-            throw new DomainException("qty must be > 0");
+        applyTradeAsSeller(Instrument.DEFAULT, tradePrice, qty);
+    }
 
-        BigDecimal q = BigDecimal.valueOf(Objects.requireNonNull(qty).value());
-        vibranium().debitReserved(q);
+    public void applyTradeAsSeller(Instrument instrument, Price tradePrice, Quantity qty) {
+        requireNonNull(instrument, "instrument");
+        requireNonNull(tradePrice, "tradePrice");
+        requirePositive(qty);
 
-        BigDecimal earned = tradePrice.value().multiply(q);
-        cash().creditAvailable(earned);
+        balance(instrument.base()).debitReservedUnits(instrument.baseUnits(qty));
+        balance(instrument.quote()).creditAvailableUnits(instrument.quoteUnits(tradePrice, qty));
     }
 
     private static BigDecimal nz(BigDecimal v) {
@@ -122,14 +234,42 @@ public final class Wallet {
         requireNonNull(amount, "amount");
         if (amount.signum() < 0)
             throw new DomainException("cash deposit must be >= 0");
-        balances.get(Asset.CASH).creditAvailable(amount);
+        cash().creditAvailable(amount);
     }
 
     public void depositVibranium(BigDecimal amount) {
         requireNonNull(amount, "amount");
         if (amount.signum() < 0)
             throw new DomainException("vibranium deposit must be >= 0");
-        balances.get(Asset.VIBRANIUM).creditAvailable(amount);
+        vibranium().creditAvailable(amount);
+    }
+
+    public void deposit(Asset asset, BigDecimal amount) {
+        requireNonNull(amount, "amount");
+        if (amount.signum() <= 0)
+            throw new DomainException(asset + " deposit must be > 0");
+        balance(asset).creditAvailable(amount);
+    }
+
+    /**
+     * Retira do disponível (nunca do reservado).
+     */
+    public void withdraw(Asset asset, BigDecimal amount) {
+        requireNonNull(amount, "amount");
+        if (amount.signum() <= 0)
+            throw new DomainException(asset + " withdrawal must be > 0");
+        balance(asset).debitAvailable(amount);
+    }
+
+    private static void requirePositive(Quantity qty) {
+        requireNonNull(qty, "qty");
+        if (qty.isZero())
+            throw new DomainException("qty must be > 0");
+    }
+
+    private static void requirePositiveTicks(long limitTicks) {
+        if (limitTicks <= 0)
+            throw new DomainException("limitPrice must be > 0");
     }
 
     private static <T> T requireNonNull(T value, String name) {
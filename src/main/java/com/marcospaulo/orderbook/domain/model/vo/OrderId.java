@@ -1,24 +1,48 @@
 package com.marcospaulo.orderbook.domain.model.vo;
 
-import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.marcospaulo.orderbook.domain.model.exception.DomainException;
 
+/**
+ * Id de ordem: 64 bits atribuídos pelo writer
+ * ({@link com.marcospaulo.orderbook.domain.service.SequentialIdGenerator}).
+ * Para fora (API, gateway) vira um UUID com os bits altos zerados
+ * ({@link #toUuid()}); só UUIDs nesse formato são aceitos de volta.
+ */
 public final class OrderId {
 
-    private final UUID value;
+    // ids criados fora de um engine contam para baixo a partir do topo, longe
+    // dos shards que o gerador usa
+    private static final AtomicLong DETACHED = new AtomicLong(Long.MAX_VALUE);
 
-    private OrderId(UUID value) {
-        this.value = requireNonNull(value, "orderId");
+    private final long value;
+
+    private OrderId(long value) {
+        if (value <= 0)
+            throw new DomainException("orderId must be > 0");
+        this.value = value;
     }
 
-    public static OrderId of(UUID value) {
+    public static OrderId of(long value) {
         return new OrderId(value);
     }
 
+    /**
+     * Id avulso, para ordens criadas fora de um engine (testes, ferramentas).
+     * Ordens submetidas recebem o id do writer.
+     */
     public static OrderId newId() {
-        return new OrderId(UUID.randomUUID());
+        return new OrderId(DETACHED.getAndDecrement());
+    }
+
+    public static OrderId fromUuid(UUID uuid) {
+        if (uuid == null)
+            throw new DomainException("orderId must not be null");
+        if (uuid.getMostSignificantBits() != 0 || uuid.getLeastSignificantBits() <= 0)
+            throw new DomainException("orderId was not issued by this exchange");
+        return new OrderId(uuid.getLeastSignificantBits());
     }
 
     public static OrderId fromString(String raw) {
@@ -26,38 +50,36 @@ public final class OrderId {
             throw new DomainException("orderId must not be blank");
         }
         try {
-            return new OrderId(UUID.fromString(raw));
+            return fromUuid(UUID.fromString(raw));
         } catch (IllegalArgumentException ex) {
             throw new DomainException("orderId must be a valid UUID");
         }
     }
 
-    public UUID value() {
+    public long value() {
         return value;
     }
 
+    public UUID toUuid() {
+        return new UUID(0, value);
+    }
+
     @Override
     public boolean equals(Object other) {
         if (this == other)
             return true;
         if (!(other instanceof OrderId that))
             return false;
-        return value.equals(that.value);
+        return value == that.value;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value);
+        return Long.hashCode(value);
     }
 
     @Override
     public String toString() {
-        return value.toString();
-    }
-
-    private static UUID requireNonNull(UUID v, String field) {
-        if (v == null)
-            throw new DomainException(field + " must not be null");
-        return v;
+        return toUuid().toString();
     }
 }
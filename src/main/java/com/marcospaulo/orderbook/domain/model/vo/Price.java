@@ -2,26 +2,38 @@ package com.marcospaulo.orderbook.domain.model.vo;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Objects;
 
 import com.marcospaulo.orderbook.domain.model.exception.DomainException;
 
+/**
+ * Preço em ponto fixo: {@code ticks} inteiros de 10^-SCALE. O
+ * {@link BigDecimal} só existe nas bordas ({@link #of(BigDecimal)},
+ * {@link #value()}).
+ */
 public final class Price implements Comparable<Price> {
 
-    private static final int SCALE = 2;
+    public static final int SCALE = 2;
     private static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
 
-    private final BigDecimal value;
+    private final long ticks;
 
-    private Price(BigDecimal value) {
-        this.value = normalize(requireNonNull(value, "price"));
-        if (this.value.signum() <= 0) {
+    private Price(long ticks) {
+        if (ticks <= 0) {
             throw new DomainException("price must be > 0");
         }
+        this.ticks = ticks;
     }
 
     public static Price of(BigDecimal value) {
-        return new Price(value);
+        BigDecimal v = normalize(requireNonNull(value, "price"));
+        if (v.signum() <= 0) {
+            throw new DomainException("price must be > 0");
+        }
+        try {
+            return new Price(v.unscaledValue().longValueExact());
+        } catch (ArithmeticException ex) {
+            throw new DomainException("price out of range");
+        }
     }
 
     public static Price of(String raw) {
@@ -29,19 +41,30 @@ public final class Price implements Comparable<Price> {
             throw new DomainException("price must not be blank");
         }
         try {
-            return new Price(new BigDecimal(raw));
+            return of(new BigDecimal(raw));
         } catch (NumberFormatException ex) {
             throw new DomainException("price must be a valid decimal");
         }
     }
 
+    /**
+     * Preço em ticks inteiros (unidades de 10^-SCALE).
+     */
+    public static Price ofTicks(long ticks) {
+        return new Price(ticks);
+    }
+
     public BigDecimal value() {
-        return value;
+        return BigDecimal.valueOf(ticks, SCALE);
+    }
+
+    public long ticks() {
+        return ticks;
     }
 
     @Override
     public int compareTo(Price other) {
-        return this.value.compareTo(other.value);
+        return Long.compare(this.ticks, other.ticks);
     }
 
     @Override
@@ -50,17 +73,17 @@ public final class Price implements Comparable<Price> {
             return true;
         if (!(other instanceof Price that))
             return false;
-        return value.compareTo(that.value) == 0;
+        return ticks == that.ticks;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value.stripTrailingZeros());
+        return Long.hashCode(ticks);
     }
 
     @Override
     public String toString() {
-        return value.toPlainString();
+        return value().toPlainString();
     }
 
     private static BigDecimal normalize(BigDecimal v) {
@@ -1,24 +1,48 @@
 package com.marcospaulo.orderbook.domain.model.vo;
 
-import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.marcospaulo.orderbook.domain.model.exception.DomainException;
 
+/**
+ * Id de trade: 64 bits atribuídos pelo writer
+ * ({@link com.marcospaulo.orderbook.domain.service.SequentialIdGenerator}).
+ * Para fora (API, gateway, market data) vira um UUID com os bits altos zerados
+ * ({@link #toUuid()}); só UUIDs nesse formato são aceitos de volta.
+ */
 public final class TradeId {
 
-    private final UUID value;
+    // ids criados fora de um engine contam para baixo a partir do topo, longe
+    // dos shards que o gerador usa
+    private static final AtomicLong DETACHED = new AtomicLong(Long.MAX_VALUE);
 
-    private TradeId(UUID value) {
-        this.value = requireNonNull(value, "tradeId");
+    private final long value;
+
+    private TradeId(long value) {
+        if (value <= 0)
+            throw new DomainException("tradeId must be > 0");
+        this.value = value;
     }
 
-    public static TradeId of(UUID value) {
+    public static TradeId of(long value) {
         return new TradeId(value);
     }
 
+    /**
+     * Id avulso, para trades criados fora de um engine (testes, ferramentas).
+     * Trades do engine recebem o id do writer.
+     */
     public static TradeId newId() {
-        return new TradeId(UUID.randomUUID());
+        return new TradeId(DETACHED.getAndDecrement());
+    }
+
+    public static TradeId fromUuid(UUID uuid) {
+        if (uuid == null)
+            throw new DomainException("tradeId must not be null");
+        if (uuid.getMostSignificantBits() != 0 || uuid.getLeastSignificantBits() <= 0)
+            throw new DomainException("tradeId was not issued by this exchange");
+        return new TradeId(uuid.getLeastSignificantBits());
     }
 
     public static TradeId fromString(String raw) {
@@ -26,38 +50,36 @@ public final class TradeId {
             throw new DomainException("tradeId must not be blank");
         }
         try {
-            return new TradeId(UUID.fromString(raw));
+            return fromUuid(UUID.fromString(raw));
         } catch (IllegalArgumentException ex) {
             throw new DomainException("tradeId must be a valid UUID");
         }
     }
 
-    public UUID value() {
+    public long value() {
         return value;
     }
 
+    public UUID toUuid() {
+        return new UUID(0, value);
+    }
+
     @Override
     public boolean equals(Object other) {
         if (this == other)
             return true;
         if (!(other instanceof TradeId that))
             return false;
-        return value.equals(that.value);
+        return value == that.value;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value);
+        return Long.hashCode(value);
     }
 
     @Override
     public String toString() {
-        return value.toString();
-    }
-
-    private static UUID requireNonNull(UUID v, String field) {
-        if (v == null)
-            throw new DomainException(field + " must not be null");
-        return v;
+        return toUuid().toString();
     }
 }
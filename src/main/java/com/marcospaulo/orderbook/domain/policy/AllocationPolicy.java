@@ -0,0 +1,44 @@
+package com.marcospaulo.orderbook.domain.policy;
+
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+
+/**
+ * Como uma ordem que chega divide a quantidade entre as ordens de um nível
+ * de preço. Recebe só números: as parcelas visíveis das ordens do nível em
+ * ordem de prioridade e o total delas, que o nível mantém, e escreve quanto
+ * cada uma executa.
+ */
+public interface AllocationPolicy {
+
+    /**
+     * Distribui {@code quantity} (no máximo {@code total}) entre as
+     * {@code count} primeiras posições de {@code visible}, que somam
+     * {@code total}. {@code fills[i]} nunca passa de {@code visible[i]} e a
+     * soma de {@code fills} é {@code quantity}.
+     */
+    void allocate(long quantity, long[] visible, int count, long total, long[] fills);
+
+    /**
+     * Verdadeiro se a alocação é sempre a da fila (uma ordem de cada vez,
+     * na ordem de prioridade): o matching então segue ordem a ordem sem
+     * copiar o nível.
+     */
+    default boolean isTimePriority() {
+        return false;
+    }
+
+    /**
+     * Pelo nome usado na configuração: {@code FIFO}, {@code PRO_RATA} ou
+     * {@code FIFO_TOP_PRO_RATA}.
+     */
+    static AllocationPolicy named(String name) {
+        if (name == null)
+            throw new DomainException("allocation policy must not be null");
+        return switch (name) {
+            case "FIFO" -> new FifoAllocationPolicy();
+            case "PRO_RATA" -> new ProRataAllocationPolicy();
+            case "FIFO_TOP_PRO_RATA" -> new TopOrderProRataAllocationPolicy();
+            default -> throw new DomainException("unknown allocation policy: " + name);
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.marcospaulo.orderbook.domain.policy;
+
+/**
+ * Prioridade preço-tempo: a primeira ordem do nível executa tudo o que pode
+ * antes da seguinte.
+ */
+public class FifoAllocationPolicy implements AllocationPolicy {
+
+    @Override
+    public void allocate(long quantity, long[] visible, int count, long total, long[] fills) {
+        long left = quantity;
+        for (int i = 0; i < count; i++) {
+            long fill = Math.min(left, visible[i]);
+            fills[i] = fill;
+            left -= fill;
+        }
+    }
+
+    @Override
+    public boolean isTimePriority() {
+        return true;
+    }
+}
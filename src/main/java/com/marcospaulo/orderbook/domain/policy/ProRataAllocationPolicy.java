@@ -0,0 +1,76 @@
+package com.marcospaulo.orderbook.domain.policy;
+
+/**
+ * Pro-rata: cada ordem do nível executa na proporção da sua parcela visível.
+ *
+ * A ordem {@code i} recebe {@code floor(q * v(i) / total)}; os lotes que o
+ * arredondamento deixa (menos que o número de ordens) vão um a um para as
+ * mais antigas. A soma é exatamente {@code q} e nenhuma ordem passa da sua
+ * parcela visível: com {@code q < total} o piso fica abaixo dela. Ordens
+ * pequenas no fim da fila podem receber 0.
+ */
+public class ProRataAllocationPolicy implements AllocationPolicy {
+
+    @Override
+    public void allocate(long quantity, long[] visible, int count, long total, long[] fills) {
+        allocate(quantity, visible, 0, count, total, fills);
+    }
+
+    /**
+     * Pro-rata de {@code quantity} entre as posições {@code from} até
+     * {@code count - 1}, cujas parcelas somam {@code total}.
+     */
+    static void allocate(long quantity, long[] visible, int from, int count, long total, long[] fills) {
+        long allocated = 0;
+        for (int i = from; i < count; i++) {
+            fills[i] = quantity == total ? visible[i] : mulDiv(quantity, visible[i], total);
+            allocated += fills[i];
+        }
+        long left = quantity - allocated;
+        for (int i = from; left > 0 && i < count; i++) {
+            fills[i]++;
+            left--;
+        }
+    }
+
+    /**
+     * {@code floor(a * b / c)} para {@code 0 <= a, b <= c}: o produto de 128
+     * bits dividido por {@code c} (divisão longa em dígitos de 32 bits), sem
+     * alocar quando ele passa de 64 bits.
+     */
+    static long mulDiv(long a, long b, long c) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if (high == 0 && low >= 0)
+            return low / c;
+
+        final long base = 1L << 32;
+        int shift = Long.numberOfLeadingZeros(c);
+        long v = c << shift;
+        long v1 = v >>> 32;
+        long v0 = v & 0xFFFF_FFFFL;
+        long u32 = shift == 0 ? high : (high << shift) | (low >>> (64 - shift));
+        long u10 = low << shift;
+        long u1 = u10 >>> 32;
+        long u0 = u10 & 0xFFFF_FFFFL;
+
+        long q1 = Long.divideUnsigned(u32, v1);
+        long rhat = u32 - q1 * v1;
+        while (Long.compareUnsigned(q1, base) >= 0 || Long.compareUnsigned(q1 * v0, rhat * base + u1) > 0) {
+            q1--;
+            rhat += v1;
+            if (Long.compareUnsigned(rhat, base) >= 0)
+                break;
+        }
+        long u21 = u32 * base + u1 - q1 * v;
+        long q0 = Long.divideUnsigned(u21, v1);
+        rhat = u21 - q0 * v1;
+        while (Long.compareUnsigned(q0, base) >= 0 || Long.compareUnsigned(q0 * v0, rhat * base + u0) > 0) {
+            q0--;
+            rhat += v1;
+            if (Long.compareUnsigned(rhat, base) >= 0)
+                break;
+        }
+        return q1 * base + q0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.marcospaulo.orderbook.domain.policy;
+
+/**
+ * O que fazer quando a ordem que chega cruza com uma ordem em repouso do
+ * mesmo usuário. Nenhum modo gera trade; a quantidade tirada das ordens deixa
+ * de estar reservada.
+ */
+public enum SelfTradePrevention {
+
+    /**
+     * Sem prevenção: as duas ordens negociam entre si.
+     */
+    NONE,
+
+    /**
+     * Cancela o resto da ordem que chega; a em repouso fica.
+     */
+    CANCEL_NEWEST,
+
+    /**
+     * Cancela a ordem em repouso e segue casando.
+     */
+    CANCEL_OLDEST,
+
+    /**
+     * Cancela as duas.
+     */
+    CANCEL_BOTH,
+
+    /**
+     * Desconta a menor quantidade das duas; a que zera é cancelada, a outra
+     * segue (a em repouso mantém a prioridade).
+     */
+    DECREMENT
+
+}
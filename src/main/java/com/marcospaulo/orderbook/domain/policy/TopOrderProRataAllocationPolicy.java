@@ -0,0 +1,25 @@
+package com.marcospaulo.orderbook.domain.policy;
+
+/**
+ * A primeira ordem do nível executa a sua parcela visível inteira (ou o que
+ * houver) e o resto é dividido pro-rata entre as demais, com o mesmo
+ * arredondamento de {@link ProRataAllocationPolicy}.
+ */
+public class TopOrderProRataAllocationPolicy implements AllocationPolicy {
+
+    @Override
+    public void allocate(long quantity, long[] visible, int count, long total, long[] fills) {
+        if (count == 0)
+            return;
+        long top = Math.min(quantity, visible[0]);
+        fills[0] = top;
+        long rest = quantity - top;
+        if (rest == 0) {
+            for (int i = 1; i < count; i++) {
+                fills[i] = 0;
+            }
+            return;
+        }
+        ProRataAllocationPolicy.allocate(rest, visible, 1, count, total - visible[0], fills);
+    }
+}
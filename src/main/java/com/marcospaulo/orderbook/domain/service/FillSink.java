@@ -0,0 +1,25 @@
+package com.marcospaulo.orderbook.domain.service;
+
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+
+/**
+ * Recebe cada execução do matching no momento em que ela acontece. As duas
+ * ordens já estão com a quantidade executada descontada.
+ */
+@FunctionalInterface
+public interface FillSink {
+
+    void onFill(Order incoming, Order resting, Price price, Quantity quantity);
+
+    /**
+     * A prevenção de auto-negociação tirou {@code quantity} de {@code order}
+     * sem trade: cancelou a ordem (o restante dela) ou a reduziu. A reserva
+     * dessa quantidade deve ser liberada. Uma ordem em repouso cancelada aqui
+     * já saiu do livro.
+     */
+    default void onSelfTradePrevented(Order order, Quantity quantity) {
+    }
+
+}
@@ -1,23 +1,60 @@
 package com.marcospaulo.orderbook.domain.service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import com.marcospaulo.orderbook.domain.model.Order;
 import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderBookSide;
 import com.marcospaulo.orderbook.domain.model.Side;
 import com.marcospaulo.orderbook.domain.model.Trade;
 import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
 import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+import com.marcospaulo.orderbook.domain.policy.AllocationPolicy;
+import com.marcospaulo.orderbook.domain.policy.FifoAllocationPolicy;
 import com.marcospaulo.orderbook.domain.policy.RestingSide;
+import com.marcospaulo.orderbook.domain.policy.SelfTradePrevention;
 import com.marcospaulo.orderbook.domain.policy.TradePricingPolicy;
 
+/**
+ * Com uma {@link AllocationPolicy} que não é FIFO o engine guarda buffers do
+ * nível sendo alocado: uma instância por thread (o writer).
+ */
 public final class OrderMatchingEngine {
 
     private final TradePricingPolicy pricingPolicy;
+    private final SelfTradePrevention selfTrade;
+    private final AllocationPolicy allocation;
+
+    // cópia do melhor nível para a alocação; reaproveitada, cresce sob demanda
+    private Order[] levelOrders = new Order[0];
+    private long[] levelVisible = new long[0];
+    private long[] levelFills = new long[0];
 
     public OrderMatchingEngine(TradePricingPolicy pricingPolicy) {
+        this(pricingPolicy, SelfTradePrevention.NONE);
+    }
+
+    public OrderMatchingEngine(TradePricingPolicy pricingPolicy, SelfTradePrevention selfTrade) {
+        this(pricingPolicy, selfTrade, new FifoAllocationPolicy());
+    }
+
+    public OrderMatchingEngine(TradePricingPolicy pricingPolicy, SelfTradePrevention selfTrade,
+            AllocationPolicy allocation) {
         this.pricingPolicy = requireNonNull(pricingPolicy, "pricingPolicy");
+        this.selfTrade = requireNonNull(selfTrade, "selfTrade");
+        this.allocation = requireNonNull(allocation, "allocation");
+    }
+
+    public SelfTradePrevention selfTradePrevention() {
+        return selfTrade;
+    }
+
+    public AllocationPolicy allocationPolicy() {
+        return allocation;
     }
 
     /**
@@ -26,68 +63,240 @@ public final class OrderMatchingEngine {
      * camada application.
      */
     public List<Trade> matchIncoming(Order incoming, OrderBook book) {
+        List<Trade> trades = new ArrayList<>();
+        match(incoming, book, (taker, maker, price, qty) -> trades.add(taker.side() == Side.BUY
+                ? Trade.create(taker.id(), maker.id(), taker.userId(), maker.userId(), price, qty)
+                : Trade.create(maker.id(), taker.id(), maker.userId(), taker.userId(), price, qty)));
+        return trades;
+    }
+
+    /**
+     * Mesmo matching, entregando cada execução ao {@code sink} em vez de
+     * montar uma lista. A ordem em repouso é executada no lugar: só sai do
+     * livro quando zera, então um fill parcial não mexe na fila do nível.
+     * Uma ordem que não cruza não aloca nada aqui.
+     *
+     * Uma iceberg em repouso executa só a parcela visível; quando ela zera,
+     * a próxima parcela vai para o fim do nível e o loop segue com a ordem
+     * que ficou na frente.
+     *
+     * A prevenção de auto-negociação é checada a cada ordem em repouso
+     * visitada (uma comparação de usuário), sem varrer o livro antes. O que
+     * ela cancela ou desconta vai para {@link FillSink#onSelfTradePrevented};
+     * se cancelar a ordem que chega, o loop para com ela cancelada.
+     *
+     * Com alocação FIFO o loop anda ordem a ordem. Com as outras, cada volta
+     * aloca o melhor nível inteiro de uma vez (ver {@link #matchLevel}).
+     *
+     * @return quantidade de execuções
+     */
+    public int match(Order incoming, OrderBook book, FillSink sink) {
         if (incoming == null)
             throw new DomainException("incoming order must not be null");
         if (book == null)
             throw new DomainException("orderBook must not be null");
+        if (sink == null)
+            throw new DomainException("sink must not be null");
 
-        List<Trade> trades = new ArrayList<>();
+        boolean buy = incoming.side() == Side.BUY;
+        // BUY cruza contra asks enquanto bestAsk <= incoming.price;
+        // SELL cruza contra bids enquanto bestBid >= incoming.price
+        OrderBookSide opposite = buy ? book.asks() : book.bids();
+        RestingSide restingSide = buy ? RestingSide.SELL : RestingSide.BUY;
 
-        if (incoming.side() == Side.BUY) {
-            // cruza contra asks enquanto bestAsk <= incoming.price
-            while (!incoming.isFilled()) {
-                Order bestAsk = book.bestAsk().orElse(null);
-                if (bestAsk == null)
-                    break;
-                if (bestAsk.price().compareTo(incoming.price()) > 0)
-                    break;
+        boolean preventSelfTrade = selfTrade != SelfTradePrevention.NONE;
+        boolean timePriority = allocation.isTimePriority();
+        UserId taker = incoming.userId();
+        long limit = incoming.priceTicks();
 
-                bestAsk = book.asks().pollBestOrder().orElseThrow();
+        int fills = 0;
+        while (!incoming.isFilled()) {
+            Order resting = opposite.peekBestOrderOrNull();
+            if (resting == null)
+                break;
+            long ticks = resting.priceTicks();
+            if (buy ? ticks > limit : ticks < limit)
+                break;
 
-                long executed = Math.min(incoming.remainingQty().value(), bestAsk.remainingQty().value());
-                Quantity executedQty = Quantity.ofPositive(executed);
+            if (!timePriority) {
+                fills += matchLevel(incoming, opposite, restingSide, sink);
+                if (incoming.isCancelled())
+                    break;
+                continue;
+            }
 
-                var tradePrice = pricingPolicy.determinePrice(incoming, bestAsk, RestingSide.SELL);
+            if (preventSelfTrade && resting.userId().equals(taker)) {
+                if (!preventSelfTrade(incoming, resting, opposite, sink))
+                    break;
+                continue;
+            }
 
-                incoming.fill(executedQty);
-                bestAsk.fill(executedQty);
+            long executed = Math.min(incoming.remaining(), resting.visible());
+            Quantity executedQty = Quantity.ofPositive(executed);
 
-                trades.add(Trade.create(incoming.id(), bestAsk.id(), tradePrice, executedQty));
+            Price tradePrice = tradePrice(incoming, resting, restingSide);
 
-                if (!bestAsk.isFilled()) {
-                    book.asks().putBackAtFront(bestAsk);
-                }
+            incoming.fill(executedQty);
+            resting.fill(executedQty);
+            if (resting.isFilled()) {
+                opposite.pollBestOrder();
+            } else if (resting.visible() == 0) {
+                opposite.replenish(resting);
             }
 
-            return trades;
+            fills++;
+            sink.onFill(incoming, resting, tradePrice, executedQty);
         }
+        return fills;
+    }
 
-        // SELL: cruza contra bids enquanto bestBid >= incoming.price
-        while (!incoming.isFilled()) {
-            Order bestBid = book.bestBid().orElse(null);
-            if (bestBid == null)
-                break;
-            if (bestBid.price().compareTo(incoming.price()) < 0)
-                break;
+    /**
+     * Aloca {@code min(restante, visível do nível)} entre as ordens do melhor
+     * nível pela {@link AllocationPolicy}, usando o total visível que o nível
+     * mantém: uma cópia do nível, uma passada da política e uma passada de
+     * fills, O(ordens no nível). Ordens do próprio usuário no nível passam
+     * antes pela prevenção de auto-negociação; se alguma passou, o nível
+     * mudou e a alocação fica para a próxima volta do loop.
+     */
+    private int matchLevel(Order incoming, OrderBookSide opposite, RestingSide restingSide, FillSink sink) {
+        int n = opposite.bestLevelSize();
+        if (levelOrders.length < n) {
+            int capacity = Integer.highestOneBit(n - 1) << 1;
+            levelOrders = new Order[capacity];
+            levelVisible = new long[capacity];
+            levelFills = new long[capacity];
+        }
+        opposite.copyBestLevel(levelOrders, levelVisible);
 
-            bestBid = book.bids().pollBestOrder().orElseThrow();
+        int fills = 0;
+        try {
+            if (selfTrade != SelfTradePrevention.NONE) {
+                UserId taker = incoming.userId();
+                boolean prevented = false;
+                for (int i = 0; i < n; i++) {
+                    Order resting = levelOrders[i];
+                    if (resting.userId().equals(taker)) {
+                        prevented = true;
+                        if (!preventSelfTrade(incoming, resting, opposite, sink))
+                            return 0;
+                    }
+                }
+                if (prevented)
+                    return 0;
+            }
 
-            long executed = Math.min(incoming.remainingQty().value(), bestBid.remainingQty().value());
-            Quantity executedQty = Quantity.ofPositive(executed);
+            long total = opposite.bestLevelDisplayedQuantity();
+            long quantity = Math.min(incoming.remaining(), total);
+            allocation.allocate(quantity, levelVisible, n, total, levelFills);
 
-            var tradePrice = pricingPolicy.determinePrice(bestBid, incoming, RestingSide.BUY);
+            for (int i = 0; i < n; i++) {
+                long fill = levelFills[i];
+                if (fill == 0)
+                    continue;
+                Order resting = levelOrders[i];
+                Quantity executedQty = Quantity.ofPositive(fill);
+                Price tradePrice = tradePrice(incoming, resting, restingSide);
 
-            incoming.fill(executedQty);
-            bestBid.fill(executedQty);
+                incoming.fill(executedQty);
+                resting.fill(executedQty);
+                if (resting.isFilled()) {
+                    opposite.remove(resting.id());
+                } else if (resting.visible() == 0) {
+                    opposite.replenish(resting);
+                }
 
-            trades.add(Trade.create(bestBid.id(), incoming.id(), tradePrice, executedQty));
+                fills++;
+                sink.onFill(incoming, resting, tradePrice, executedQty);
+            }
+            return fills;
+        } finally {
+            // não segura ordens que saíram do livro
+            Arrays.fill(levelOrders, 0, n, null);
+        }
+    }
+
+    private Price tradePrice(Order incoming, Order resting, RestingSide restingSide) {
+        return incoming.side() == Side.BUY
+                ? pricingPolicy.determinePrice(incoming, resting, restingSide)
+                : pricingPolicy.determinePrice(resting, incoming, restingSide);
+    }
 
-            if (!bestBid.isFilled()) {
-                book.bids().putBackAtFront(bestBid);
+    /**
+     * Aplica o modo de prevenção ao par do mesmo usuário. Devolve se o
+     * matching da ordem que chega continua.
+     */
+    private boolean preventSelfTrade(Order incoming, Order resting, OrderBookSide opposite, FillSink sink) {
+        switch (selfTrade) {
+            case CANCEL_NEWEST -> {
+                cancel(incoming, sink);
+                return false;
+            }
+            case CANCEL_OLDEST -> {
+                cancelResting(resting, opposite, sink);
+                return true;
             }
+            case CANCEL_BOTH -> {
+                cancelResting(resting, opposite, sink);
+                cancel(incoming, sink);
+                return false;
+            }
+            case DECREMENT -> {
+                long overlap = Math.min(incoming.remaining(), resting.remaining());
+                Quantity overlapQty = Quantity.ofPositive(overlap);
+                if (resting.remaining() == overlap) {
+                    cancelResting(resting, opposite, sink);
+                } else {
+                    resting.reduce(overlapQty);
+                    sink.onSelfTradePrevented(resting, overlapQty);
+                }
+                if (incoming.remaining() == overlap) {
+                    cancel(incoming, sink);
+                    return false;
+                }
+                incoming.reduce(overlapQty);
+                sink.onSelfTradePrevented(incoming, overlapQty);
+                return true;
+            }
+            default -> throw new DomainException("unexpected self-trade prevention " + selfTrade);
         }
+    }
 
-        return trades;
+    private static void cancelResting(Order resting, OrderBookSide opposite, FillSink sink) {
+        opposite.remove(resting.id());
+        cancel(resting, sink);
+    }
+
+    private static void cancel(Order order, FillSink sink) {
+        order.cancel();
+        sink.onSelfTradePrevented(order, order.remainingQty());
+    }
+
+    /**
+     * Fill-or-kill: {@code quantity} a {@code limit} ou melhor cabe inteira
+     * no lado oposto? Decide pelos totais dos níveis que cruzam, sem executar
+     * nem desfazer nada no livro. Com prevenção de auto-negociação as ordens
+     * do {@code taker} não contam: {@link SelfTradePrevention#CANCEL_OLDEST}
+     * só as tira do caminho; os outros modos cancelam ou descontam a ordem
+     * que chega, então só vale o que está antes da primeira delas.
+     */
+    public boolean canFillCompletely(Side side, Price limit, Quantity quantity, UserId taker, OrderBook book) {
+        OrderBookSide opposite = side == Side.BUY ? book.asks() : book.bids();
+        long wanted = quantity.value();
+        if (selfTrade == SelfTradePrevention.NONE)
+            return opposite.availableQuantity(limit, wanted) >= wanted;
+        return opposite.availableQuantity(limit, wanted, taker, selfTrade == SelfTradePrevention.CANCEL_OLDEST,
+                !allocation.isTimePriority()) >= wanted;
+    }
+
+    /**
+     * Preço de proteção de uma ordem a mercado: o pior nível do lado oposto
+     * que {@code quantity} alcançaria. Casando com esse limite, a ordem não
+     * executa além do que o livro mostra agora, e uma compra reserva no
+     * máximo esse preço por unidade. {@code null} se o lado oposto está vazio.
+     */
+    public Price marketPriceOrNull(Side side, Quantity quantity, OrderBook book) {
+        OrderBookSide opposite = side == Side.BUY ? book.asks() : book.bids();
+        return opposite.sweepPriceOrNull(quantity.value());
     }
 
     private static <T> T requireNonNull(T v, String field) {
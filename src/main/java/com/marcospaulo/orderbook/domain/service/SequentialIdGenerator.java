@@ -0,0 +1,78 @@
+package com.marcospaulo.orderbook.domain.service;
+
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.TradeId;
+
+/**
+ * Ids de ordem e de trade atribuídos pelo writer, em 64 bits:
+ * {@code [0][shard: 15][sequência: 48]}, com uma sequência para ordens e outra
+ * para trades, começando em 1. Não passa por {@code SecureRandom} nem por
+ * CAS, e as chaves cabem num {@code long}.
+ *
+ * Determinístico: mesmo shard, mesmas sequências de partida e mesmos comandos
+ * geram os mesmos ids, que é o que o replay do journal e o
+ * {@code CommandReplay} precisam. As sequências vão no snapshot
+ * ({@link #restore}). O shard separa engines diferentes (um por instrumento).
+ *
+ * Usado só pela thread do writer.
+ */
+public final class SequentialIdGenerator {
+
+    public static final int SEQUENCE_BITS = 48;
+    public static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    /**
+     * O último shard fica para os ids avulsos ({@link OrderId#newId()}).
+     */
+    public static final int MAX_SHARD = (1 << 15) - 2;
+
+    private final int shard;
+    private final long base;
+    private long orders;
+    private long trades;
+
+    public SequentialIdGenerator(int shard) {
+        if (shard < 0 || shard > MAX_SHARD)
+            throw new IllegalArgumentException("shard must be in [0, " + MAX_SHARD + "]");
+        this.shard = shard;
+        this.base = (long) shard << SEQUENCE_BITS;
+    }
+
+    public OrderId nextOrderId() {
+        return OrderId.of(base | next(++orders));
+    }
+
+    public TradeId nextTradeId() {
+        return TradeId.of(base | next(++trades));
+    }
+
+    public int shard() {
+        return shard;
+    }
+
+    /**
+     * Última sequência de ordem emitida (0 se nenhuma).
+     */
+    public long orderSequence() {
+        return orders;
+    }
+
+    public long tradeSequence() {
+        return trades;
+    }
+
+    /**
+     * Continua a partir das sequências de um snapshot ou de uma gravação.
+     */
+    public void restore(long orderSequence, long tradeSequence) {
+        if (orderSequence < 0 || orderSequence > MAX_SEQUENCE || tradeSequence < 0 || tradeSequence > MAX_SEQUENCE)
+            throw new IllegalArgumentException("sequence out of range");
+        this.orders = orderSequence;
+        this.trades = tradeSequence;
+    }
+
+    private static long next(long sequence) {
+        if (sequence > MAX_SEQUENCE)
+            throw new IllegalStateException("id sequence exhausted");
+        return sequence;
+    }
+}
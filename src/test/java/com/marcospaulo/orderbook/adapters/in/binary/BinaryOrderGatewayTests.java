@@ -0,0 +1,158 @@
+package com.marcospaulo.orderbook.adapters.in.binary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.application.service.AdmissionControl;
+import com.marcospaulo.orderbook.application.service.EngineOptions;
+import com.marcospaulo.orderbook.application.service.InstrumentRouter;
+import com.marcospaulo.orderbook.application.service.OrderBookCommandEngine;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class BinaryOrderGatewayTests {
+
+    private final UUID seller = UUID.randomUUID();
+    private final UUID buyer = UUID.randomUUID();
+
+    private InstrumentRouter router;
+    private BinaryOrderGateway gateway;
+    private BinaryOrderClient client;
+
+    @BeforeEach
+    void start() {
+        InMemoryWalletRepository wallets = new InMemoryWalletRepository();
+        wallets.save(Wallet.create(UserId.of(seller), BigDecimal.ZERO, new BigDecimal("100")));
+        wallets.save(Wallet.create(UserId.of(buyer), new BigDecimal("10000.00"), BigDecimal.ZERO));
+        CommandContext ctx = new CommandContext(new InMemoryOrderBookRepository(), wallets,
+                new InMemoryTradeRepository(), new InMemoryOrderRepository());
+        ExecutionReports reports = new ExecutionReports();
+        router = new InstrumentRouter(
+                List.of(new OrderBookCommandEngine(ctx, EngineOptions.of(100).withExecutions(reports))));
+        gateway = BinaryOrderGateway.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), router,
+                new AdmissionControl(100, 10), reports);
+        client = connect();
+    }
+
+    @AfterEach
+    void stop() {
+        client.close();
+        gateway.close();
+        router.close();
+    }
+
+    @Test
+    void crossingOrderIsAckedWithOneFillPerTradeAndRestingOrderCanBeCancelled() {
+        Recorder r = new Recorder();
+
+        client.sendNewOrder(1, seller, 0, Side.SELL.ordinal(), 1000, 3);
+        r.await(client, 1);
+        client.sendNewOrder(2, seller, 0, Side.SELL.ordinal(), 1000, 4);
+        r.await(client, 2);
+        client.sendNewOrder(3, buyer, 0, Side.BUY.ordinal(), 1000, 5);
+        r.await(client, 7);
+
+        // mesma sessão dos dois lados: cada trade gera o FILL do taker e o do maker
+        assertEquals("ack 1 trades=0", r.events.get(0));
+        assertEquals("ack 2 trades=0", r.events.get(1));
+        assertEquals("ack 3 trades=2", r.events.get(2));
+        assertEquals("fill 3 1000x3", r.events.get(3));
+        assertEquals("fill 1 1000x3", r.events.get(4));
+        assertEquals("fill 3 1000x2", r.events.get(5));
+        assertEquals("fill 2 1000x2", r.events.get(6));
+
+        // sobra 2 da segunda venda
+        client.sendCancel(4, seller, 0, r.lastOrderMsb[1], r.lastOrderLsb[1]);
+        r.await(client, 8);
+        assertEquals("cancelled 4 qty=2", r.events.get(7));
+    }
+
+    @Test
+    void makerOnAnotherSessionReceivesItsFills() {
+        Recorder maker = new Recorder();
+        Recorder taker = new Recorder();
+
+        try (BinaryOrderClient other = connect()) {
+            client.sendNewOrder(1, seller, 0, Side.SELL.ordinal(), 1000, 3);
+            maker.await(client, 1);
+            other.sendNewOrder(7, buyer, 0, Side.BUY.ordinal(), 1000, 2);
+            taker.await(other, 2);
+            other.sendNewOrder(8, buyer, 0, Side.BUY.ordinal(), 1000, 1);
+            taker.await(other, 4);
+            maker.await(client, 3);
+
+            assertEquals(List.of("ack 7 trades=1", "fill 7 1000x2", "ack 8 trades=1", "fill 8 1000x1"),
+                    taker.events);
+            assertEquals(List.of("ack 1 trades=0", "fill 1 1000x2", "fill 1 1000x1"), maker.events);
+        }
+    }
+
+    @Test
+    void rejectsCarryTheReason() {
+        Recorder r = new Recorder();
+
+        client.sendNewOrder(1, UUID.randomUUID(), 0, Side.BUY.ordinal(), 1000, 1); // sem carteira
+        client.sendNewOrder(2, buyer, 7, Side.BUY.ordinal(), 1000, 1); // instrumento inexistente
+        client.sendCancel(3, buyer, 0, 1, 1);
+        r.await(client, 3);
+
+        assertTrue(r.events.contains("reject 1 reason=" + BinaryProtocol.REASON_REJECTED));
+        assertTrue(r.events.contains("reject 2 reason=" + BinaryProtocol.REASON_INVALID));
+        assertTrue(r.events.contains("reject 3 reason=" + BinaryProtocol.REASON_REJECTED));
+        assertEquals(1, gateway.sessionCount());
+    }
+
+    private BinaryOrderClient connect() {
+        return BinaryOrderClient.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), gateway.port()));
+    }
+
+    private static final class Recorder implements BinaryOrderClient.Listener {
+        final List<String> events = new ArrayList<>();
+        final long[] lastOrderMsb = new long[8];
+        final long[] lastOrderLsb = new long[8];
+
+        void await(BinaryOrderClient client, int count) {
+            while (events.size() < count)
+                client.poll(this);
+        }
+
+        @Override
+        public void onAck(long clOrdId, long orderMsb, long orderLsb, int trades) {
+            events.add("ack " + clOrdId + " trades=" + trades);
+            lastOrderMsb[(int) clOrdId - 1] = orderMsb;
+            lastOrderLsb[(int) clOrdId - 1] = orderLsb;
+        }
+
+        @Override
+        public void onFill(long clOrdId, long tradeMsb, long tradeLsb, long priceTicks, long quantity) {
+            events.add("fill " + clOrdId + " " + priceTicks + "x" + quantity);
+        }
+
+        @Override
+        public void onCancelled(long clOrdId, long orderMsb, long orderLsb, long cancelledQty) {
+            events.add("cancelled " + clOrdId + " qty=" + cancelledQty);
+        }
+
+        @Override
+        public void onReject(long clOrdId, byte reason) {
+            events.add("reject " + clOrdId + " reason=" + reason);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.marcospaulo.orderbook.adapters.in.web;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.marcospaulo.orderbook.application.command.PlaceOrderResult;
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.application.exception.BackpressureException;
+import com.marcospaulo.orderbook.application.service.AdmissionControl;
+import com.marcospaulo.orderbook.application.service.InstrumentRouter;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+
+/**
+ * Mapeamento HTTP do {@link OrdersController} e do
+ * {@link EngineExceptionHandler}, com o router no lugar dos engines.
+ */
+@WebMvcTest(OrdersController.class)
+public class OrdersControllerTests {
+
+    private static final String SYMBOL = Instrument.DEFAULT.symbol();
+
+    @TestConfiguration
+    static class Admission {
+        @Bean
+        AdmissionControl admissionControl() {
+            return new AdmissionControl(16, 4);
+        }
+    }
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private InstrumentRouter router;
+
+    private final String userId = UUID.randomUUID().toString();
+
+    @BeforeEach
+    void instruments() {
+        when(router.defaultInstrument()).thenReturn(Instrument.DEFAULT);
+        when(router.instrument(SYMBOL)).thenReturn(Optional.of(Instrument.DEFAULT));
+        when(router.instrument("NOPE")).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void placedOrderAnswersCreatedWithTheResult() throws Exception {
+        doReturn(CompletableFuture.completedFuture(new PlaceOrderResult("order-1", 2, 0)))
+                .when(router).submit(eq(SYMBOL), any());
+
+        mvc.perform(asyncDispatch(place(order("BUY", "10.00", 5))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.orderId").value("order-1"))
+                .andExpect(jsonPath("$.tradesExecuted").value(2));
+    }
+
+    @Test
+    void backpressureAnswersTooManyRequestsWithRetryAfter() throws Exception {
+        doReturn(CompletableFuture.failedFuture(new BackpressureException("engine capacity exceeded")))
+                .when(router).submit(eq(SYMBOL), any());
+
+        mvc.perform(asyncDispatch(place(order("BUY", "10.00", 5))))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", EngineExceptionHandler.RETRY_AFTER_SECONDS))
+                .andExpect(jsonPath("$.error").value("backpressure"));
+    }
+
+    @Test
+    void engineFailureAnswersServiceUnavailable() throws Exception {
+        doReturn(CompletableFuture.failedFuture(new ApplicationException("journal write failed")))
+                .when(router).submit(eq(SYMBOL), any());
+
+        mvc.perform(asyncDispatch(place(order("BUY", "10.00", 5))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("unavailable"));
+    }
+
+    @Test
+    void rejectionByTheWriterAnswersUnprocessable() throws Exception {
+        doReturn(CompletableFuture.failedFuture(
+                new ApplicationException("command failed", new DomainException("insufficient CASH balance"))))
+                .when(router).submit(eq(SYMBOL), any());
+
+        mvc.perform(asyncDispatch(place(order("BUY", "10.00", 5))))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("insufficient CASH balance"));
+    }
+
+    @Test
+    void invalidBodyAnswersBadRequestWithoutReachingTheEngine() throws Exception {
+        mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":\"\",\"side\":\"BUY\",\"price\":10.00,\"quantity\":0}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("invalid"))
+                // a mensagem do validador depende do locale; os campos, não
+                .andExpect(jsonPath("$.message").value(allOf(containsString("quantity"), containsString("userId"))));
+
+        verify(router, never()).submit(any(), any());
+    }
+
+    @Test
+    void unknownSymbolAnswersNotFound() throws Exception {
+        String body = "{\"userId\":\"" + userId + "\",\"symbol\":\"NOPE\",\"side\":\"BUY\",\"price\":10.00,"
+                + "\"quantity\":5}";
+
+        mvc.perform(asyncDispatch(place(body)))
+                .andExpect(status().isNotFound());
+
+        verify(router, never()).submit(any(), any());
+    }
+
+    private MvcResult place(String body) throws Exception {
+        return mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private String order(String side, String price, long quantity) {
+        return "{\"userId\":\"" + userId + "\",\"side\":\"" + side + "\",\"price\":" + price + ",\"quantity\":"
+                + quantity + "}";
+    }
+}
@@ -0,0 +1,346 @@
+package com.marcospaulo.orderbook.adapters.out.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.CompleteTransferCommand;
+import com.marcospaulo.orderbook.application.command.DepositCommand;
+import com.marcospaulo.orderbook.application.command.ForgetTransferCommand;
+import com.marcospaulo.orderbook.application.command.FundWalletCommand;
+import com.marcospaulo.orderbook.application.command.JournaledCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.ReduceOrderCommand;
+import com.marcospaulo.orderbook.application.command.TransferInCommand;
+import com.marcospaulo.orderbook.application.command.TransferOutCommand;
+import com.marcospaulo.orderbook.application.command.WithdrawCommand;
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class MappedFileCommandJournalTests {
+
+    @TempDir
+    Path dir;
+
+    private static final Instant EXECUTED = Instant.parse("2024-05-01T10:15:31.000000042Z");
+
+    // magic + versão no início de cada segmento
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    // tamanho, seq, instante, tipo, usuário, id da ordem, crc
+    private static final int CANCEL_RECORD_BYTES = 4 + 8 + 12 + 1 + 16 + 8 + 4;
+
+    private final UserId user = UserId.of(UUID.randomUUID());
+
+    @Test
+    void roundTripsEveryCommandType() {
+        OrderId orderId = OrderId.newId();
+        Instant at = Instant.parse("2024-05-01T10:15:30.123456789Z");
+
+        try (var journal = new MappedFileCommandJournal(dir)) {
+            assertEquals(1, journal.append(new FundWalletCommand(user, new BigDecimal("100.5"), new BigDecimal("3")), EXECUTED));
+            assertEquals(2, journal.append(new PlaceOrderCommand(
+                    orderId, at, user, Side.SELL, Price.of("12.34"), Quantity.ofPositive(7)), EXECUTED));
+            assertEquals(3, journal.append(new ReduceOrderCommand(user, orderId, Quantity.ofPositive(2)), EXECUTED));
+            assertEquals(4, journal.append(new CancelOrderCommand(user, orderId), EXECUTED));
+        }
+
+        List<JournaledCommand<?>> replayed = replayAll(dir, 0);
+        assertEquals(4, replayed.size());
+
+        var fund = (FundWalletCommand) replayed.get(0);
+        assertEquals(user, fund.userId());
+        assertEquals(new BigDecimal("100.50"), fund.cash());
+        assertEquals(new BigDecimal("3.00"), fund.vibranium());
+
+        var place = (PlaceOrderCommand) replayed.get(1);
+        assertEquals(orderId, place.orderId());
+        assertEquals(at, place.submittedAt());
+        assertEquals(user, place.userId());
+        assertEquals(Side.SELL, place.side());
+        assertEquals(Price.of("12.34"), place.price());
+        assertEquals(7, place.quantity().value());
+
+        var reduce = (ReduceOrderCommand) replayed.get(2);
+        assertEquals(orderId, reduce.orderId());
+        assertEquals(2, reduce.reduceBy().value());
+
+        var cancel = (CancelOrderCommand) replayed.get(3);
+        assertEquals(orderId, cancel.orderId());
+        assertEquals(user, cancel.userId());
+    }
+
+    @Test
+    void roundTripsDepositAndWithdrawWithAnyAsset() {
+        Asset gold = Asset.of("GOLD", 3);
+        try (var journal = new MappedFileCommandJournal(dir)) {
+            journal.append(new DepositCommand(user, gold, new BigDecimal("1.2345")), EXECUTED);
+            journal.append(new WithdrawCommand(user, Asset.CASH, new BigDecimal("10")), EXECUTED);
+        }
+
+        List<JournaledCommand<?>> replayed = replayAll(dir, 0);
+        var deposit = (DepositCommand) replayed.get(0);
+        assertEquals(gold, deposit.asset());
+        assertEquals(3, deposit.asset().scale());
+        assertEquals(new BigDecimal("1.235"), deposit.amount());
+        var withdraw = (WithdrawCommand) replayed.get(1);
+        assertEquals(Asset.CASH, withdraw.asset());
+        assertEquals(new BigDecimal("10.00"), withdraw.amount());
+        assertEquals(user, withdraw.userId());
+    }
+
+    @Test
+    void roundTripsTheTransferLegs() {
+        Asset gold = Asset.of("GOLD", 3);
+        UUID id = UUID.randomUUID();
+        try (var journal = new MappedFileCommandJournal(dir)) {
+            journal.append(new TransferOutCommand(id, user, gold, new BigDecimal("1.5"), "GOLD-CASH"), EXECUTED);
+            journal.append(new TransferInCommand(id, user, gold, new BigDecimal("1.5")), EXECUTED);
+            journal.append(new CompleteTransferCommand(id, true), EXECUTED);
+            journal.append(new ForgetTransferCommand(id), EXECUTED);
+        }
+
+        List<JournaledCommand<?>> replayed = replayAll(dir, 0);
+        var out = (TransferOutCommand) replayed.get(0);
+        assertEquals(id, out.transferId());
+        assertEquals(user, out.userId());
+        assertEquals(gold, out.asset());
+        assertEquals(new BigDecimal("1.500"), out.amount());
+        assertEquals("GOLD-CASH", out.toSymbol());
+        var in = (TransferInCommand) replayed.get(1);
+        assertEquals(id, in.transferId());
+        assertEquals(new BigDecimal("1.500"), in.amount());
+        var complete = (CompleteTransferCommand) replayed.get(2);
+        assertEquals(id, complete.transferId());
+        assertTrue(complete.refund());
+        assertEquals(id, ((ForgetTransferCommand) replayed.get(3)).transferId());
+    }
+
+    @Test
+    void largestCommandFitsTheEncodedBound() {
+        Asset longest = Asset.of("A".repeat(Asset.MAX_CODE_LENGTH), 2);
+        String symbol = "S".repeat(Instrument.MAX_SYMBOL_LENGTH);
+        var command = new TransferOutCommand(UUID.randomUUID(), user, longest, new BigDecimal("1.50"), symbol);
+        ByteBuffer buf = ByteBuffer.allocate(CommandCodec.MAX_ENCODED_BYTES);
+
+        CommandCodec.encode(command, buf);
+
+        assertEquals(1 + 16 + 16 + (1 + 16 + 1) + 8 + (1 + 16), buf.position());
+        assertEquals(CommandCodec.MAX_ENCODED_BYTES, buf.position());
+        var decoded = (TransferOutCommand) CommandCodec.decode(buf.flip(), buf.limit());
+        assertEquals(longest, decoded.asset());
+        assertEquals(symbol, decoded.toSymbol());
+    }
+
+    @Test
+    void largestCommandIsJournaledAcrossSegmentRolls() {
+        Asset longest = Asset.of("A".repeat(Asset.MAX_CODE_LENGTH), 2);
+        String symbol = "S".repeat(Instrument.MAX_SYMBOL_LENGTH);
+        ByteBuffer body = ByteBuffer.allocate(256);
+        CommandCodec.encode(new TransferOutCommand(UUID.randomUUID(), user, longest, BigDecimal.ONE, symbol), body);
+        // tamanho, seq, instante, corpo, crc
+        int record = 4 + 8 + 12 + body.position() + 4;
+        // depois de 8 registros sobram record - 3 bytes: o segmento precisa rolar antes do nono
+        int segmentBytes = SEGMENT_HEADER_BYTES + 9 * record - 3;
+        try (var journal = new MappedFileCommandJournal(dir, segmentBytes, 8, 1_000)) {
+            for (int i = 0; i < 40; i++) {
+                journal.append(new TransferOutCommand(UUID.randomUUID(), user, longest, BigDecimal.ONE, symbol),
+                        EXECUTED);
+            }
+        }
+        assertEquals(40, replayAll(dir, 0).size());
+    }
+
+    @Test
+    void decodeRejectsABodyOfAnotherLength() {
+        ByteBuffer buf = ByteBuffer.allocate(CommandCodec.MAX_ENCODED_BYTES + 8);
+        CommandCodec.encode(new CancelOrderCommand(user, OrderId.newId()), buf);
+        int length = buf.position();
+
+        assertEquals(1 + 16 + 8, length);
+        assertThrows(ApplicationException.class, () -> CommandCodec.decode(buf.duplicate().position(0), length + 8));
+        assertThrows(ApplicationException.class, () -> CommandCodec.decode(buf.duplicate().position(0), length - 1));
+        ByteBuffer exact = buf.duplicate().position(0);
+        assertTrue(CommandCodec.decode(exact, length) instanceof CancelOrderCommand);
+        assertEquals(length, exact.position());
+    }
+
+    @Test
+    void replaySkipsSequencesUpToTheGivenOne() {
+        try (var journal = new MappedFileCommandJournal(dir)) {
+            for (int i = 0; i < 5; i++) {
+                journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED);
+            }
+        }
+        assertEquals(2, replayAll(dir, 3).size());
+    }
+
+    @Test
+    void reopenContinuesAfterLastSequence() {
+        try (var journal = new MappedFileCommandJournal(dir)) {
+            journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED);
+            journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED);
+        }
+        try (var journal = new MappedFileCommandJournal(dir)) {
+            assertEquals(2, journal.lastSequence());
+            assertEquals(3, journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED));
+        }
+        assertEquals(3, replayAll(dir, 0).size());
+    }
+
+    @Test
+    void tornTailIsDiscardedAndOverwritten() throws IOException {
+        try (var journal = new MappedFileCommandJournal(dir)) {
+            journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED);
+            journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED);
+        }
+
+        // corrompe o último byte do payload do segundo registro
+        flipByte(onlySegment(), SEGMENT_HEADER_BYTES + 2L * CANCEL_RECORD_BYTES - 5);
+
+        try (var journal = new MappedFileCommandJournal(dir)) {
+            assertEquals(1, journal.lastSequence());
+            assertEquals(2, journal.append(new ReduceOrderCommand(user, OrderId.newId(), Quantity.ofPositive(1)), EXECUTED));
+        }
+
+        List<JournaledCommand<?>> replayed = replayAll(dir, 0);
+        assertEquals(2, replayed.size());
+        assertTrue(replayed.get(1) instanceof ReduceOrderCommand);
+    }
+
+    @Test
+    void corruptRecordFollowedByValidOnesFailsTheOpen() throws IOException {
+        try (var journal = new MappedFileCommandJournal(dir)) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED);
+            }
+        }
+
+        // o registro do meio, não o último
+        flipByte(onlySegment(), SEGMENT_HEADER_BYTES + 2L * CANCEL_RECORD_BYTES - 5);
+
+        assertThrows(ApplicationException.class, () -> new MappedFileCommandJournal(dir));
+    }
+
+    @Test
+    void corruptRecordInAnEarlierSegmentFailsTheOpen() throws IOException {
+        try (var journal = new MappedFileCommandJournal(dir, 1024, 8, 1_000)) {
+            for (int i = 0; i < 100; i++) {
+                journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED);
+            }
+        }
+
+        Path first;
+        try (Stream<Path> files = Files.list(dir)) {
+            first = files.sorted().findFirst().orElseThrow();
+        }
+        // o último registro do segmento: não é o fim do log, porque há segmentos depois
+        long records = 0;
+        try (var file = new RandomAccessFile(first.toFile(), "r")) {
+            while (true) {
+                file.seek(SEGMENT_HEADER_BYTES + records * CANCEL_RECORD_BYTES);
+                if (file.readInt() == 0)
+                    break;
+                records++;
+            }
+        }
+        flipByte(first, SEGMENT_HEADER_BYTES + records * CANCEL_RECORD_BYTES - 5);
+
+        assertThrows(ApplicationException.class, () -> new MappedFileCommandJournal(dir, 1024, 8, 1_000));
+    }
+
+    @Test
+    void refusesSegmentsOfAnotherVersion() throws IOException {
+        try (var journal = new MappedFileCommandJournal(dir)) {
+            journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED);
+        }
+        try (var file = new RandomAccessFile(onlySegment().toFile(), "rw")) {
+            file.seek(4);
+            file.writeInt(99);
+        }
+
+        ApplicationException e = assertThrows(ApplicationException.class, () -> new MappedFileCommandJournal(dir));
+        assertTrue(e.getMessage().contains("version 99"));
+    }
+
+    @Test
+    void rollsToNewSegmentWhenFull() throws IOException {
+        try (var journal = new MappedFileCommandJournal(dir, 1024, 8, 1_000)) {
+            for (int i = 0; i < 100; i++) {
+                journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED);
+            }
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.count() > 1);
+        }
+        try (var journal = new MappedFileCommandJournal(dir, 1024, 8, 1_000)) {
+            assertEquals(100, journal.lastSequence());
+        }
+        assertEquals(100, replayAll(dir, 0).size());
+    }
+
+    @Test
+    void groupCommitWaitsForCountOrInterval() throws InterruptedException {
+        try (var journal = new MappedFileCommandJournal(dir, 1 << 20, 3, 50_000)) {
+            assertTrue(journal.commitIfDue());
+
+            journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED);
+            journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED);
+            assertFalse(journal.commitIfDue());
+
+            journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED);
+            assertTrue(journal.commitIfDue());
+
+            journal.append(new CancelOrderCommand(user, OrderId.newId()), EXECUTED);
+            assertFalse(journal.commitIfDue());
+            Thread.sleep(60);
+            assertTrue(journal.commitIfDue());
+        }
+    }
+
+    private static void flipByte(Path segment, long offset) throws IOException {
+        try (var file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(offset);
+            int b = file.read();
+            file.seek(offset);
+            file.write(b ^ 0xFF);
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+
+    private static List<JournaledCommand<?>> replayAll(Path dir, long after) {
+        List<JournaledCommand<?>> out = new ArrayList<>();
+        try (var journal = new MappedFileCommandJournal(dir)) {
+            journal.replay(after, (command, executedAt) -> out.add(command));
+        }
+        return out;
+    }
+}
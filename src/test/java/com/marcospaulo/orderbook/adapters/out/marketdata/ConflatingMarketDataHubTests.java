@@ -0,0 +1,114 @@
+package com.marcospaulo.orderbook.adapters.out.marketdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.application.marketdata.LevelUpdate;
+import com.marcospaulo.orderbook.application.marketdata.MarketDataUpdate;
+import com.marcospaulo.orderbook.application.marketdata.TradePrint;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.TradeId;
+
+public class ConflatingMarketDataHubTests {
+
+    private static final Price P10 = Price.of("10.00");
+    private static final Price P11 = Price.of("11.00");
+
+    @Test
+    void slowSubscriberGetsConflatedLevelsWhileFastOneSeesEveryUpdate() throws Exception {
+        try (var hub = new ConflatingMarketDataHub()) {
+            CountDownLatch slowBlocked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            List<MarketDataBatch> slow = new CopyOnWriteArrayList<>();
+            List<MarketDataBatch> fast = new CopyOnWriteArrayList<>();
+
+            hub.subscribe(null, batch -> {
+                slow.add(batch);
+                slowBlocked.countDown();
+                release.await();
+            });
+            hub.subscribe("VIB-CASH", fast::add);
+
+            hub.publish(update(1, 5));
+            assertTrue(slowBlocked.await(5, TimeUnit.SECONDS));
+
+            // o assinante lento está preso; publish não pode esperar por ele
+            long start = System.nanoTime();
+            for (int i = 2; i <= 1_000; i++) {
+                hub.publish(update(i, i * 10L));
+            }
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+
+            awaitSequence(fast, 1_000);
+            release.countDown();
+            awaitSequence(slow, 1_000);
+
+            // 1 entrega presa + o resto conflado em poucas entregas
+            assertTrue(slow.size() < 10, "slow subscriber got " + slow.size() + " batches");
+            MarketDataUpdate last = lastUpdate(slow);
+            assertEquals(List.of(new LevelUpdate(Side.SELL, P10, 10_000), new LevelUpdate(Side.BUY, P11, 1_000)),
+                    last.levels());
+            int trades = slow.stream().flatMap(b -> b.updates().stream()).mapToInt(u -> u.trades().size()).sum();
+            assertEquals(1_000, trades);
+            assertFalse(slow.stream().anyMatch(MarketDataBatch::gap));
+        }
+    }
+
+    @Test
+    void dropsOldestTradesAndFlagsGapWhenSubscriberFallsTooFarBehind() throws Exception {
+        try (var hub = new ConflatingMarketDataHub(1_024, 10, null)) {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch blocked = new CountDownLatch(1);
+            List<MarketDataBatch> got = new CopyOnWriteArrayList<>();
+            hub.subscribe(null, batch -> {
+                got.add(batch);
+                blocked.countDown();
+                release.await();
+            });
+
+            hub.publish(update(1, 1));
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            for (int i = 2; i <= 50; i++) {
+                hub.publish(update(i, i));
+            }
+            Thread.sleep(300);
+            release.countDown();
+            awaitSequence(got, 50);
+
+            MarketDataBatch catchUp = got.get(got.size() - 1);
+            assertTrue(catchUp.gap());
+            assertEquals(10, catchUp.updates().get(0).trades().size());
+        }
+    }
+
+    private static void awaitSequence(List<MarketDataBatch> batches, long sequence) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (!batches.isEmpty() && lastUpdate(batches).sequence() == sequence)
+                return;
+            Thread.sleep(5);
+        }
+        throw new AssertionError("sequence " + sequence + " not delivered");
+    }
+
+    private static MarketDataUpdate lastUpdate(List<MarketDataBatch> batches) {
+        List<MarketDataUpdate> updates = batches.get(batches.size() - 1).updates();
+        return updates.get(updates.size() - 1);
+    }
+
+    private static MarketDataUpdate update(long sequence, long qty) {
+        return new MarketDataUpdate("VIB-CASH", sequence,
+                List.of(new LevelUpdate(Side.SELL, P10, qty), new LevelUpdate(Side.BUY, P11, sequence)),
+                List.of(new TradePrint(TradeId.newId(), P10, 1, Side.BUY, Instant.now())));
+    }
+}
@@ -0,0 +1,114 @@
+package com.marcospaulo.orderbook.adapters.out.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.application.ports.out.TradePage;
+import com.marcospaulo.orderbook.application.ports.out.TradeQuery;
+import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.TradeId;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class InMemoryTradeRepositoryTests {
+
+    private static final Instant T0 = Instant.parse("2026-01-02T10:00:00Z");
+
+    private final UserId alice = UserId.of(UUID.randomUUID());
+    private final UserId bob = UserId.of(UUID.randomUUID());
+    private final UserId carol = UserId.of(UUID.randomUUID());
+
+    @Test
+    void indexesTradesByBuyerSellerAndOrder() {
+        var repo = new InMemoryTradeRepository();
+        OrderId aliceBuy = OrderId.newId();
+        Trade first = trade(aliceBuy, OrderId.newId(), alice, bob, 0);
+        Trade second = trade(aliceBuy, OrderId.newId(), alice, carol, 1);
+        Trade third = trade(OrderId.newId(), OrderId.newId(), carol, bob, 2);
+        repo.append(first);
+        repo.append(second);
+        repo.append(third);
+
+        assertEquals(List.of(first, second), repo.findByUser(alice));
+        assertEquals(List.of(first, third), repo.findByUser(bob));
+        assertEquals(List.of(second, third), repo.findByUser(carol));
+        assertEquals(List.of(first, second), repo.findByOrder(aliceBuy));
+        assertTrue(repo.findByUser(UserId.of(UUID.randomUUID())).isEmpty());
+        assertEquals(3, repo.count());
+    }
+
+    @Test
+    void pagesUserHistoryNewestFirstAcrossChunks() {
+        var repo = new InMemoryTradeRepository();
+        List<Trade> aliceTrades = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            // alice só participa de um trade em cada três
+            Trade t = i % 3 == 0
+                    ? trade(OrderId.newId(), OrderId.newId(), alice, bob, i)
+                    : trade(OrderId.newId(), OrderId.newId(), carol, bob, i);
+            repo.append(t);
+            if (i % 3 == 0)
+                aliceTrades.add(t);
+        }
+
+        List<Trade> seen = new ArrayList<>();
+        TradeQuery query = TradeQuery.latest(500);
+        while (true) {
+            TradePage page = repo.findByUser(alice, query);
+            assertTrue(page.trades().size() <= 500);
+            seen.addAll(page.trades());
+            if (!page.hasMore())
+                break;
+            query = query.before(page.nextCursor());
+        }
+
+        assertEquals(aliceTrades.size(), seen.size());
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals(aliceTrades.get(aliceTrades.size() - 1 - i), seen.get(i));
+        }
+    }
+
+    @Test
+    void filtersByTimeRange() {
+        var repo = new InMemoryTradeRepository();
+        for (int i = 0; i < 100; i++) {
+            repo.append(trade(OrderId.newId(), OrderId.newId(), alice, bob, i));
+        }
+
+        // [20s, 30s): trades 20..29, do mais recente para o mais antigo
+        TradeQuery query = TradeQuery.latest(4).between(T0.plusSeconds(20), T0.plusSeconds(30));
+        TradePage page = repo.findByUser(alice, query);
+        assertEquals(List.of(29L, 28L, 27L, 26L), seconds(page));
+        assertTrue(page.hasMore());
+
+        page = repo.findByUser(alice, query.before(page.nextCursor()));
+        assertEquals(List.of(25L, 24L, 23L, 22L), seconds(page));
+
+        page = repo.findByUser(alice, query.before(page.nextCursor()));
+        assertEquals(List.of(21L, 20L), seconds(page));
+        assertFalse(page.hasMore());
+
+        TradePage tape = repo.findPage(TradeQuery.latest(3));
+        assertEquals(List.of(99L, 98L, 97L), seconds(tape));
+        assertEquals(97, tape.nextCursor());
+    }
+
+    private static List<Long> seconds(TradePage page) {
+        return page.trades().stream().map(t -> t.executedAt().getEpochSecond() - T0.getEpochSecond()).toList();
+    }
+
+    private static Trade trade(OrderId buy, OrderId sell, UserId buyer, UserId seller, int second) {
+        return Trade.restore(TradeId.newId(), buy, sell, buyer, seller, Price.ofTicks(1_000),
+                Quantity.ofPositive(1), T0.plusSeconds(second));
+    }
+}
@@ -0,0 +1,91 @@
+package com.marcospaulo.orderbook.adapters.out.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.application.snapshot.StateSnapshot;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class FileSnapshotStoreTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void loadsTheNewestSnapshot() {
+        var store = new FileSnapshotStore(dir);
+        store.save(StateSnapshot.capture(context(1), 10));
+        store.save(StateSnapshot.capture(context(3), 20));
+
+        StateSnapshot latest = store.loadLatest().orElseThrow();
+        assertEquals(20, latest.sequence());
+        assertEquals(3, latest.walletCount());
+    }
+
+    @Test
+    void emptyDirectoryHasNoSnapshot() {
+        assertTrue(new FileSnapshotStore(dir).loadLatest().isEmpty());
+    }
+
+    @Test
+    void corruptNewestFallsBackToPrevious() throws IOException {
+        var store = new FileSnapshotStore(dir);
+        store.save(StateSnapshot.capture(context(1), 10));
+        store.save(StateSnapshot.capture(context(2), 20));
+
+        Path newest = files().get(1);
+        try (var file = new RandomAccessFile(newest.toFile(), "rw")) {
+            file.seek(file.length() - 10);
+            int b = file.read();
+            file.seek(file.length() - 10);
+            file.write(b ^ 0xFF);
+        }
+
+        assertEquals(10, store.loadLatest().orElseThrow().sequence());
+    }
+
+    @Test
+    void keepsOnlyTheConfiguredNumberOfSnapshots() throws IOException {
+        var store = new FileSnapshotStore(dir, 2);
+        for (long seq = 1; seq <= 5; seq++) {
+            store.save(StateSnapshot.capture(context(1), seq));
+        }
+
+        List<Path> files = files();
+        assertEquals(2, files.size());
+        assertTrue(files.get(1).getFileName().toString().startsWith(String.format("%020d", 5)));
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static CommandContext context(int wallets) {
+        var walletRepo = new InMemoryWalletRepository();
+        for (int i = 0; i < wallets; i++) {
+            walletRepo.save(Wallet.create(UserId.of(UUID.randomUUID()), new BigDecimal("10.00"), BigDecimal.ONE));
+        }
+        return new CommandContext(new InMemoryOrderBookRepository(), walletRepo, new InMemoryTradeRepository(),
+                new InMemoryOrderRepository());
+    }
+}
@@ -0,0 +1,87 @@
+package com.marcospaulo.orderbook.application.ports.out;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+import com.marcospaulo.orderbook.domain.service.SequentialIdGenerator;
+
+public class InMemoryOrderRepositoryTests {
+
+    private final UserId user = UserId.of(UUID.randomUUID());
+
+    @Test
+    void findsEveryOrderAfterGrowing() {
+        InMemoryOrderRepository repo = new InMemoryOrderRepository(4, 0);
+        SequentialIdGenerator ids = new SequentialIdGenerator(5);
+        Order[] orders = new Order[10_000];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = order(ids.nextOrderId());
+            repo.save(orders[i]);
+        }
+
+        assertEquals(orders.length, repo.liveCount());
+        for (Order o : orders) {
+            assertSame(o, repo.findById(o.id()).orElseThrow());
+        }
+        assertTrue(repo.findById(ids.nextOrderId()).isEmpty());
+        int[] visited = { 0 };
+        repo.forEach(o -> visited[0]++);
+        assertEquals(orders.length, visited[0]);
+    }
+
+    @Test
+    void saveReplacesTheSameId() {
+        InMemoryOrderRepository repo = new InMemoryOrderRepository();
+        OrderId id = OrderId.of(7);
+        repo.save(order(id));
+        Order replacement = order(id);
+        repo.save(replacement);
+
+        assertEquals(1, repo.liveCount());
+        assertSame(replacement, repo.findById(id).orElseThrow());
+    }
+
+    @Test
+    void terminatedOrdersMoveToABoundedArchive() {
+        InMemoryOrderRepository repo = new InMemoryOrderRepository(16, 3);
+        List<Order> done = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            Order o = order(OrderId.of(i));
+            repo.save(o);
+            o.cancel();
+            repo.save(o);
+            done.add(o);
+        }
+        Order open = order(OrderId.of(6));
+        repo.save(open);
+
+        assertEquals(1, repo.liveCount());
+        assertEquals(3, repo.archivedCount());
+        assertTrue(repo.findById(OrderId.of(1)).isEmpty());
+        assertTrue(repo.findById(OrderId.of(2)).isEmpty());
+        assertSame(done.get(4), repo.findById(OrderId.of(5)).orElseThrow());
+        assertSame(open, repo.findById(OrderId.of(6)).orElseThrow());
+
+        List<Long> visited = new ArrayList<>();
+        repo.forEach(o -> visited.add(o.id().value()));
+        assertEquals(List.of(6L, 3L, 4L, 5L), visited);
+    }
+
+    private Order order(OrderId id) {
+        return Order.create(id, user, Side.BUY, Price.ofTicks(1_000), Quantity.ofPositive(1), Instant.EPOCH);
+    }
+}
@@ -0,0 +1,116 @@
+package com.marcospaulo.orderbook.application.replay;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.marcospaulo.orderbook.adapters.out.journal.FileCommandRecorder;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.FundWalletCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.application.service.EngineOptions;
+import com.marcospaulo.orderbook.application.service.OrderBookCommandEngine;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+import com.marcospaulo.orderbook.domain.service.SequentialIdGenerator;
+
+public class CommandReplayTests {
+
+    @TempDir
+    Path dir;
+
+    private final UserId seller = UserId.of(UUID.randomUUID());
+    private final UserId buyer = UserId.of(UUID.randomUUID());
+
+    @Test
+    void replayReproducesTradeTapeAndWallets() {
+        Path file = dir.resolve("session.rec");
+        CommandContext live = record(file);
+
+        CommandRecording recording = FileCommandRecorder.read(file);
+        assertEquals(8, recording.commands().size());
+
+        CommandContext replayed = context(recording.ids(), recording.clock());
+        ReplayReport report = CommandReplay.run(recording, replayed, EngineOptions.of(1_024));
+
+        assertEquals(8, report.commands());
+        assertEquals(1, report.failed()); // o cancel repetido falha também no replay
+        assertEquals(0, report.unusedClockReads());
+        assertFalse(live.tradeRepository().findAll().isEmpty());
+        assertEquals(List.of(), StateComparison.differences(live, replayed));
+    }
+
+    @Test
+    void replayClockStaysInUtc() {
+        ReplayClock clock = new ReplayClock(List.of(Instant.EPOCH));
+
+        assertSame(clock, clock.withZone(ZoneOffset.UTC));
+        assertSame(clock, clock.withZone(ZoneId.of("UTC")));
+        assertThrows(ApplicationException.class, () -> clock.withZone(ZoneId.of("America/Sao_Paulo")));
+    }
+
+    @Test
+    void replayWithoutRecordedIdsAndClockDiverges() {
+        Path file = dir.resolve("session.rec");
+        CommandContext live = record(file);
+
+        CommandRecording recording = FileCommandRecorder.read(file);
+        CommandContext replayed = context(new SequentialIdGenerator(7), Clock.systemUTC());
+        CommandReplay.run(recording, replayed, EngineOptions.of(1_024));
+
+        assertTrue(StateComparison.differences(live, replayed).stream().anyMatch(d -> d.startsWith("trade #")));
+    }
+
+    private CommandContext record(Path file) {
+        FileCommandRecorder recorder = FileCommandRecorder.create(file);
+        CommandContext live = context(new SequentialIdGenerator(3), new RecordingClock(Clock.systemUTC(), recorder));
+
+        try (var engine = new OrderBookCommandEngine(live, EngineOptions.of(1_024).withRecorder(recorder))) {
+            engine.submit(new FundWalletCommand(seller, BigDecimal.ZERO, new BigDecimal("20"))).join();
+            engine.submit(new FundWalletCommand(buyer, new BigDecimal("1000.00"), BigDecimal.ZERO)).join();
+            engine.submit(new PlaceOrderCommand(seller, Side.SELL, Price.of("10.00"), Quantity.ofPositive(8))).join();
+            engine.submit(new PlaceOrderCommand(seller, Side.SELL, Price.of("10.50"), Quantity.ofPositive(5))).join();
+            OrderId buy = OrderId.fromString(engine.submit(new PlaceOrderCommand(
+                    buyer, Side.BUY, Price.of("11.00"), Quantity.ofPositive(10))).join().orderId());
+            engine.submit(new CancelOrderCommand(seller, OrderId.fromString(engine.submit(new PlaceOrderCommand(
+                    seller, Side.SELL, Price.of("12.00"), Quantity.ofPositive(1))).join().orderId()))).join();
+            engine.submit(new CancelOrderCommand(buyer, buy)).exceptionally(e -> null).join();
+        }
+        return live;
+    }
+
+    private static CommandContext context(SequentialIdGenerator ids, Clock clock) {
+        return new CommandContext(
+                Instrument.DEFAULT,
+                new InMemoryOrderBookRepository(),
+                new InMemoryWalletRepository(),
+                new InMemoryTradeRepository(),
+                new InMemoryOrderRepository(),
+                ids,
+                clock);
+    }
+}
@@ -0,0 +1,72 @@
+package com.marcospaulo.orderbook.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.application.exception.BackpressureException;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class AdmissionControlTests {
+
+    @Test
+    void perUserLimitRejectsOnlyThatUserAndFreesSlotOnCompletion() {
+        AdmissionControl admission = new AdmissionControl(10, 2);
+        UserId heavy = UserId.of(UUID.randomUUID());
+        UserId other = UserId.of(UUID.randomUUID());
+
+        CompletableFuture<Integer> first = new CompletableFuture<>();
+        CompletableFuture<Integer> second = new CompletableFuture<>();
+        admission.submit(heavy, () -> first);
+        admission.submit(heavy, () -> second);
+
+        assertRejected(admission.submit(heavy, CompletableFuture::new));
+        assertEquals(2, admission.inFlight(heavy));
+        assertFalse(admission.submit(other, CompletableFuture::new).isDone());
+
+        // falha também devolve a vaga
+        first.completeExceptionally(new IllegalStateException("boom"));
+        assertEquals(1, admission.inFlight(heavy));
+        assertFalse(admission.submit(heavy, CompletableFuture::new).isDone());
+
+        second.complete(1);
+        assertEquals(2, admission.inFlight());
+    }
+
+    @Test
+    void globalLimitRejectsEveryoneUntilCommandsComplete() {
+        AdmissionControl admission = new AdmissionControl(3, 3);
+        List<CompletableFuture<Integer>> pending = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<Integer> f = new CompletableFuture<>();
+            pending.add(f);
+            admission.submit(UserId.of(UUID.randomUUID()), () -> f);
+        }
+
+        UserId late = UserId.of(UUID.randomUUID());
+        assertRejected(admission.submit(late, CompletableFuture::new));
+        assertEquals(0, admission.inFlight(late));
+
+        pending.forEach(f -> f.complete(0));
+        assertEquals(0, admission.inFlight());
+        assertEquals(Integer.valueOf(7), admission.submit(late, () -> CompletableFuture.completedFuture(7)).join());
+        assertEquals(0, admission.inFlight());
+    }
+
+    private static void assertRejected(CompletableFuture<?> future) {
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof BackpressureException);
+        }
+    }
+}
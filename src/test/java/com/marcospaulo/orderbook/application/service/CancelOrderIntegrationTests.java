@@ -0,0 +1,120 @@
+package com.marcospaulo.orderbook.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.ReduceOrderCommand;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class CancelOrderIntegrationTests {
+
+    @Test
+    void cancelRemovesRestingBuyAndReleasesCash() {
+        var orderBookRepo = new InMemoryOrderBookRepository();
+        var walletRepo = new InMemoryWalletRepository();
+        var ctx = new CommandContext(orderBookRepo, walletRepo, new InMemoryTradeRepository(),
+                new InMemoryOrderRepository());
+
+        UserId buyerId = UserId.of(UUID.randomUUID());
+        walletRepo.save(Wallet.create(buyerId, new BigDecimal("1000.00"), BigDecimal.ZERO));
+
+        try (OrderBookCommandEngine engine = new OrderBookCommandEngine(ctx, 100)) {
+            var placed = engine.submit(new PlaceOrderCommand(
+                    buyerId, Side.BUY, Price.of(new BigDecimal("10.00")), Quantity.ofPositive(5))).join();
+            OrderId orderId = OrderId.fromString(placed.orderId());
+
+            var cancelled = engine.submit(new CancelOrderCommand(buyerId, orderId)).join();
+
+            assertEquals(5, cancelled.cancelledQty());
+            assertTrue(orderBookRepo.get().bestBid().isEmpty());
+
+            var buyer = walletRepo.findByUserId(buyerId).orElseThrow();
+            assertEquals(new BigDecimal("1000.00"), buyer.cash().available());
+            assertEquals(new BigDecimal("0.00"), buyer.cash().reserved());
+
+            // segunda tentativa: ordem não está mais no livro
+            try {
+                engine.submit(new CancelOrderCommand(buyerId, orderId)).join();
+                fail("should have failed: order is not resting");
+            } catch (CompletionException ex) {
+                assertTrue(ex.getCause().getCause() instanceof DomainException);
+            }
+        }
+    }
+
+    @Test
+    void cancelAfterPartialFillReleasesOnlyRemainder() {
+        var walletRepo = new InMemoryWalletRepository();
+        var ctx = new CommandContext(new InMemoryOrderBookRepository(), walletRepo, new InMemoryTradeRepository(),
+                new InMemoryOrderRepository());
+
+        UserId sellerId = UserId.of(UUID.randomUUID());
+        UserId buyerId = UserId.of(UUID.randomUUID());
+        walletRepo.save(Wallet.create(sellerId, BigDecimal.ZERO, new BigDecimal("10")));
+        walletRepo.save(Wallet.create(buyerId, new BigDecimal("1000.00"), BigDecimal.ZERO));
+
+        try (OrderBookCommandEngine engine = new OrderBookCommandEngine(ctx, 100)) {
+            var sell = engine.submit(new PlaceOrderCommand(
+                    sellerId, Side.SELL, Price.of(new BigDecimal("10.00")), Quantity.ofPositive(5))).join();
+            engine.submit(new PlaceOrderCommand(
+                    buyerId, Side.BUY, Price.of(new BigDecimal("10.00")), Quantity.ofPositive(2))).join();
+
+            var cancelled = engine.submit(new CancelOrderCommand(sellerId, OrderId.fromString(sell.orderId())))
+                    .join();
+
+            assertEquals(3, cancelled.cancelledQty());
+
+            var seller = walletRepo.findByUserId(sellerId).orElseThrow();
+            assertEquals(new BigDecimal("8.00"), seller.vibranium().available());
+            assertEquals(new BigDecimal("0.00"), seller.vibranium().reserved());
+            assertEquals(new BigDecimal("20.00"), seller.cash().available());
+        }
+    }
+
+    @Test
+    void reduceReleasesReservationAndKeepsOrderResting() {
+        var orderBookRepo = new InMemoryOrderBookRepository();
+        var walletRepo = new InMemoryWalletRepository();
+        var ctx = new CommandContext(orderBookRepo, walletRepo, new InMemoryTradeRepository(),
+                new InMemoryOrderRepository());
+
+        UserId buyerId = UserId.of(UUID.randomUUID());
+        walletRepo.save(Wallet.create(buyerId, new BigDecimal("1000.00"), BigDecimal.ZERO));
+
+        try (OrderBookCommandEngine engine = new OrderBookCommandEngine(ctx, 100)) {
+            var placed = engine.submit(new PlaceOrderCommand(
+                    buyerId, Side.BUY, Price.of(new BigDecimal("10.00")), Quantity.ofPositive(5))).join();
+
+            var reduced = engine.submit(new ReduceOrderCommand(
+                    buyerId, OrderId.fromString(placed.orderId()), Quantity.ofPositive(2))).join();
+
+            assertEquals(3, reduced.remainingQty());
+            assertEquals(3, orderBookRepo.get().bestBid().orElseThrow().remainingQty().value());
+
+            var buyer = walletRepo.findByUserId(buyerId).orElseThrow();
+            assertEquals(new BigDecimal("970.00"), buyer.cash().available());
+            assertEquals(new BigDecimal("30.00"), buyer.cash().reserved());
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.marcospaulo.orderbook.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderResult;
+import com.marcospaulo.orderbook.application.marketdata.BookSnapshot;
+import com.marcospaulo.orderbook.application.marketdata.LevelUpdate;
+import com.marcospaulo.orderbook.application.marketdata.MarketDataUpdate;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderType;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.TimeInForce;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class IcebergIntegrationTests {
+
+    private final InMemoryOrderBookRepository books = new InMemoryOrderBookRepository();
+    private final InMemoryWalletRepository wallets = new InMemoryWalletRepository();
+    private final InMemoryTradeRepository trades = new InMemoryTradeRepository();
+    private final InMemoryOrderRepository orders = new InMemoryOrderRepository();
+    private final CommandContext ctx = new CommandContext(books, wallets, trades, orders);
+
+    private final UserId seller = UserId.of(UUID.randomUUID());
+    private final UserId buyer = UserId.of(UUID.randomUUID());
+    private final Price price = Price.of("10.00");
+
+    @Test
+    void reservesTheWholeOrderOnceAndPublishesOnlyTheVisibleTranche() {
+        fund();
+        ctx.marketData().attach(book());
+
+        new PlaceOrderCommand(seller, Side.SELL, price, Quantity.ofPositive(10), Quantity.ofPositive(3)).execute(ctx);
+
+        assertEquals(new BigDecimal("10.00"), wallet(seller).vibranium().reserved());
+        assertEquals(List.of(new LevelUpdate(Side.SELL, price, 3)), ctx.marketData().drain().levels());
+        assertEquals(3, snapshot().best(Side.SELL).quantity());
+
+        // três parcelas inteiras e uma parte da quarta, num comando só
+        PlaceOrderResult r = new PlaceOrderCommand(buyer, Side.BUY, price, Quantity.ofPositive(7)).execute(ctx);
+
+        assertEquals(3, r.tradesExecuted());
+        MarketDataUpdate update = ctx.marketData().drain();
+        assertEquals(List.of(new LevelUpdate(Side.SELL, price, 2)), update.levels());
+        assertEquals(3, update.trades().size());
+        assertEquals(2, snapshot().best(Side.SELL).quantity());
+        assertEquals(3, book().asks().levelQuantity(price));
+        assertEquals(new BigDecimal("3.00"), wallet(seller).vibranium().reserved());
+        assertEquals(new BigDecimal("70.00"), wallet(seller).cash().available());
+    }
+
+    @Test
+    void rejectsIcebergsThatCannotRest() {
+        fund();
+
+        assertThrows(DomainException.class, () -> new PlaceOrderCommand(seller, Side.SELL, price,
+                Quantity.ofPositive(10), Quantity.ofPositive(10)).execute(ctx));
+        assertThrows(DomainException.class, () -> new PlaceOrderCommand(seller, Side.SELL, OrderType.LIMIT,
+                TimeInForce.IOC, price, null, Quantity.ofPositive(10), Quantity.ofPositive(2)).execute(ctx));
+        assertEquals(new BigDecimal("0.00"), wallet(seller).vibranium().reserved());
+    }
+
+    private void fund() {
+        wallets.save(Wallet.create(seller, BigDecimal.ZERO, new BigDecimal("100")));
+        wallets.save(Wallet.create(buyer, new BigDecimal("1000.00"), BigDecimal.ZERO));
+    }
+
+    private BookSnapshot snapshot() {
+        return BookSnapshot.capture("VIB", 1, 1, book(), 5);
+    }
+
+    private Wallet wallet(UserId user) {
+        return wallets.findByUserId(user).orElseThrow();
+    }
+
+    private OrderBook book() {
+        return books.get();
+    }
+}
@@ -0,0 +1,256 @@
+package com.marcospaulo.orderbook.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.DepositCommand;
+import com.marcospaulo.orderbook.application.command.JournaledCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.TransferInCommand;
+import com.marcospaulo.orderbook.application.command.TransferOutCommand;
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.application.ports.out.CommandJournal;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class InstrumentRouterTests {
+
+    private static final Asset GOLD = Asset.of("GOLD", 3);
+    private static final Instrument VIB = Instrument.DEFAULT;
+    private static final Instrument GLD = new Instrument("GOLD-CASH", GOLD, Asset.CASH);
+
+    // sobrevive ao fechamento do router: simula o estado recuperado do journal
+    private final Map<Instrument, CommandContext> contexts = new HashMap<>();
+    private InstrumentRouter router;
+
+    private final UserId alice = UserId.of(UUID.randomUUID());
+    private final UserId bob = UserId.of(UUID.randomUUID());
+
+    @BeforeEach
+    void startRouter() {
+        startRouter(instrument -> EngineOptions.of(100));
+    }
+
+    private void startRouter(Function<Instrument, EngineOptions> options) {
+        router = InstrumentRouter.start(List.of(VIB, GLD), this::context, options);
+    }
+
+    private CommandContext context(Instrument instrument) {
+        return contexts.computeIfAbsent(instrument, i -> new CommandContext(i,
+                new InMemoryOrderBookRepository(), new InMemoryWalletRepository(),
+                new InMemoryTradeRepository(), new InMemoryOrderRepository()));
+    }
+
+    @AfterEach
+    void stopRouter() {
+        router.close();
+    }
+
+    @Test
+    void eachInstrumentSettlesInItsOwnAssets() {
+        router.submit(GLD.symbol(), new DepositCommand(alice, GOLD, new BigDecimal("2.500"))).join();
+        router.submit(GLD.symbol(), new DepositCommand(bob, Asset.CASH, new BigDecimal("100.00"))).join();
+
+        router.submit(GLD.symbol(), new PlaceOrderCommand(alice, Side.SELL, Price.of("12.50"), Quantity.ofPositive(2)))
+                .join();
+        var result = router.submit(GLD.symbol(),
+                new PlaceOrderCommand(bob, Side.BUY, Price.of("12.50"), Quantity.ofPositive(2))).join();
+        assertEquals(1, result.tradesExecuted());
+
+        Wallet a = wallet(GLD, alice);
+        Wallet b = wallet(GLD, bob);
+        assertEquals(new BigDecimal("0.500"), a.balance(GOLD).available());
+        assertEquals(new BigDecimal("25.00"), a.cash().available());
+        assertEquals(new BigDecimal("2.000"), b.balance(GOLD).available());
+        assertEquals(new BigDecimal("75.00"), b.cash().available());
+
+        // o outro instrumento não viu nada
+        assertTrue(contexts.get(VIB).walletRepository().findByUserId(alice).isEmpty());
+    }
+
+    @Test
+    void transferMovesAvailableBalanceBetweenLedgers() {
+        router.submit(VIB.symbol(), new DepositCommand(bob, Asset.CASH, new BigDecimal("100.00"))).join();
+
+        router.transfer(bob, Asset.CASH, new BigDecimal("40.00"), VIB.symbol(), GLD.symbol()).join();
+
+        assertEquals(new BigDecimal("60.00"), wallet(VIB, bob).cash().available());
+        assertEquals(new BigDecimal("40.00"), wallet(GLD, bob).cash().available());
+
+        router.submit(GLD.symbol(), new PlaceOrderCommand(bob, Side.BUY, Price.of("10.00"), Quantity.ofPositive(4)))
+                .join();
+        assertEquals(new BigDecimal("40.00"), wallet(GLD, bob).cash().reserved());
+        assertEquals(0, contexts.get(VIB).transfers().pendingCount());
+        assertEquals(0, contexts.get(GLD).transfers().creditedCount());
+    }
+
+    @Test
+    void transferDebitedBeforeACrashIsCreditedOnRestart() {
+        router.submit(VIB.symbol(), new DepositCommand(bob, Asset.CASH, new BigDecimal("100.00"))).join();
+        UUID id = UUID.randomUUID();
+        // só a perna de saída chegou ao journal
+        router.submit(VIB.symbol(), new TransferOutCommand(id, bob, Asset.CASH, new BigDecimal("40.00"), GLD.symbol()))
+                .join();
+        assertEquals(1, contexts.get(VIB).transfers().pendingCount());
+
+        router.close();
+        startRouter();
+
+        assertEquals(new BigDecimal("60.00"), wallet(VIB, bob).cash().available());
+        assertEquals(new BigDecimal("40.00"), wallet(GLD, bob).cash().available());
+        assertEquals(0, contexts.get(VIB).transfers().pendingCount());
+        assertEquals(0, contexts.get(GLD).transfers().creditedCount());
+    }
+
+    @Test
+    void transferCreditedBeforeACrashIsNotCreditedTwice() {
+        router.submit(VIB.symbol(), new DepositCommand(bob, Asset.CASH, new BigDecimal("100.00"))).join();
+        UUID id = UUID.randomUUID();
+        // crédito feito, mas a origem não encerrou
+        router.submit(VIB.symbol(), new TransferOutCommand(id, bob, Asset.CASH, new BigDecimal("40.00"), GLD.symbol()))
+                .join();
+        router.submit(GLD.symbol(), new TransferInCommand(id, bob, Asset.CASH, new BigDecimal("40.00"))).join();
+
+        router.close();
+        startRouter();
+
+        assertEquals(new BigDecimal("60.00"), wallet(VIB, bob).cash().available());
+        assertEquals(new BigDecimal("40.00"), wallet(GLD, bob).cash().available());
+        assertEquals(0, contexts.get(VIB).transfers().pendingCount());
+    }
+
+    @Test
+    void transferFailsWithoutCreditingWhenSourceIsShort() {
+        router.submit(VIB.symbol(), new DepositCommand(bob, Asset.CASH, new BigDecimal("10.00"))).join();
+
+        assertThrows(CompletionException.class,
+                () -> router.transfer(bob, Asset.CASH, new BigDecimal("40.00"), VIB.symbol(), GLD.symbol()).join());
+
+        assertEquals(new BigDecimal("10.00"), wallet(VIB, bob).cash().available());
+        assertTrue(contexts.get(GLD).walletRepository().findByUserId(bob).isEmpty());
+        assertEquals(0, contexts.get(VIB).transfers().pendingCount());
+    }
+
+    @Test
+    void creditRejectedBeforeQueueingIsReturnedToTheSource() {
+        router.close();
+        var vib = new OrderBookCommandEngine(context(VIB), EngineOptions.of(100));
+        var gld = new OrderBookCommandEngine(context(GLD), EngineOptions.of(100));
+        gld.close();
+        router = new InstrumentRouter(List.of(vib, gld));
+        router.submit(VIB.symbol(), new DepositCommand(bob, Asset.CASH, new BigDecimal("100.00"))).join();
+
+        assertThrows(CompletionException.class,
+                () -> router.transfer(bob, Asset.CASH, new BigDecimal("40.00"), VIB.symbol(), GLD.symbol()).join());
+
+        assertEquals(new BigDecimal("100.00"), wallet(VIB, bob).cash().available());
+        assertEquals(0, contexts.get(VIB).transfers().pendingCount());
+        assertTrue(contexts.get(GLD).walletRepository().findByUserId(bob).isEmpty());
+    }
+
+    @Test
+    void creditWithUnknownOutcomeStaysPendingUntilResumed() {
+        router.close();
+        startRouter(instrument -> instrument.equals(GLD)
+                ? EngineOptions.of(100).withJournal(new BrokenJournal())
+                : EngineOptions.of(100));
+        router.submit(VIB.symbol(), new DepositCommand(bob, Asset.CASH, new BigDecimal("100.00"))).join();
+
+        assertThrows(CompletionException.class,
+                () -> router.transfer(bob, Asset.CASH, new BigDecimal("40.00"), VIB.symbol(), GLD.symbol()).join());
+
+        // o crédito pode ter valido: nada volta para a origem
+        assertEquals(new BigDecimal("60.00"), wallet(VIB, bob).cash().available());
+        assertEquals(1, contexts.get(VIB).transfers().pendingCount());
+
+        // o destino volta com o crédito (o commit acabou durável) e a pendência encerra sem creditar de novo
+        router.close();
+        startRouter();
+
+        assertEquals(new BigDecimal("60.00"), wallet(VIB, bob).cash().available());
+        assertEquals(new BigDecimal("40.00"), wallet(GLD, bob).cash().available());
+        assertEquals(0, contexts.get(VIB).transfers().pendingCount());
+    }
+
+    @Test
+    void unknownInstrumentIsRejected() {
+        var ex = assertThrows(CompletionException.class,
+                () -> router.submit("NOPE", new DepositCommand(bob, Asset.CASH, BigDecimal.ONE)).join());
+        assertTrue(ex.getCause() instanceof ApplicationException);
+        assertEquals(List.of(VIB, GLD), router.instruments());
+        assertEquals(VIB, router.defaultInstrument());
+    }
+
+    private Wallet wallet(Instrument instrument, UserId user) {
+        return contexts.get(instrument).walletRepository().findByUserId(user).orElseThrow();
+    }
+
+    /**
+     * Aceita os registros e falha o commit de qualquer um deles.
+     */
+    private static final class BrokenJournal implements CommandJournal {
+        private long sequence;
+
+        @Override
+        public long append(JournaledCommand<?> command, Instant executedAt) {
+            return ++sequence;
+        }
+
+        @Override
+        public boolean commitIfDue() {
+            commit();
+            return true;
+        }
+
+        @Override
+        public void commit() {
+            if (sequence > 0)
+                throw new UncheckedIOException(new IOException("device gone"));
+        }
+
+        @Override
+        public long maxCommitDelayNanos() {
+            return 1_000_000L;
+        }
+
+        @Override
+        public void replay(long afterSequence, BiConsumer<JournaledCommand<?>, Instant> consumer) {
+        }
+
+        @Override
+        public long lastSequence() {
+            return sequence;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
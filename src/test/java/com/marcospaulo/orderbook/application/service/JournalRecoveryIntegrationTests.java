@@ -0,0 +1,293 @@
+package com.marcospaulo.orderbook.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.marcospaulo.orderbook.adapters.out.journal.MappedFileCommandJournal;
+import com.marcospaulo.orderbook.adapters.out.snapshot.FileSnapshotStore;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.FundWalletCommand;
+import com.marcospaulo.orderbook.application.command.JournaledCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.ReduceOrderCommand;
+import com.marcospaulo.orderbook.application.exception.ApplicationException;
+import com.marcospaulo.orderbook.application.exception.BackpressureException;
+import com.marcospaulo.orderbook.application.exception.OutcomeUnknownException;
+import com.marcospaulo.orderbook.application.ports.out.CommandJournal;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class JournalRecoveryIntegrationTests {
+
+    @TempDir
+    Path dir;
+
+    private final UserId seller = UserId.of(UUID.randomUUID());
+    private final UserId buyer = UserId.of(UUID.randomUUID());
+
+    @Test
+    void restartRebuildsWalletsBookAndOrders() {
+        Repos before = new Repos();
+        OrderId restingSell;
+        OrderId cancelledBuy;
+
+        try (var engine = new OrderBookCommandEngine(before.context(), options())) {
+            engine.submit(new FundWalletCommand(seller, BigDecimal.ZERO, new BigDecimal("20"))).join();
+            engine.submit(new FundWalletCommand(buyer, new BigDecimal("1000.00"), BigDecimal.ZERO)).join();
+
+            restingSell = OrderId.fromString(engine.submit(new PlaceOrderCommand(
+                    seller, Side.SELL, Price.of("10.00"), Quantity.ofPositive(8))).join().orderId());
+            engine.submit(new PlaceOrderCommand(
+                    buyer, Side.BUY, Price.of("10.00"), Quantity.ofPositive(3))).join();
+            engine.submit(new ReduceOrderCommand(seller, restingSell, Quantity.ofPositive(1))).join();
+
+            cancelledBuy = OrderId.fromString(engine.submit(new PlaceOrderCommand(
+                    buyer, Side.BUY, Price.of("9.00"), Quantity.ofPositive(4))).join().orderId());
+            engine.submit(new CancelOrderCommand(buyer, cancelledBuy)).join();
+
+            // falha de domínio também vai para o journal e precisa falhar igual no replay
+            try {
+                engine.submit(new CancelOrderCommand(buyer, cancelledBuy)).join();
+            } catch (CompletionException expected) {
+                // ordem já cancelada
+            }
+        }
+
+        Repos after = new Repos();
+        try (var engine = new OrderBookCommandEngine(after.context(), options())) {
+            assertSameWallet(before.wallets.findByUserId(seller).orElseThrow(),
+                    after.wallets.findByUserId(seller).orElseThrow());
+            assertSameWallet(before.wallets.findByUserId(buyer).orElseThrow(),
+                    after.wallets.findByUserId(buyer).orElseThrow());
+
+            Order sell = after.orders.findById(restingSell).orElseThrow();
+            assertEquals(4, sell.remainingQty().value());
+            assertEquals(before.orders.findById(restingSell).orElseThrow().createdAt(), sell.createdAt());
+            assertEquals(restingSell, after.books.get().bestAsk().orElseThrow().id());
+            assertTrue(after.books.get().bestBid().isEmpty());
+            assertTrue(after.orders.findById(cancelledBuy).orElseThrow().isCancelled());
+
+            // o replay usa o instante gravado, não o relógio da recuperação
+            Trade original = before.trades.findAll().get(0);
+            Trade recovered = after.trades.findAll().get(0);
+            assertEquals(original.id(), recovered.id());
+            assertEquals(original.executedAt(), recovered.executedAt());
+
+            // e continua aceitando comandos a partir do estado recuperado
+            engine.submit(new PlaceOrderCommand(
+                    buyer, Side.BUY, Price.of("10.00"), Quantity.ofPositive(4))).join();
+            assertTrue(after.books.get().bestAsk().isEmpty());
+        }
+
+        Repos third = new Repos();
+        try (var engine = new OrderBookCommandEngine(third.context(), options())) {
+            assertEquals(new BigDecimal("7.00"),
+                    third.wallets.findByUserId(buyer).orElseThrow().vibranium().available());
+        }
+    }
+
+    @Test
+    void restartLoadsSnapshotAndReplaysOnlyNewerCommands() {
+        Path journalDir = dir.resolve("journal");
+        Path snapshotDir = dir.resolve("snapshots");
+        Repos before = new Repos();
+        OrderId sell;
+
+        try (var engine = new OrderBookCommandEngine(before.context(), EngineOptions.of(100)
+                .withJournal(new MappedFileCommandJournal(journalDir, 1 << 20, 1, 0))
+                .withSnapshots(new FileSnapshotStore(snapshotDir), 0))) {
+            engine.submit(new FundWalletCommand(seller, BigDecimal.ZERO, new BigDecimal("20"))).join();
+            engine.submit(new FundWalletCommand(buyer, new BigDecimal("1000.00"), BigDecimal.ZERO)).join();
+            sell = OrderId.fromString(engine.submit(new PlaceOrderCommand(
+                    seller, Side.SELL, Price.of("10.00"), Quantity.ofPositive(8))).join().orderId());
+
+            assertEquals(3, engine.snapshot().join().longValue());
+
+            engine.submit(new PlaceOrderCommand(
+                    buyer, Side.BUY, Price.of("10.00"), Quantity.ofPositive(3))).join();
+        }
+
+        // o journal continua inteiro, mas só o que veio depois do snapshot é reexecutado
+        Repos after = new Repos();
+        CountingJournal journal = new CountingJournal(new MappedFileCommandJournal(journalDir, 1 << 20, 1, 0));
+        try (var engine = new OrderBookCommandEngine(after.context(), EngineOptions.of(100)
+                .withJournal(journal)
+                .withSnapshots(new FileSnapshotStore(snapshotDir), 0))) {
+            assertEquals(1, journal.replayed);
+            assertEquals(5, after.orders.findById(sell).orElseThrow().remainingQty().value());
+            assertSameWallet(before.wallets.findByUserId(buyer).orElseThrow(),
+                    after.wallets.findByUserId(buyer).orElseThrow());
+            assertSameWallet(before.wallets.findByUserId(seller).orElseThrow(),
+                    after.wallets.findByUserId(seller).orElseThrow());
+            assertEquals(1, after.trades.findAll().size());
+        }
+    }
+
+    @Test
+    void failedCommitStopsTheEngineWithOutcomeUnknown() {
+        Repos repos = new Repos();
+        FailingCommitJournal journal = new FailingCommitJournal(new MappedFileCommandJournal(dir, 1 << 20, 1, 0));
+
+        try (var engine = new OrderBookCommandEngine(repos.context(), EngineOptions.of(100).withJournal(journal))) {
+            CompletionException pending = assertThrows(CompletionException.class, () -> engine.submit(
+                    new FundWalletCommand(buyer, new BigDecimal("100.00"), BigDecimal.ZERO)).join());
+            assertTrue(pending.getCause() instanceof OutcomeUnknownException);
+            // executou em memória; só o commit é incerto
+            assertEquals(0, new BigDecimal("100.00").compareTo(
+                    repos.wallets.findByUserId(buyer).orElseThrow().cash().available()));
+
+            CompletionException after = assertThrows(CompletionException.class, () -> engine.submit(
+                    new FundWalletCommand(seller, BigDecimal.ZERO, BigDecimal.TEN)).join());
+            assertTrue(after.getCause() instanceof ApplicationException);
+            assertFalse(after.getCause() instanceof BackpressureException);
+            assertFalse(after.getCause() instanceof OutcomeUnknownException);
+            assertTrue(repos.wallets.findByUserId(seller).isEmpty());
+        }
+        assertEquals(1, journal.commits);
+    }
+
+    private EngineOptions options() {
+        return EngineOptions.of(100)
+                .withBatchSize(16)
+                .withJournal(new MappedFileCommandJournal(dir, 1 << 20, 4, 500));
+    }
+
+    private static void assertSameWallet(Wallet expected, Wallet actual) {
+        assertEquals(expected.cash().available(), actual.cash().available());
+        assertEquals(expected.cash().reserved(), actual.cash().reserved());
+        assertEquals(expected.vibranium().available(), actual.vibranium().available());
+        assertEquals(expected.vibranium().reserved(), actual.vibranium().reserved());
+    }
+
+    private static final class Repos {
+        final InMemoryOrderBookRepository books = new InMemoryOrderBookRepository();
+        final InMemoryWalletRepository wallets = new InMemoryWalletRepository();
+        final InMemoryOrderRepository orders = new InMemoryOrderRepository();
+        final InMemoryTradeRepository trades = new InMemoryTradeRepository();
+
+        CommandContext context() {
+            return new CommandContext(books, wallets, trades, orders);
+        }
+    }
+
+    /**
+     * Grava normalmente e falha todo commit, como um disco que some.
+     */
+    private static final class FailingCommitJournal implements CommandJournal {
+        private final CommandJournal delegate;
+        int commits;
+
+        FailingCommitJournal(CommandJournal delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long append(JournaledCommand<?> command, Instant executedAt) {
+            return delegate.append(command, executedAt);
+        }
+
+        @Override
+        public boolean commitIfDue() {
+            commit();
+            return true;
+        }
+
+        @Override
+        public void commit() {
+            commits++;
+            throw new UncheckedIOException(new IOException("device gone"));
+        }
+
+        @Override
+        public long maxCommitDelayNanos() {
+            return delegate.maxCommitDelayNanos();
+        }
+
+        @Override
+        public void replay(long afterSequence, BiConsumer<JournaledCommand<?>, Instant> consumer) {
+            delegate.replay(afterSequence, consumer);
+        }
+
+        @Override
+        public long lastSequence() {
+            return delegate.lastSequence();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    private static final class CountingJournal implements CommandJournal {
+        private final CommandJournal delegate;
+        int replayed;
+
+        CountingJournal(CommandJournal delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long append(JournaledCommand<?> command, Instant executedAt) {
+            return delegate.append(command, executedAt);
+        }
+
+        @Override
+        public boolean commitIfDue() {
+            return delegate.commitIfDue();
+        }
+
+        @Override
+        public void commit() {
+            delegate.commit();
+        }
+
+        @Override
+        public long maxCommitDelayNanos() {
+            return delegate.maxCommitDelayNanos();
+        }
+
+        @Override
+        public void replay(long afterSequence, BiConsumer<JournaledCommand<?>, Instant> consumer) {
+            delegate.replay(afterSequence, (command, executedAt) -> {
+                replayed++;
+                consumer.accept(command, executedAt);
+            });
+        }
+
+        @Override
+        public long lastSequence() {
+            return delegate.lastSequence();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.marcospaulo.orderbook.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderResult;
+import com.marcospaulo.orderbook.application.marketdata.BookSnapshot;
+import com.marcospaulo.orderbook.application.marketdata.LevelUpdate;
+import com.marcospaulo.orderbook.application.marketdata.MarketDataUpdate;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class MarketDataIntegrationTests {
+
+    @Test
+    void publishesOneUpdatePerCommandWithFinalLevelQuantities() {
+        var wallets = new InMemoryWalletRepository();
+        var ctx = new CommandContext(new InMemoryOrderBookRepository(), wallets, new InMemoryTradeRepository(),
+                new InMemoryOrderRepository());
+        UserId seller = UserId.of(UUID.randomUUID());
+        UserId buyer = UserId.of(UUID.randomUUID());
+        wallets.save(Wallet.create(seller, BigDecimal.ZERO, new BigDecimal("100")));
+        wallets.save(Wallet.create(buyer, new BigDecimal("10000.00"), BigDecimal.ZERO));
+
+        List<MarketDataUpdate> published = new CopyOnWriteArrayList<>();
+        Price p10 = Price.of("10.00");
+        Price p11 = Price.of("11.00");
+
+        try (var engine = new OrderBookCommandEngine(ctx, EngineOptions.of(100).withMarketData(published::add))) {
+            engine.submit(new PlaceOrderCommand(seller, Side.SELL, p10, Quantity.ofPositive(3))).join();
+            engine.submit(new PlaceOrderCommand(seller, Side.SELL, p10, Quantity.ofPositive(4))).join();
+            var resting = engine.submit(new PlaceOrderCommand(seller, Side.SELL, p11, Quantity.ofPositive(5))).join();
+
+            // varre o 10.00 inteiro (duas ordens) e 1 do 11.00: um update, cada nível uma vez
+            engine.submit(new PlaceOrderCommand(buyer, Side.BUY, p11, Quantity.ofPositive(8))).join();
+            engine.submit(new CancelOrderCommand(seller, OrderId.fromString(resting.orderId()))).join();
+        }
+
+        assertEquals(5, published.size());
+        for (int i = 0; i < published.size(); i++) {
+            assertEquals(i + 1, published.get(i).sequence());
+            assertEquals("VIB-CASH", published.get(i).symbol());
+        }
+        assertEquals(List.of(new LevelUpdate(Side.SELL, p10, 7)), published.get(1).levels());
+
+        MarketDataUpdate sweep = published.get(3);
+        assertEquals(List.of(new LevelUpdate(Side.SELL, p10, 0), new LevelUpdate(Side.SELL, p11, 4)), sweep.levels());
+        assertEquals(3, sweep.trades().size());
+        assertEquals(List.of(3L, 4L, 1L), sweep.trades().stream().map(t -> t.quantity()).toList());
+        assertTrue(sweep.trades().stream().allMatch(t -> t.aggressor() == Side.BUY));
+
+        assertEquals(List.of(new LevelUpdate(Side.SELL, p11, 0)), published.get(4).levels());
+        assertTrue(published.get(4).trades().isEmpty());
+    }
+
+    @Test
+    void executionsCarryBothOrdersAndArriveAfterTheFutureOfTheirCommand() {
+        var wallets = new InMemoryWalletRepository();
+        var ctx = new CommandContext(new InMemoryOrderBookRepository(), wallets, new InMemoryTradeRepository(),
+                new InMemoryOrderRepository());
+        UserId seller = UserId.of(UUID.randomUUID());
+        UserId buyer = UserId.of(UUID.randomUUID());
+        wallets.save(Wallet.create(seller, BigDecimal.ZERO, new BigDecimal("100")));
+        wallets.save(Wallet.create(buyer, new BigDecimal("10000.00"), BigDecimal.ZERO));
+
+        List<Trade> executed = new CopyOnWriteArrayList<>();
+        List<Boolean> futureDone = new CopyOnWriteArrayList<>();
+        AtomicReference<CompletableFuture<PlaceOrderResult>> taker = new AtomicReference<>();
+        Price p10 = Price.of("10.00");
+        PlaceOrderResult maker;
+        PlaceOrderResult taken;
+
+        try (var engine = new OrderBookCommandEngine(ctx, EngineOptions.of(100).withExecutions(trade -> {
+            futureDone.add(taker.get().isDone());
+            executed.add(trade);
+        }))) {
+            maker = engine.submit(new PlaceOrderCommand(seller, Side.SELL, p10, Quantity.ofPositive(3))).join();
+            // segura o writer até o future do taker estar guardado
+            CountDownLatch stored = new CountDownLatch(1);
+            engine.submit(c -> {
+                try {
+                    stored.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+            taker.set(engine.submit(new PlaceOrderCommand(buyer, Side.BUY, p10, Quantity.ofPositive(2))));
+            stored.countDown();
+            taken = taker.get().join();
+        }
+
+        // o close espera o writer, que entrega as execuções depois de completar o lote
+        assertEquals(1, executed.size());
+        assertEquals(List.of(true), futureDone);
+        Trade trade = executed.get(0);
+        assertEquals(maker.orderId(), trade.sellOrderId().toString());
+        assertEquals(taken.orderId(), trade.buyOrderId().toString());
+        assertEquals(2, trade.quantity().value());
+    }
+
+    @Test
+    void publishesBookSnapshotReadableWithoutTheQueue() throws Exception {
+        var wallets = new InMemoryWalletRepository();
+        var ctx = new CommandContext(new InMemoryOrderBookRepository(), wallets, new InMemoryTradeRepository(),
+                new InMemoryOrderRepository());
+        UserId seller = UserId.of(UUID.randomUUID());
+        UserId buyer = UserId.of(UUID.randomUUID());
+        wallets.save(Wallet.create(seller, BigDecimal.ZERO, new BigDecimal("100")));
+        wallets.save(Wallet.create(buyer, new BigDecimal("10000.00"), BigDecimal.ZERO));
+
+        try (var engine = new OrderBookCommandEngine(ctx, EngineOptions.of(100).withBookDepth(2))) {
+            BookSnapshot empty = engine.book();
+            assertEquals(1, empty.version());
+            assertEquals(0, empty.depth(Side.BUY));
+
+            engine.submit(new PlaceOrderCommand(seller, Side.SELL, Price.of("10.00"), Quantity.ofPositive(3))).join();
+            engine.submit(new PlaceOrderCommand(seller, Side.SELL, Price.of("10.00"), Quantity.ofPositive(2))).join();
+            engine.submit(new PlaceOrderCommand(seller, Side.SELL, Price.of("10.50"), Quantity.ofPositive(1))).join();
+            engine.submit(new PlaceOrderCommand(seller, Side.SELL, Price.of("12.00"), Quantity.ofPositive(1))).join();
+            engine.submit(new PlaceOrderCommand(buyer, Side.BUY, Price.of("9.00"), Quantity.ofPositive(4))).join();
+
+            // lido de outra thread, sem submit
+            BookSnapshot book = CompletableFuture.supplyAsync(engine::book).get();
+            assertEquals(List.of(
+                    new BookSnapshot.Level(Price.of("10.00"), 5),
+                    new BookSnapshot.Level(Price.of("10.50"), 1)), book.levels(Side.SELL, 10));
+            assertEquals(new BookSnapshot.Level(Price.of("9.00"), 4), book.best(Side.BUY));
+            assertEquals(6, book.version());
+
+            // comando que não mexe no livro não publica versão nova
+            engine.submit(c -> 0).join();
+            assertSame(book, engine.book());
+        }
+    }
+}
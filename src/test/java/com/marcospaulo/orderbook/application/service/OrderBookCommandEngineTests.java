@@ -8,8 +8,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -85,6 +87,236 @@ public class OrderBookCommandEngineTests {
         }
     }
 
+    @Test
+    void batchedModeExecutesSeriallyAndCompletesInBulkOffTheWriterThread() throws Exception {
+        CommandContext ctx = new CommandContext(
+                new InMemoryOrderBookRepository(),
+                new InMemoryWalletRepository(),
+                new InMemoryTradeRepository(),
+                new InMemoryOrderRepository());
+
+        ExecutorService completions = Executors.newSingleThreadExecutor(r -> new Thread(r, "test-completions"));
+        AtomicInteger handoffs = new AtomicInteger(0);
+        EngineOptions options = EngineOptions.of(10_000)
+                .withBatchSize(64)
+                .withCompletionExecutor(r -> {
+                    handoffs.incrementAndGet();
+                    completions.execute(r);
+                });
+
+        try (OrderBookCommandEngine engine = new OrderBookCommandEngine(ctx, options)) {
+
+            // segura o writer até a fila inteira estar preenchida: os lotes ficam determinísticos
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<String> callbackThread = engine.submit(c -> {
+                started.countDown();
+                await(release);
+                return null;
+            }).thenApply(v -> Thread.currentThread().getName());
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            int n = 1_000;
+            AtomicInteger counter = new AtomicInteger(0);
+            List<CompletableFuture<Integer>> futures = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Command<Integer> cmd = c -> counter.incrementAndGet();
+                futures.add(engine.submit(cmd));
+            }
+            release.countDown();
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+            assertEquals(n, counter.get());
+            for (int i = 0; i < n; i++) {
+                assertEquals(i + 1, futures.get(i).join().intValue());
+            }
+            assertEquals("test-completions", callbackThread.get(10, TimeUnit.SECONDS));
+            // um repasse pelo lote do comando que segurou o writer e um por lote de 64
+            assertEquals(1 + (n + 63) / 64, handoffs.get());
+        } finally {
+            completions.shutdownNow();
+        }
+    }
+
+    @Test
+    void ringBufferIngressExecutesSeriallyUnderMultipleProducers() throws Exception {
+        CommandContext ctx = new CommandContext(
+                new InMemoryOrderBookRepository(),
+                new InMemoryWalletRepository(),
+                new InMemoryTradeRepository(),
+                new InMemoryOrderRepository());
+
+        EngineOptions options = EngineOptions.of(10_000)
+                .withIngress(IngressType.RING_BUFFER)
+                .withWaitStrategy(WaitStrategy.YIELD)
+                .withBatchSize(32);
+
+        try (OrderBookCommandEngine engine = new OrderBookCommandEngine(ctx, options)) {
+
+            int n = 1_000;
+            AtomicInteger counter = new AtomicInteger(0);
+
+            ExecutorService pool = Executors.newFixedThreadPool(16);
+            List<CompletableFuture<Integer>> futures = new ArrayList<>(n);
+
+            for (int i = 0; i < n; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    Command<Integer> cmd = c -> counter.incrementAndGet();
+                    return engine.submit(cmd).join();
+                }, pool));
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+            assertEquals(n, counter.get());
+
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void ringBufferIngressAppliesBackpressureWhenFull() {
+        CommandContext ctx = new CommandContext(
+                new InMemoryOrderBookRepository(),
+                new InMemoryWalletRepository(),
+                new InMemoryTradeRepository(),
+                new InMemoryOrderRepository());
+
+        EngineOptions options = EngineOptions.of(1).withIngress(IngressType.RING_BUFFER);
+
+        try (OrderBookCommandEngine engine = new OrderBookCommandEngine(ctx, options)) {
+            CompletableFuture<Void> first = engine.submit(c -> {
+                sleep(300);
+                return null;
+            });
+
+            CompletableFuture<Void> second = engine.submit(c -> null);
+
+            try {
+                second.join();
+                fail("should have failed with backpressure");
+            } catch (CompletionException ex) {
+                assertTrue(ex.getCause() instanceof BackpressureException);
+            }
+
+            first.join();
+        }
+    }
+
+    @Test
+    void closeDrainsAcceptedCommands() {
+        CommandContext ctx = new CommandContext(
+                new InMemoryOrderBookRepository(),
+                new InMemoryWalletRepository(),
+                new InMemoryTradeRepository(),
+                new InMemoryOrderRepository());
+
+        AtomicInteger counter = new AtomicInteger(0);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+        for (IngressType type : IngressType.values()) {
+            try (OrderBookCommandEngine engine = new OrderBookCommandEngine(ctx,
+                    EngineOptions.of(100).withIngress(type))) {
+                engine.submit(c -> {
+                    sleep(100);
+                    return 0;
+                });
+                for (int i = 0; i < 50; i++) {
+                    futures.add(engine.submit(c -> counter.incrementAndGet()));
+                }
+            }
+        }
+
+        futures.forEach(CompletableFuture::join);
+        assertEquals(100, counter.get());
+    }
+
+    @Test
+    void closeWaitsForTheDrainBeforeTheCompletionExecutorShutsDown() throws Exception {
+        CommandContext ctx = new CommandContext(
+                new InMemoryOrderBookRepository(),
+                new InMemoryWalletRepository(),
+                new InMemoryTradeRepository(),
+                new InMemoryOrderRepository());
+        ExecutorService completion = Executors.newSingleThreadExecutor();
+        OrderBookCommandEngine engine = new OrderBookCommandEngine(ctx,
+                EngineOptions.of(100).withCompletionExecutor(completion));
+
+        AtomicInteger counter = new AtomicInteger();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        // mais lento que qualquer prazo de join, e surdo ao interrupt do close
+        futures.add(engine.submit(c -> {
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2_500);
+            while (System.nanoTime() < end) {
+                sleep(end - System.nanoTime() > 1_000_000 ? 50 : 1);
+                Thread.interrupted();
+            }
+            return 0;
+        }));
+        for (int i = 0; i < 10; i++) {
+            futures.add(engine.submit(c -> counter.incrementAndGet()));
+        }
+
+        engine.close();
+        // ordem do shutdown do Spring: engine, depois o executor
+        completion.shutdown();
+        assertTrue(completion.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(10, counter.get());
+        futures.forEach(f -> assertTrue(f.isDone() && !f.isCompletedExceptionally()));
+    }
+
+    @Test
+    void submitsRacingCloseAlwaysComplete() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            for (IngressType type : IngressType.values()) {
+                for (int round = 0; round < 20; round++) {
+                    CommandContext ctx = new CommandContext(
+                            new InMemoryOrderBookRepository(),
+                            new InMemoryWalletRepository(),
+                            new InMemoryTradeRepository(),
+                            new InMemoryOrderRepository());
+                    OrderBookCommandEngine engine = new OrderBookCommandEngine(ctx,
+                            EngineOptions.of(100_000).withIngress(type));
+
+                    CountDownLatch submitting = new CountDownLatch(4);
+                    List<Future<List<CompletableFuture<Integer>>>> producers = new ArrayList<>();
+                    for (int p = 0; p < 4; p++) {
+                        producers.add(pool.submit(() -> {
+                            submitting.countDown();
+                            List<CompletableFuture<Integer>> submitted = new ArrayList<>();
+                            for (int i = 0; i < 2_000; i++) {
+                                submitted.add(engine.submit(c -> 1));
+                            }
+                            return submitted;
+                        }));
+                    }
+                    submitting.await();
+                    engine.close();
+
+                    for (Future<List<CompletableFuture<Integer>>> producer : producers) {
+                        for (CompletableFuture<Integer> f : producer.get(10, TimeUnit.SECONDS)) {
+                            // executado ou recusado, mas nunca esquecido na fila
+                            f.handle((v, t) -> v).get(5, TimeUnit.SECONDS);
+                        }
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private static void sleep(long ms) {
         try {
             Thread.sleep(ms);
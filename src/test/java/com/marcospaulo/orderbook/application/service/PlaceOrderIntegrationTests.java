@@ -74,6 +74,12 @@ public class PlaceOrderIntegrationTests {
             assertEquals(new BigDecimal("970.00"), buyer.cash().available());
             assertEquals(new BigDecimal("0.00"), buyer.cash().reserved());
             assertEquals(new BigDecimal("3.00"), buyer.vibranium().available());
+
+            var trade = tradeRepo.findByUser(buyerId).get(0);
+            assertEquals(buyerId, trade.buyerId());
+            assertEquals(sellerId, trade.sellerId());
+            assertEquals(1, tradeRepo.findByUser(sellerId).size());
+            assertEquals(0, tradeRepo.findByUser(UserId.of(UUID.randomUUID())).size());
         }
     }
 
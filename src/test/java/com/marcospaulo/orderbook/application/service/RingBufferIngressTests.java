@@ -0,0 +1,73 @@
+package com.marcospaulo.orderbook.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.application.command.Command;
+
+public class RingBufferIngressTests {
+
+    @Test
+    void claimFailsAtLogicalCapacityEvenWhenRingIsLarger() {
+        // capacity 3 -> ring de 4 slots, mas só 3 claims aceitos
+        RingBufferIngress ring = new RingBufferIngress(3, WaitStrategy.BUSY_SPIN);
+
+        assertTrue(ring.offer(c -> 1, new CompletableFuture<>()));
+        assertTrue(ring.offer(c -> 2, new CompletableFuture<>()));
+        assertTrue(ring.offer(c -> 3, new CompletableFuture<>()));
+        assertFalse(ring.offer(c -> 4, new CompletableFuture<>()));
+    }
+
+    @Test
+    void slotsAreReusedOnlyAfterRelease() {
+        RingBufferIngress ring = new RingBufferIngress(2, WaitStrategy.BUSY_SPIN);
+        Command<?>[] commands = new Command<?>[2];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[2];
+
+        for (int lap = 0; lap < 10; lap++) {
+            Command<Integer> a = c -> 1;
+            Command<Integer> b = c -> 2;
+            CompletableFuture<Integer> fa = new CompletableFuture<>();
+
+            assertTrue(ring.offer(a, fa));
+            assertTrue(ring.offer(b, new CompletableFuture<>()));
+            assertFalse(ring.offer(c -> 3, new CompletableFuture<>()));
+
+            assertEquals(2, ring.drainTo(commands, futures, 2));
+            assertSame(a, commands[0]);
+            assertSame(b, commands[1]);
+            assertSame(fa, futures[0]);
+
+            // drenado mas ainda em execução: continua sem capacidade
+            assertFalse(ring.offer(c -> 3, new CompletableFuture<>()));
+            assertFalse(ring.isEmpty());
+
+            ring.release(2);
+            assertTrue(ring.isEmpty());
+        }
+    }
+
+    @Test
+    void drainRespectsMaxAndPublicationOrder() {
+        RingBufferIngress ring = new RingBufferIngress(8, WaitStrategy.BUSY_SPIN);
+        Command<?>[] commands = new Command<?>[8];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[8];
+
+        assertEquals(0, ring.drainTo(commands, futures, 8));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ring.offer(c -> null, new CompletableFuture<>()));
+        }
+
+        assertEquals(3, ring.drainTo(commands, futures, 3));
+        assertEquals(2, ring.drainTo(commands, futures, 8));
+        ring.release(5);
+        assertTrue(ring.isEmpty());
+    }
+}
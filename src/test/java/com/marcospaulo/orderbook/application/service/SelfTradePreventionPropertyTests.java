@@ -0,0 +1,144 @@
+package com.marcospaulo.orderbook.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderResult;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderType;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.TimeInForce;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+import com.marcospaulo.orderbook.domain.policy.SelfTradePrevention;
+import com.marcospaulo.orderbook.domain.service.SequentialIdGenerator;
+
+/**
+ * Fluxo aleatório de ordens de poucos usuários num livro estreito, para que
+ * auto-cruzamentos sejam frequentes. Depois de cada comando, em todos os
+ * modos: nenhum trade do usuário consigo mesmo, caixa e vibranium totais
+ * conservados, e a reserva de cada usuário igual ao que as ordens dele em
+ * repouso ainda podem usar.
+ */
+public class SelfTradePreventionPropertyTests {
+
+    private static final int USERS = 3;
+    private static final int STEPS = 3_000;
+
+    @Test
+    void preventionNeverTradesWithSelfAndKeepsReservationsExact() {
+        for (SelfTradePrevention mode : SelfTradePrevention.values()) {
+            if (mode == SelfTradePrevention.NONE)
+                continue;
+            for (long seed = 1; seed <= 5; seed++) {
+                run(mode, seed);
+            }
+        }
+    }
+
+    private static void run(SelfTradePrevention mode, long seed) {
+        Random rnd = new Random(seed);
+        var books = new InMemoryOrderBookRepository();
+        var wallets = new InMemoryWalletRepository();
+        var trades = new InMemoryTradeRepository();
+        var orders = new InMemoryOrderRepository();
+        CommandContext ctx = new CommandContext(Instrument.DEFAULT, books, wallets, trades, orders,
+                new SequentialIdGenerator(0), Clock.systemUTC(), mode);
+
+        List<UserId> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            UserId u = UserId.of(UUID.randomUUID());
+            users.add(u);
+            wallets.save(Wallet.create(u, new BigDecimal("1000000.00"), new BigDecimal("100000")));
+        }
+        BigDecimal cashTotal = total(wallets, users, true);
+        BigDecimal vibTotal = total(wallets, users, false);
+        Map<OrderId, UserId> placed = new HashMap<>();
+
+        for (int step = 0; step < STEPS; step++) {
+            UserId user = users.get(rnd.nextInt(USERS));
+            String where = mode + " seed=" + seed + " step=" + step;
+            try {
+                if (rnd.nextInt(8) == 0 && !placed.isEmpty()) {
+                    OrderId id = new ArrayList<>(placed.keySet()).get(rnd.nextInt(placed.size()));
+                    new CancelOrderCommand(placed.get(id), id).execute(ctx);
+                } else {
+                    Side side = rnd.nextBoolean() ? Side.BUY : Side.SELL;
+                    TimeInForce tif = rnd.nextInt(4) == 0 ? TimeInForce.IOC : TimeInForce.GTC;
+                    PlaceOrderResult r = new PlaceOrderCommand(user, side, OrderType.LIMIT, tif,
+                            Price.ofTicks(990 + rnd.nextInt(20)), Quantity.ofPositive(1 + rnd.nextInt(20)))
+                            .execute(ctx);
+                    placed.put(OrderId.fromString(r.orderId()), user);
+                }
+            } catch (DomainException rejected) {
+                // cancelamento de ordem que já saiu do livro
+            }
+
+            trades.forEach(trades.count(), t -> assertNotEquals(t.buyerId(), t.sellerId(), where));
+            assertEquals(0, cashTotal.compareTo(total(wallets, users, true)), where);
+            assertEquals(0, vibTotal.compareTo(total(wallets, users, false)), where);
+            assertReservationsMatchRestingOrders(books.get(), wallets, users, where);
+        }
+    }
+
+    private static void assertReservationsMatchRestingOrders(OrderBook book, InMemoryWalletRepository wallets,
+            List<UserId> users, String where) {
+        Map<UserId, BigDecimal> cash = new HashMap<>();
+        Map<UserId, BigDecimal> vib = new HashMap<>();
+        book.bids().forEachOrder(o -> {
+            assertResting(o, where);
+            cash.merge(o.userId(), o.price().value().multiply(BigDecimal.valueOf(o.remainingQty().value())),
+                    BigDecimal::add);
+        });
+        book.asks().forEachOrder(o -> {
+            assertResting(o, where);
+            vib.merge(o.userId(), BigDecimal.valueOf(o.remainingQty().value()), BigDecimal::add);
+        });
+        for (UserId u : users) {
+            Wallet w = wallets.findByUserId(u).orElseThrow();
+            assertEquals(0, cash.getOrDefault(u, BigDecimal.ZERO).compareTo(w.cash().reserved()), where);
+            assertEquals(0, vib.getOrDefault(u, BigDecimal.ZERO).compareTo(w.vibranium().reserved()), where);
+        }
+    }
+
+    private static void assertResting(Order o, String where) {
+        assertFalse(o.isCancelled(), where);
+        assertTrue(o.remainingQty().value() > 0, where);
+    }
+
+    private static BigDecimal total(InMemoryWalletRepository wallets, List<UserId> users, boolean cash) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (UserId u : users) {
+            Wallet w = wallets.findByUserId(u).orElseThrow();
+            var b = cash ? w.cash() : w.vibranium();
+            sum = sum.add(b.available()).add(b.reserved());
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,208 @@
+package com.marcospaulo.orderbook.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.CancelOrderResult;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderResult;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderType;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.TimeInForce;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class StopOrderIntegrationTests {
+
+    private final InMemoryOrderBookRepository books = new InMemoryOrderBookRepository();
+    private final InMemoryWalletRepository wallets = new InMemoryWalletRepository();
+    private final InMemoryTradeRepository trades = new InMemoryTradeRepository();
+    private final InMemoryOrderRepository orders = new InMemoryOrderRepository();
+    private final CommandContext ctx = new CommandContext(books, wallets, trades, orders);
+
+    private final UserId seller = UserId.of(UUID.randomUUID());
+    private final UserId buyer = UserId.of(UUID.randomUUID());
+    private final UserId stopper = UserId.of(UUID.randomUUID());
+
+    @Test
+    void stopMarketFiresInTheCommandThatTradesThroughItsPrice() {
+        fund(new BigDecimal("100000.00"), 100);
+        limit(buyer, Side.BUY, "10.00", 1);
+        limit(buyer, Side.BUY, "9.00", 5);
+        PlaceOrderResult parked = stop(Side.SELL, OrderType.STOP, TimeInForce.IOC, null, "9.50", 4);
+
+        assertEquals(1, book().stops().size());
+        assertEquals(new BigDecimal("0.00"), wallet(stopper).vibranium().reserved());
+
+        // 10.00 não cruza o stop; 9.00 cruza e a venda a mercado entra no mesmo comando
+        limit(seller, Side.SELL, "10.00", 1);
+        assertEquals(1, book().stops().size());
+        limit(seller, Side.SELL, "9.00", 1);
+
+        assertEquals(0, book().stops().size());
+        assertEquals(3, trades.count());
+        assertEquals(0, book().bids().levelQuantity(Price.of("9.00")));
+        Order triggered = orders.findById(OrderId.fromString(parked.orderId())).orElseThrow();
+        assertTrue(triggered.isFilled());
+        assertEquals(new BigDecimal("96.00"), wallet(stopper).vibranium().available());
+    }
+
+    @Test
+    void stopLimitReservesOnlyWhenTriggeredAndRestsAtItsLimit() {
+        fund(new BigDecimal("1000.00"), 100);
+        limit(seller, Side.SELL, "10.00", 1);
+        limit(seller, Side.SELL, "12.00", 5);
+        stop(Side.BUY, OrderType.STOP_LIMIT, TimeInForce.GTC, "10.50", "10.00", 3);
+
+        assertEquals(new BigDecimal("0.00"), wallet(stopper).cash().reserved());
+
+        limit(buyer, Side.BUY, "10.00", 1);
+
+        assertEquals(0, book().stops().size());
+        assertEquals(3, book().bids().levelQuantity(Price.of("10.50")));
+        assertEquals(new BigDecimal("31.50"), wallet(stopper).cash().reserved());
+    }
+
+    @Test
+    void cascadeOfTenThousandStopsResolvesInOneCommand() {
+        int n = 10_000;
+        fund(new BigDecimal("100000000.00"), 2 * n);
+        long top = 20_000;
+        for (int k = 0; k <= n; k++)
+            limit(buyer, Side.BUY, Price.ofTicks(top - k), 1);
+        // o stop k dispara no preço do trade k - 1 e vende no bid k
+        for (int k = 1; k <= n; k++)
+            new PlaceOrderCommand(stopper, Side.SELL, OrderType.STOP, TimeInForce.IOC, null,
+                    Price.ofTicks(top - k + 1), Quantity.ofPositive(1)).execute(ctx);
+        assertEquals(n, book().stops().size());
+
+        PlaceOrderResult first = limit(seller, Side.SELL, Price.ofTicks(top), 1);
+
+        assertEquals(1, first.tradesExecuted());
+        assertEquals(n + 1, trades.count());
+        assertEquals(0, book().stops().size());
+        assertTrue(book().bids().isEmpty());
+        assertEquals(Price.ofTicks(top - n), book().stops().lastTradePrice());
+    }
+
+    @Test
+    void pendingStopCanBeCancelledAndUnfillableTriggersAreRecordedAsCancelled() {
+        fund(new BigDecimal("1000.00"), 100);
+        PlaceOrderResult cancelled = stop(Side.BUY, OrderType.STOP, TimeInForce.IOC, null, "11.00", 2);
+        PlaceOrderResult unfillable = stop(Side.BUY, OrderType.STOP, TimeInForce.IOC, null, "10.00", 2);
+
+        assertThrows(DomainException.class,
+                () -> new CancelOrderCommand(buyer, OrderId.fromString(cancelled.orderId())).execute(ctx));
+        CancelOrderResult r = new CancelOrderCommand(stopper, OrderId.fromString(cancelled.orderId())).execute(ctx);
+        assertEquals(2, r.cancelledQty());
+        assertEquals(1, book().stops().size());
+
+        // dispara sem asks no livro: o stop a mercado não tem como entrar
+        limit(seller, Side.SELL, "10.00", 1);
+        limit(buyer, Side.BUY, "10.00", 1);
+        assertEquals(0, book().stops().size());
+        assertTrue(book().asks().isEmpty());
+        assertEquals(new BigDecimal("0.00"), wallet(stopper).cash().reserved());
+        Order o = orders.findById(OrderId.fromString(unfillable.orderId())).orElseThrow();
+        assertTrue(o.isCancelled());
+        assertEquals(stopper, o.userId());
+        assertEquals(2, o.remainingQty().value());
+    }
+
+    @Test
+    void triggeredStopWithoutBalanceIsRecordedAsCancelledWithoutReserving() {
+        fund(new BigDecimal("1000.00"), 100);
+        PlaceOrderResult parked = stop(Side.BUY, OrderType.STOP_LIMIT, TimeInForce.GTC, "12.00", "10.00", 5);
+        // o saldo some enquanto o stop espera: 5 x 12.00 não cabe mais
+        wallets.save(Wallet.create(stopper, new BigDecimal("10.00"), BigDecimal.valueOf(100)));
+
+        limit(seller, Side.SELL, "10.00", 1);
+        limit(buyer, Side.BUY, "10.00", 1);
+
+        assertEquals(0, book().stops().size());
+        assertTrue(book().bids().isEmpty());
+        assertEquals(new BigDecimal("10.00"), wallet(stopper).cash().available());
+        assertEquals(new BigDecimal("0.00"), wallet(stopper).cash().reserved());
+        Order o = orders.findById(OrderId.fromString(parked.orderId())).orElseThrow();
+        assertTrue(o.isCancelled());
+        assertEquals(Price.of("12.00"), o.price());
+        assertEquals(5, o.remainingQty().value());
+    }
+
+    @Test
+    void failureAfterTheTriggeredStopReservesIsNotRecordedAsCancelled() {
+        fund(new BigDecimal("1000.00"), 100);
+        PlaceOrderResult parked = stop(Side.BUY, OrderType.STOP, TimeInForce.IOC, null, "10.00", 1);
+        // em repouso sem carteira: o settlement do fill do stop falha depois da reserva
+        book().add(Order.create(OrderId.of(999_999), UserId.of(UUID.randomUUID()), Side.SELL, Price.of("11.00"),
+                Quantity.ofPositive(1), Instant.now()));
+        limit(seller, Side.SELL, "10.00", 1);
+
+        assertThrows(DomainException.class, () -> limit(buyer, Side.BUY, "10.00", 1));
+
+        Order o = orders.findById(OrderId.fromString(parked.orderId())).orElseThrow();
+        assertFalse(o.isCancelled());
+    }
+
+    @Test
+    void rejectsInconsistentStopParameters() {
+        fund(new BigDecimal("1000.00"), 100);
+
+        assertThrows(DomainException.class, () -> stop(Side.BUY, OrderType.STOP, TimeInForce.IOC, null, null, 1));
+        assertThrows(DomainException.class, () -> stop(Side.BUY, OrderType.STOP, TimeInForce.GTC, null, "10.00", 1));
+        assertThrows(DomainException.class,
+                () -> stop(Side.BUY, OrderType.STOP_LIMIT, TimeInForce.GTC, null, "10.00", 1));
+        assertThrows(DomainException.class,
+                () -> stop(Side.BUY, OrderType.LIMIT, TimeInForce.GTC, "10.00", "10.00", 1));
+        assertEquals(0, book().stops().size());
+    }
+
+    private void fund(BigDecimal cash, long vibranium) {
+        BigDecimal vib = BigDecimal.valueOf(vibranium);
+        wallets.save(Wallet.create(seller, BigDecimal.ZERO, vib));
+        wallets.save(Wallet.create(buyer, cash, BigDecimal.ZERO));
+        wallets.save(Wallet.create(stopper, cash, vib));
+    }
+
+    private PlaceOrderResult limit(UserId user, Side side, String price, long qty) {
+        return limit(user, side, Price.of(price), qty);
+    }
+
+    private PlaceOrderResult limit(UserId user, Side side, Price price, long qty) {
+        return new PlaceOrderCommand(user, side, price, Quantity.ofPositive(qty)).execute(ctx);
+    }
+
+    private PlaceOrderResult stop(Side side, OrderType type, TimeInForce tif, String price, String stopPrice,
+            long qty) {
+        return new PlaceOrderCommand(stopper, side, type, tif, price == null ? null : Price.of(price),
+                stopPrice == null ? null : Price.of(stopPrice), Quantity.ofPositive(qty)).execute(ctx);
+    }
+
+    private Wallet wallet(UserId user) {
+        return wallets.findByUserId(user).orElseThrow();
+    }
+
+    private OrderBook book() {
+        return books.get();
+    }
+}
@@ -0,0 +1,207 @@
+package com.marcospaulo.orderbook.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.PlaceOrderResult;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.domain.model.Instrument;
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderType;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.TimeInForce;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+import com.marcospaulo.orderbook.domain.policy.SelfTradePrevention;
+import com.marcospaulo.orderbook.domain.service.SequentialIdGenerator;
+
+public class TimeInForceIntegrationTests {
+
+    private final InMemoryOrderBookRepository books = new InMemoryOrderBookRepository();
+    private final InMemoryWalletRepository wallets = new InMemoryWalletRepository();
+    private final InMemoryTradeRepository trades = new InMemoryTradeRepository();
+    private final InMemoryOrderRepository orders = new InMemoryOrderRepository();
+    private final CommandContext ctx = new CommandContext(books, wallets, trades, orders);
+
+    private final UserId seller = UserId.of(UUID.randomUUID());
+    private final UserId buyer = UserId.of(UUID.randomUUID());
+
+    @Test
+    void iocExpiresTheRemainderAndReleasesItsReservation() {
+        fund(new BigDecimal("1000.00"));
+        sell("10.00", 5);
+
+        PlaceOrderResult r = place(OrderType.LIMIT, TimeInForce.IOC, Price.of("11.00"), 8);
+
+        assertEquals(1, r.tradesExecuted());
+        assertEquals(3, r.expiredQty());
+        assertTrue(book().bids().isEmpty());
+        assertTrue(book().asks().isEmpty());
+        Wallet w = wallets.findByUserId(buyer).orElseThrow();
+        assertEquals(new BigDecimal("950.00"), w.cash().available());
+        assertEquals(new BigDecimal("0.00"), w.cash().reserved());
+        Order o = orders.findById(OrderId.fromString(r.orderId())).orElseThrow();
+        assertTrue(o.isCancelled());
+        assertEquals(3, o.remainingQty().value());
+    }
+
+    @Test
+    void fokIsKilledWithoutTouchingBookOrWallet() {
+        fund(new BigDecimal("1000.00"));
+        sell("10.00", 5);
+        sell("12.00", 5);
+
+        PlaceOrderResult killed = place(OrderType.LIMIT, TimeInForce.FOK, Price.of("11.00"), 8);
+
+        assertEquals(0, killed.tradesExecuted());
+        assertEquals(8, killed.expiredQty());
+        assertEquals(5, book().asks().levelQuantity(Price.of("10.00")));
+        Wallet w = wallets.findByUserId(buyer).orElseThrow();
+        assertEquals(new BigDecimal("1000.00"), w.cash().available());
+        assertEquals(new BigDecimal("0.00"), w.cash().reserved());
+
+        PlaceOrderResult filled = place(OrderType.LIMIT, TimeInForce.FOK, Price.of("12.00"), 8);
+
+        assertEquals(2, filled.tradesExecuted());
+        assertEquals(0, filled.expiredQty());
+        assertEquals(2, book().asks().levelQuantity(Price.of("12.00")));
+        assertEquals(new BigDecimal("914.00"), w.cash().available());
+    }
+
+    @Test
+    void fokIsKilledWhenSelfTradePreventionWouldStopItHalfway() {
+        CommandContext stp = context(SelfTradePrevention.CANCEL_NEWEST);
+        restingAsks(stp);
+
+        PlaceOrderResult r = fok(stp, 10);
+
+        // o 10 do livro tem 5 do próprio comprador no meio: sem ele, não fecha
+        assertEquals(0, r.tradesExecuted());
+        assertEquals(10, r.expiredQty());
+        assertEquals(0, trades.count());
+        assertEquals(15, stp.orderBookRepository().get().asks().levelQuantity(Price.of("10.00")));
+        assertEquals(new BigDecimal("0.00"), wallets.findByUserId(buyer).orElseThrow().cash().reserved());
+    }
+
+    @Test
+    void fokOnlyCountsOthersWhenSelfTradePreventionCancelsTheRestingOrder() {
+        CommandContext stp = context(SelfTradePrevention.CANCEL_OLDEST);
+        restingAsks(stp);
+
+        PlaceOrderResult r = fok(stp, 10);
+
+        assertEquals(2, r.tradesExecuted());
+        assertEquals(0, r.expiredQty());
+        assertTrue(stp.orderBookRepository().get().asks().isEmpty());
+    }
+
+    @Test
+    void fokFillsWhenTheOwnOrderIsBehindEnoughLiquidity() {
+        CommandContext stp = context(SelfTradePrevention.CANCEL_NEWEST);
+        restingAsks(stp);
+
+        PlaceOrderResult r = fok(stp, 5);
+
+        assertEquals(1, r.tradesExecuted());
+        assertEquals(0, r.expiredQty());
+    }
+
+    @Test
+    void marketBuyReservesAtTheWorstLevelItReaches() {
+        // 5 @ 10 + 1 @ 12 = 62; reserva 6 * 12 = 72, que é tudo o que há
+        fund(new BigDecimal("72.00"));
+        sell("10.00", 5);
+        sell("12.00", 5);
+        sell("50.00", 5);
+
+        PlaceOrderResult r = place(OrderType.MARKET, TimeInForce.IOC, null, 6);
+
+        assertEquals(2, r.tradesExecuted());
+        assertEquals(0, r.expiredQty());
+        Wallet w = wallets.findByUserId(buyer).orElseThrow();
+        assertEquals(new BigDecimal("10.00"), w.cash().available());
+        assertEquals(new BigDecimal("0.00"), w.cash().reserved());
+        assertEquals(4, book().asks().levelQuantity(Price.of("12.00")));
+        assertTrue(book().bids().isEmpty());
+    }
+
+    @Test
+    void marketOrderLargerThanTheBookExpiresTheRest() {
+        fund(new BigDecimal("1000.00"));
+        sell("10.00", 5);
+
+        PlaceOrderResult r = place(OrderType.MARKET, TimeInForce.IOC, null, 8);
+
+        assertEquals(1, r.tradesExecuted());
+        assertEquals(3, r.expiredQty());
+        assertEquals(new BigDecimal("0.00"), wallets.findByUserId(buyer).orElseThrow().cash().reserved());
+        assertTrue(book().bids().isEmpty());
+    }
+
+    @Test
+    void rejectsMarketOrdersThatCannotExecute() {
+        fund(new BigDecimal("1000.00"));
+
+        assertThrows(DomainException.class, () -> place(OrderType.MARKET, TimeInForce.IOC, null, 1));
+        sell("10.00", 5);
+        assertThrows(DomainException.class, () -> place(OrderType.MARKET, TimeInForce.GTC, null, 1));
+        assertThrows(DomainException.class, () -> place(OrderType.MARKET, TimeInForce.IOC, Price.of("10.00"), 1));
+        assertEquals(5, book().asks().levelQuantity(Price.of("10.00")));
+    }
+
+    private CommandContext context(SelfTradePrevention selfTrade) {
+        return new CommandContext(Instrument.DEFAULT, books, wallets, trades, orders, new SequentialIdGenerator(0),
+                Clock.systemUTC(), selfTrade);
+    }
+
+    /**
+     * 10.00: vendedor 5, comprador 5, vendedor 5, nessa ordem.
+     */
+    private void restingAsks(CommandContext stp) {
+        wallets.save(Wallet.create(seller, BigDecimal.ZERO, new BigDecimal("100")));
+        wallets.save(Wallet.create(buyer, new BigDecimal("1000.00"), new BigDecimal("5")));
+        Price p10 = Price.of("10.00");
+        new PlaceOrderCommand(seller, Side.SELL, p10, Quantity.ofPositive(5)).execute(stp);
+        new PlaceOrderCommand(buyer, Side.SELL, p10, Quantity.ofPositive(5)).execute(stp);
+        new PlaceOrderCommand(seller, Side.SELL, p10, Quantity.ofPositive(5)).execute(stp);
+    }
+
+    private PlaceOrderResult fok(CommandContext stp, long qty) {
+        return new PlaceOrderCommand(buyer, Side.BUY, OrderType.LIMIT, TimeInForce.FOK, Price.of("10.00"),
+                Quantity.ofPositive(qty)).execute(stp);
+    }
+
+    private void fund(BigDecimal cash) {
+        wallets.save(Wallet.create(seller, BigDecimal.ZERO, new BigDecimal("100")));
+        wallets.save(Wallet.create(buyer, cash, BigDecimal.ZERO));
+    }
+
+    private void sell(String price, long qty) {
+        new PlaceOrderCommand(seller, Side.SELL, Price.of(price), Quantity.ofPositive(qty)).execute(ctx);
+    }
+
+    private PlaceOrderResult place(OrderType type, TimeInForce tif, Price price, long qty) {
+        return new PlaceOrderCommand(buyer, Side.BUY, type, tif, price, Quantity.ofPositive(qty)).execute(ctx);
+    }
+
+    private OrderBook book() {
+        return books.get();
+    }
+}
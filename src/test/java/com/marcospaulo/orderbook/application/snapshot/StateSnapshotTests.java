@@ -0,0 +1,236 @@
+package com.marcospaulo.orderbook.application.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryOrderBookRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryTradeRepository;
+import com.marcospaulo.orderbook.adapters.out.memory.InMemoryWalletRepository;
+import com.marcospaulo.orderbook.application.command.CancelOrderCommand;
+import com.marcospaulo.orderbook.application.command.CommandContext;
+import com.marcospaulo.orderbook.application.command.PendingTransfer;
+import com.marcospaulo.orderbook.application.command.PlaceOrderCommand;
+import com.marcospaulo.orderbook.application.command.TransferInCommand;
+import com.marcospaulo.orderbook.application.command.TransferOutCommand;
+import com.marcospaulo.orderbook.application.ports.out.InMemoryOrderRepository;
+import com.marcospaulo.orderbook.domain.model.Asset;
+import com.marcospaulo.orderbook.domain.model.Order;
+import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderBookLayout;
+import com.marcospaulo.orderbook.domain.model.OrderBookSide;
+import com.marcospaulo.orderbook.domain.model.OrderType;
+import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.StopOrder;
+import com.marcospaulo.orderbook.domain.model.StopOrderBook;
+import com.marcospaulo.orderbook.domain.model.TimeInForce;
+import com.marcospaulo.orderbook.domain.model.Trade;
+import com.marcospaulo.orderbook.domain.model.Wallet;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class StateSnapshotTests {
+
+    private final UserId seller = UserId.of(UUID.randomUUID());
+    private final UserId buyer = UserId.of(UUID.randomUUID());
+
+    @Test
+    void roundTripPreservesBookFifoOrdersWalletsAndTrades() throws IOException {
+        CommandContext source = context(OrderBookLayout.TICK_LADDER);
+        source.walletRepository().save(Wallet.create(seller, BigDecimal.ZERO, new BigDecimal("100")));
+        source.walletRepository().save(Wallet.create(buyer, new BigDecimal("10000.00"), BigDecimal.ZERO));
+
+        place(source, seller, Side.SELL, "10.00", 5);
+        place(source, seller, Side.SELL, "10.00", 7);
+        place(source, seller, Side.SELL, "10.50", 3);
+        place(source, buyer, Side.BUY, "10.00", 6); // executa 5 + 1
+        OrderId cancelled = place(source, buyer, Side.BUY, "9.00", 2);
+        new CancelOrderCommand(buyer, cancelled).execute(source);
+        place(source, buyer, Side.BUY, "9.50", 4);
+        place(source, buyer, Side.BUY, "9.50", 1);
+        new PlaceOrderCommand(buyer, Side.BUY, Price.of("9.25"), Quantity.ofPositive(9), Quantity.ofPositive(2))
+                .execute(source);
+        source.walletRepository().findByUserId(seller).orElseThrow().deposit(Asset.of("GOLD", 3), new BigDecimal("0.125"));
+        UUID outgoing = UUID.randomUUID();
+        UUID incoming = UUID.randomUUID();
+        new TransferOutCommand(outgoing, buyer, Asset.CASH, new BigDecimal("5.00"), "GOLD-CASH").execute(source);
+        new TransferInCommand(incoming, seller, Asset.CASH, new BigDecimal("1.00")).execute(source);
+
+        StateSnapshot snapshot = roundTrip(StateSnapshot.capture(source, 42));
+        assertEquals(42, snapshot.sequence());
+
+        // layout diferente no destino: o snapshot guarda ordem, não estrutura
+        CommandContext target = context(OrderBookLayout.TREE);
+        snapshot.restoreInto(target);
+
+        OrderBook expectedBook = source.orderBookRepository().get();
+        OrderBook actualBook = target.orderBookRepository().get();
+        assertEquals(ids(expectedBook.bids()), ids(actualBook.bids()));
+        assertEquals(ids(expectedBook.asks()), ids(actualBook.asks()));
+        assertEquals(8, snapshot.orderCount());
+        assertEquals(5, snapshot.restingOrderCount());
+
+        source.orderRepository().forEach(expected -> {
+            Order actual = target.orderRepository().findById(expected.id()).orElseThrow();
+            assertEquals(expected.userId(), actual.userId());
+            assertEquals(expected.side(), actual.side());
+            assertEquals(expected.price(), actual.price());
+            assertEquals(expected.originalQty().value(), actual.originalQty().value());
+            assertEquals(expected.remainingQty().value(), actual.remainingQty().value());
+            assertEquals(expected.displayQty().value(), actual.displayQty().value());
+            assertEquals(expected.visibleQty().value(), actual.visibleQty().value());
+            assertEquals(expected.createdAt(), actual.createdAt());
+            assertEquals(expected.isCancelled(), actual.isCancelled());
+            assertEquals(expected.isResting(), actual.isResting());
+        });
+        assertTrue(target.orderRepository().findById(cancelled).orElseThrow().isCancelled());
+        assertFalse(target.orderRepository().findById(cancelled).orElseThrow().isResting());
+
+        for (UserId user : List.of(seller, buyer)) {
+            Wallet expected = source.walletRepository().findByUserId(user).orElseThrow();
+            Wallet actual = target.walletRepository().findByUserId(user).orElseThrow();
+            assertEquals(expected.cash().available(), actual.cash().available());
+            assertEquals(expected.cash().reserved(), actual.cash().reserved());
+            assertEquals(expected.vibranium().available(), actual.vibranium().available());
+            assertEquals(expected.vibranium().reserved(), actual.vibranium().reserved());
+            assertEquals(expected.balances(), actual.balances());
+        }
+        assertEquals(new BigDecimal("0.125"),
+                target.walletRepository().findByUserId(seller).orElseThrow().balance(Asset.of("GOLD", 3)).available());
+
+        assertEquals(1, snapshot.pendingTransferCount());
+        PendingTransfer pending = target.transfers().pending().get(0);
+        assertEquals(outgoing, pending.id());
+        assertEquals(buyer, pending.userId());
+        assertEquals(new BigDecimal("5.00"), pending.amount());
+        assertEquals("GOLD-CASH", pending.toSymbol());
+        // o crédito restaurado continua idempotente
+        new TransferInCommand(incoming, seller, Asset.CASH, new BigDecimal("1.00")).execute(target);
+        assertEquals(source.walletRepository().findByUserId(seller).orElseThrow().cash().available(),
+                target.walletRepository().findByUserId(seller).orElseThrow().cash().available());
+
+        List<Trade> expectedTrades = source.tradeRepository().findAll();
+        List<Trade> actualTrades = target.tradeRepository().findAll();
+        assertEquals(2, actualTrades.size());
+        for (int i = 0; i < expectedTrades.size(); i++) {
+            Trade e = expectedTrades.get(i);
+            Trade a = actualTrades.get(i);
+            assertEquals(e.id(), a.id());
+            assertEquals(e.buyOrderId(), a.buyOrderId());
+            assertEquals(e.sellOrderId(), a.sellOrderId());
+            assertEquals(e.buyerId(), a.buyerId());
+            assertEquals(e.sellerId(), a.sellerId());
+            assertEquals(e.price(), a.price());
+            assertEquals(e.quantity().value(), a.quantity().value());
+            assertEquals(e.executedAt(), a.executedAt());
+        }
+
+        // o estado restaurado continua negociável: a sobra de 6 no 10.00 ainda é a primeira
+        place(target, buyer, Side.BUY, "10.00", 6);
+        assertEquals(Price.of("10.50"), target.orderBookRepository().get().asks().bestPrice().orElseThrow());
+    }
+
+    @Test
+    void tradesAppendedAfterTheCaptureStayOutOfTheSnapshot() throws IOException {
+        CommandContext source = context(OrderBookLayout.TICK_LADDER);
+        source.walletRepository().save(Wallet.create(seller, BigDecimal.ZERO, new BigDecimal("100")));
+        source.walletRepository().save(Wallet.create(buyer, new BigDecimal("10000.00"), BigDecimal.ZERO));
+        place(source, seller, Side.SELL, "10.00", 5);
+        place(source, buyer, Side.BUY, "10.00", 2);
+
+        StateSnapshot snapshot = StateSnapshot.capture(source, 1);
+        // o writer segue anexando enquanto o snapshot ainda não foi serializado
+        place(source, buyer, Side.BUY, "10.00", 3);
+        assertEquals(2, source.tradeRepository().count());
+
+        CommandContext target = context(OrderBookLayout.TREE);
+        roundTrip(snapshot).restoreInto(target);
+        assertEquals(1, target.tradeRepository().count());
+        assertEquals(source.tradeRepository().findAll().get(0).id(), target.tradeRepository().findAll().get(0).id());
+    }
+
+        @Test
+    void roundTripKeepsPendingStopsInTriggerOrderAndTheLastTradePrice() throws IOException {
+        CommandContext source = context(OrderBookLayout.TREE);
+        source.walletRepository().save(Wallet.create(seller, BigDecimal.ZERO, new BigDecimal("100")));
+        source.walletRepository().save(Wallet.create(buyer, new BigDecimal("10000.00"), BigDecimal.ZERO));
+        place(source, seller, Side.SELL, "10.00", 1);
+        place(source, buyer, Side.BUY, "10.00", 1);
+        stop(source, seller, Side.SELL, "9.00", "8.50");
+        stop(source, seller, Side.SELL, "9.50", null);
+        stop(source, seller, Side.SELL, "9.00", null);
+        stop(source, buyer, Side.BUY, "11.00", "11.50");
+
+        StateSnapshot snapshot = roundTrip(StateSnapshot.capture(source, 7));
+        CommandContext target = context(OrderBookLayout.TICK_LADDER);
+        snapshot.restoreInto(target);
+
+        assertEquals(4, snapshot.stopOrderCount());
+        StopOrderBook expected = source.orderBookRepository().get().stops();
+        StopOrderBook actual = target.orderBookRepository().get().stops();
+        assertEquals(expected.lastTradePrice(), actual.lastTradePrice());
+        for (Side side : Side.values()) {
+            List<StopOrder> e = new ArrayList<>();
+            List<StopOrder> a = new ArrayList<>();
+            expected.forEach(side, e::add);
+            actual.forEach(side, a::add);
+            assertEquals(e.size(), a.size());
+            for (int i = 0; i < e.size(); i++) {
+                assertEquals(e.get(i).id(), a.get(i).id());
+                assertEquals(e.get(i).userId(), a.get(i).userId());
+                assertEquals(e.get(i).stopPrice(), a.get(i).stopPrice());
+                assertEquals(e.get(i).limitPrice(), a.get(i).limitPrice());
+                assertEquals(e.get(i).timeInForce(), a.get(i).timeInForce());
+                assertEquals(e.get(i).quantity().value(), a.get(i).quantity().value());
+                assertEquals(e.get(i).createdAt(), a.get(i).createdAt());
+            }
+        }
+    }
+
+    private static StateSnapshot roundTrip(StateSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            snapshot.writeTo(out);
+        }
+        return StateSnapshot.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static OrderId place(CommandContext ctx, UserId user, Side side, String price, long qty) {
+        return OrderId.fromString(new PlaceOrderCommand(user, side, Price.of(price), Quantity.ofPositive(qty))
+                .execute(ctx).orderId());
+    }
+
+    private static void stop(CommandContext ctx, UserId user, Side side, String stopPrice, String limitPrice) {
+        new PlaceOrderCommand(user, side, limitPrice == null ? OrderType.STOP : OrderType.STOP_LIMIT,
+                limitPrice == null ? TimeInForce.IOC : TimeInForce.GTC,
+                limitPrice == null ? null : Price.of(limitPrice), Price.of(stopPrice), Quantity.ofPositive(1))
+                .execute(ctx);
+    }
+
+    private static List<OrderId> ids(OrderBookSide side) {
+        List<OrderId> out = new ArrayList<>();
+        side.forEachOrder(o -> out.add(o.id()));
+        return out;
+    }
+
+    private static CommandContext context(OrderBookLayout layout) {
+        InMemoryOrderBookRepository books = new InMemoryOrderBookRepository();
+        books.save(new OrderBook(layout));
+        return new CommandContext(books, new InMemoryWalletRepository(), new InMemoryTradeRepository(),
+                new InMemoryOrderRepository());
+    }
+}
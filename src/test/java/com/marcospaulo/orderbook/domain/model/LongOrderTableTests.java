@@ -0,0 +1,47 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class LongOrderTableTests {
+
+    private final UserId user = UserId.of(UUID.randomUUID());
+
+    @Test
+    void removalsKeepLookupsConsistent() {
+        LongOrderTable table = new LongOrderTable(8);
+        Map<Long, Order> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 50_000; i++) {
+            long key = 1 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertSame(expected.remove(key), table.remove(key));
+            } else {
+                Order o = order(OrderId.of(key));
+                expected.put(key, o);
+                table.put(key, o);
+            }
+        }
+        assertEquals(expected.size(), table.size());
+        for (long key = 1; key <= 2_000; key++) {
+            assertSame(expected.get(key), table.get(key));
+        }
+    }
+
+    private Order order(OrderId id) {
+        return Order.create(id, user, Side.BUY, Price.ofTicks(1_000), Quantity.ofPositive(1), Instant.EPOCH);
+    }
+}
@@ -1,12 +1,20 @@
 package com.marcospaulo.orderbook.domain.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
 import com.marcospaulo.orderbook.domain.model.vo.Price;
 import com.marcospaulo.orderbook.domain.model.vo.Quantity;
 import com.marcospaulo.orderbook.domain.model.vo.UserId;
@@ -65,4 +73,142 @@ public class OrderBookTests {
         assertEquals(o3.id(), book.bids().pollBestOrder().orElseThrow().id());
     }
 
+    @Test
+    void removeUnlinksOrderFromMiddleOfLevel() {
+        for (OrderBookLayout layout : OrderBookLayout.values()) {
+            OrderBook book = new OrderBook(layout);
+
+            UserId u = UserId.of(UUID.randomUUID());
+            Price p = Price.of(new BigDecimal("10.00"));
+
+            Order o1 = Order.create(u, Side.SELL, p, Quantity.ofPositive(1));
+            Order o2 = Order.create(u, Side.SELL, p, Quantity.ofPositive(1));
+            Order o3 = Order.create(u, Side.SELL, p, Quantity.ofPositive(1));
+
+            book.add(o1);
+            book.add(o2);
+            book.add(o3);
+
+            assertEquals(o2.id(), book.remove(o2).orElseThrow().id());
+            assertFalse(o2.isResting());
+            assertTrue(book.remove(o2).isEmpty());
+
+            assertEquals(o1.id(), book.asks().pollBestOrder().orElseThrow().id());
+            assertEquals(o3.id(), book.asks().pollBestOrder().orElseThrow().id());
+            assertTrue(book.asks().isEmpty());
+        }
+    }
+
+    @Test
+    void removingLastOrderOfBestLevelMovesBestPrice() {
+        for (OrderBookLayout layout : OrderBookLayout.values()) {
+            OrderBook book = new OrderBook(layout);
+
+            Order b1 = Order.create(UserId.of(UUID.randomUUID()), Side.BUY, Price.of(new BigDecimal("10.00")),
+                    Quantity.ofPositive(1));
+            Order b2 = Order.create(UserId.of(UUID.randomUUID()), Side.BUY, Price.of(new BigDecimal("9.00")),
+                    Quantity.ofPositive(1));
+
+            book.add(b1);
+            book.add(b2);
+            book.remove(b1);
+
+            assertEquals("9.00", book.bids().bestPrice().orElseThrow().toString());
+            assertEquals(b2.id(), book.bestBid().orElseThrow().id());
+        }
+    }
+
+    @Test
+    void reduceKeepsTimePriority() {
+        for (OrderBookLayout layout : OrderBookLayout.values()) {
+            OrderBook book = new OrderBook(layout);
+
+            UserId u = UserId.of(UUID.randomUUID());
+            Price p = Price.of(new BigDecimal("10.00"));
+
+            Order o1 = Order.create(u, Side.BUY, p, Quantity.ofPositive(10));
+            Order o2 = Order.create(u, Side.BUY, p, Quantity.ofPositive(10));
+            book.add(o1);
+            book.add(o2);
+
+            book.reduce(o1, Quantity.ofPositive(4));
+
+            assertEquals(6, o1.remainingQty().value());
+            assertEquals(o1.id(), book.bestBid().orElseThrow().id());
+            assertThrows(DomainException.class, () -> book.reduce(o1, Quantity.ofPositive(6)));
+        }
+    }
+
+    @Test
+    void levelQuantityFollowsAddFillReduceAndRemove() {
+        for (OrderBookLayout layout : OrderBookLayout.values()) {
+            OrderBook book = new OrderBook(layout);
+            List<String> events = new ArrayList<>();
+            book.setLevelListener((side, price, qty) -> events.add(side + " " + price + " " + qty));
+
+            UserId u = UserId.of(UUID.randomUUID());
+            Price p = Price.of(new BigDecimal("10.00"));
+            Order o1 = Order.create(u, Side.SELL, p, Quantity.ofPositive(5));
+            Order o2 = Order.create(u, Side.SELL, p, Quantity.ofPositive(7));
+
+            book.add(o1);
+            book.add(o2);
+            assertEquals(12, book.asks().levelQuantity(p));
+
+            o1.fill(Quantity.ofPositive(2));
+            book.reduce(o2, Quantity.ofPositive(3));
+            assertEquals(7, book.asks().levelQuantity(p));
+
+            book.remove(o2);
+            o1.fill(Quantity.ofPositive(3));
+            book.asks().pollBestOrder();
+            assertEquals(0, book.asks().levelQuantity(p));
+            assertEquals(0, book.bids().levelQuantity(p));
+
+            assertEquals(List.of("SELL 10.00 5", "SELL 10.00 12", "SELL 10.00 10", "SELL 10.00 7",
+                    "SELL 10.00 3", "SELL 10.00 0"), events);
+        }
+    }
+
+    @Test
+    void icebergShowsOnlyItsVisibleTrancheAndReplenishesAtTheBack() {
+        for (OrderBookLayout layout : OrderBookLayout.values()) {
+            OrderBook book = new OrderBook(layout);
+            List<String> events = new ArrayList<>();
+            book.setLevelListener((side, price, qty) -> events.add(price + " " + qty));
+
+            UserId u = UserId.of(UUID.randomUUID());
+            Price p = Price.of(new BigDecimal("10.00"));
+            Order iceberg = Order.createIceberg(OrderId.of(1), u, Side.SELL, p, Quantity.ofPositive(10),
+                    Quantity.ofPositive(4), Instant.EPOCH);
+            Order plain = Order.create(OrderId.of(2), u, Side.SELL, p, Quantity.ofPositive(2), Instant.EPOCH);
+            book.add(iceberg);
+            book.add(plain);
+
+            long[] ticks = new long[1];
+            long[] shown = new long[1];
+            book.asks().copyTopLevels(ticks, shown);
+            assertEquals(6, shown[0]);
+            assertEquals(12, book.asks().levelQuantity(p));
+
+            assertThrows(DomainException.class, () -> iceberg.fill(Quantity.ofPositive(5)));
+            iceberg.fill(Quantity.ofPositive(4));
+            assertEquals(0, iceberg.visibleQty().value());
+            book.asks().replenish(iceberg);
+
+            assertEquals(plain, book.bestAsk().orElseThrow());
+            assertEquals(4, iceberg.visibleQty().value());
+            assertEquals(6, iceberg.remainingQty().value());
+            book.asks().copyTopLevels(ticks, shown);
+            assertEquals(6, shown[0]);
+            assertEquals(8, book.asks().levelQuantity(p));
+
+            // amend-down só encolhe a parcela quando o restante fica abaixo dela
+            book.reduce(iceberg, Quantity.ofPositive(3));
+            assertEquals(3, iceberg.visibleQty().value());
+
+            assertEquals(List.of("10.00 4", "10.00 6", "10.00 2", "10.00 6", "10.00 5"), events);
+        }
+    }
+
 }
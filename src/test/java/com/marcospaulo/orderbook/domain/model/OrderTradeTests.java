@@ -2,15 +2,18 @@ package com.marcospaulo.orderbook.domain.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 
 import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
 import com.marcospaulo.orderbook.domain.model.vo.Price;
 import com.marcospaulo.orderbook.domain.model.vo.Quantity;
 import com.marcospaulo.orderbook.domain.model.vo.UserId;
@@ -48,6 +51,35 @@ public class OrderTradeTests {
         assertThrows(DomainException.class, () -> o.fill(Quantity.ofPositive(6)));
     }
 
+    @Test
+    void orderReduceKeepsAtLeastOneUnit() {
+        Order o = Order.create(
+                UserId.of(UUID.randomUUID()),
+                Side.BUY,
+                Price.of(new BigDecimal("10")),
+                Quantity.ofPositive(5));
+
+        o.reduce(Quantity.ofPositive(2));
+        assertEquals(3, o.remainingQty().value());
+        assertEquals(5, o.originalQty().value());
+
+        assertThrows(DomainException.class, () -> o.reduce(Quantity.ofPositive(3)));
+        assertThrows(DomainException.class, () -> o.reduce(Quantity.ofNonNegative(0)));
+    }
+
+    @Test
+    void orderCannotBeCancelledTwice() {
+        Order o = Order.create(
+                UserId.of(UUID.randomUUID()),
+                Side.SELL,
+                Price.of(new BigDecimal("10")),
+                Quantity.ofPositive(5));
+
+        o.cancel();
+        assertTrue(o.isCancelled());
+        assertThrows(DomainException.class, o::cancel);
+    }
+
     @Test
     void tradeRejectsZeroQuantity() {
         Order buy = Order.create(
@@ -62,7 +94,27 @@ public class OrderTradeTests {
                 Quantity.ofPositive(1));
 
         assertThrows(DomainException.class,
-                () -> Trade.create(buy.id(), sell.id(), buy.price(), Quantity.ofNonNegative(0)));
+                () -> Trade.create(buy.id(), sell.id(), buy.userId(), sell.userId(), buy.price(),
+                        Quantity.ofNonNegative(0)));
     }
 
+    @Test
+    void restingOrderRebuildsItsValueObjectsFromPrimitives() {
+        Instant createdAt = Instant.ofEpochSecond(1_700_000_000L, 123_456_789);
+        Order o = Order.create(OrderId.of(42), UserId.of(UUID.randomUUID()), Side.SELL, Price.of("10.25"),
+                Quantity.ofPositive(9), createdAt);
+        o.fill(Quantity.ofPositive(4));
+
+        OrderBook book = new OrderBook(OrderBookLayout.TICK_LADDER);
+        book.add(o);
+        Order found = book.asks().find(OrderId.of(42)).orElseThrow();
+
+        assertSame(o, found);
+        assertEquals(OrderId.of(42), found.id());
+        assertEquals(Price.of("10.25"), found.price());
+        assertEquals(createdAt, found.createdAt());
+        assertEquals(9, found.originalQty().value());
+        assertEquals(5, found.remainingQty().value());
+        assertEquals(5, book.asks().levelQuantity(Price.of("10.25")));
+    }
 }
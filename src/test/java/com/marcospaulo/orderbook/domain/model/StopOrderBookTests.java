@@ -0,0 +1,101 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class StopOrderBookTests {
+
+    private final UserId user = UserId.of(UUID.randomUUID());
+    private final StopOrderBook stops = new StopOrderBook();
+
+    @Test
+    void nothingTriggersBeforeTheFirstTrade() {
+        stops.add(stop(1, Side.SELL, "9.00"));
+        stops.add(stop(2, Side.BUY, "11.00"));
+
+        assertFalse(stops.hasTriggered());
+        assertNull(stops.pollTriggeredOrNull());
+        assertNull(stops.lastTradePrice());
+
+        stops.onTrade(Price.of("10.00"));
+        assertFalse(stops.hasTriggered());
+        assertEquals(2, stops.size());
+    }
+
+    @Test
+    void firesCrossedLevelsInTriggerOrderAndFifoWithinALevel() {
+        stops.add(stop(1, Side.BUY, "11.00"));
+        stops.add(stop(2, Side.BUY, "10.50"));
+        stops.add(stop(3, Side.BUY, "10.50"));
+        stops.add(stop(4, Side.BUY, "12.00"));
+        stops.add(stop(5, Side.SELL, "9.00"));
+        stops.add(stop(6, Side.SELL, "9.50"));
+
+        stops.onTrade(Price.of("11.00"));
+        assertEquals(List.of(2L, 3L, 1L), drain());
+
+        stops.onTrade(Price.of("9.00"));
+        assertEquals(List.of(6L, 5L), drain());
+
+        assertEquals(1, stops.size());
+        assertTrue(stops.contains(OrderId.of(4)));
+    }
+
+    @Test
+    void removeUnlinksFromTheMiddleOfALevelAndMovesTheThreshold() {
+        stops.add(stop(1, Side.SELL, "9.00"));
+        stops.add(stop(2, Side.SELL, "9.00"));
+        stops.add(stop(3, Side.SELL, "9.00"));
+        stops.add(stop(4, Side.SELL, "8.00"));
+
+        assertEquals(2, stops.remove(OrderId.of(2)).orElseThrow().id().value());
+        assertTrue(stops.remove(OrderId.of(2)).isEmpty());
+        stops.remove(OrderId.of(1));
+        stops.remove(OrderId.of(3));
+
+        stops.onTrade(Price.of("8.50"));
+        assertFalse(stops.hasTriggered());
+        stops.onTrade(Price.of("8.00"));
+        assertEquals(List.of(4L), drain());
+    }
+
+    @Test
+    void rejectsDuplicatesAndStopMarketGtc() {
+        stops.add(stop(1, Side.BUY, "11.00"));
+
+        assertThrows(DomainException.class, () -> stops.add(stop(1, Side.SELL, "9.00")));
+        assertThrows(DomainException.class, () -> StopOrder.create(OrderId.of(2), user, Side.BUY, Price.of("11.00"),
+                null, TimeInForce.GTC, Quantity.ofPositive(1), Instant.EPOCH));
+    }
+
+    private List<Long> drain() {
+        List<Long> fired = new ArrayList<>();
+        StopOrder s;
+        while ((s = stops.pollTriggeredOrNull()) != null) {
+            assertFalse(s.isPending());
+            fired.add(s.id().value());
+        }
+        return fired;
+    }
+
+    private StopOrder stop(long id, Side side, String stopPrice) {
+        return StopOrder.create(OrderId.of(id), user, side, Price.of(stopPrice), null, TimeInForce.IOC,
+                Quantity.ofPositive(1), Instant.EPOCH);
+    }
+}
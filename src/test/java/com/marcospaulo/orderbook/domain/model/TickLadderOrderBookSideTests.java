@@ -0,0 +1,199 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+public class TickLadderOrderBookSideTests {
+
+    @Test
+    void asksUseLowestPriceFirst() {
+        OrderBook book = new OrderBook(OrderBookLayout.TICK_LADDER);
+
+        Order a1 = order(Side.SELL, "11.00");
+        Order a2 = order(Side.SELL, "10.00");
+
+        book.add(a1);
+        book.add(a2);
+
+        assertEquals("10.00", book.asks().bestPrice().orElseThrow().toString());
+        assertEquals(a2.id(), book.bestAsk().orElseThrow().id());
+    }
+
+    @Test
+    void bidsUseHighestPriceFirst() {
+        OrderBook book = new OrderBook(OrderBookLayout.TICK_LADDER);
+
+        Order b1 = order(Side.BUY, "9.00");
+        Order b2 = order(Side.BUY, "10.00");
+
+        book.add(b1);
+        book.add(b2);
+
+        assertEquals("10.00", book.bids().bestPrice().orElseThrow().toString());
+        assertEquals(b2.id(), book.bestBid().orElseThrow().id());
+    }
+
+    @Test
+    void putBackAtFrontKeepsTimePriority() {
+        OrderBookSide asks = new TickLadderOrderBookSide(Side.SELL);
+
+        Order o1 = order(Side.SELL, "10.00");
+        Order o2 = order(Side.SELL, "10.00");
+        asks.add(o1);
+        asks.add(o2);
+
+        Order polled = asks.pollBestOrder().orElseThrow();
+        asks.putBackAtFront(polled);
+
+        assertEquals(o1.id(), asks.pollBestOrder().orElseThrow().id());
+        assertEquals(o2.id(), asks.pollBestOrder().orElseThrow().id());
+        assertTrue(asks.isEmpty());
+    }
+
+    @Test
+    void levelsFarFromTheWindowAreKeptInOrder() {
+        // janela de 64 ticks (0.64): força overflow e rebase nos dois sentidos
+        OrderBookSide asks = new TickLadderOrderBookSide(Side.SELL, 64);
+
+        asks.add(order(Side.SELL, "10.00"));
+        asks.add(order(Side.SELL, "50.00"));
+        asks.add(order(Side.SELL, "10.63"));
+        asks.add(order(Side.SELL, "1.00"));
+        asks.add(order(Side.SELL, "10.10"));
+
+        String[] expected = { "1.00", "10.00", "10.10", "10.63", "50.00" };
+        for (String p : expected) {
+            assertEquals(p, asks.bestPrice().orElseThrow().toString());
+            asks.pollBestOrder().orElseThrow();
+        }
+        assertTrue(asks.isEmpty());
+    }
+
+    @Test
+    void forEachOrderVisitsWindowThenOverflowInPriority() {
+        OrderBookSide bids = new TickLadderOrderBookSide(Side.BUY, 64);
+
+        Order far = order(Side.BUY, "1.00");
+        Order best1 = order(Side.BUY, "10.00");
+        Order mid = order(Side.BUY, "9.90");
+        Order best2 = order(Side.BUY, "10.00");
+        bids.add(far);
+        bids.add(best1);
+        bids.add(mid);
+        bids.add(best2);
+
+        List<Order> visited = new ArrayList<>();
+        bids.forEachOrder(visited::add);
+
+        assertEquals(List.of(best1, best2, mid, far), visited);
+    }
+
+    @Test
+    void depthQueriesWalkWindowThenOverflow() {
+        OrderBookSide asks = new TickLadderOrderBookSide(Side.SELL, 64);
+        asks.add(order(Side.SELL, "10.00", 2));
+        asks.add(order(Side.SELL, "10.10", 3));
+        asks.add(order(Side.SELL, "50.00", 4));
+
+        assertEquals(5, asks.availableQuantity(Price.of("10.10"), 100));
+        assertEquals(9, asks.availableQuantity(Price.of("50.00"), 100));
+        assertEquals(5, asks.availableQuantity(Price.of("50.00"), 4));
+        assertEquals(0, asks.availableQuantity(Price.of("9.99"), 1));
+
+        assertEquals(Price.of("10.00"), asks.sweepPriceOrNull(2));
+        assertEquals(Price.of("10.10"), asks.sweepPriceOrNull(5));
+        assertEquals(Price.of("50.00"), asks.sweepPriceOrNull(6));
+        assertEquals(Price.of("50.00"), asks.sweepPriceOrNull(100));
+        assertNull(new TickLadderOrderBookSide(Side.BUY).sweepPriceOrNull(1));
+    }
+
+    @Test
+    void behavesLikeTreeSideUnderRandomOperations() {
+        Random rnd = new Random(42);
+
+        for (Side side : Side.values()) {
+            OrderBookSide tree = new TreeOrderBookSide(side);
+            OrderBookSide ladder = new TickLadderOrderBookSide(side, 128);
+
+            // a mesma Order não pode estar em dois livros (encadeamento intrusivo):
+            // cada ordem da árvore tem uma gêmea no ladder
+            Map<Order, Order> twins = new HashMap<>();
+            List<Order> resting = new ArrayList<>();
+
+            for (int i = 0; i < 20_000; i++) {
+                int op = rnd.nextInt(12);
+                if (op < 5) {
+                    long ticks = 1_000 + rnd.nextInt(600) + (rnd.nextInt(50) == 0 ? rnd.nextInt(100_000) : 0);
+                    Order o = Order.create(uid(), side, Price.ofTicks(ticks), Quantity.ofPositive(1));
+                    Order twin = Order.create(uid(), side, Price.ofTicks(ticks), Quantity.ofPositive(1));
+                    twins.put(o, twin);
+                    tree.add(o);
+                    ladder.add(twin);
+                    resting.add(o);
+                } else if (op < 8) {
+                    Order o = tree.pollBestOrder().orElse(null);
+                    assertEquals(twins.get(o), ladder.pollBestOrder().orElse(null));
+                } else if (op < 10) {
+                    Order o = tree.pollBestOrder().orElse(null);
+                    assertEquals(twins.get(o), ladder.pollBestOrder().orElse(null));
+                    if (o != null) {
+                        tree.putBackAtFront(o);
+                        ladder.putBackAtFront(twins.get(o));
+                    }
+                } else if (!resting.isEmpty()) {
+                    Order o = resting.remove(rnd.nextInt(resting.size()));
+                    Order removed = tree.remove(o.id()).orElse(null);
+                    assertEquals(twins.get(removed), ladder.remove(twins.get(o).id()).orElse(null));
+                }
+                assertEquals(tree.bestPrice(), ladder.bestPrice());
+                assertEquals(twins.get(tree.peekBestOrder().orElse(null)), ladder.peekBestOrder().orElse(null));
+                assertEquals(tree.isEmpty(), ladder.isEmpty());
+                assertSameTopLevels(tree, ladder);
+
+                Price limit = Price.ofTicks(1_000 + rnd.nextInt(700));
+                long wanted = 1 + rnd.nextInt(40);
+                assertEquals(tree.availableQuantity(limit, wanted), ladder.availableQuantity(limit, wanted));
+                assertEquals(tree.sweepPriceOrNull(wanted), ladder.sweepPriceOrNull(wanted));
+            }
+        }
+    }
+
+    private static void assertSameTopLevels(OrderBookSide expected, OrderBookSide actual) {
+        long[] expectedTicks = new long[8];
+        long[] expectedQty = new long[8];
+        long[] actualTicks = new long[8];
+        long[] actualQty = new long[8];
+        int n = expected.copyTopLevels(expectedTicks, expectedQty);
+        assertEquals(n, actual.copyTopLevels(actualTicks, actualQty));
+        assertArrayEquals(expectedTicks, actualTicks);
+        assertArrayEquals(expectedQty, actualQty);
+    }
+
+    private static Order order(Side side, String price) {
+        return order(side, price, 1);
+    }
+
+    private static Order order(Side side, String price, long qty) {
+        return Order.create(uid(), side, Price.of(new BigDecimal(price)), Quantity.ofPositive(qty));
+    }
+
+    private static UserId uid() {
+        return UserId.of(UUID.randomUUID());
+    }
+}
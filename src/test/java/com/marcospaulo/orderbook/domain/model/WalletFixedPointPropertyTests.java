@@ -0,0 +1,213 @@
+package com.marcospaulo.orderbook.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+import com.marcospaulo.orderbook.domain.model.vo.Price;
+import com.marcospaulo.orderbook.domain.model.vo.Quantity;
+import com.marcospaulo.orderbook.domain.model.vo.UserId;
+
+/**
+ * O settlement em ponto fixo tem que produzir exatamente os mesmos
+ * BigDecimal (valor e escala) que a implementação anterior, reproduzida aqui
+ * como referência.
+ */
+public class WalletFixedPointPropertyTests {
+
+    @Test
+    void settlementMatchesBigDecimalReferenceBitForBit() {
+        Random rnd = new Random(20261018L);
+
+        for (int run = 0; run < 200; run++) {
+            BigDecimal cash = randomAmount(rnd);
+            BigDecimal vib = BigDecimal.valueOf(rnd.nextInt(10_000));
+
+            Wallet wallet = Wallet.create(UserId.of(UUID.randomUUID()), cash, vib);
+            ReferenceWallet ref = new ReferenceWallet(cash, vib);
+
+            for (int step = 0; step < 500; step++) {
+                Price limit = Price.ofTicks(1 + rnd.nextInt(100_000));
+                Price trade = Price.ofTicks(1 + rnd.nextInt((int) limit.ticks()));
+                Quantity qty = Quantity.ofPositive(1 + rnd.nextInt(1_000));
+                BigDecimal deposit = randomAmount(rnd);
+
+                int op = rnd.nextInt(8);
+                boolean refFailed = false;
+                boolean failed = false;
+                try {
+                    switch (op) {
+                        case 0 -> ref.reserveForBuy(limit, qty);
+                        case 1 -> ref.reserveForSell(qty);
+                        case 2 -> ref.applyTradeAsBuyer(limit, trade, qty);
+                        case 3 -> ref.applyTradeAsSeller(trade, qty);
+                        case 4 -> ref.releaseForBuy(limit, qty);
+                        case 5 -> ref.releaseForSell(qty);
+                        case 6 -> ref.cash.creditAvailable(deposit);
+                        default -> ref.vib.creditAvailable(deposit);
+                    }
+                } catch (DomainException ex) {
+                    refFailed = true;
+                }
+                try {
+                    switch (op) {
+                        case 0 -> wallet.reserveForBuy(limit, qty);
+                        case 1 -> wallet.reserveForSell(qty);
+                        case 2 -> wallet.applyTradeAsBuyer(limit, trade, qty);
+                        case 3 -> wallet.applyTradeAsSeller(trade, qty);
+                        case 4 -> wallet.releaseForBuy(limit, qty);
+                        case 5 -> wallet.releaseForSell(qty);
+                        case 6 -> wallet.depositCash(deposit);
+                        default -> wallet.depositVibranium(deposit);
+                    }
+                } catch (DomainException ex) {
+                    failed = true;
+                }
+
+                assertEquals(refFailed, failed, "op " + op + " outcome");
+                assertEquals(ref.cash.available, wallet.cash().available());
+                assertEquals(ref.cash.reserved, wallet.cash().reserved());
+                assertEquals(ref.vib.available, wallet.vibranium().available());
+                assertEquals(ref.vib.reserved, wallet.vibranium().reserved());
+            }
+        }
+    }
+
+    @Test
+    void buyerAboveLimitLeavesWalletUntouched() {
+        Wallet w = Wallet.create(UserId.of(UUID.randomUUID()), new BigDecimal("100.00"), BigDecimal.ZERO);
+        Price limit = Price.of(new BigDecimal("10.00"));
+        w.reserveForBuy(limit, Quantity.ofPositive(5));
+
+        assertThrows(DomainException.class,
+                () -> w.applyTradeAsBuyer(limit, Price.of(new BigDecimal("10.01")), Quantity.ofPositive(5)));
+
+        assertEquals(new BigDecimal("50.00"), w.cash().available());
+        assertEquals(new BigDecimal("50.00"), w.cash().reserved());
+    }
+
+    @Test
+    void overflowIsReportedInsteadOfWrappingAround() {
+        Wallet w = Wallet.create(UserId.of(UUID.randomUUID()), new BigDecimal("1000.00"), BigDecimal.ZERO);
+
+        assertThrows(DomainException.class,
+                () -> w.reserveForBuy(Price.ofTicks(Long.MAX_VALUE / 2), Quantity.ofPositive(3)));
+        assertThrows(DomainException.class,
+                () -> w.depositCash(new BigDecimal("1e30")));
+
+        assertEquals(new BigDecimal("1000.00"), w.cash().available());
+    }
+
+    @Test
+    void rescaleRoundsHalfUpLikeSetScale() {
+        long[] samples = { 0, 1, 4, 5, 6, 14, 15, 16, 99, 12345, -1, -5, -15, -16, -12345 };
+        for (long units : samples) {
+            BigDecimal expected = BigDecimal.valueOf(units, 3).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expected.unscaledValue().longValueExact(), FixedPoint.rescale(units, 3, 2));
+        }
+        assertEquals(12_300, FixedPoint.rescale(123, 2, 4));
+    }
+
+    /**
+     * Valores com até 4 casas, para exercitar o arredondamento na entrada.
+     */
+    private static BigDecimal randomAmount(Random rnd) {
+        return BigDecimal.valueOf(rnd.nextInt(100_000_000), rnd.nextInt(5));
+    }
+
+    /**
+     * Implementação anterior em BigDecimal (escala 2, HALF_UP em cada operação).
+     */
+    private static final class ReferenceBalance {
+        BigDecimal available;
+        BigDecimal reserved;
+
+        ReferenceBalance(BigDecimal available) {
+            this.available = normalize(available);
+            this.reserved = normalize(BigDecimal.ZERO);
+        }
+
+        void reserve(BigDecimal amount) {
+            BigDecimal a = normalize(amount);
+            if (a.signum() <= 0 || available.compareTo(a) < 0)
+                throw new DomainException("reserve");
+            available = available.subtract(a);
+            reserved = reserved.add(a);
+        }
+
+        void release(BigDecimal amount) {
+            BigDecimal a = normalize(amount);
+            if (a.signum() <= 0 || reserved.compareTo(a) < 0)
+                throw new DomainException("release");
+            reserved = reserved.subtract(a);
+            available = available.add(a);
+        }
+
+        void debitReserved(BigDecimal amount) {
+            BigDecimal a = normalize(amount);
+            if (a.signum() <= 0 || reserved.compareTo(a) < 0)
+                throw new DomainException("debit");
+            reserved = reserved.subtract(a);
+        }
+
+        void creditAvailable(BigDecimal amount) {
+            BigDecimal a = normalize(amount);
+            if (a.signum() <= 0)
+                throw new DomainException("credit");
+            available = available.add(a);
+        }
+
+        private static BigDecimal normalize(BigDecimal v) {
+            return v.setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+
+    private static final class ReferenceWallet {
+        final ReferenceBalance cash;
+        final ReferenceBalance vib;
+
+        ReferenceWallet(BigDecimal cash, BigDecimal vib) {
+            this.cash = new ReferenceBalance(cash);
+            this.vib = new ReferenceBalance(vib);
+        }
+
+        void reserveForBuy(Price limit, Quantity qty) {
+            cash.reserve(limit.value().multiply(BigDecimal.valueOf(qty.value())));
+        }
+
+        void reserveForSell(Quantity qty) {
+            vib.reserve(BigDecimal.valueOf(qty.value()));
+        }
+
+        void releaseForBuy(Price limit, Quantity qty) {
+            cash.release(limit.value().multiply(BigDecimal.valueOf(qty.value())));
+        }
+
+        void releaseForSell(Quantity qty) {
+            vib.release(BigDecimal.valueOf(qty.value()));
+        }
+
+        void applyTradeAsBuyer(Price limit, Price trade, Quantity qty) {
+            BigDecimal q = BigDecimal.valueOf(qty.value());
+            BigDecimal spent = trade.value().multiply(q);
+            BigDecimal change = limit.value().multiply(q).subtract(spent);
+            cash.debitReserved(spent);
+            if (change.signum() > 0)
+                cash.release(change);
+            vib.creditAvailable(q);
+        }
+
+        void applyTradeAsSeller(Price trade, Quantity qty) {
+            BigDecimal q = BigDecimal.valueOf(qty.value());
+            vib.debitReserved(q);
+            cash.creditAvailable(trade.value().multiply(q));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.marcospaulo.orderbook.domain.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.math.BigDecimal;
@@ -85,4 +86,45 @@ public class WalletTests {
         assertThrows(DomainException.class, () -> w.applyTradeAsBuyer(limit, Price.of(new BigDecimal("11.00")), qty));
     }
 
+    @Test
+    void releaseForBuyAndSellReturnReservedToAvailable() {
+        Wallet w = Wallet.create(UserId.of(UUID.randomUUID()), new BigDecimal("1000.00"), new BigDecimal("50"));
+
+        w.reserveForBuy(Price.of(new BigDecimal("10.00")), Quantity.ofPositive(10));
+        w.reserveForSell(Quantity.ofPositive(10));
+
+        w.releaseForBuy(Price.of(new BigDecimal("10.00")), Quantity.ofPositive(4));
+        w.releaseForSell(Quantity.ofPositive(10));
+
+        assertEquals(new BigDecimal("940.00"), w.cash().available());
+        assertEquals(new BigDecimal("60.00"), w.cash().reserved());
+        assertEquals(new BigDecimal("50.00"), w.vibranium().available());
+        assertEquals(new BigDecimal("0.00"), w.vibranium().reserved());
+    }
+
+    @Test
+    void balancesAreEqualByScaleAndUnits() {
+        Balance a = Balance.of(new BigDecimal("10.5"), BigDecimal.ZERO);
+        Balance b = Balance.ofUnits(2, 1_050, 0);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, Balance.ofUnits(8, 1_050_000_000, 0));
+    }
+
+    @Test
+    void assetsAreEqualByCodeAndScale() {
+        assertEquals(Asset.of("GOLD", 3), Asset.of("GOLD", 3));
+        assertEquals(Asset.of("GOLD", 3).hashCode(), Asset.of("GOLD", 3).hashCode());
+        assertNotEquals(Asset.of("GOLD", 3), Asset.of("GOLD", 2));
+    }
+
+    @Test
+    void instrumentQuoteCannotHaveFewerDecimalsThanThePrice() {
+        Asset coarse = Asset.of("COARSE", Price.SCALE - 1);
+
+        assertThrows(DomainException.class, () -> new Instrument("GOLD-COARSE", Asset.of("GOLD", 3), coarse));
+        assertThrows(DomainException.class, () -> new Instrument("GOLD-GOLD", Asset.of("GOLD", 3), Asset.of("GOLD", 4)));
+    }
+
 }
@@ -32,6 +32,16 @@ public class ValueObjectsTests {
         assertNotNull(id.value());
     }
 
+    @Test
+    void orderIdRoundTripsThroughItsUuidForm() {
+        OrderId id = OrderId.of(42);
+        assertEquals(new UUID(0, 42), id.toUuid());
+        assertEquals(id, OrderId.fromString(id.toString()));
+
+        assertThrows(DomainException.class, () -> OrderId.fromUuid(UUID.randomUUID()));
+        assertThrows(DomainException.class, () -> OrderId.of(0));
+    }
+
     @Test
     void priceNormalizesScaleAndMustBePositive() {
         Price p = Price.of(new BigDecimal("10"));
@@ -41,6 +51,14 @@ public class ValueObjectsTests {
         assertThrows(DomainException.class, () -> Price.of(new BigDecimal("-1")));
     }
 
+    @Test
+    void priceTicksFollowScale() {
+        Price p = Price.of(new BigDecimal("10.5"));
+        assertEquals(1050, p.ticks());
+        assertEquals(p, Price.ofTicks(1050));
+        assertTrue(Price.ofTicks(999).compareTo(p) < 0);
+    }
+
     @Test
     void quantityFactoriesWork() {
         assertThrows(DomainException.class, () -> Quantity.ofPositive(0));
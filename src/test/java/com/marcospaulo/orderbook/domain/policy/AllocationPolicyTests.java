@@ -0,0 +1,91 @@
+package com.marcospaulo.orderbook.domain.policy;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.marcospaulo.orderbook.domain.model.exception.DomainException;
+
+class AllocationPolicyTests {
+
+    @Test
+    void fifoFillsInQueueOrder() {
+        long[] fills = new long[3];
+        new FifoAllocationPolicy().allocate(7, new long[] { 3, 5, 4 }, 3, 12, fills);
+        assertArrayEquals(new long[] { 3, 4, 0 }, fills);
+    }
+
+    @Test
+    void proRataGivesTheRoundingLotsToTheOldestOrders() {
+        long[] fills = new long[3];
+        new ProRataAllocationPolicy().allocate(10, new long[] { 1, 1, 1 }, 3, 3, fills);
+        assertArrayEquals(new long[] { 4, 3, 3 }, fills);
+
+        new ProRataAllocationPolicy().allocate(2, new long[] { 1, 1, 1 }, 3, 3, fills);
+        assertArrayEquals(new long[] { 1, 1, 0 }, fills);
+
+        // pisos 1 e 4; o lote que sobra vai para a mais antiga
+        new ProRataAllocationPolicy().allocate(6, new long[] { 2, 5 }, 2, 7, fills);
+        assertArrayEquals(new long[] { 2, 4, 0 }, fills);
+    }
+
+    @Test
+    void topOrderTakesItsShareFirst() {
+        long[] fills = new long[3];
+        new TopOrderProRataAllocationPolicy().allocate(12, new long[] { 4, 10, 30 }, 3, 44, fills);
+        assertArrayEquals(new long[] { 4, 2, 6 }, fills);
+    }
+
+    @Test
+    void everyPolicyAllocatesExactlyTheQuantityWithinEachOrder() {
+        Random random = new Random(42);
+        AllocationPolicy[] policies = { new FifoAllocationPolicy(), new ProRataAllocationPolicy(),
+                new TopOrderProRataAllocationPolicy() };
+        for (int round = 0; round < 1_000; round++) {
+            int count = 1 + random.nextInt(50);
+            long[] visible = new long[count];
+            long total = 0;
+            for (int i = 0; i < count; i++) {
+                // inclui parcelas que fariam o produto q * total estourar
+                visible[i] = round % 10 == 0 ? 1L + random.nextLong(1L << 56) : 1 + random.nextInt(1_000);
+                total += visible[i];
+            }
+            long quantity = 1 + Math.floorMod(random.nextLong(), total);
+            for (AllocationPolicy policy : policies) {
+                long[] fills = new long[count];
+                policy.allocate(quantity, visible, count, total, fills);
+                long sum = 0;
+                for (int i = 0; i < count; i++) {
+                    assertTrue(fills[i] >= 0 && fills[i] <= visible[i], policy.getClass().getSimpleName());
+                    sum += fills[i];
+                }
+                assertEquals(quantity, sum, policy.getClass().getSimpleName());
+            }
+        }
+    }
+
+    @Test
+    void mulDivMatchesBigIntegerPastSixtyFourBits() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            long c = 1 + Math.floorMod(random.nextLong(), Long.MAX_VALUE >>> random.nextInt(40));
+            long a = Math.floorMod(random.nextLong(), c) + (i % 3 == 0 ? 1 : 0);
+            long b = i % 2 == 0 ? c : Math.floorMod(random.nextLong(), c);
+            long expected = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+                    .divide(BigInteger.valueOf(c)).longValueExact();
+            assertEquals(expected, ProRataAllocationPolicy.mulDiv(a, b, c), a + "*" + b + "/" + c);
+        }
+    }
+
+    @Test
+    void namedRejectsUnknownPolicies() {
+        assertTrue(AllocationPolicy.named("PRO_RATA") instanceof ProRataAllocationPolicy);
+        assertThrows(DomainException.class, () -> AllocationPolicy.named("LMM"));
+    }
+}
@@ -1,20 +1,30 @@
 package com.marcospaulo.orderbook.domain.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 
 import com.marcospaulo.orderbook.domain.model.Order;
 import com.marcospaulo.orderbook.domain.model.OrderBook;
+import com.marcospaulo.orderbook.domain.model.OrderBookLayout;
 import com.marcospaulo.orderbook.domain.model.Side;
+import com.marcospaulo.orderbook.domain.model.vo.OrderId;
 import com.marcospaulo.orderbook.domain.model.vo.Price;
 import com.marcospaulo.orderbook.domain.model.vo.Quantity;
 import com.marcospaulo.orderbook.domain.model.vo.UserId;
+import com.marcospaulo.orderbook.domain.policy.ProRataAllocationPolicy;
 import com.marcospaulo.orderbook.domain.policy.RestingOrderPricingPolicy;
+import com.marcospaulo.orderbook.domain.policy.SelfTradePrevention;
+import com.marcospaulo.orderbook.domain.policy.TopOrderProRataAllocationPolicy;
 
 public class OrderMatchingEngineTests {
 
@@ -54,6 +64,234 @@ public class OrderMatchingEngineTests {
         assertTrue(incoming.isFilled());
     }
 
+    @Test
+    void buyIncomingWalksSeveralLevelsOnTickLadderBook() {
+        OrderBook book = new OrderBook(OrderBookLayout.TICK_LADDER);
+        book.add(Order.create(uid(), Side.SELL, Price.of(new BigDecimal("9.50")), Quantity.ofPositive(2)));
+        book.add(Order.create(uid(), Side.SELL, Price.of(new BigDecimal("9.00")), Quantity.ofPositive(3)));
+        book.add(Order.create(uid(), Side.SELL, Price.of(new BigDecimal("10.50")), Quantity.ofPositive(5)));
+
+        Order incoming = Order.create(uid(), Side.BUY, Price.of(new BigDecimal("10.00")), Quantity.ofPositive(4));
+
+        var engine = new OrderMatchingEngine(new RestingOrderPricingPolicy());
+        var trades = engine.matchIncoming(incoming, book);
+
+        assertEquals(2, trades.size());
+        assertEquals("9.00", trades.get(0).price().toString());
+        assertEquals(3, trades.get(0).quantity().value());
+        assertEquals("9.50", trades.get(1).price().toString());
+        assertEquals(1, trades.get(1).quantity().value());
+
+        assertTrue(incoming.isFilled());
+        assertEquals("9.50", book.asks().bestPrice().orElseThrow().toString());
+        assertEquals(1, book.bestAsk().orElseThrow().remainingQty().value());
+    }
+
+    @Test
+    void matchLeavesPartiallyFilledRestingOrderInPlaceAndReportsEachFill() {
+        OrderBook book = new OrderBook();
+        Order resting = Order.create(uid(), Side.SELL, Price.of(new BigDecimal("9.00")), Quantity.ofPositive(5));
+        book.add(resting);
+
+        Order incoming = Order.create(uid(), Side.BUY, Price.of(new BigDecimal("10.00")), Quantity.ofPositive(3));
+
+        var engine = new OrderMatchingEngine(new RestingOrderPricingPolicy());
+        List<Long> fills = new ArrayList<>();
+        int count = engine.match(incoming, book, (in, maker, price, qty) -> {
+            assertSame(incoming, in);
+            assertSame(resting, maker);
+            assertEquals("9.00", price.toString());
+            fills.add(qty.value());
+        });
+
+        assertEquals(1, count);
+        assertEquals(List.of(3L), fills);
+        assertTrue(incoming.isFilled());
+        assertSame(resting, book.bestAsk().orElseThrow());
+        assertEquals(2, resting.remainingQty().value());
+    }
+
+    @Test
+    void icebergTrancheGoesToTheBackOfTheLevelWhenExhausted() {
+        for (OrderBookLayout layout : OrderBookLayout.values()) {
+            OrderBook book = new OrderBook(layout);
+            Price p = Price.of(new BigDecimal("9.00"));
+            Order iceberg = Order.createIceberg(OrderId.of(1), uid(), Side.SELL, p, Quantity.ofPositive(10),
+                    Quantity.ofPositive(3), Instant.EPOCH);
+            Order behind = Order.create(OrderId.of(2), uid(), Side.SELL, p, Quantity.ofPositive(2), Instant.EPOCH);
+            book.add(iceberg);
+            book.add(behind);
+
+            Order incoming = Order.create(OrderId.of(3), uid(), Side.BUY, p, Quantity.ofPositive(7), Instant.EPOCH);
+            List<String> fills = new ArrayList<>();
+            new OrderMatchingEngine(new RestingOrderPricingPolicy())
+                    .match(incoming, book, (in, maker, price, qty) -> fills.add(maker.id().value() + ":" + qty));
+
+            // parcela de 3, a ordem de trás, e a parcela reposta no fim da fila
+            assertEquals(List.of("1:3", "2:2", "1:2"), fills);
+            assertTrue(incoming.isFilled());
+            assertSame(iceberg, book.bestAsk().orElseThrow());
+            assertEquals(5, iceberg.remainingQty().value());
+            assertEquals(1, iceberg.visibleQty().value());
+            assertEquals(5, book.asks().levelQuantity(p));
+        }
+    }
+
+    @Test
+    void cancelNewestStopsAtTheOwnOrder() {
+        SelfTrade r = selfTrade(SelfTradePrevention.CANCEL_NEWEST);
+
+        assertEquals(0, r.fills);
+        assertTrue(r.incoming.isCancelled());
+        assertTrue(r.own.isResting());
+        assertEquals(List.of(4L), r.prevented);
+        assertEquals(8, r.book.asks().levelQuantity(Price.of("9.00")));
+    }
+
+    @Test
+    void cancelOldestRemovesTheOwnOrderAndKeepsMatching() {
+        SelfTrade r = selfTrade(SelfTradePrevention.CANCEL_OLDEST);
+
+        assertEquals(1, r.fills);
+        assertTrue(r.incoming.isFilled());
+        assertTrue(r.own.isCancelled());
+        assertFalse(r.own.isResting());
+        assertEquals(1, r.other.remainingQty().value());
+        assertEquals(List.of(3L), r.prevented);
+    }
+
+    @Test
+    void cancelBothCancelsTheOwnOrderAndTheIncoming() {
+        SelfTrade r = selfTrade(SelfTradePrevention.CANCEL_BOTH);
+
+        assertEquals(0, r.fills);
+        assertTrue(r.incoming.isCancelled());
+        assertTrue(r.own.isCancelled());
+        assertEquals(List.of(3L, 4L), r.prevented);
+        assertEquals(5, r.book.asks().levelQuantity(Price.of("9.00")));
+    }
+
+    @Test
+    void decrementTakesTheOverlapFromBoth() {
+        SelfTrade r = selfTrade(SelfTradePrevention.DECREMENT);
+
+        // 3 descontados das duas; a própria zera e é cancelada, o 1 que sobra negocia
+        assertEquals(1, r.fills);
+        assertTrue(r.own.isCancelled());
+        assertTrue(r.incoming.isFilled());
+        assertEquals(4, r.other.remainingQty().value());
+        assertEquals(List.of(3L, 3L), r.prevented);
+    }
+
+    @Test
+    void proRataSplitsTheLevelByVisibleQuantity() {
+        for (OrderBookLayout layout : OrderBookLayout.values()) {
+            OrderBook book = new OrderBook(layout);
+            Price p = Price.of("9.00");
+            book.add(Order.create(OrderId.of(1), uid(), Side.SELL, p, Quantity.ofPositive(10), Instant.EPOCH));
+            book.add(Order.create(OrderId.of(2), uid(), Side.SELL, p, Quantity.ofPositive(30), Instant.EPOCH));
+            book.add(Order.create(OrderId.of(3), uid(), Side.SELL, p, Quantity.ofPositive(60), Instant.EPOCH));
+            book.add(Order.create(OrderId.of(4), uid(), Side.SELL, Price.of("9.50"), Quantity.ofPositive(5),
+                    Instant.EPOCH));
+
+            Order incoming = Order.create(OrderId.of(5), uid(), Side.BUY, p, Quantity.ofPositive(50), Instant.EPOCH);
+            List<String> fills = new ArrayList<>();
+            int count = new OrderMatchingEngine(new RestingOrderPricingPolicy(), SelfTradePrevention.NONE,
+                    new ProRataAllocationPolicy())
+                    .match(incoming, book, (in, maker, price, qty) -> fills.add(maker.id().value() + ":" + qty));
+
+            assertEquals(3, count);
+            assertEquals(List.of("1:5", "2:15", "3:30"), fills);
+            assertTrue(incoming.isFilled());
+            assertEquals(50, book.asks().levelQuantity(p));
+        }
+    }
+
+    @Test
+    void proRataTakesWholeLevelsAndMovesOn() {
+        OrderBook book = new OrderBook(OrderBookLayout.TICK_LADDER);
+        book.add(Order.create(OrderId.of(1), uid(), Side.SELL, Price.of("9.00"), Quantity.ofPositive(4),
+                Instant.EPOCH));
+        book.add(Order.create(OrderId.of(2), uid(), Side.SELL, Price.of("9.00"), Quantity.ofPositive(6),
+                Instant.EPOCH));
+        book.add(Order.create(OrderId.of(3), uid(), Side.SELL, Price.of("9.50"), Quantity.ofPositive(10),
+                Instant.EPOCH));
+        book.add(Order.create(OrderId.of(4), uid(), Side.SELL, Price.of("9.50"), Quantity.ofPositive(30),
+                Instant.EPOCH));
+
+        Order incoming = Order.create(OrderId.of(5), uid(), Side.BUY, Price.of("10.00"), Quantity.ofPositive(14),
+                Instant.EPOCH);
+        List<String> fills = new ArrayList<>();
+        new OrderMatchingEngine(new RestingOrderPricingPolicy(), SelfTradePrevention.NONE,
+                new TopOrderProRataAllocationPolicy())
+                .match(incoming, book, (in, maker, price, qty) -> fills.add(maker.id().value() + ":" + qty + "@" + price));
+
+        // 9.00 inteiro; em 9.50 a primeira ordem leva 4 e não sobra nada para a segunda
+        assertEquals(List.of("1:4@9.00", "2:6@9.00", "3:4@9.50"), fills);
+        assertEquals(Price.of("9.50"), book.bestAsk().orElseThrow().price());
+        assertEquals(36, book.asks().levelQuantity(Price.of("9.50")));
+    }
+
+    @Test
+    void proRataPreventsSelfTradeBeforeAllocating() {
+        UserId me = uid();
+        OrderBook book = new OrderBook(OrderBookLayout.TREE);
+        Order other = Order.create(OrderId.of(1), uid(), Side.SELL, Price.of("9.00"), Quantity.ofPositive(5),
+                Instant.EPOCH);
+        Order own = Order.create(OrderId.of(2), me, Side.SELL, Price.of("9.00"), Quantity.ofPositive(5),
+                Instant.EPOCH);
+        book.add(other);
+        book.add(own);
+
+        Order incoming = Order.create(OrderId.of(3), me, Side.BUY, Price.of("9.00"), Quantity.ofPositive(4),
+                Instant.EPOCH);
+        List<Long> filled = new ArrayList<>();
+        new OrderMatchingEngine(new RestingOrderPricingPolicy(), SelfTradePrevention.CANCEL_OLDEST,
+                new ProRataAllocationPolicy())
+                .match(incoming, book, (in, maker, price, qty) -> {
+                    assertSame(other, maker);
+                    filled.add(qty.value());
+                });
+
+        // sem a prevenção a venda própria levaria metade
+        assertTrue(own.isCancelled());
+        assertEquals(List.of(4L), filled);
+        assertEquals(1, other.remainingQty().value());
+    }
+
+    private record SelfTrade(OrderBook book, Order own, Order other, Order incoming, int fills,
+            List<Long> prevented) {
+    }
+
+    /**
+     * Venda do próprio usuário (3 @ 9.00) na frente de outra (5 @ 9.00); o
+     * usuário compra 4 @ 10.00.
+     */
+    private static SelfTrade selfTrade(SelfTradePrevention mode) {
+        UserId me = uid();
+        OrderBook book = new OrderBook(OrderBookLayout.TICK_LADDER);
+        Order own = Order.create(me, Side.SELL, Price.of("9.00"), Quantity.ofPositive(3));
+        Order other = Order.create(uid(), Side.SELL, Price.of("9.00"), Quantity.ofPositive(5));
+        book.add(own);
+        book.add(other);
+        Order incoming = Order.create(me, Side.BUY, Price.of("10.00"), Quantity.ofPositive(4));
+
+        List<Long> prevented = new ArrayList<>();
+        int fills = new OrderMatchingEngine(new RestingOrderPricingPolicy(), mode).match(incoming, book,
+                new FillSink() {
+                    @Override
+                    public void onFill(Order in, Order maker, Price price, Quantity qty) {
+                        assertSame(other, maker);
+                    }
+
+                    @Override
+                    public void onSelfTradePrevented(Order order, Quantity qty) {
+                        prevented.add(qty.value());
+                    }
+                });
+        return new SelfTrade(book, own, other, incoming, fills, prevented);
+    }
+
     private static UserId uid() {
         return UserId.of(UUID.randomUUID());
     }